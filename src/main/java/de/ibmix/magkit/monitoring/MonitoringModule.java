@@ -21,14 +21,23 @@ package de.ibmix.magkit.monitoring;
  */
 
 import javax.inject.Inject;
+import javax.inject.Provider;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import de.ibmix.magkit.monitoring.collector.BackgroundGaugeCollector;
 import de.ibmix.magkit.monitoring.config.prometheus.PrometheusConfig;
+import de.ibmix.magkit.monitoring.config.prometheus.PrometheusConfigSnapshot;
+import de.ibmix.magkit.monitoring.endpoint.prometheus.ScrapeCache;
+import de.ibmix.magkit.monitoring.endpoint.slowrequests.SlowRequestSampler;
+import de.ibmix.magkit.monitoring.export.LineProtocolExporter;
+import de.ibmix.magkit.monitoring.export.OtlpExporter;
+import de.ibmix.magkit.monitoring.export.PushgatewayExporter;
 
 import info.magnolia.module.ModuleLifecycle;
 import info.magnolia.module.ModuleLifecycleContext;
+import io.micrometer.prometheusmetrics.PrometheusMeterRegistry;
 
 /**
  * Core Magnolia monitoring module lifecycle implementation.
@@ -37,10 +46,17 @@ import info.magnolia.module.ModuleLifecycleContext;
  * ({@link PrometheusConfig}) to dependent components (e.g. Prometheus registry provider, servlet filter).
  * <p><strong>Main Functionality</strong></p>
  * Registers itself in Magnolia's module lifecycle, logs lifecycle transitions and acts as DI aggregation point
- * for monitoring-related configuration beans.
+ * for monitoring-related configuration beans. Publishes an immutable {@link PrometheusConfigSnapshot} that is rebuilt
+ * whenever the configuration is replaced or the module is (re)started after a configuration change.
  * <p><strong>Key Features</strong></p>
  * <ul>
  * <li>Simplified access to {@link PrometheusConfig}.</li>
+ * <li>Precompiled configuration snapshot for request hot paths, swapped atomically.</li>
+ * <li>Owns the {@link SlowRequestSampler}, reconfigured with every snapshot and stopped on module stop.</li>
+ * <li>Owns the {@link ScrapeCache} shared by all Prometheus endpoint instances; cleared on module stop.</li>
+ * <li>Owns the {@link BackgroundGaugeCollector} computing expensive gauges off the scrape path; stopped on module stop.</li>
+ * <li>Owns the {@link PushgatewayExporter}, the {@link OtlpExporter} and the {@link LineProtocolExporter}, reconfigured
+ * with every snapshot and flushed on module stop.</li>
  * <li>Lifecycle integration via {@link ModuleLifecycle} start/stop callbacks.</li>
  * <li>Non-intrusive (does not perform heavy initialization logic by itself).</li>
  * </ul>
@@ -48,17 +64,21 @@ import info.magnolia.module.ModuleLifecycleContext;
  * Magnolia module system must supply a valid {@link ModuleLifecycleContext} during startup/shutdown. Dependency
  * injection must provide the {@link PrometheusConfig} instance before other components attempt to access it.
  * <p><strong>Side Effects</strong></p>
- * Writes INFO level log statements during start and stop. No persistent state changes or external resource access.
+ * Writes INFO level log statements during start and stop. Starts the slow request sampling thread when sampling is
+ * enabled and the push, OTLP and line protocol threads when their targets are configured. No persistent state changes;
+ * the only external resources accessed are the configured push gateway, OTLP collector and line protocol receiver.
  * <p><strong>Null and Error Handling</strong></p>
  * Getter may return null if configuration has not been injected yet (e.g. misconfigured DI); callers should guard
  * accordingly. Lifecycle methods do not throw checked exceptions.
  * <p><strong>Thread-Safety</strong></p>
- * Effectively stateless; holds a single mutable reference to configuration. After injection the module is safe for
- * concurrent read access. Configuration replacement via setter should be avoided after startup.
+ * Holds a mutable reference to configuration and a volatile reference to its compiled snapshot. Readers either see the
+ * previous or the new snapshot, never a partially built one; configuration changes therefore apply without restarting
+ * the registry.
  * <p><strong>Usage Example</strong></p>
  * <pre>{@code
  * MonitoringModule monitoringModule;
  * List<String> metrics = monitoringModule.getPrometheusConfig().getMetrics();
+ * boolean httpEnabled = monitoringModule.getConfigSnapshot().isHttpEnabled();
  * }</pre>
  * <p><strong>Important Details</strong></p>
  * Module start does not eagerly initialize metrics; binder registration occurs inside the Prometheus registry provider.
@@ -73,6 +93,18 @@ public class MonitoringModule implements ModuleLifecycle {
     @Inject
     private PrometheusConfig _prometheusConfig;
 
+    @Inject
+    private Provider<PrometheusMeterRegistry> _registryProvider;
+
+    private volatile PrometheusConfigSnapshot _configSnapshot;
+
+    private final SlowRequestSampler _slowRequestSampler = new SlowRequestSampler();
+    private final ScrapeCache _scrapeCache = new ScrapeCache();
+    private final BackgroundGaugeCollector _backgroundGauges = new BackgroundGaugeCollector();
+    private final PushgatewayExporter _pushgatewayExporter = new PushgatewayExporter(this::getMeterRegistry);
+    private final OtlpExporter _otlpExporter = new OtlpExporter(this::getMeterRegistry);
+    private final LineProtocolExporter _lineProtocolExporter = new LineProtocolExporter(this::getMeterRegistry);
+
     /**
      * Invoked by Magnolia during module startup.
      * @param moduleLifecycleContext lifecycle context provided by Magnolia
@@ -80,6 +112,8 @@ public class MonitoringModule implements ModuleLifecycle {
     @Override
     public void start(ModuleLifecycleContext moduleLifecycleContext) {
         LOGGER.info("Starting Monitoring Module");
+        refreshConfigSnapshot();
+        _backgroundGauges.restart();
     }
 
     /**
@@ -89,6 +123,12 @@ public class MonitoringModule implements ModuleLifecycle {
     @Override
     public void stop(ModuleLifecycleContext moduleLifecycleContext) {
         LOGGER.info("Stopping Monitoring Module");
+        _slowRequestSampler.shutdown();
+        _scrapeCache.clear();
+        _backgroundGauges.shutdown();
+        _pushgatewayExporter.shutdown();
+        _otlpExporter.shutdown();
+        _lineProtocolExporter.shutdown();
     }
 
     /**
@@ -105,6 +145,86 @@ public class MonitoringModule implements ModuleLifecycle {
      */
     public void setPrometheusConfig(PrometheusConfig prometheusConfig) {
         _prometheusConfig = prometheusConfig;
+        refreshConfigSnapshot();
+    }
+
+    /**
+     * Returns the compiled snapshot of the current Prometheus configuration; built lazily if the configuration
+     * instance has been replaced since the last snapshot.
+     * @return configuration snapshot; never null
+     */
+    public PrometheusConfigSnapshot getConfigSnapshot() {
+        PrometheusConfigSnapshot snapshot = _configSnapshot;
+        if (snapshot == null || !snapshot.isFor(_prometheusConfig)) {
+            snapshot = refreshConfigSnapshot();
+        }
+        return snapshot;
+    }
+
+    /**
+     * Rebuilds and publishes the configuration snapshot, e.g. after the configuration beans were modified in place.
+     * @return the new snapshot; never null
+     */
+    public PrometheusConfigSnapshot refreshConfigSnapshot() {
+        PrometheusConfigSnapshot snapshot = PrometheusConfigSnapshot.of(_prometheusConfig);
+        _configSnapshot = snapshot;
+        _slowRequestSampler.configure(snapshot);
+        _pushgatewayExporter.configure(snapshot);
+        _otlpExporter.configure(snapshot);
+        _lineProtocolExporter.configure(snapshot);
+        return snapshot;
+    }
+
+    /**
+     * Returns the slow request sampler fed by the Prometheus filter.
+     * @return sampler; never null
+     */
+    public SlowRequestSampler getSlowRequestSampler() {
+        return _slowRequestSampler;
+    }
+
+    /**
+     * Returns the scrape cache shared by all Prometheus endpoint instances.
+     * @return scrape cache; never null
+     */
+    public ScrapeCache getScrapeCache() {
+        return _scrapeCache;
+    }
+
+    /**
+     * Returns the collector computing expensive gauges in the background; other modules register their gauges here.
+     * @return collector; never null
+     */
+    public BackgroundGaugeCollector getBackgroundGauges() {
+        return _backgroundGauges;
+    }
+
+    /**
+     * Returns the exporter pushing the registry to a Pushgateway.
+     * @return exporter; never null
+     */
+    public PushgatewayExporter getPushgatewayExporter() {
+        return _pushgatewayExporter;
+    }
+
+    /**
+     * Returns the exporter sending the registry to an OTLP collector.
+     * @return exporter; never null
+     */
+    public OtlpExporter getOtlpExporter() {
+        return _otlpExporter;
+    }
+
+    /**
+     * Returns the exporter sending the registry as StatsD or InfluxDB line protocol.
+     * @return exporter; never null
+     */
+    public LineProtocolExporter getLineProtocolExporter() {
+        return _lineProtocolExporter;
+    }
+
+    private PrometheusMeterRegistry getMeterRegistry() {
+        return _registryProvider != null ? _registryProvider.get() : null;
     }
 
 }
@@ -0,0 +1,154 @@
+package de.ibmix.magkit.monitoring.collector;
+
+/*-
+ * #%L
+ * IBM iX Magnolia Monitoring
+ * %%
+ * Copyright (C) 2026 IBM iX
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.Callable;
+
+import io.micrometer.core.instrument.Tags;
+
+/**
+ * Gauge whose values are too expensive to compute during a scrape, e.g. JCR workspace sizes, directory sizes or
+ * DataStore statistics.
+ * <p><strong>Purpose</strong></p>
+ * Declares what to compute and how often; {@link BackgroundGaugeCollector} runs the computation off the scrape path and
+ * publishes the cached result.
+ * <p><strong>Main Functionality</strong></p>
+ * {@link #collect()} returns the current value for every tag combination of the gauge, so one instance can report a
+ * family of series such as one size per workspace. The refresh interval is the delay between two computations and the
+ * timeout bounds a single computation.
+ * <p><strong>Key Features</strong></p>
+ * <ul>
+ * <li>One computation per interval, independent of the number of scrapes.</li>
+ * <li>Tag combinations may appear and disappear between computations.</li>
+ * <li>{@link #of(String, String, String, Duration, Duration, Callable)} wraps a single untagged value.</li>
+ * </ul>
+ * <p><strong>Null and Error Handling</strong></p>
+ * Exceptions thrown by {@link #collect()} are counted and logged by the collector; the previous values stay published.
+ * Null values and a null result are ignored.
+ * <p><strong>Thread-Safety</strong></p>
+ * {@link #collect()} is never called concurrently for the same instance, but successive calls may run on different
+ * threads.
+ * <p><strong>Usage Example</strong></p>
+ * <pre>{@code
+ * monitoringModule.getBackgroundGauges().register(BackgroundGauge.of("magnolia_repository_directory_size", "Size of the repository directory",
+ *     "bytes", Duration.ofMinutes(5), Duration.ofSeconds(30), () -> FileUtils.sizeOfDirectory(repositoryHome)));
+ * }</pre>
+ * <p><strong>Important Details</strong></p>
+ * A computation exceeding its timeout is interrupted; implementations walking large trees should check
+ * {@link Thread#isInterrupted()} to release the worker early.
+ * @author IBM iX
+ * @since 2026-10-17
+ */
+public abstract class BackgroundGauge {
+
+    private final String _name;
+    private final String _description;
+    private final String _baseUnit;
+    private final Duration _refreshInterval;
+    private final Duration _timeout;
+
+    /**
+     * Declares a background gauge.
+     * @param name meter name
+     * @param description meter description; may be null
+     * @param baseUnit base unit such as "bytes"; may be null
+     * @param refreshInterval delay between two computations
+     * @param timeout maximum duration of one computation
+     */
+    protected BackgroundGauge(String name, String description, String baseUnit, Duration refreshInterval, Duration timeout) {
+        _name = name;
+        _description = description;
+        _baseUnit = baseUnit;
+        _refreshInterval = refreshInterval;
+        _timeout = timeout;
+    }
+
+    /**
+     * Creates a gauge reporting a single untagged value.
+     * @param name meter name
+     * @param description meter description; may be null
+     * @param baseUnit base unit; may be null
+     * @param refreshInterval delay between two computations
+     * @param timeout maximum duration of one computation
+     * @param value computes the value
+     * @return background gauge
+     */
+    public static BackgroundGauge of(String name, String description, String baseUnit, Duration refreshInterval, Duration timeout,
+                                     Callable<? extends Number> value) {
+        return new BackgroundGauge(name, description, baseUnit, refreshInterval, timeout) {
+            @Override
+            public Map<Tags, Double> collect() throws Exception {
+                Number result = value.call();
+                return result != null ? Map.of(Tags.empty(), result.doubleValue()) : Map.of();
+            }
+        };
+    }
+
+    /**
+     * Returns the meter name.
+     * @return name
+     */
+    public String getName() {
+        return _name;
+    }
+
+    /**
+     * Returns the meter description.
+     * @return description; may be null
+     */
+    public String getDescription() {
+        return _description;
+    }
+
+    /**
+     * Returns the base unit.
+     * @return base unit; may be null
+     */
+    public String getBaseUnit() {
+        return _baseUnit;
+    }
+
+    /**
+     * Returns the delay between two computations.
+     * @return refresh interval
+     */
+    public Duration getRefreshInterval() {
+        return _refreshInterval;
+    }
+
+    /**
+     * Returns the maximum duration of one computation.
+     * @return timeout
+     */
+    public Duration getTimeout() {
+        return _timeout;
+    }
+
+    /**
+     * Computes the current values; called on a collector worker thread.
+     * @return value per tag combination; may be empty
+     * @throws Exception if the values cannot be computed
+     */
+    public abstract Map<Tags, Double> collect() throws Exception;
+
+}
@@ -0,0 +1,413 @@
+package de.ibmix.magkit.monitoring.collector;
+
+/*-
+ * #%L
+ * IBM iX Magnolia Monitoring
+ * %%
+ * Copyright (C) 2026 IBM iX
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.micrometer.core.instrument.Clock;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * Computes {@link BackgroundGauge} values on a small dedicated scheduler and exposes the cached results as gauges.
+ * <p><strong>Purpose</strong></p>
+ * Keeps scrapes fast and predictable when some meters are expensive: a scrape only reads values computed earlier and
+ * never waits for a computation.
+ * <p><strong>Main Functionality</strong></p>
+ * Each registered gauge is refreshed with a fixed delay of its refresh interval. The computation runs on a bounded
+ * worker pool and is abandoned and interrupted when it exceeds its timeout. Successful results replace the cached
+ * values; new tag combinations are registered as gauges and vanished ones are removed from the bound registries.
+ * <p><strong>Key Features</strong></p>
+ * <ul>
+ * <li><code>background_gauge_duration_seconds{gauge}</code> - duration of the latest computation.</li>
+ * <li><code>background_gauge_staleness_seconds{gauge}</code> - age of the published values, or time since registration
+ * before the first success.</li>
+ * <li><code>background_gauge_failures_total{gauge,reason="error|timeout"}</code> - failed computations.</li>
+ * <li>No threads until the first gauge is registered.</li>
+ * </ul>
+ * <p><strong>Null and Error Handling</strong></p>
+ * Failed or timed out computations keep the previous values published, so staleness grows until the next success.
+ * Null results and null values are ignored. Non-positive intervals and timeouts are raised to one millisecond.
+ * <p><strong>Thread-Safety</strong></p>
+ * Registration and lifecycle methods synchronize on the collector. Cached values are published through volatile
+ * references; each gauge's meter bookkeeping is guarded by its own entry.
+ * <p><strong>Usage Example</strong></p>
+ * <pre>{@code
+ * BackgroundGaugeCollector collector = monitoringModule.getBackgroundGauges();
+ * collector.register(BackgroundGauge.of("magnolia_datastore_size", "Size of the DataStore", "bytes",
+ *     Duration.ofMinutes(10), Duration.ofMinutes(1), dataStore::getSize));
+ * }</pre>
+ * <p><strong>Important Details</strong></p>
+ * A computation ignoring interrupts keeps its worker busy after the timeout. Refreshes of that gauge are skipped until
+ * it returns, so a gauge never computes concurrently with itself and occupies at most one worker.
+ * {@link #shutdown()} stops all threads; {@link #restart()} or registering a gauge afterwards starts them again with
+ * all known gauges, each computed immediately.
+ * @author IBM iX
+ * @since 2026-10-17
+ */
+public class BackgroundGaugeCollector implements MeterBinder {
+
+    /** Name of the gauge reporting the duration of the latest computation. */
+    public static final String BACKGROUND_GAUGE_DURATION = "background_gauge_duration";
+
+    /** Name of the gauge reporting the age of the published values. */
+    public static final String BACKGROUND_GAUGE_STALENESS = "background_gauge_staleness";
+
+    /** Name of the counter reporting failed computations. */
+    public static final String BACKGROUND_GAUGE_FAILURES = "background_gauge_failures";
+
+    /** Default number of scheduler and of worker threads. */
+    public static final int DEFAULT_THREADS = 2;
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(BackgroundGaugeCollector.class);
+
+    private final int _threads;
+    private final Clock _clock;
+    private final Map<String, Entry> _entries = new ConcurrentHashMap<>();
+    private final List<MeterRegistry> _registries = new CopyOnWriteArrayList<>();
+
+    private ScheduledExecutorService _scheduler;
+    private ExecutorService _workers;
+
+    /**
+     * Creates a collector with {@value #DEFAULT_THREADS} scheduler and worker threads.
+     */
+    public BackgroundGaugeCollector() {
+        this(DEFAULT_THREADS, Clock.SYSTEM);
+    }
+
+    /**
+     * Creates a collector with an explicit thread count and clock.
+     * @param threads number of scheduler and of worker threads; at least one is used
+     * @param clock clock measuring durations and staleness
+     */
+    BackgroundGaugeCollector(int threads, Clock clock) {
+        _threads = Math.max(1, threads);
+        _clock = clock;
+    }
+
+    /**
+     * Registers a gauge, replacing a gauge of the same name, and schedules its first computation immediately.
+     * @param gauge gauge to compute; must not be null
+     */
+    public synchronized void register(BackgroundGauge gauge) {
+        unregister(gauge.getName());
+        Entry entry = new Entry(gauge, _clock.monotonicTime());
+        _entries.put(gauge.getName(), entry);
+        for (MeterRegistry registry : _registries) {
+            entry.bindTo(registry);
+        }
+        start();
+        schedule(entry);
+    }
+
+    /**
+     * Stops computing the named gauge and removes its meters from the bound registries.
+     * @param name gauge name
+     * @return true if a gauge was registered under this name
+     */
+    public synchronized boolean unregister(String name) {
+        Entry entry = _entries.remove(name);
+        if (entry == null) {
+            return false;
+        }
+        if (entry._task != null) {
+            entry._task.cancel(false);
+        }
+        entry.removeMeters();
+        return true;
+    }
+
+    /**
+     * Registers the cached values and the self-metrics of all current and future gauges.
+     * @param registry target registry
+     */
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        _registries.add(registry);
+        for (Entry entry : _entries.values()) {
+            entry.bindTo(registry);
+        }
+    }
+
+    /**
+     * Stops the scheduler and the workers, interrupting running computations. Published values stay available.
+     */
+    public synchronized void shutdown() {
+        for (Entry entry : _entries.values()) {
+            entry._task = null;
+        }
+        if (_scheduler != null) {
+            _scheduler.shutdownNow();
+            _scheduler = null;
+        }
+        if (_workers != null) {
+            _workers.shutdownNow();
+            _workers = null;
+        }
+    }
+
+    /**
+     * Starts the threads again after {@link #shutdown()} and reschedules all registered gauges, computing each
+     * immediately. Does nothing while the threads are running or no gauge is registered.
+     */
+    public synchronized void restart() {
+        if (!_entries.isEmpty()) {
+            start();
+        }
+    }
+
+    /**
+     * Indicates whether the collector threads are running.
+     * @return true if started
+     */
+    public synchronized boolean isRunning() {
+        return _scheduler != null;
+    }
+
+    /**
+     * Returns the cached values of a gauge.
+     * @param name gauge name
+     * @return value per tag combination; empty if unknown or not computed yet
+     */
+    public Map<Tags, Double> getValues(String name) {
+        Entry entry = _entries.get(name);
+        return entry != null ? entry._values : Map.of();
+    }
+
+    /**
+     * Computes the named gauge on the calling thread, bounded by its timeout.
+     * @param name gauge name
+     */
+    void refreshNow(String name) {
+        Entry entry = _entries.get(name);
+        ExecutorService workers;
+        synchronized (this) {
+            start();
+            workers = _workers;
+        }
+        if (entry != null) {
+            refresh(entry, workers);
+        }
+    }
+
+    private void start() {
+        if (_scheduler != null) {
+            return;
+        }
+        _scheduler = Executors.newScheduledThreadPool(_threads, daemonThreads("magkit-background-gauge-scheduler-"));
+        _workers = Executors.newFixedThreadPool(_threads, daemonThreads("magkit-background-gauge-worker-"));
+        for (Entry entry : _entries.values()) {
+            schedule(entry);
+        }
+    }
+
+    private void schedule(Entry entry) {
+        if (entry._task == null) {
+            long interval = Math.max(1, entry._gauge.getRefreshInterval().toMillis());
+            ExecutorService workers = _workers;
+            entry._task = _scheduler.scheduleWithFixedDelay(() -> refresh(entry, workers), 0, interval, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void refresh(Entry entry, ExecutorService workers) {
+        synchronized (entry._refreshLock) {
+            if (entry._computing.get()) {
+                LOGGER.debug("Skipping refresh of background gauge '{}', the previous computation is still running", entry._gauge.getName());
+                return;
+            }
+            compute(entry, workers);
+        }
+    }
+
+    private void compute(Entry entry, ExecutorService workers) {
+        BackgroundGauge gauge = entry._gauge;
+        long timeoutNanos = Math.max(TimeUnit.MILLISECONDS.toNanos(1), gauge.getTimeout().toNanos());
+        long start = _clock.monotonicTime();
+        Future<Map<Tags, Double>> computation = null;
+        try {
+            computation = workers.submit(() -> {
+                entry._computing.set(true);
+                try {
+                    return gauge.collect();
+                } finally {
+                    entry._computing.set(false);
+                }
+            });
+            entry.publish(computation.get(timeoutNanos, TimeUnit.NANOSECONDS), _clock.monotonicTime());
+        } catch (TimeoutException e) {
+            computation.cancel(true);
+            entry._timeouts.incrementAndGet();
+            LOGGER.warn("Background gauge '{}' did not complete within {}", gauge.getName(), gauge.getTimeout());
+        } catch (ExecutionException e) {
+            entry._errors.incrementAndGet();
+            LOGGER.warn("Background gauge '{}' failed", gauge.getName(), e.getCause());
+        } catch (InterruptedException e) {
+            if (computation != null) {
+                computation.cancel(true);
+            }
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException e) {
+            // rejected after shutdown or a registry failing to register a meter
+            entry._errors.incrementAndGet();
+            LOGGER.debug("Background gauge '{}' could not be refreshed", gauge.getName(), e);
+        } finally {
+            entry._durationNanos = _clock.monotonicTime() - start;
+        }
+    }
+
+    private static ThreadFactory daemonThreads(String prefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    /**
+     * Cached state and meters of one registered gauge.
+     */
+    private final class Entry {
+
+        private final BackgroundGauge _gauge;
+        private final AtomicLong _errors = new AtomicLong();
+        private final AtomicLong _timeouts = new AtomicLong();
+        private final AtomicBoolean _computing = new AtomicBoolean();
+        private final Object _refreshLock = new Object();
+        private final Map<Tags, List<Meter>> _valueMeters = new HashMap<>();
+        private final List<Meter> _selfMeters = new CopyOnWriteArrayList<>();
+
+        private volatile Map<Tags, Double> _values = Map.of();
+        private volatile long _lastSuccessNanos;
+        private volatile long _durationNanos;
+        private ScheduledFuture<?> _task;
+
+        private Entry(BackgroundGauge gauge, long createdNanos) {
+            _gauge = gauge;
+            _lastSuccessNanos = createdNanos;
+        }
+
+        private synchronized void bindTo(MeterRegistry registry) {
+            Tags tags = Tags.of("gauge", _gauge.getName());
+            _selfMeters.add(TimeGauge.builder(BACKGROUND_GAUGE_DURATION, this, TimeUnit.NANOSECONDS, entry -> entry._durationNanos)
+                .description("Duration of the latest background gauge computation")
+                .tags(tags)
+                .register(registry));
+            _selfMeters.add(TimeGauge.builder(BACKGROUND_GAUGE_STALENESS, this, TimeUnit.NANOSECONDS, entry -> _clock.monotonicTime() - entry._lastSuccessNanos)
+                .description("Age of the values published by a background gauge")
+                .tags(tags)
+                .register(registry));
+            _selfMeters.add(FunctionCounter.builder(BACKGROUND_GAUGE_FAILURES, _errors, AtomicLong::get)
+                .description("Failed background gauge computations")
+                .tags(tags.and("reason", "error"))
+                .register(registry));
+            _selfMeters.add(FunctionCounter.builder(BACKGROUND_GAUGE_FAILURES, _timeouts, AtomicLong::get)
+                .description("Failed background gauge computations")
+                .tags(tags.and("reason", "timeout"))
+                .register(registry));
+            for (Tags valueTags : _values.keySet()) {
+                _valueMeters.computeIfAbsent(valueTags, t -> new CopyOnWriteArrayList<>()).add(registerValue(registry, valueTags));
+            }
+        }
+
+        private synchronized void publish(Map<Tags, Double> result, long now) {
+            Map<Tags, Double> values = new HashMap<>();
+            if (result != null) {
+                result.forEach((tags, value) -> {
+                    if (tags != null && value != null) {
+                        values.put(tags, value);
+                    }
+                });
+            }
+            _values = values;
+            _lastSuccessNanos = now;
+            for (Iterator<Map.Entry<Tags, List<Meter>>> it = _valueMeters.entrySet().iterator(); it.hasNext();) {
+                Map.Entry<Tags, List<Meter>> registered = it.next();
+                if (!values.containsKey(registered.getKey())) {
+                    removeAll(registered.getValue());
+                    it.remove();
+                }
+            }
+            for (Tags tags : values.keySet()) {
+                if (!_valueMeters.containsKey(tags)) {
+                    List<Meter> meters = new CopyOnWriteArrayList<>();
+                    for (MeterRegistry registry : _registries) {
+                        meters.add(registerValue(registry, tags));
+                    }
+                    _valueMeters.put(tags, meters);
+                }
+            }
+        }
+
+        private Meter registerValue(MeterRegistry registry, Tags tags) {
+            return Gauge.builder(_gauge.getName(), this, entry -> entry._values.getOrDefault(tags, Double.NaN))
+                .description(_gauge.getDescription())
+                .baseUnit(_gauge.getBaseUnit())
+                .tags(tags)
+                .strongReference(true)
+                .register(registry);
+        }
+
+        private synchronized void removeMeters() {
+            for (List<Meter> meters : _valueMeters.values()) {
+                removeAll(meters);
+            }
+            _valueMeters.clear();
+            removeAll(_selfMeters);
+            _selfMeters.clear();
+        }
+
+        private void removeAll(List<Meter> meters) {
+            for (Meter meter : meters) {
+                for (MeterRegistry registry : _registries) {
+                    registry.remove(meter);
+                }
+            }
+        }
+    }
+}
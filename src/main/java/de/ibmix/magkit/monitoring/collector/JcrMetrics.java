@@ -0,0 +1,355 @@
+package de.ibmix.magkit.monitoring.collector;
+
+/*-
+ * #%L
+ * IBM iX Magnolia Monitoring
+ * %%
+ * Copyright (C) 2026 IBM iX
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import javax.jcr.Repository;
+
+import org.apache.jackrabbit.api.stats.RepositoryStatistics.Type;
+import org.apache.jackrabbit.core.RepositoryImpl;
+import org.apache.jackrabbit.core.cache.Cache;
+import org.apache.jackrabbit.core.cache.CacheManager;
+import org.apache.jackrabbit.core.jndi.BindableRepository;
+import org.apache.jackrabbit.stats.RepositoryStatisticsImpl;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import info.magnolia.objectfactory.Components;
+import info.magnolia.repository.RepositoryManager;
+import io.micrometer.core.instrument.Clock;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * Meter binder exposing the statistics Jackrabbit keeps for every Magnolia repository: sessions, queries, the bundle
+ * cache, the persistence manager and the item state caches.
+ * <p><strong>Purpose</strong></p>
+ * Makes the content repository, usually the first bottleneck of a Magnolia instance, observable next to the JVM
+ * metrics. Enabled with the metric id <code>Jcr</code>.
+ * <p><strong>Main Functionality</strong></p>
+ * Looks up the repositories through Magnolia's {@link RepositoryManager} and registers gauges tagged with
+ * <code>repository</code> for each Jackrabbit repository found:
+ * <ul>
+ * <li><code>jcr_sessions_open</code> - currently open sessions.</li>
+ * <li><code>jcr_session_logins_per_second</code>, <code>jcr_session_reads_per_second</code>,
+ * <code>jcr_session_writes_per_second</code> - logins and session operations.</li>
+ * <li><code>jcr_queries_per_second</code> and <code>jcr_query_duration_average_seconds</code> - executed queries per second and
+ * their mean execution time.</li>
+ * <li><code>jcr_bundle_cache_hit_ratio</code> and <code>jcr_bundle_cache_size_bytes</code> - bundle cache efficiency and
+ * memory.</li>
+ * <li><code>jcr_bundle_reads_per_second</code>, <code>jcr_bundle_read_duration_average_seconds</code>,
+ * <code>jcr_bundle_writes_per_second</code> and <code>jcr_bundle_write_duration_average_seconds</code> - bundles loaded from and
+ * stored by the persistence manager and the mean time it took.</li>
+ * <li><code>jcr_item_state_cache_hit_ratio</code>, <code>jcr_item_state_cache_size_bytes</code>,
+ * <code>jcr_item_state_cache_limit_bytes</code>, <code>jcr_item_state_cache_elements</code> and
+ * <code>jcr_item_state_caches</code> - aggregates over all item state caches.</li>
+ * </ul>
+ * <p><strong>Key Features</strong></p>
+ * <ul>
+ * <li>Reads the counters Jackrabbit maintains anyway; nothing is added to the repository's hot paths.</li>
+ * <li>Rates, ratios and averages refer to the last full minute of Jackrabbit's time series, a copy of a small array.</li>
+ * <li>Averages divide summed durations by counts instead of using Jackrabbit's integer averages.</li>
+ * <li>Item state caches are aggregated at most once per second, however many gauges are read in a scrape.</li>
+ * </ul>
+ * <p><strong>Null and Error Handling</strong></p>
+ * Repositories that are not Jackrabbit repositories, e.g. Oak, are skipped with an info log. Ratios and averages are NaN
+ * in a minute without accesses. If the item state caches cannot be read, their gauges report NaN.
+ * <p><strong>Thread-Safety</strong></p>
+ * Gauges may be read concurrently; the item state cache sample is guarded by its own lock.
+ * <p><strong>Usage Example</strong></p>
+ * <pre>{@code
+ * magnolia.monitoring.prometheus.metrics=JvmMemory,JvmGc,Jcr
+ * }</pre>
+ * <p><strong>Important Details</strong></p>
+ * Jackrabbit resets most statistics counters every second and only keeps per-second and per-minute series, so the
+ * values are exposed as gauges rather than monotonic counters. The repository context and the cache list are not part
+ * of the public Jackrabbit API and are read reflectively. Query result sizes are not recorded by Jackrabbit and hence
+ * not available. The Jackrabbit classes come from the webapp; the module declares them as provided dependencies.
+ * @author IBM iX
+ * @since 2026-10-17
+ */
+public class JcrMetrics implements MeterBinder {
+
+    /** Tag carrying the Magnolia repository name. */
+    public static final String REPOSITORY_TAG = "repository";
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(JcrMetrics.class);
+
+    private static final double SECONDS_PER_MINUTE = 60;
+    private static final double NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+    private static final double MILLIS_PER_SECOND = TimeUnit.SECONDS.toMillis(1);
+    private static final long CACHE_SAMPLE_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final Supplier<Map<String, Repository>> _repositories;
+
+    /**
+     * Creates the binder for the repositories of the Magnolia repository manager.
+     */
+    public JcrMetrics() {
+        this(JcrMetrics::getMagnoliaRepositories);
+    }
+
+    /**
+     * Creates the binder for the given repositories.
+     * @param repositories repositories by name, resolved when binding; must not be null
+     */
+    JcrMetrics(Supplier<Map<String, Repository>> repositories) {
+        _repositories = repositories;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        for (Map.Entry<String, Repository> repository : _repositories.get().entrySet()) {
+            RepositoryImpl jackrabbit = unwrap(repository.getValue());
+            RepositoryStatisticsImpl statistics = jackrabbit != null ? getStatistics(jackrabbit) : null;
+            if (statistics == null) {
+                LOGGER.info("Repository '{}' provides no Jackrabbit statistics, no JCR metrics registered.", repository.getKey());
+                continue;
+            }
+            bind(registry, repository.getKey(), statistics, jackrabbit.getCacheManager());
+        }
+    }
+
+    /**
+     * Registers the gauges of one repository.
+     * @param registry target registry
+     * @param repository repository name used as tag value
+     * @param statistics Jackrabbit statistics of the repository
+     * @param cacheManager manager of the item state caches; may be null
+     */
+    static void bind(MeterRegistry registry, String repository, RepositoryStatisticsImpl statistics, CacheManager cacheManager) {
+        Tags tags = Tags.of(REPOSITORY_TAG, repository);
+        Gauge.builder("jcr.sessions.open", statistics, s -> s.getCounter(Type.SESSION_COUNT).get())
+            .description("Currently open JCR sessions").tags(tags).register(registry);
+        rate(registry, "jcr.session.logins", "JCR session logins", statistics, Type.SESSION_LOGIN_COUNTER, tags);
+        rate(registry, "jcr.session.reads", "JCR session read operations", statistics, Type.SESSION_READ_COUNTER, tags);
+        rate(registry, "jcr.session.writes", "JCR session write operations", statistics, Type.SESSION_WRITE_COUNTER, tags);
+        rate(registry, "jcr.queries", "Executed JCR queries", statistics, Type.QUERY_COUNT, tags);
+        Gauge.builder("jcr.query.duration.average", statistics, s -> average(s, Type.QUERY_DURATION, Type.QUERY_COUNT) / MILLIS_PER_SECOND)
+            .description("Mean JCR query execution time").baseUnit("seconds").tags(tags).register(registry);
+
+        Gauge.builder("jcr.bundle.cache.hit.ratio", statistics, s -> hitRatio(lastMinute(s, Type.BUNDLE_CACHE_ACCESS_COUNTER), lastMinute(s, Type.BUNDLE_CACHE_MISS_COUNTER)))
+            .description("Share of bundle lookups served by the bundle cache").tags(tags).register(registry);
+        Gauge.builder("jcr.bundle.cache.size", statistics, s -> s.getCounter(Type.BUNDLE_CACHE_SIZE_COUNTER).get())
+            .description("Memory used by the bundle cache").baseUnit("bytes").tags(tags).register(registry);
+        rate(registry, "jcr.bundle.reads", "Bundles loaded from the persistence manager", statistics, Type.BUNDLE_CACHE_MISS_COUNTER, tags);
+        Gauge.builder("jcr.bundle.read.duration.average", statistics, s -> average(s, Type.BUNDLE_CACHE_MISS_DURATION, Type.BUNDLE_CACHE_MISS_COUNTER) / NANOS_PER_SECOND)
+            .description("Mean time to load a bundle from the persistence manager").baseUnit("seconds").tags(tags).register(registry);
+        rate(registry, "jcr.bundle.writes", "Bundles stored by the persistence manager", statistics, Type.BUNDLE_WRITE_COUNTER, tags);
+        Gauge.builder("jcr.bundle.write.duration.average", statistics, s -> average(s, Type.BUNDLE_WRITE_DURATION, Type.BUNDLE_WRITE_COUNTER) / NANOS_PER_SECOND)
+            .description("Mean time to store a bundle in the persistence manager").baseUnit("seconds").tags(tags).register(registry);
+
+        if (cacheManager != null) {
+            ItemStateCacheSampler caches = new ItemStateCacheSampler(cacheManager, registry.config().clock());
+            Gauge.builder("jcr.item.state.cache.hit.ratio", caches, c -> c.sample().getHitRatio())
+                .description("Share of item state lookups served by the item state caches").tags(tags).strongReference(true).register(registry);
+            Gauge.builder("jcr.item.state.cache.size", caches, c -> c.sample().getMemoryUsed())
+                .description("Memory used by the item state caches").baseUnit("bytes").tags(tags).strongReference(true).register(registry);
+            Gauge.builder("jcr.item.state.cache.limit", caches, c -> c.sample().getMaxMemory())
+                .description("Memory the item state caches may currently use").baseUnit("bytes").tags(tags).strongReference(true).register(registry);
+            Gauge.builder("jcr.item.state.cache.elements", caches, c -> c.sample().getElements())
+                .description("Item states held by the item state caches").tags(tags).strongReference(true).register(registry);
+            Gauge.builder("jcr.item.state.caches", caches, c -> c.sample().getCaches())
+                .description("Item state caches of all workspaces and sessions").tags(tags).strongReference(true).register(registry);
+        }
+    }
+
+    private static void rate(MeterRegistry registry, String name, String description, RepositoryStatisticsImpl statistics, Type type, Tags tags) {
+        Gauge.builder(name, statistics, s -> lastMinute(s, type) / SECONDS_PER_MINUTE)
+            .description(description + " per second during the last full minute").baseUnit("per_second").tags(tags).register(registry);
+    }
+
+    /**
+     * Returns the value of the last full minute of a Jackrabbit time series.
+     * @param statistics repository statistics
+     * @param type statistics type
+     * @return sum of the minute for counters, the recorded value for levels
+     */
+    static long lastMinute(RepositoryStatisticsImpl statistics, Type type) {
+        long[] minutes = statistics.getTimeSeries(type).getValuePerMinute();
+        return minutes.length > 0 ? minutes[minutes.length - 1] : 0;
+    }
+
+    private static double average(RepositoryStatisticsImpl statistics, Type duration, Type count) {
+        long events = lastMinute(statistics, count);
+        return events > 0 ? (double) lastMinute(statistics, duration) / events : Double.NaN;
+    }
+
+    private static double hitRatio(long accesses, long misses) {
+        return accesses > 0 ? 1 - Math.min(misses, accesses) / (double) accesses : Double.NaN;
+    }
+
+    private static Map<String, Repository> getMagnoliaRepositories() {
+        RepositoryManager repositoryManager = Components.getComponent(RepositoryManager.class);
+        Map<String, Repository> repositories = new LinkedHashMap<>();
+        for (String name : repositoryManager.getRepositoryNames()) {
+            Repository repository = repositoryManager.getRepository(name);
+            if (repository != null) {
+                repositories.put(name, repository);
+            }
+        }
+        return repositories;
+    }
+
+    /**
+     * Resolves the Jackrabbit implementation behind a repository, following JNDI bindings.
+     * @param repository repository; may be null
+     * @return Jackrabbit repository; null if the repository is not backed by Jackrabbit 2
+     */
+    static RepositoryImpl unwrap(Repository repository) {
+        if (repository instanceof RepositoryImpl) {
+            return (RepositoryImpl) repository;
+        }
+        if (repository instanceof BindableRepository) {
+            return unwrap((Repository) invoke(BindableRepository.class, "getRepository", repository));
+        }
+        return null;
+    }
+
+    private static RepositoryStatisticsImpl getStatistics(RepositoryImpl repository) {
+        Object context = invoke(RepositoryImpl.class, "getRepositoryContext", repository);
+        return context != null ? (RepositoryStatisticsImpl) invoke(context.getClass(), "getRepositoryStatistics", context) : null;
+    }
+
+    private static Object invoke(Class<?> type, String methodName, Object target) {
+        try {
+            Method method = type.getDeclaredMethod(methodName);
+            method.setAccessible(true);
+            return method.invoke(target);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            LOGGER.debug("Could not call {}.{}: {}", type.getName(), methodName, e.toString());
+            return null;
+        }
+    }
+
+    /**
+     * Aggregate of the item state caches registered with a {@link CacheManager}.
+     */
+    static final class ItemStateCacheSample {
+
+        private static final ItemStateCacheSample UNAVAILABLE = new ItemStateCacheSample(Double.NaN, Double.NaN, Double.NaN, Double.NaN, Double.NaN);
+
+        private final double _hitRatio;
+        private final double _memoryUsed;
+        private final double _maxMemory;
+        private final double _elements;
+        private final double _caches;
+
+        private ItemStateCacheSample(double hitRatio, double memoryUsed, double maxMemory, double elements, double caches) {
+            _hitRatio = hitRatio;
+            _memoryUsed = memoryUsed;
+            _maxMemory = maxMemory;
+            _elements = elements;
+            _caches = caches;
+        }
+
+        static ItemStateCacheSample of(Collection<Cache> caches) {
+            long accesses = 0;
+            long misses = 0;
+            long memoryUsed = 0;
+            long maxMemory = 0;
+            long elements = 0;
+            for (Cache cache : caches) {
+                accesses += cache.getTotalAccessCount();
+                misses += cache.getMissCount();
+                memoryUsed += cache.getMemoryUsed();
+                maxMemory += cache.getMaxMemorySize();
+                elements += cache.getElementCount();
+            }
+            return new ItemStateCacheSample(hitRatio(accesses, misses), memoryUsed, maxMemory, elements, caches.size());
+        }
+
+        double getHitRatio() {
+            return _hitRatio;
+        }
+
+        double getMemoryUsed() {
+            return _memoryUsed;
+        }
+
+        double getMaxMemory() {
+            return _maxMemory;
+        }
+
+        double getElements() {
+            return _elements;
+        }
+
+        double getCaches() {
+            return _caches;
+        }
+    }
+
+    /**
+     * Reads the caches of a {@link CacheManager} at most once per second.
+     */
+    static final class ItemStateCacheSampler {
+
+        private final Clock _clock;
+        private final Map<Cache, Object> _caches;
+        private ItemStateCacheSample _sample;
+        private long _sampledAt;
+
+        @SuppressWarnings("unchecked")
+        ItemStateCacheSampler(CacheManager cacheManager, Clock clock) {
+            _clock = clock;
+            Map<Cache, Object> caches = null;
+            try {
+                Field field = CacheManager.class.getDeclaredField("caches");
+                field.setAccessible(true);
+                caches = (Map<Cache, Object>) field.get(cacheManager);
+            } catch (ReflectiveOperationException | RuntimeException e) {
+                LOGGER.info("Item state caches of the repository are not accessible: {}", e.toString());
+            }
+            _caches = caches;
+        }
+
+        synchronized ItemStateCacheSample sample() {
+            long now = _clock.monotonicTime();
+            if (_sample == null || now - _sampledAt >= CACHE_SAMPLE_INTERVAL_NANOS) {
+                _sample = _caches != null ? ItemStateCacheSample.of(copyCaches()) : ItemStateCacheSample.UNAVAILABLE;
+                _sampledAt = now;
+            }
+            return _sample;
+        }
+
+        /**
+         * Copies the cache list under the lock the cache manager uses itself, so caches are read without holding it.
+         */
+        private List<Cache> copyCaches() {
+            synchronized (_caches) {
+                return new ArrayList<>(_caches.keySet());
+            }
+        }
+    }
+
+}
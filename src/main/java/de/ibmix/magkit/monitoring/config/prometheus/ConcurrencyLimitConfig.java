@@ -0,0 +1,234 @@
+package de.ibmix.magkit.monitoring.config.prometheus;
+
+/*-
+ * #%L
+ * IBM iX Magnolia Monitoring
+ * %%
+ * Copyright (C) 2026 IBM iX
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.util.Arrays;
+import java.util.List;
+
+import javax.inject.Named;
+
+import com.google.inject.Inject;
+
+/**
+ * Configuration bean for the optional adaptive concurrency limiter (load shedding) of the Prometheus filter.
+ * <p><strong>Purpose</strong></p>
+ * Lets operators protect public instances from thread starvation during traffic spikes: requests beyond the estimated
+ * sustainable concurrency are rejected early with <code>503 Service Unavailable</code> instead of queueing up in the
+ * servlet container.
+ * <p><strong>Main Functionality</strong></p>
+ * Holds the enable flag, the bounds of the concurrency limit, the Retry-After value and the URIs that are never limited.
+ * Values are populated from Magnolia properties via optional injection hooks.
+ * <p><strong>Configuration Properties</strong></p>
+ * <ul>
+ * <li><code>magnolia.monitoring.prometheus.http.limiter.enabled</code> - <code>true</code> to enable limiting; default <code>false</code>.</li>
+ * <li><code>magnolia.monitoring.prometheus.http.limiter.initial</code> - initial concurrency limit; default {@value #DEFAULT_INITIAL_LIMIT}.</li>
+ * <li><code>magnolia.monitoring.prometheus.http.limiter.min</code> - lower bound of the limit; default {@value #DEFAULT_MIN_LIMIT}.</li>
+ * <li><code>magnolia.monitoring.prometheus.http.limiter.max</code> - upper bound of the limit; default {@value #DEFAULT_MAX_LIMIT}.</li>
+ * <li><code>magnolia.monitoring.prometheus.http.limiter.retryAfter</code> - Retry-After header value in seconds; default {@value #DEFAULT_RETRY_AFTER_SECONDS}.</li>
+ * <li><code>magnolia.monitoring.prometheus.http.limiter.exempt</code> - comma separated URI regex patterns that bypass the limiter;
+ * defaults to the monitoring endpoints.</li>
+ * </ul>
+ * <p><strong>Null and Error Handling</strong></p>
+ * Numeric properties must contain valid integers. Inconsistent bounds are corrected when the configuration snapshot is built.
+ * <p><strong>Thread-Safety</strong></p>
+ * Not thread-safe; values are copied into {@link PrometheusConfigSnapshot} before use on request threads.
+ * <p><strong>Usage Example</strong></p>
+ * <pre>{@code
+ * magnolia.monitoring.prometheus.http.limiter.enabled=true
+ * magnolia.monitoring.prometheus.http.limiter.max=200
+ * }</pre>
+ * @author IBM iX
+ * @since 2026-10-17
+ */
+public class ConcurrencyLimitConfig {
+
+    /** Default initial concurrency limit. */
+    public static final int DEFAULT_INITIAL_LIMIT = 20;
+
+    /** Default lower bound of the concurrency limit. */
+    public static final int DEFAULT_MIN_LIMIT = 8;
+
+    /** Default upper bound of the concurrency limit. */
+    public static final int DEFAULT_MAX_LIMIT = 500;
+
+    /** Default Retry-After value in seconds. */
+    public static final int DEFAULT_RETRY_AFTER_SECONDS = 1;
+
+    /** Default exempt URI pattern covering the monitoring REST endpoints, with or without context path. */
+    public static final String DEFAULT_EXEMPT_URI = ".*/\\.rest/monitoring(/.*)?";
+
+    private boolean _enabled;
+    private int _initialLimit = DEFAULT_INITIAL_LIMIT;
+    private int _minLimit = DEFAULT_MIN_LIMIT;
+    private int _maxLimit = DEFAULT_MAX_LIMIT;
+    private int _retryAfterSeconds = DEFAULT_RETRY_AFTER_SECONDS;
+    private List<String> _exemptUris = List.of(DEFAULT_EXEMPT_URI);
+
+    /**
+     * Indicates whether adaptive concurrency limiting is enabled.
+     * @return true if enabled
+     */
+    public boolean isEnabled() {
+        return _enabled;
+    }
+
+    /**
+     * Enables or disables adaptive concurrency limiting.
+     * @param enabled true to enable
+     */
+    public void setEnabled(boolean enabled) {
+        _enabled = enabled;
+    }
+
+    /**
+     * Returns the concurrency limit used before the first latency samples are available.
+     * @return initial limit
+     */
+    public int getInitialLimit() {
+        return _initialLimit;
+    }
+
+    /**
+     * Replaces the initial concurrency limit.
+     * @param initialLimit initial limit
+     */
+    public void setInitialLimit(int initialLimit) {
+        _initialLimit = initialLimit;
+    }
+
+    /**
+     * Returns the lower bound of the concurrency limit.
+     * @return minimum limit
+     */
+    public int getMinLimit() {
+        return _minLimit;
+    }
+
+    /**
+     * Replaces the lower bound of the concurrency limit.
+     * @param minLimit minimum limit
+     */
+    public void setMinLimit(int minLimit) {
+        _minLimit = minLimit;
+    }
+
+    /**
+     * Returns the upper bound of the concurrency limit.
+     * @return maximum limit
+     */
+    public int getMaxLimit() {
+        return _maxLimit;
+    }
+
+    /**
+     * Replaces the upper bound of the concurrency limit.
+     * @param maxLimit maximum limit
+     */
+    public void setMaxLimit(int maxLimit) {
+        _maxLimit = maxLimit;
+    }
+
+    /**
+     * Returns the Retry-After header value sent with rejected requests.
+     * @return seconds
+     */
+    public int getRetryAfterSeconds() {
+        return _retryAfterSeconds;
+    }
+
+    /**
+     * Replaces the Retry-After header value.
+     * @param retryAfterSeconds seconds
+     */
+    public void setRetryAfterSeconds(int retryAfterSeconds) {
+        _retryAfterSeconds = retryAfterSeconds;
+    }
+
+    /**
+     * Returns URI regex patterns that are never limited.
+     * @return list of patterns; never null unless explicitly set to null
+     */
+    public List<String> getExemptUris() {
+        return _exemptUris;
+    }
+
+    /**
+     * Replaces the exempt URI patterns.
+     * @param exemptUris list of URI regex patterns
+     */
+    public void setExemptUris(List<String> exemptUris) {
+        _exemptUris = exemptUris;
+    }
+
+    /**
+     * Injection hook populating the enable flag.
+     * @param enabledProp "true" to enable; must not be null
+     */
+    @Inject(optional = true)
+    protected void provideEnabledFromProps(@Named("magnolia.monitoring.prometheus.http.limiter.enabled") String enabledProp) {
+        _enabled = Boolean.parseBoolean(enabledProp.trim());
+    }
+
+    /**
+     * Injection hook populating the initial limit.
+     * @param initialProp integer value; must not be null
+     */
+    @Inject(optional = true)
+    protected void provideInitialLimitFromProps(@Named("magnolia.monitoring.prometheus.http.limiter.initial") String initialProp) {
+        _initialLimit = Integer.parseInt(initialProp.trim());
+    }
+
+    /**
+     * Injection hook populating the lower limit bound.
+     * @param minProp integer value; must not be null
+     */
+    @Inject(optional = true)
+    protected void provideMinLimitFromProps(@Named("magnolia.monitoring.prometheus.http.limiter.min") String minProp) {
+        _minLimit = Integer.parseInt(minProp.trim());
+    }
+
+    /**
+     * Injection hook populating the upper limit bound.
+     * @param maxProp integer value; must not be null
+     */
+    @Inject(optional = true)
+    protected void provideMaxLimitFromProps(@Named("magnolia.monitoring.prometheus.http.limiter.max") String maxProp) {
+        _maxLimit = Integer.parseInt(maxProp.trim());
+    }
+
+    /**
+     * Injection hook populating the Retry-After value.
+     * @param retryAfterProp seconds; must not be null
+     */
+    @Inject(optional = true)
+    protected void provideRetryAfterFromProps(@Named("magnolia.monitoring.prometheus.http.limiter.retryAfter") String retryAfterProp) {
+        _retryAfterSeconds = Integer.parseInt(retryAfterProp.trim());
+    }
+
+    /**
+     * Injection hook populating the exempt URI patterns.
+     * @param exemptProp comma separated URI regex patterns; must not be null
+     */
+    @Inject(optional = true)
+    protected void provideExemptUrisFromProps(@Named("magnolia.monitoring.prometheus.http.limiter.exempt") String exemptProp) {
+        _exemptUris = Arrays.asList(exemptProp.split(","));
+    }
+}
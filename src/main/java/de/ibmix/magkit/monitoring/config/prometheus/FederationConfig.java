@@ -0,0 +1,206 @@
+package de.ibmix.magkit.monitoring.config.prometheus;
+
+/*-
+ * #%L
+ * IBM iX Magnolia Monitoring
+ * %%
+ * Copyright (C) 2026 IBM iX
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.inject.Named;
+
+import com.google.inject.Inject;
+
+/**
+ * Configuration bean for the federation endpoint merging the metrics of peer Magnolia instances.
+ * <p><strong>Purpose</strong></p>
+ * Lets one instance, typically the author, serve the metrics of the whole cluster so a single scrape target covers all
+ * nodes.
+ * <p><strong>Main Functionality</strong></p>
+ * Holds the peer list, the per-peer timeout, whether the local registry is included, the instance label value of the
+ * local registry and the <code>Authorization</code> header sent to the peers. Values are populated from Magnolia
+ * properties via optional injection hooks.
+ * <p><strong>Configuration Properties</strong></p>
+ * <ul>
+ * <li><code>magnolia.monitoring.prometheus.federation.peers</code> - comma separated peers, each a base URL such as
+ * <code>http://public1:8080</code>, a full Prometheus endpoint URL, or <code>name=url</code> to set the instance label.</li>
+ * <li><code>magnolia.monitoring.prometheus.federation.timeout</code> - milliseconds within which the response headers
+ * of a peer must arrive, and the total time the merge waits for its exposition; default {@value #DEFAULT_TIMEOUT_MILLIS}.</li>
+ * <li><code>magnolia.monitoring.prometheus.federation.includeLocal</code> - <code>false</code> to omit the metrics of this
+ * instance; default true.</li>
+ * <li><code>magnolia.monitoring.prometheus.federation.instance</code> - instance label of this instance; default host name.</li>
+ * <li><code>magnolia.monitoring.prometheus.federation.authorization</code> - <code>Authorization</code> header value
+ * for the peers, e.g. <code>Basic bW9uaXRvcjpzZWNyZXQ=</code>.</li>
+ * </ul>
+ * <p><strong>Null and Error Handling</strong></p>
+ * Peer entries that are not absolute http(s) URLs are logged and skipped when the configuration snapshot is built.
+ * Numeric properties must contain valid integers.
+ * <p><strong>Thread-Safety</strong></p>
+ * Not thread-safe; values are copied into {@link PrometheusConfigSnapshot} before use.
+ * <p><strong>Usage Example</strong></p>
+ * <pre>{@code
+ * magnolia.monitoring.prometheus.federation.peers=public1=http://public1:8080,public2=http://public2:8080
+ * magnolia.monitoring.prometheus.federation.instance=author
+ * }</pre>
+ * @author IBM iX
+ * @since 2026-10-17
+ */
+public class FederationConfig {
+
+    /** Default per-peer timeout in milliseconds. */
+    public static final int DEFAULT_TIMEOUT_MILLIS = 5000;
+
+    private List<String> _peers = new ArrayList<>();
+    private int _timeoutMillis = DEFAULT_TIMEOUT_MILLIS;
+    private boolean _includeLocal = true;
+    private String _instance;
+    private String _authorization;
+
+    /**
+     * Returns the peer entries.
+     * @return peers; may be null
+     */
+    public List<String> getPeers() {
+        return _peers;
+    }
+
+    /**
+     * Replaces the peer entries.
+     * @param peers base or endpoint URLs, optionally prefixed with <code>name=</code>; may be null
+     */
+    public void setPeers(List<String> peers) {
+        _peers = peers;
+    }
+
+    /**
+     * Returns the per-peer timeout.
+     * @return milliseconds
+     */
+    public int getTimeoutMillis() {
+        return _timeoutMillis;
+    }
+
+    /**
+     * Replaces the per-peer timeout.
+     * @param timeoutMillis milliseconds
+     */
+    public void setTimeoutMillis(int timeoutMillis) {
+        _timeoutMillis = timeoutMillis;
+    }
+
+    /**
+     * Indicates whether the metrics of this instance are part of the federated output.
+     * @return true if included
+     */
+    public boolean isIncludeLocal() {
+        return _includeLocal;
+    }
+
+    /**
+     * Sets whether the metrics of this instance are part of the federated output.
+     * @param includeLocal true to include them
+     */
+    public void setIncludeLocal(boolean includeLocal) {
+        _includeLocal = includeLocal;
+    }
+
+    /**
+     * Returns the instance label of this instance.
+     * @return label value; null or blank for the host name
+     */
+    public String getInstance() {
+        return _instance;
+    }
+
+    /**
+     * Replaces the instance label of this instance.
+     * @param instance label value; null or blank for the host name
+     */
+    public void setInstance(String instance) {
+        _instance = instance;
+    }
+
+    /**
+     * Returns the <code>Authorization</code> header value sent to the peers.
+     * @return header value; may be null
+     */
+    public String getAuthorization() {
+        return _authorization;
+    }
+
+    /**
+     * Replaces the <code>Authorization</code> header value sent to the peers.
+     * @param authorization header value; may be null
+     */
+    public void setAuthorization(String authorization) {
+        _authorization = authorization;
+    }
+
+    /**
+     * Injection hook populating the peers from a comma separated property value.
+     * @param peersProp comma separated peer entries; must not be null
+     */
+    @Inject(optional = true)
+    protected void providePeersFromProps(@Named("magnolia.monitoring.prometheus.federation.peers") String peersProp) {
+        List<String> peers = new ArrayList<>();
+        for (String peer : peersProp.split(",")) {
+            if (!peer.isBlank()) {
+                peers.add(peer.trim());
+            }
+        }
+        _peers = peers;
+    }
+
+    /**
+     * Injection hook populating the per-peer timeout.
+     * @param timeoutProp milliseconds; must not be null
+     */
+    @Inject(optional = true)
+    protected void provideTimeoutFromProps(@Named("magnolia.monitoring.prometheus.federation.timeout") String timeoutProp) {
+        _timeoutMillis = Integer.parseInt(timeoutProp.trim());
+    }
+
+    /**
+     * Injection hook populating whether local metrics are included.
+     * @param includeLocalProp "true" or "false"; must not be null
+     */
+    @Inject(optional = true)
+    protected void provideIncludeLocalFromProps(@Named("magnolia.monitoring.prometheus.federation.includeLocal") String includeLocalProp) {
+        _includeLocal = Boolean.parseBoolean(includeLocalProp.trim());
+    }
+
+    /**
+     * Injection hook populating the instance label of this instance.
+     * @param instanceProp label value; must not be null
+     */
+    @Inject(optional = true)
+    protected void provideInstanceFromProps(@Named("magnolia.monitoring.prometheus.federation.instance") String instanceProp) {
+        _instance = instanceProp.trim();
+    }
+
+    /**
+     * Injection hook populating the <code>Authorization</code> header value.
+     * @param authorizationProp header value; must not be null
+     */
+    @Inject(optional = true)
+    protected void provideAuthorizationFromProps(@Named("magnolia.monitoring.prometheus.federation.authorization") String authorizationProp) {
+        _authorization = authorizationProp.trim();
+    }
+
+}
@@ -42,6 +42,15 @@ import com.google.inject.Inject;
  * <ul>
  * <li><code>magnolia.monitoring.prometheus.http.uris</code> - comma separated list of request URI patterns to include.</li>
  * <li><code>magnolia.monitoring.prometheus.http.slo</code> - comma separated list of integer latency boundaries (ms) used as histogram buckets.</li>
+ * <li><code>magnolia.monitoring.prometheus.http.routes</code> - comma separated list of route templates (e.g. <code>/dam/{uuid}/{file}</code>) used to normalize the uri tag.</li>
+ * <li><code>magnolia.monitoring.prometheus.http.exemplars</code> - <code>true</code> to attach request ids as exemplars to the SLO histogram buckets.</li>
+ * <li><code>magnolia.monitoring.prometheus.http.exemplars.header</code> - request header carrying the request or trace id; default {@value #DEFAULT_EXEMPLAR_HEADER}.</li>
+ * <li><code>magnolia.monitoring.prometheus.http.exemplars.mdc</code> - MDC key consulted when the header is absent; unset by default.</li>
+ * <li><code>magnolia.monitoring.prometheus.http.cache</code> - <code>true</code> to tag the request timers with the Magnolia cache outcome.</li>
+ * <li><code>magnolia.monitoring.prometheus.http.queue.headers</code> - comma separated request headers carrying the load balancer's
+ * request start time, consulted in order; default <code>X-Request-Start,X-Queue-Start</code>.</li>
+ * <li><code>magnolia.monitoring.prometheus.http.cache.header</code> - response header carrying the cache outcome, consulted before the
+ * cache filter's request attribute; unset by default.</li>
  * </ul>
  * <p><strong>Usage Preconditions</strong></p>
  * Property values must be present and non-null when injection methods are invoked; parsing assumes valid comma separated integers for SLO buckets.
@@ -60,8 +69,21 @@ import com.google.inject.Inject;
  */
 public class HttpRequestMetricsConfig {
 
+    /** Default request header carrying the request id used for exemplars. */
+    public static final String DEFAULT_EXEMPLAR_HEADER = "X-Request-Id";
+
+    /** Default request headers carrying the load balancer's request start time. */
+    public static final List<String> DEFAULT_QUEUE_HEADERS = List.of("X-Request-Start", "X-Queue-Start");
+
     private List<Integer> _sloBuckets = emptyList();
     private List<String> _uris = emptyList();
+    private List<String> _routes = emptyList();
+    private boolean _exemplars;
+    private String _exemplarHeader = DEFAULT_EXEMPLAR_HEADER;
+    private String _exemplarMdcKey;
+    private boolean _cacheOutcome;
+    private String _cacheHeader;
+    private List<String> _queueHeaders = DEFAULT_QUEUE_HEADERS;
 
     /**
      * Returns configured SLO response time bucket boundaries in milliseconds used for latency histograms.
@@ -95,6 +117,118 @@ public class HttpRequestMetricsConfig {
         _uris = uris;
     }
 
+    /**
+     * Returns configured route templates used to rewrite request URIs into bounded uri tag values.
+     * @return list of route templates; never null but possibly empty
+     */
+    public List<String> getRoutes() {
+        return _routes;
+    }
+
+    /**
+     * Replaces the configured route templates.
+     * @param routes list of route templates; must be non-null for safe downstream usage
+     */
+    public void setRoutes(List<String> routes) {
+        _routes = routes;
+    }
+
+    /**
+     * Indicates whether request ids are attached as exemplars to the SLO histogram buckets.
+     * @return true if enabled
+     */
+    public boolean isExemplars() {
+        return _exemplars;
+    }
+
+    /**
+     * Enables or disables exemplars.
+     * @param exemplars true to enable
+     */
+    public void setExemplars(boolean exemplars) {
+        _exemplars = exemplars;
+    }
+
+    /**
+     * Returns the request header carrying the request or trace id.
+     * @return header name; may be null to only use the MDC
+     */
+    public String getExemplarHeader() {
+        return _exemplarHeader;
+    }
+
+    /**
+     * Replaces the request header carrying the request or trace id.
+     * @param exemplarHeader header name; may be null
+     */
+    public void setExemplarHeader(String exemplarHeader) {
+        _exemplarHeader = exemplarHeader;
+    }
+
+    /**
+     * Returns the MDC key consulted when the request header is absent.
+     * @return MDC key; may be null
+     */
+    public String getExemplarMdcKey() {
+        return _exemplarMdcKey;
+    }
+
+    /**
+     * Replaces the MDC key consulted when the request header is absent.
+     * @param exemplarMdcKey MDC key; may be null
+     */
+    public void setExemplarMdcKey(String exemplarMdcKey) {
+        _exemplarMdcKey = exemplarMdcKey;
+    }
+
+    /**
+     * Indicates whether the request timers are tagged with the cache outcome.
+     * @return true if enabled
+     */
+    public boolean isCacheOutcome() {
+        return _cacheOutcome;
+    }
+
+    /**
+     * Enables or disables the cache outcome tag.
+     * @param cacheOutcome true to enable
+     */
+    public void setCacheOutcome(boolean cacheOutcome) {
+        _cacheOutcome = cacheOutcome;
+    }
+
+    /**
+     * Returns the response header carrying the cache outcome.
+     * @return header name; may be null
+     */
+    public String getCacheHeader() {
+        return _cacheHeader;
+    }
+
+    /**
+     * Replaces the response header carrying the cache outcome.
+     * @param cacheHeader header name; null or blank to only use the cache filter's request attribute
+     */
+    public void setCacheHeader(String cacheHeader) {
+        _cacheHeader = cacheHeader;
+    }
+
+    /**
+     * Returns the request headers carrying the request start time set by the load balancer.
+     * @return header names in lookup order; never null unless explicitly set to null
+     */
+    public List<String> getQueueHeaders() {
+        return _queueHeaders;
+    }
+
+    /**
+     * Replaces the request start headers.
+     * @param queueHeaders header names in lookup order
+     */
+    public void setQueueHeaders(List<String> queueHeaders) {
+        _queueHeaders = queueHeaders;
+    }
+
     /**
      * Injection hook populating URI patterns from a comma separated property value.
      * @param urisProp comma separated URI patterns; must not be null
@@ -112,4 +246,67 @@ public class HttpRequestMetricsConfig {
     protected void provideSloBucketsFromProps(@Named("magnolia.monitoring.prometheus.http.slo") String sloProps) {
         _sloBuckets = Arrays.stream(sloProps.split(",")).map((s) -> Integer.valueOf(s)).collect(Collectors.toList());
     }
+
+    /**
+     * Injection hook populating route templates from a comma separated property value.
+     * @param routesProp comma separated route templates; must not be null
+     */
+    @Inject(optional = true)
+    protected void provideRoutesFromProps(@Named("magnolia.monitoring.prometheus.http.routes") String routesProp) {
+        _routes = Arrays.asList(routesProp.split(","));
+    }
+
+    /**
+     * Injection hook populating the exemplar flag.
+     * @param exemplarsProp "true" to enable; must not be null
+     */
+    @Inject(optional = true)
+    protected void provideExemplarsFromProps(@Named("magnolia.monitoring.prometheus.http.exemplars") String exemplarsProp) {
+        _exemplars = Boolean.parseBoolean(exemplarsProp.trim());
+    }
+
+    /**
+     * Injection hook populating the request id header.
+     * @param headerProp header name; must not be null
+     */
+    @Inject(optional = true)
+    protected void provideExemplarHeaderFromProps(@Named("magnolia.monitoring.prometheus.http.exemplars.header") String headerProp) {
+        _exemplarHeader = headerProp.trim();
+    }
+
+    /**
+     * Injection hook populating the request id MDC key.
+     * @param mdcProp MDC key; must not be null
+     */
+    @Inject(optional = true)
+    protected void provideExemplarMdcKeyFromProps(@Named("magnolia.monitoring.prometheus.http.exemplars.mdc") String mdcProp) {
+        _exemplarMdcKey = mdcProp.trim();
+    }
+
+    /**
+     * Injection hook populating the cache outcome flag.
+     * @param cacheProp "true" to enable; must not be null
+     */
+    @Inject(optional = true)
+    protected void provideCacheOutcomeFromProps(@Named("magnolia.monitoring.prometheus.http.cache") String cacheProp) {
+        _cacheOutcome = Boolean.parseBoolean(cacheProp.trim());
+    }
+
+    /**
+     * Injection hook populating the cache outcome response header.
+     * @param headerProp header name; must not be null
+     */
+    @Inject(optional = true)
+    protected void provideCacheHeaderFromProps(@Named("magnolia.monitoring.prometheus.http.cache.header") String headerProp) {
+        _cacheHeader = headerProp.trim();
+    }
+
+    /**
+     * Injection hook populating the request start headers from a comma separated property value.
+     * @param headersProp comma separated header names; must not be null
+     */
+    @Inject(optional = true)
+    protected void provideQueueHeadersFromProps(@Named("magnolia.monitoring.prometheus.http.queue.headers") String headersProp) {
+        _queueHeaders = Arrays.stream(headersProp.split(",")).map(String::trim).filter(h -> !h.isEmpty()).collect(Collectors.toList());
+    }
 }
@@ -0,0 +1,204 @@
+package de.ibmix.magkit.monitoring.config.prometheus;
+
+/*-
+ * #%L
+ * IBM iX Magnolia Monitoring
+ * %%
+ * Copyright (C) 2026 IBM iX
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import javax.inject.Named;
+
+import com.google.inject.Inject;
+
+/**
+ * Configuration bean for high-resolution latency histograms of the HTTP request timers.
+ * <p><strong>Purpose</strong></p>
+ * Provides accurate, aggregable p50/p99/p999 latencies for every route without hand-tuned SLO buckets, while keeping
+ * heap usage and scrape size bounded when many (uri, method, status) series exist.
+ * <p><strong>Main Functionality</strong></p>
+ * Describes HDR-style log-linear buckets: every doubling between the lower and upper bound is split into
+ * <code>precision</code> equally wide buckets, so the relative bucket width never exceeds 1/precision. The bucket
+ * budget caps the total number of histogram buckets across all request timers.
+ * <p><strong>Configuration Properties</strong></p>
+ * <ul>
+ * <li><code>magnolia.monitoring.prometheus.http.histogram.enabled</code> - <code>true</code> to enable log-linear buckets; default <code>false</code>.</li>
+ * <li><code>magnolia.monitoring.prometheus.http.histogram.min</code> - lowest bucket boundary in milliseconds; default {@value #DEFAULT_MIN_MILLIS}.</li>
+ * <li><code>magnolia.monitoring.prometheus.http.histogram.max</code> - highest bucket boundary in milliseconds; default {@value #DEFAULT_MAX_MILLIS}.</li>
+ * <li><code>magnolia.monitoring.prometheus.http.histogram.precision</code> - buckets per doubling; default {@value #DEFAULT_PRECISION}.</li>
+ * <li><code>magnolia.monitoring.prometheus.http.histogram.budget</code> - maximum number of buckets across all request timers;
+ * default {@value #DEFAULT_BUCKET_BUDGET}. Also applies to SLO buckets.</li>
+ * </ul>
+ * <p><strong>Null and Error Handling</strong></p>
+ * Numeric properties must contain valid integers. Out-of-range values are corrected when the configuration snapshot is built.
+ * <p><strong>Thread-Safety</strong></p>
+ * Not thread-safe; values are copied into {@link PrometheusConfigSnapshot} before use.
+ * <p><strong>Usage Example</strong></p>
+ * <pre>{@code
+ * magnolia.monitoring.prometheus.http.histogram.enabled=true
+ * magnolia.monitoring.prometheus.http.histogram.precision=8
+ * }</pre>
+ * <p><strong>Important Details</strong></p>
+ * Configured SLO buckets are merged into the log-linear buckets, so SLO boundaries stay exact. Timers registered after
+ * the budget is exhausted keep a single bucket at the largest bound, so the family stays a valid histogram.
+ * @author IBM iX
+ * @since 2026-10-17
+ */
+public class LatencyHistogramConfig {
+
+    /** Default lowest bucket boundary in milliseconds. */
+    public static final int DEFAULT_MIN_MILLIS = 1;
+
+    /** Default highest bucket boundary in milliseconds. */
+    public static final int DEFAULT_MAX_MILLIS = 60000;
+
+    /** Default number of buckets per doubling, i.e. a maximum relative bucket width of 25%. */
+    public static final int DEFAULT_PRECISION = 4;
+
+    /** Default maximum number of histogram buckets across all request timers. */
+    public static final int DEFAULT_BUCKET_BUDGET = 100000;
+
+    private boolean _enabled;
+    private int _minMillis = DEFAULT_MIN_MILLIS;
+    private int _maxMillis = DEFAULT_MAX_MILLIS;
+    private int _precision = DEFAULT_PRECISION;
+    private int _bucketBudget = DEFAULT_BUCKET_BUDGET;
+
+    /**
+     * Indicates whether log-linear latency buckets are enabled.
+     * @return true if enabled
+     */
+    public boolean isEnabled() {
+        return _enabled;
+    }
+
+    /**
+     * Enables or disables log-linear latency buckets.
+     * @param enabled true to enable
+     */
+    public void setEnabled(boolean enabled) {
+        _enabled = enabled;
+    }
+
+    /**
+     * Returns the lowest bucket boundary.
+     * @return milliseconds
+     */
+    public int getMinMillis() {
+        return _minMillis;
+    }
+
+    /**
+     * Replaces the lowest bucket boundary.
+     * @param minMillis milliseconds
+     */
+    public void setMinMillis(int minMillis) {
+        _minMillis = minMillis;
+    }
+
+    /**
+     * Returns the highest bucket boundary.
+     * @return milliseconds
+     */
+    public int getMaxMillis() {
+        return _maxMillis;
+    }
+
+    /**
+     * Replaces the highest bucket boundary.
+     * @param maxMillis milliseconds
+     */
+    public void setMaxMillis(int maxMillis) {
+        _maxMillis = maxMillis;
+    }
+
+    /**
+     * Returns the number of buckets per doubling.
+     * @return precision
+     */
+    public int getPrecision() {
+        return _precision;
+    }
+
+    /**
+     * Replaces the number of buckets per doubling.
+     * @param precision precision
+     */
+    public void setPrecision(int precision) {
+        _precision = precision;
+    }
+
+    /**
+     * Returns the maximum number of histogram buckets across all request timers.
+     * @return bucket budget
+     */
+    public int getBucketBudget() {
+        return _bucketBudget;
+    }
+
+    /**
+     * Replaces the bucket budget.
+     * @param bucketBudget maximum number of buckets
+     */
+    public void setBucketBudget(int bucketBudget) {
+        _bucketBudget = bucketBudget;
+    }
+
+    /**
+     * Injection hook populating the enable flag.
+     * @param enabledProp "true" to enable; must not be null
+     */
+    @Inject(optional = true)
+    protected void provideEnabledFromProps(@Named("magnolia.monitoring.prometheus.http.histogram.enabled") String enabledProp) {
+        _enabled = Boolean.parseBoolean(enabledProp.trim());
+    }
+
+    /**
+     * Injection hook populating the lowest bucket boundary.
+     * @param minProp milliseconds; must not be null
+     */
+    @Inject(optional = true)
+    protected void provideMinFromProps(@Named("magnolia.monitoring.prometheus.http.histogram.min") String minProp) {
+        _minMillis = Integer.parseInt(minProp.trim());
+    }
+
+    /**
+     * Injection hook populating the highest bucket boundary.
+     * @param maxProp milliseconds; must not be null
+     */
+    @Inject(optional = true)
+    protected void provideMaxFromProps(@Named("magnolia.monitoring.prometheus.http.histogram.max") String maxProp) {
+        _maxMillis = Integer.parseInt(maxProp.trim());
+    }
+
+    /**
+     * Injection hook populating the number of buckets per doubling.
+     * @param precisionProp integer value; must not be null
+     */
+    @Inject(optional = true)
+    protected void providePrecisionFromProps(@Named("magnolia.monitoring.prometheus.http.histogram.precision") String precisionProp) {
+        _precision = Integer.parseInt(precisionProp.trim());
+    }
+
+    /**
+     * Injection hook populating the bucket budget.
+     * @param budgetProp integer value; must not be null
+     */
+    @Inject(optional = true)
+    protected void provideBucketBudgetFromProps(@Named("magnolia.monitoring.prometheus.http.histogram.budget") String budgetProp) {
+        _bucketBudget = Integer.parseInt(budgetProp.trim());
+    }
+}
@@ -0,0 +1,233 @@
+package de.ibmix.magkit.monitoring.config.prometheus;
+
+/*-
+ * #%L
+ * IBM iX Magnolia Monitoring
+ * %%
+ * Copyright (C) 2026 IBM iX
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import javax.inject.Named;
+
+import com.google.inject.Inject;
+
+/**
+ * Configuration bean for sending the meters of the Prometheus registry as StatsD or InfluxDB line protocol.
+ * <p><strong>Purpose</strong></p>
+ * Connects the registry to Graphite, StatsD or InfluxDB based stacks that ingest plain text lines over UDP or TCP.
+ * <p><strong>Main Functionality</strong></p>
+ * Holds the target host and port, the transport, the line format, the export interval and the maximum datagram
+ * size. Exporting is enabled by configuring a host. Values are populated from Magnolia properties via optional
+ * injection hooks.
+ * <p><strong>Configuration Properties</strong></p>
+ * <ul>
+ * <li><code>magnolia.monitoring.prometheus.line.host</code> - target host name or address; no default, exporting is
+ * disabled without it.</li>
+ * <li><code>magnolia.monitoring.prometheus.line.port</code> - target port; default {@value #DEFAULT_PORT}.</li>
+ * <li><code>magnolia.monitoring.prometheus.line.protocol</code> - <code>udp</code> or <code>tcp</code>; default {@value #DEFAULT_PROTOCOL}.</li>
+ * <li><code>magnolia.monitoring.prometheus.line.format</code> - <code>influx</code> or <code>statsd</code>; default {@value #DEFAULT_FORMAT}.</li>
+ * <li><code>magnolia.monitoring.prometheus.line.interval</code> - export interval in milliseconds; default {@value #DEFAULT_INTERVAL_MILLIS}.</li>
+ * <li><code>magnolia.monitoring.prometheus.line.packetSize</code> - maximum payload of one datagram in bytes; default
+ * {@value #DEFAULT_PACKET_SIZE}, which fits an Ethernet MTU of 1500 bytes.</li>
+ * </ul>
+ * <p><strong>Null and Error Handling</strong></p>
+ * A blank host disables exporting. Unknown protocol or format values fall back to the defaults. Numeric properties
+ * must contain valid integers; the snapshot clamps them to usable ranges.
+ * <p><strong>Thread-Safety</strong></p>
+ * Not thread-safe; values are copied into {@link PrometheusConfigSnapshot} before use.
+ * <p><strong>Usage Example</strong></p>
+ * <pre>{@code
+ * magnolia.monitoring.prometheus.line.host=telegraf
+ * magnolia.monitoring.prometheus.line.port=8094
+ * }</pre>
+ * @author IBM iX
+ * @since 2026-10-17
+ */
+public class LineProtocolConfig {
+
+    /** Default target port, the StatsD port also used by Telegraf's StatsD input. */
+    public static final int DEFAULT_PORT = 8125;
+
+    /** Default transport. */
+    public static final String DEFAULT_PROTOCOL = "udp";
+
+    /** Default line format. */
+    public static final String DEFAULT_FORMAT = "influx";
+
+    /** Default export interval in milliseconds. */
+    public static final int DEFAULT_INTERVAL_MILLIS = 10000;
+
+    /** Default maximum datagram payload in bytes: 1500 byte MTU minus IPv6 and UDP headers, with headroom for tunnels. */
+    public static final int DEFAULT_PACKET_SIZE = 1432;
+
+    private String _host;
+    private int _port = DEFAULT_PORT;
+    private String _protocol = DEFAULT_PROTOCOL;
+    private String _format = DEFAULT_FORMAT;
+    private int _intervalMillis = DEFAULT_INTERVAL_MILLIS;
+    private int _packetSize = DEFAULT_PACKET_SIZE;
+
+    /**
+     * Returns the target host.
+     * @return host; null or blank if exporting is disabled
+     */
+    public String getHost() {
+        return _host;
+    }
+
+    /**
+     * Replaces the target host.
+     * @param host host name or address; null or blank to disable exporting
+     */
+    public void setHost(String host) {
+        _host = host;
+    }
+
+    /**
+     * Returns the target port.
+     * @return port
+     */
+    public int getPort() {
+        return _port;
+    }
+
+    /**
+     * Replaces the target port.
+     * @param port port
+     */
+    public void setPort(int port) {
+        _port = port;
+    }
+
+    /**
+     * Returns the transport.
+     * @return "udp" or "tcp"
+     */
+    public String getProtocol() {
+        return _protocol;
+    }
+
+    /**
+     * Replaces the transport.
+     * @param protocol "udp" or "tcp"
+     */
+    public void setProtocol(String protocol) {
+        _protocol = protocol;
+    }
+
+    /**
+     * Returns the line format.
+     * @return "influx" or "statsd"
+     */
+    public String getFormat() {
+        return _format;
+    }
+
+    /**
+     * Replaces the line format.
+     * @param format "influx" or "statsd"
+     */
+    public void setFormat(String format) {
+        _format = format;
+    }
+
+    /**
+     * Returns the interval between two exports.
+     * @return interval in milliseconds
+     */
+    public int getIntervalMillis() {
+        return _intervalMillis;
+    }
+
+    /**
+     * Replaces the export interval.
+     * @param intervalMillis interval in milliseconds
+     */
+    public void setIntervalMillis(int intervalMillis) {
+        _intervalMillis = intervalMillis;
+    }
+
+    /**
+     * Returns the maximum datagram payload.
+     * @return bytes
+     */
+    public int getPacketSize() {
+        return _packetSize;
+    }
+
+    /**
+     * Replaces the maximum datagram payload.
+     * @param packetSize bytes
+     */
+    public void setPacketSize(int packetSize) {
+        _packetSize = packetSize;
+    }
+
+    /**
+     * Injection hook populating the target host.
+     * @param hostProp host name or address; must not be null
+     */
+    @Inject(optional = true)
+    protected void provideHostFromProps(@Named("magnolia.monitoring.prometheus.line.host") String hostProp) {
+        _host = hostProp.trim();
+    }
+
+    /**
+     * Injection hook populating the target port.
+     * @param portProp integer value; must not be null
+     */
+    @Inject(optional = true)
+    protected void providePortFromProps(@Named("magnolia.monitoring.prometheus.line.port") String portProp) {
+        _port = Integer.parseInt(portProp.trim());
+    }
+
+    /**
+     * Injection hook populating the transport.
+     * @param protocolProp "udp" or "tcp"; must not be null
+     */
+    @Inject(optional = true)
+    protected void provideProtocolFromProps(@Named("magnolia.monitoring.prometheus.line.protocol") String protocolProp) {
+        _protocol = protocolProp.trim();
+    }
+
+    /**
+     * Injection hook populating the line format.
+     * @param formatProp "influx" or "statsd"; must not be null
+     */
+    @Inject(optional = true)
+    protected void provideFormatFromProps(@Named("magnolia.monitoring.prometheus.line.format") String formatProp) {
+        _format = formatProp.trim();
+    }
+
+    /**
+     * Injection hook populating the export interval.
+     * @param intervalProp milliseconds; must not be null
+     */
+    @Inject(optional = true)
+    protected void provideIntervalFromProps(@Named("magnolia.monitoring.prometheus.line.interval") String intervalProp) {
+        _intervalMillis = Integer.parseInt(intervalProp.trim());
+    }
+
+    /**
+     * Injection hook populating the maximum datagram payload.
+     * @param packetSizeProp bytes; must not be null
+     */
+    @Inject(optional = true)
+    protected void providePacketSizeFromProps(@Named("magnolia.monitoring.prometheus.line.packetSize") String packetSizeProp) {
+        _packetSize = Integer.parseInt(packetSizeProp.trim());
+    }
+
+}
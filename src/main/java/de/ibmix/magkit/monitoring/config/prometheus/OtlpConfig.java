@@ -0,0 +1,271 @@
+package de.ibmix.magkit.monitoring.config.prometheus;
+
+/*-
+ * #%L
+ * IBM iX Magnolia Monitoring
+ * %%
+ * Copyright (C) 2026 IBM iX
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.inject.Named;
+
+import com.google.inject.Inject;
+
+/**
+ * Configuration bean for exporting the meters of the Prometheus registry over OTLP/HTTP to an OpenTelemetry collector.
+ * <p><strong>Purpose</strong></p>
+ * Lets the same instrumentation feed an OpenTelemetry pipeline next to, or instead of, the Prometheus pull endpoint.
+ * <p><strong>Main Functionality</strong></p>
+ * Holds the metrics endpoint URL of the collector, the aggregation temporality, the export interval, the batch and
+ * queue limits, additional request headers and the service name reported as resource attribute. Exporting is enabled
+ * by configuring a URL. Values are populated from Magnolia properties via optional injection hooks.
+ * <p><strong>Configuration Properties</strong></p>
+ * <ul>
+ * <li><code>magnolia.monitoring.prometheus.otlp.url</code> - OTLP/HTTP metrics endpoint, e.g.
+ * <code>http://collector:4318/v1/metrics</code>; no default, exporting is disabled without it.</li>
+ * <li><code>magnolia.monitoring.prometheus.otlp.temporality</code> - <code>cumulative</code> or <code>delta</code>; default
+ * {@value #DEFAULT_TEMPORALITY}.</li>
+ * <li><code>magnolia.monitoring.prometheus.otlp.interval</code> - export interval in milliseconds; default {@value #DEFAULT_INTERVAL_MILLIS}.</li>
+ * <li><code>magnolia.monitoring.prometheus.otlp.batchSize</code> - maximum number of data points per request; default {@value #DEFAULT_BATCH_SIZE}.</li>
+ * <li><code>magnolia.monitoring.prometheus.otlp.queue</code> - maximum number of requests waiting for delivery; default {@value #DEFAULT_QUEUE_SIZE}.</li>
+ * <li><code>magnolia.monitoring.prometheus.otlp.headers</code> - comma separated <code>Name=Value</code> pairs added to every
+ * request, e.g. for authentication.</li>
+ * <li><code>magnolia.monitoring.prometheus.otlp.serviceName</code> - value of the <code>service.name</code> resource attribute;
+ * default {@value #DEFAULT_SERVICE_NAME}.</li>
+ * </ul>
+ * <p><strong>Null and Error Handling</strong></p>
+ * A blank URL disables exporting. Unknown temporality values fall back to cumulative. Header entries without
+ * <code>=</code> are ignored when the configuration snapshot is built. Numeric properties must contain valid integers.
+ * <p><strong>Thread-Safety</strong></p>
+ * Not thread-safe; values are copied into {@link PrometheusConfigSnapshot} before use.
+ * <p><strong>Usage Example</strong></p>
+ * <pre>{@code
+ * magnolia.monitoring.prometheus.otlp.url=http://otel-collector:4318/v1/metrics
+ * magnolia.monitoring.prometheus.otlp.temporality=delta
+ * }</pre>
+ * @author IBM iX
+ * @since 2026-10-17
+ */
+public class OtlpConfig {
+
+    /** Default aggregation temporality. */
+    public static final String DEFAULT_TEMPORALITY = "cumulative";
+
+    /** Default export interval in milliseconds. */
+    public static final int DEFAULT_INTERVAL_MILLIS = 60000;
+
+    /** Default maximum number of data points per request. */
+    public static final int DEFAULT_BATCH_SIZE = 1000;
+
+    /** Default maximum number of requests waiting for delivery. */
+    public static final int DEFAULT_QUEUE_SIZE = 10;
+
+    /** Default value of the service.name resource attribute. */
+    public static final String DEFAULT_SERVICE_NAME = "magnolia";
+
+    private String _url;
+    private String _temporality = DEFAULT_TEMPORALITY;
+    private int _intervalMillis = DEFAULT_INTERVAL_MILLIS;
+    private int _batchSize = DEFAULT_BATCH_SIZE;
+    private int _queueSize = DEFAULT_QUEUE_SIZE;
+    private List<String> _headers = new ArrayList<>();
+    private String _serviceName = DEFAULT_SERVICE_NAME;
+
+    /**
+     * Returns the OTLP/HTTP metrics endpoint.
+     * @return URL; null or blank if exporting is disabled
+     */
+    public String getUrl() {
+        return _url;
+    }
+
+    /**
+     * Replaces the OTLP/HTTP metrics endpoint.
+     * @param url URL; null or blank to disable exporting
+     */
+    public void setUrl(String url) {
+        _url = url;
+    }
+
+    /**
+     * Returns the aggregation temporality of sums and histograms.
+     * @return "cumulative" or "delta"
+     */
+    public String getTemporality() {
+        return _temporality;
+    }
+
+    /**
+     * Replaces the aggregation temporality.
+     * @param temporality "cumulative" or "delta"
+     */
+    public void setTemporality(String temporality) {
+        _temporality = temporality;
+    }
+
+    /**
+     * Returns the interval between two exports.
+     * @return interval in milliseconds
+     */
+    public int getIntervalMillis() {
+        return _intervalMillis;
+    }
+
+    /**
+     * Replaces the export interval.
+     * @param intervalMillis interval in milliseconds
+     */
+    public void setIntervalMillis(int intervalMillis) {
+        _intervalMillis = intervalMillis;
+    }
+
+    /**
+     * Returns the maximum number of data points per request.
+     * @return batch size
+     */
+    public int getBatchSize() {
+        return _batchSize;
+    }
+
+    /**
+     * Replaces the maximum number of data points per request.
+     * @param batchSize batch size
+     */
+    public void setBatchSize(int batchSize) {
+        _batchSize = batchSize;
+    }
+
+    /**
+     * Returns the maximum number of requests waiting for delivery.
+     * @return queue capacity
+     */
+    public int getQueueSize() {
+        return _queueSize;
+    }
+
+    /**
+     * Replaces the maximum number of requests waiting for delivery.
+     * @param queueSize queue capacity
+     */
+    public void setQueueSize(int queueSize) {
+        _queueSize = queueSize;
+    }
+
+    /**
+     * Returns the additional request headers.
+     * @return <code>Name=Value</code> entries; may be null
+     */
+    public List<String> getHeaders() {
+        return _headers;
+    }
+
+    /**
+     * Replaces the additional request headers.
+     * @param headers <code>Name=Value</code> entries; may be null
+     */
+    public void setHeaders(List<String> headers) {
+        _headers = headers;
+    }
+
+    /**
+     * Returns the value of the service.name resource attribute.
+     * @return service name
+     */
+    public String getServiceName() {
+        return _serviceName;
+    }
+
+    /**
+     * Replaces the value of the service.name resource attribute.
+     * @param serviceName service name
+     */
+    public void setServiceName(String serviceName) {
+        _serviceName = serviceName;
+    }
+
+    /**
+     * Injection hook populating the endpoint URL.
+     * @param urlProp URL; must not be null
+     */
+    @Inject(optional = true)
+    protected void provideUrlFromProps(@Named("magnolia.monitoring.prometheus.otlp.url") String urlProp) {
+        _url = urlProp.trim();
+    }
+
+    /**
+     * Injection hook populating the aggregation temporality.
+     * @param temporalityProp "cumulative" or "delta"; must not be null
+     */
+    @Inject(optional = true)
+    protected void provideTemporalityFromProps(@Named("magnolia.monitoring.prometheus.otlp.temporality") String temporalityProp) {
+        _temporality = temporalityProp.trim();
+    }
+
+    /**
+     * Injection hook populating the export interval.
+     * @param intervalProp milliseconds; must not be null
+     */
+    @Inject(optional = true)
+    protected void provideIntervalFromProps(@Named("magnolia.monitoring.prometheus.otlp.interval") String intervalProp) {
+        _intervalMillis = Integer.parseInt(intervalProp.trim());
+    }
+
+    /**
+     * Injection hook populating the batch size.
+     * @param batchSizeProp integer value; must not be null
+     */
+    @Inject(optional = true)
+    protected void provideBatchSizeFromProps(@Named("magnolia.monitoring.prometheus.otlp.batchSize") String batchSizeProp) {
+        _batchSize = Integer.parseInt(batchSizeProp.trim());
+    }
+
+    /**
+     * Injection hook populating the queue capacity.
+     * @param queueProp integer value; must not be null
+     */
+    @Inject(optional = true)
+    protected void provideQueueSizeFromProps(@Named("magnolia.monitoring.prometheus.otlp.queue") String queueProp) {
+        _queueSize = Integer.parseInt(queueProp.trim());
+    }
+
+    /**
+     * Injection hook populating the request headers from a comma separated property value.
+     * @param headersProp comma separated <code>Name=Value</code> pairs; must not be null
+     */
+    @Inject(optional = true)
+    protected void provideHeadersFromProps(@Named("magnolia.monitoring.prometheus.otlp.headers") String headersProp) {
+        List<String> headers = new ArrayList<>();
+        for (String header : headersProp.split(",")) {
+            if (!header.isBlank()) {
+                headers.add(header.trim());
+            }
+        }
+        _headers = headers;
+    }
+
+    /**
+     * Injection hook populating the service name.
+     * @param serviceNameProp service name; must not be null
+     */
+    @Inject(optional = true)
+    protected void provideServiceNameFromProps(@Named("magnolia.monitoring.prometheus.otlp.serviceName") String serviceNameProp) {
+        _serviceName = serviceNameProp.trim();
+    }
+
+}
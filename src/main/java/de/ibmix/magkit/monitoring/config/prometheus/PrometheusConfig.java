@@ -32,7 +32,10 @@ import com.google.inject.Inject;
  * It defines which metric groups are registered and provides access to nested HTTP request metric configuration.
  * <p><strong>Purpose</strong></p>
  * Supplies a list of metric identifiers that should be exposed (e.g. JVM memory, GC, logging) and delegates
- * HTTP specific metric details to {@link HttpRequestMetricsConfig}.
+ * HTTP specific metric details to {@link HttpRequestMetricsConfig}, load shedding settings to {@link ConcurrencyLimitConfig}
+ * slow request profiling to {@link SlowRequestSamplerConfig}, latency histogram resolution to {@link LatencyHistogramConfig},
+ * push mode to {@link PushgatewayConfig}, OTLP export to {@link OtlpConfig}, StatsD/Influx line protocol export to
+ * {@link LineProtocolConfig} and cluster federation to {@link FederationConfig}.
  * <p><strong>Main Functionality</strong></p>
  * Acts as a DI-present configuration aggregate: holds a mutable list of metric names and exposes the injected
  * HTTP request metrics configuration; optionally overrides metrics list from application properties.
@@ -49,6 +52,10 @@ import com.google.inject.Inject;
  * <p><strong>Configuration Properties</strong></p>
  * <ul>
  * <li><code>magnolia.monitoring.prometheus.metrics</code> - comma separated list of metric names to activate.</li>
+ * <li><code>magnolia.monitoring.prometheus.cardinality.max</code> - maximum number of series per meter name, further tag
+ * combinations are folded into an overflow series; default {@value #DEFAULT_MAX_SERIES_PER_METER}, values below one disable the limit.</li>
+ * <li><code>magnolia.monitoring.prometheus.scrape.cache.ttl</code> - milliseconds a rendered scrape is reused for concurrent and
+ * subsequent scrapes; default 0 (no caching).</li>
  * </ul>
  * <p><strong>Null and Error Handling</strong></p>
  * Metrics list is initialized with sensible defaults. Setters accept null which may propagate null downstream; avoid passing null. Property parsing splits on comma without trimming; empty segments result in empty metric id strings.
@@ -68,11 +75,38 @@ import com.google.inject.Inject;
  */
 public class PrometheusConfig {
 
+    /** Default maximum number of series per meter name. */
+    public static final int DEFAULT_MAX_SERIES_PER_METER = 2000;
+
     private List<String> _metrics = List.of("Uptime", "Processor", "JvmThread", "JvmGc", "JvmMemory", "ClassLoader", "Log4J2");
 
+    private int _maxSeriesPerMeter = DEFAULT_MAX_SERIES_PER_METER;
+    private int _scrapeCacheTtlMillis;
+
     @Inject
     private HttpRequestMetricsConfig _httpRequestMetricsConfig;
 
+    @Inject
+    private ConcurrencyLimitConfig _concurrencyLimitConfig;
+
+    @Inject
+    private SlowRequestSamplerConfig _slowRequestSamplerConfig;
+
+    @Inject
+    private LatencyHistogramConfig _latencyHistogramConfig;
+
+    @Inject
+    private PushgatewayConfig _pushgatewayConfig;
+
+    @Inject
+    private OtlpConfig _otlpConfig;
+
+    @Inject
+    private LineProtocolConfig _lineProtocolConfig;
+
+    @Inject
+    private FederationConfig _federationConfig;
+
     /**
      * Returns configured metric identifiers to be exposed.
      * @return list of metric names; never null unless explicitly set to null
@@ -89,6 +123,38 @@ public class PrometheusConfig {
         _metrics = metrics;
     }
 
+    /**
+     * Returns the maximum number of series (tag combinations) per meter name.
+     * @return maximum series; values below one mean unlimited
+     */
+    public int getMaxSeriesPerMeter() {
+        return _maxSeriesPerMeter;
+    }
+
+    /**
+     * Replaces the maximum number of series per meter name.
+     * @param maxSeriesPerMeter maximum series; values below one disable the limit
+     */
+    public void setMaxSeriesPerMeter(int maxSeriesPerMeter) {
+        _maxSeriesPerMeter = maxSeriesPerMeter;
+    }
+
+    /**
+     * Returns how long a rendered scrape is reused.
+     * @return milliseconds; 0 or less if scrapes are not cached
+     */
+    public int getScrapeCacheTtlMillis() {
+        return _scrapeCacheTtlMillis;
+    }
+
+    /**
+     * Replaces the scrape cache time to live.
+     * @param scrapeCacheTtlMillis milliseconds; 0 or less to disable caching
+     */
+    public void setScrapeCacheTtlMillis(int scrapeCacheTtlMillis) {
+        _scrapeCacheTtlMillis = scrapeCacheTtlMillis;
+    }
+
     /**
      * Returns HTTP request specific metrics configuration.
      * @return config bean; may be null if not injected
@@ -105,6 +171,118 @@ public class PrometheusConfig {
         _httpRequestMetricsConfig = httpRequestMetricsConfig;
     }
 
+    /**
+     * Returns the adaptive concurrency limiter configuration.
+     * @return config bean; may be null if not injected
+     */
+    public ConcurrencyLimitConfig getConcurrencyLimitConfig() {
+        return _concurrencyLimitConfig;
+    }
+
+    /**
+     * Replaces the adaptive concurrency limiter configuration bean.
+     * @param concurrencyLimitConfig configuration to set; may be null
+     */
+    public void setConcurrencyLimitConfig(ConcurrencyLimitConfig concurrencyLimitConfig) {
+        _concurrencyLimitConfig = concurrencyLimitConfig;
+    }
+
+    /**
+     * Returns the slow request sampler configuration.
+     * @return config bean; may be null if not injected
+     */
+    public SlowRequestSamplerConfig getSlowRequestSamplerConfig() {
+        return _slowRequestSamplerConfig;
+    }
+
+    /**
+     * Replaces the slow request sampler configuration bean.
+     * @param slowRequestSamplerConfig configuration to set; may be null
+     */
+    public void setSlowRequestSamplerConfig(SlowRequestSamplerConfig slowRequestSamplerConfig) {
+        _slowRequestSamplerConfig = slowRequestSamplerConfig;
+    }
+
+    /**
+     * Returns the latency histogram configuration.
+     * @return config bean; may be null if not injected
+     */
+    public LatencyHistogramConfig getLatencyHistogramConfig() {
+        return _latencyHistogramConfig;
+    }
+
+    /**
+     * Replaces the latency histogram configuration bean.
+     * @param latencyHistogramConfig configuration to set; may be null
+     */
+    public void setLatencyHistogramConfig(LatencyHistogramConfig latencyHistogramConfig) {
+        _latencyHistogramConfig = latencyHistogramConfig;
+    }
+
+    /**
+     * Returns the Pushgateway push configuration.
+     * @return config bean; may be null if not injected
+     */
+    public PushgatewayConfig getPushgatewayConfig() {
+        return _pushgatewayConfig;
+    }
+
+    /**
+     * Replaces the Pushgateway push configuration bean.
+     * @param pushgatewayConfig configuration to set; may be null
+     */
+    public void setPushgatewayConfig(PushgatewayConfig pushgatewayConfig) {
+        _pushgatewayConfig = pushgatewayConfig;
+    }
+
+    /**
+     * Returns the OTLP export configuration.
+     * @return config bean; may be null if not injected
+     */
+    public OtlpConfig getOtlpConfig() {
+        return _otlpConfig;
+    }
+
+    /**
+     * Replaces the OTLP export configuration bean.
+     * @param otlpConfig configuration to set; may be null
+     */
+    public void setOtlpConfig(OtlpConfig otlpConfig) {
+        _otlpConfig = otlpConfig;
+    }
+
+    /**
+     * Returns the line protocol export configuration.
+     * @return config bean; may be null if not injected
+     */
+    public LineProtocolConfig getLineProtocolConfig() {
+        return _lineProtocolConfig;
+    }
+
+    /**
+     * Replaces the line protocol export configuration bean.
+     * @param lineProtocolConfig configuration to set; may be null
+     */
+    public void setLineProtocolConfig(LineProtocolConfig lineProtocolConfig) {
+        _lineProtocolConfig = lineProtocolConfig;
+    }
+
+    /**
+     * Returns the cluster federation configuration.
+     * @return config bean; may be null if not injected
+     */
+    public FederationConfig getFederationConfig() {
+        return _federationConfig;
+    }
+
+    /**
+     * Replaces the cluster federation configuration bean.
+     * @param federationConfig configuration to set; may be null
+     */
+    public void setFederationConfig(FederationConfig federationConfig) {
+        _federationConfig = federationConfig;
+    }
+
     /**
      * Injection hook populating metric identifiers from a comma separated property value.
      * @param metricsProp comma separated metric names; must not be null
@@ -114,4 +292,22 @@ public class PrometheusConfig {
         _metrics = Arrays.asList(metricsProp.split(","));
     }
 
+    /**
+     * Injection hook populating the maximum number of series per meter name.
+     * @param maxSeriesProp integer value; must not be null
+     */
+    @Inject(optional = true)
+    protected void provideMaxSeriesPerMeterFromProps(@Named("magnolia.monitoring.prometheus.cardinality.max") String maxSeriesProp) {
+        _maxSeriesPerMeter = Integer.parseInt(maxSeriesProp.trim());
+    }
+
+    /**
+     * Injection hook populating the scrape cache time to live.
+     * @param ttlProp milliseconds; must not be null
+     */
+    @Inject(optional = true)
+    protected void provideScrapeCacheTtlFromProps(@Named("magnolia.monitoring.prometheus.scrape.cache.ttl") String ttlProp) {
+        _scrapeCacheTtlMillis = Integer.parseInt(ttlProp.trim());
+    }
+
 }
@@ -0,0 +1,806 @@
+package de.ibmix.magkit.monitoring.config.prometheus;
+
+/*-
+ * #%L
+ * IBM iX Magnolia Monitoring
+ * %%
+ * Copyright (C) 2026 IBM iX
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import static java.util.Collections.emptyList;
+import static java.util.Collections.emptyMap;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+import de.ibmix.magkit.monitoring.endpoint.federation.FederationPeer;
+import de.ibmix.magkit.monitoring.endpoint.prometheus.UriTemplateNormalizer;
+import de.ibmix.magkit.monitoring.endpoint.prometheus.UriWhitelistMatcher;
+
+/**
+ * Immutable, precompiled view of {@link PrometheusConfig} read by the request and meter registration hot paths.
+ * <p><strong>Purpose</strong></p>
+ * Moves all list scanning, regex compilation and unit conversion out of per-request code. A snapshot is built once
+ * per configuration change and published by {@link de.ibmix.magkit.monitoring.MonitoringModule} through a single
+ * volatile reference.
+ * <p><strong>Main Functionality</strong></p>
+ * Copies metric ids into a case-insensitive lookup set, precomputes the HTTP timing, size and resource flags, compiles
+ * the URI whitelist and route templates, converts SLO buckets from milliseconds to nanoseconds and merges them with the
+ * optional log-linear latency buckets, resolves the exemplar id sources and sanitizes the concurrency limiter bounds and
+ * the slow request sampler, push, OTLP and line protocol export settings and parses the federation peers.
+ * <p><strong>Key Features</strong></p>
+ * <ul>
+ * <li>Constant time metric id checks.</li>
+ * <li>Compiled {@link UriWhitelistMatcher} and {@link UriTemplateNormalizer}.</li>
+ * <li>SLO and log-linear histogram boundaries as ready-to-use nanosecond arrays.</li>
+ * </ul>
+ * <p><strong>Null and Error Handling</strong></p>
+ * A null configuration, a missing {@link HttpRequestMetricsConfig} and null lists are treated as empty; a missing
+ * {@link ConcurrencyLimitConfig} disables limiting, a missing {@link SlowRequestSamplerConfig} disables sampling and a missing
+ * {@link PushgatewayConfig} disables pushing, a missing {@link OtlpConfig} disables OTLP export and a missing
+ * {@link LineProtocolConfig} disables line protocol export; a missing {@link FederationConfig} leaves federation without
+ * peers. Malformed OTLP header entries and invalid federation peers are skipped, like null list
+ * elements, and an invalid line protocol port falls back to the default. Invalid whitelist regular
+ * expressions are logged and ignored by {@link UriWhitelistMatcher}.
+ * <p><strong>Thread-Safety</strong></p>
+ * Immutable; safe to share between threads once published.
+ * <p><strong>Usage Example</strong></p>
+ * <pre>{@code
+ * PrometheusConfigSnapshot snapshot = monitoringModule.getConfigSnapshot();
+ * if (snapshot.isHttpEnabled()) {
+ *     String uri = snapshot.getRouteNormalizer().normalizeOrSelf(request.getRequestURI());
+ * }
+ * }</pre>
+ * <p><strong>Important Details</strong></p>
+ * The snapshot does not observe later in-place mutations of the source beans; it is rebuilt when the module receives
+ * a new configuration, on module (re)start or via {@link de.ibmix.magkit.monitoring.MonitoringModule#refreshConfigSnapshot()}.
+ * @author IBM iX
+ * @since 2026-10-17
+ */
+public final class PrometheusConfigSnapshot {
+
+    private static final String HTTP_METRIC_ID = "http";
+    private static final String HTTP_BYTES_METRIC_ID = "httpbytes";
+    private static final String HTTP_RESOURCES_METRIC_ID = "httpresources";
+    private static final String HTTP_FILTERS_METRIC_ID = "httpfilters";
+    private static final String HTTP_QUEUE_METRIC_ID = "httpqueue";
+    private static final int MAX_HISTOGRAM_PRECISION = 64;
+    private static final int MAX_PORT = 65535;
+    private static final int MIN_PACKET_SIZE = 64;
+    private static final int MAX_DATAGRAM_PAYLOAD = 65507;
+
+    private final PrometheusConfig _source;
+    private final List<String> _metricIds;
+    private final Set<String> _metricIdsLowerCase;
+    private final int _maxSeriesPerMeter;
+    private final long _scrapeCacheTtlNanos;
+    private final boolean _httpEnabled;
+    private final boolean _httpBytesEnabled;
+    private final boolean _httpResourcesEnabled;
+    private final boolean _httpFiltersEnabled;
+    private final List<String> _queueHeaders;
+    private final UriWhitelistMatcher _whitelist;
+    private final UriTemplateNormalizer _routeNormalizer;
+    private final List<Integer> _sloBuckets;
+    private final double[] _sloBucketsNanos;
+    private final boolean _latencyHistogramEnabled;
+    private final double[] _requestBucketsNanos;
+    private final int _histogramBucketBudget;
+    private final boolean _exemplarsEnabled;
+    private final String _exemplarHeader;
+    private final String _exemplarMdcKey;
+    private final boolean _cacheOutcomeEnabled;
+    private final String _cacheHeader;
+    private final boolean _concurrencyLimitEnabled;
+    private final int _concurrencyLimitInitial;
+    private final int _concurrencyLimitMin;
+    private final int _concurrencyLimitMax;
+    private final int _retryAfterSeconds;
+    private final UriWhitelistMatcher _concurrencyLimitExemptions;
+    private final boolean _slowRequestSamplingEnabled;
+    private final long _slowRequestThresholdNanos;
+    private final long _slowRequestIntervalMillis;
+    private final int _slowRequestsRetained;
+    private final int _slowRequestMaxDepth;
+    private final String _pushUrl;
+    private final String _pushJob;
+    private final String _pushInstance;
+    private final long _pushIntervalMillis;
+    private final boolean _pushGzip;
+    private final String _otlpUrl;
+    private final boolean _otlpDelta;
+    private final long _otlpIntervalMillis;
+    private final int _otlpBatchSize;
+    private final int _otlpQueueSize;
+    private final Map<String, String> _otlpHeaders;
+    private final String _otlpServiceName;
+    private final String _lineHost;
+    private final int _linePort;
+    private final boolean _lineTcp;
+    private final boolean _lineStatsd;
+    private final long _lineIntervalMillis;
+    private final int _linePacketSize;
+    private final List<FederationPeer> _federationPeers;
+    private final long _federationTimeoutMillis;
+    private final boolean _federationIncludeLocal;
+    private final String _federationInstance;
+    private final String _federationAuthorization;
+
+    private PrometheusConfigSnapshot(PrometheusConfig source) {
+        _source = source;
+        HttpRequestMetricsConfig httpConfig = source != null ? source.getHttpRequestMetricsConfig() : null;
+
+        _metricIds = copyOf(source != null ? source.getMetrics() : null);
+        Set<String> lowerCase = new HashSet<>();
+        _metricIds.forEach(id -> lowerCase.add(id.toLowerCase(Locale.ROOT)));
+        _metricIdsLowerCase = Collections.unmodifiableSet(lowerCase);
+        _maxSeriesPerMeter = Math.max(0, source != null ? source.getMaxSeriesPerMeter() : PrometheusConfig.DEFAULT_MAX_SERIES_PER_METER);
+        _scrapeCacheTtlNanos = Duration.ofMillis(Math.max(0, source != null ? source.getScrapeCacheTtlMillis() : 0)).toNanos();
+        _httpEnabled = _metricIdsLowerCase.contains(HTTP_METRIC_ID);
+        _httpBytesEnabled = _metricIdsLowerCase.contains(HTTP_BYTES_METRIC_ID);
+        _httpResourcesEnabled = _metricIdsLowerCase.contains(HTTP_RESOURCES_METRIC_ID);
+        _httpFiltersEnabled = _metricIdsLowerCase.contains(HTTP_FILTERS_METRIC_ID);
+
+        _whitelist = new UriWhitelistMatcher(copyOf(httpConfig != null ? httpConfig.getUris() : null));
+        _routeNormalizer = new UriTemplateNormalizer(copyOf(httpConfig != null ? httpConfig.getRoutes() : null));
+        _queueHeaders = _metricIdsLowerCase.contains(HTTP_QUEUE_METRIC_ID)
+            ? copyOf(httpConfig != null ? httpConfig.getQueueHeaders() : HttpRequestMetricsConfig.DEFAULT_QUEUE_HEADERS) : emptyList();
+        _sloBuckets = copyOf(httpConfig != null ? httpConfig.getSloBuckets() : null);
+        _sloBucketsNanos = _sloBuckets.stream().mapToDouble(b -> Duration.ofMillis(b).toNanos()).toArray();
+
+        LatencyHistogramConfig histogramConfig = source != null ? source.getLatencyHistogramConfig() : null;
+        _latencyHistogramEnabled = histogramConfig != null && histogramConfig.isEnabled();
+        _histogramBucketBudget = Math.max(0, histogramConfig != null ? histogramConfig.getBucketBudget() : LatencyHistogramConfig.DEFAULT_BUCKET_BUDGET);
+        TreeSet<Double> requestBuckets = new TreeSet<>();
+        for (double slo : _sloBucketsNanos) {
+            requestBuckets.add(slo);
+        }
+        if (_latencyHistogramEnabled) {
+            int min = Math.max(1, histogramConfig.getMinMillis());
+            int max = Math.max(min, histogramConfig.getMaxMillis());
+            int precision = Math.min(MAX_HISTOGRAM_PRECISION, Math.max(1, histogramConfig.getPrecision()));
+            addLogLinearBuckets(requestBuckets, min, max, precision);
+        }
+        _requestBucketsNanos = requestBuckets.stream().mapToDouble(Double::doubleValue).toArray();
+        _exemplarHeader = blankToNull(httpConfig != null ? httpConfig.getExemplarHeader() : null);
+        _exemplarMdcKey = blankToNull(httpConfig != null ? httpConfig.getExemplarMdcKey() : null);
+        _exemplarsEnabled = httpConfig != null && httpConfig.isExemplars() && _httpEnabled && _requestBucketsNanos.length > 0
+            && (_exemplarHeader != null || _exemplarMdcKey != null);
+        _cacheOutcomeEnabled = httpConfig != null && httpConfig.isCacheOutcome() && _httpEnabled;
+        _cacheHeader = blankToNull(httpConfig != null ? httpConfig.getCacheHeader() : null);
+
+        ConcurrencyLimitConfig limitConfig = source != null ? source.getConcurrencyLimitConfig() : null;
+        _concurrencyLimitEnabled = limitConfig != null && limitConfig.isEnabled();
+        _concurrencyLimitMin = Math.max(1, limitConfig != null ? limitConfig.getMinLimit() : ConcurrencyLimitConfig.DEFAULT_MIN_LIMIT);
+        _concurrencyLimitMax = Math.max(_concurrencyLimitMin, limitConfig != null ? limitConfig.getMaxLimit() : ConcurrencyLimitConfig.DEFAULT_MAX_LIMIT);
+        int initial = limitConfig != null ? limitConfig.getInitialLimit() : ConcurrencyLimitConfig.DEFAULT_INITIAL_LIMIT;
+        _concurrencyLimitInitial = Math.min(_concurrencyLimitMax, Math.max(_concurrencyLimitMin, initial));
+        _retryAfterSeconds = Math.max(0, limitConfig != null ? limitConfig.getRetryAfterSeconds() : ConcurrencyLimitConfig.DEFAULT_RETRY_AFTER_SECONDS);
+        _concurrencyLimitExemptions = new UriWhitelistMatcher(copyOf(limitConfig != null ? limitConfig.getExemptUris() : null));
+
+        SlowRequestSamplerConfig samplerConfig = source != null ? source.getSlowRequestSamplerConfig() : null;
+        _slowRequestSamplingEnabled = samplerConfig != null && samplerConfig.isEnabled();
+        int threshold = samplerConfig != null ? samplerConfig.getThresholdMillis() : SlowRequestSamplerConfig.DEFAULT_THRESHOLD_MILLIS;
+        _slowRequestThresholdNanos = Duration.ofMillis(Math.max(0, threshold)).toNanos();
+        _slowRequestIntervalMillis = Math.max(1, samplerConfig != null ? samplerConfig.getIntervalMillis() : SlowRequestSamplerConfig.DEFAULT_INTERVAL_MILLIS);
+        _slowRequestsRetained = Math.max(1, samplerConfig != null ? samplerConfig.getRetained() : SlowRequestSamplerConfig.DEFAULT_RETAINED);
+        _slowRequestMaxDepth = Math.max(1, samplerConfig != null ? samplerConfig.getMaxDepth() : SlowRequestSamplerConfig.DEFAULT_MAX_DEPTH);
+
+        PushgatewayConfig pushConfig = source != null ? source.getPushgatewayConfig() : null;
+        _pushUrl = blankToNull(pushConfig != null ? pushConfig.getUrl() : null);
+        String job = blankToNull(pushConfig != null ? pushConfig.getJob() : null);
+        _pushJob = job != null ? job : PushgatewayConfig.DEFAULT_JOB;
+        _pushInstance = blankToNull(pushConfig != null ? pushConfig.getInstance() : null);
+        _pushIntervalMillis = Math.max(1000, pushConfig != null ? pushConfig.getIntervalMillis() : PushgatewayConfig.DEFAULT_INTERVAL_MILLIS);
+        _pushGzip = pushConfig == null || pushConfig.isGzip();
+
+        OtlpConfig otlpConfig = source != null ? source.getOtlpConfig() : null;
+        _otlpUrl = blankToNull(otlpConfig != null ? otlpConfig.getUrl() : null);
+        _otlpDelta = otlpConfig != null && "delta".equalsIgnoreCase(otlpConfig.getTemporality());
+        _otlpIntervalMillis = Math.max(1000, otlpConfig != null ? otlpConfig.getIntervalMillis() : OtlpConfig.DEFAULT_INTERVAL_MILLIS);
+        _otlpBatchSize = Math.max(1, otlpConfig != null ? otlpConfig.getBatchSize() : OtlpConfig.DEFAULT_BATCH_SIZE);
+        _otlpQueueSize = Math.max(1, otlpConfig != null ? otlpConfig.getQueueSize() : OtlpConfig.DEFAULT_QUEUE_SIZE);
+        _otlpHeaders = parseHeaders(otlpConfig != null ? otlpConfig.getHeaders() : null);
+        String serviceName = blankToNull(otlpConfig != null ? otlpConfig.getServiceName() : null);
+        _otlpServiceName = serviceName != null ? serviceName : OtlpConfig.DEFAULT_SERVICE_NAME;
+
+        LineProtocolConfig lineConfig = source != null ? source.getLineProtocolConfig() : null;
+        _lineHost = blankToNull(lineConfig != null ? lineConfig.getHost() : null);
+        int port = lineConfig != null ? lineConfig.getPort() : LineProtocolConfig.DEFAULT_PORT;
+        _linePort = port > 0 && port <= MAX_PORT ? port : LineProtocolConfig.DEFAULT_PORT;
+        _lineTcp = lineConfig != null && "tcp".equalsIgnoreCase(lineConfig.getProtocol());
+        _lineStatsd = lineConfig != null && "statsd".equalsIgnoreCase(lineConfig.getFormat());
+        _lineIntervalMillis = Math.max(1000, lineConfig != null ? lineConfig.getIntervalMillis() : LineProtocolConfig.DEFAULT_INTERVAL_MILLIS);
+        int packetSize = lineConfig != null ? lineConfig.getPacketSize() : LineProtocolConfig.DEFAULT_PACKET_SIZE;
+        _linePacketSize = Math.min(MAX_DATAGRAM_PAYLOAD, Math.max(MIN_PACKET_SIZE, packetSize));
+
+        FederationConfig federationConfig = source != null ? source.getFederationConfig() : null;
+        _federationPeers = FederationPeer.parseAll(federationConfig != null ? federationConfig.getPeers() : null);
+        _federationTimeoutMillis = Math.max(1, federationConfig != null ? federationConfig.getTimeoutMillis() : FederationConfig.DEFAULT_TIMEOUT_MILLIS);
+        _federationIncludeLocal = federationConfig == null || federationConfig.isIncludeLocal();
+        _federationInstance = blankToNull(federationConfig != null ? federationConfig.getInstance() : null);
+        _federationAuthorization = blankToNull(federationConfig != null ? federationConfig.getAuthorization() : null);
+    }
+
+    /**
+     * Builds a snapshot of the given configuration.
+     * @param config source configuration; may be null
+     * @return new snapshot; never null
+     */
+    public static PrometheusConfigSnapshot of(PrometheusConfig config) {
+        return new PrometheusConfigSnapshot(config);
+    }
+
+    /**
+     * Indicates whether this snapshot was built from the given configuration instance.
+     * @param config configuration instance to compare
+     * @return true if the same instance
+     */
+    public boolean isFor(PrometheusConfig config) {
+        return _source == config;
+    }
+
+    /**
+     * Returns the configured metric ids.
+     * @return immutable list of metric ids; never null
+     */
+    public List<String> getMetricIds() {
+        return _metricIds;
+    }
+
+    /**
+     * Indicates whether the given metric id is configured (case-insensitive).
+     * @param metricId metric id; may be null
+     * @return true if configured
+     */
+    public boolean isMetricEnabled(String metricId) {
+        return metricId != null && _metricIdsLowerCase.contains(metricId.toLowerCase(Locale.ROOT));
+    }
+
+    /**
+     * Returns the maximum number of series per meter name.
+     * @return maximum series; 0 if unlimited
+     */
+    public int getMaxSeriesPerMeter() {
+        return _maxSeriesPerMeter;
+    }
+
+    /**
+     * Returns how long a rendered scrape is reused.
+     * @return nanoseconds; 0 if scrapes are not cached
+     */
+    public long getScrapeCacheTtlNanos() {
+        return _scrapeCacheTtlNanos;
+    }
+
+    /**
+     * Indicates whether HTTP request metrics are enabled (metric id "http").
+     * @return true if enabled
+     */
+    public boolean isHttpEnabled() {
+        return _httpEnabled;
+    }
+
+    /**
+     * Indicates whether HTTP request and response size metrics are enabled (metric id "HttpBytes").
+     * @return true if enabled
+     */
+    public boolean isHttpBytesEnabled() {
+        return _httpBytesEnabled;
+    }
+
+    /**
+     * Indicates whether per-request CPU time and allocation metrics are enabled (metric id "HttpResources").
+     * @return true if enabled
+     */
+    public boolean isHttpResourcesEnabled() {
+        return _httpResourcesEnabled;
+    }
+
+    /**
+     * Indicates whether the self time of every filter in the Magnolia filter chain is recorded (metric id "HttpFilters").
+     * @return true if enabled
+     */
+    public boolean isHttpFiltersEnabled() {
+        return _httpFiltersEnabled;
+    }
+
+    /**
+     * Indicates whether the upstream queue time is recorded (metric id "HttpQueue") and request start headers are configured.
+     * @return true if enabled
+     */
+    public boolean isHttpQueueEnabled() {
+        return !_queueHeaders.isEmpty();
+    }
+
+    /**
+     * Returns the request headers carrying the load balancer's request start time.
+     * @return immutable header names in lookup order; empty if queue time is not recorded
+     */
+    public List<String> getQueueHeaders() {
+        return _queueHeaders;
+    }
+
+    /**
+     * Returns the compiled URI whitelist.
+     * @return whitelist matcher; never null
+     */
+    public UriWhitelistMatcher getWhitelist() {
+        return _whitelist;
+    }
+
+    /**
+     * Returns the compiled route template normalizer.
+     * @return normalizer; never null
+     */
+    public UriTemplateNormalizer getRouteNormalizer() {
+        return _routeNormalizer;
+    }
+
+    /**
+     * Returns the SLO bucket boundaries in milliseconds.
+     * @return immutable list; never null
+     */
+    public List<Integer> getSloBuckets() {
+        return _sloBuckets;
+    }
+
+    /**
+     * Returns the SLO bucket boundaries in nanoseconds.
+     * @return copy of the boundaries; never null
+     */
+    public double[] getSloBucketsNanos() {
+        return _sloBucketsNanos.clone();
+    }
+
+    /**
+     * Indicates whether SLO buckets are configured.
+     * @return true if at least one bucket is present
+     */
+    public boolean hasSloBuckets() {
+        return _sloBucketsNanos.length > 0;
+    }
+
+    /**
+     * Indicates whether log-linear latency buckets are enabled for the request timers.
+     * @return true if enabled
+     */
+    public boolean isLatencyHistogramEnabled() {
+        return _latencyHistogramEnabled;
+    }
+
+    /**
+     * Returns the histogram bucket boundaries of the request timers in nanoseconds: the SLO buckets merged with the
+     * log-linear buckets if enabled.
+     * @return sorted copy of the boundaries; never null
+     */
+    public double[] getRequestBucketsNanos() {
+        return _requestBucketsNanos.clone();
+    }
+
+    /**
+     * Returns the number of histogram buckets of each request timer.
+     * @return number of buckets; 0 if request timers have no histogram
+     */
+    public int getRequestBucketCount() {
+        return _requestBucketsNanos.length;
+    }
+
+    /**
+     * Returns the maximum number of histogram buckets across all request timers.
+     * @return non-negative bucket budget
+     */
+    public int getHistogramBucketBudget() {
+        return _histogramBucketBudget;
+    }
+
+    /**
+     * Indicates whether request ids are attached as exemplars to the request timers. Requires enabled HTTP metrics,
+     * histogram buckets and a request id source.
+     * @return true if enabled
+     */
+    public boolean isExemplarsEnabled() {
+        return _exemplarsEnabled;
+    }
+
+    /**
+     * Returns the request header carrying the exemplar request id.
+     * @return header name; null if not configured
+     */
+    public String getExemplarHeader() {
+        return _exemplarHeader;
+    }
+
+    /**
+     * Returns the MDC key consulted when the exemplar header is absent.
+     * @return MDC key; null if not configured
+     */
+    public String getExemplarMdcKey() {
+        return _exemplarMdcKey;
+    }
+
+    /**
+     * Indicates whether the request timers are tagged with the cache outcome. Requires enabled HTTP metrics.
+     * @return true if enabled
+     */
+    public boolean isCacheOutcomeEnabled() {
+        return _cacheOutcomeEnabled;
+    }
+
+    /**
+     * Returns the response header carrying the cache outcome.
+     * @return header name or null if only the cache filter's request attribute is used
+     */
+    public String getCacheHeader() {
+        return _cacheHeader;
+    }
+
+    /**
+     * Indicates whether adaptive concurrency limiting is enabled.
+     * @return true if enabled
+     */
+    public boolean isConcurrencyLimitEnabled() {
+        return _concurrencyLimitEnabled;
+    }
+
+    /**
+     * Returns the initial concurrency limit, clamped to the configured bounds.
+     * @return initial limit
+     */
+    public int getConcurrencyLimitInitial() {
+        return _concurrencyLimitInitial;
+    }
+
+    /**
+     * Returns the lower bound of the concurrency limit; at least one.
+     * @return minimum limit
+     */
+    public int getConcurrencyLimitMin() {
+        return _concurrencyLimitMin;
+    }
+
+    /**
+     * Returns the upper bound of the concurrency limit; at least the lower bound.
+     * @return maximum limit
+     */
+    public int getConcurrencyLimitMax() {
+        return _concurrencyLimitMax;
+    }
+
+    /**
+     * Returns the Retry-After value for rejected requests.
+     * @return non-negative seconds
+     */
+    public int getRetryAfterSeconds() {
+        return _retryAfterSeconds;
+    }
+
+    /**
+     * Returns the compiled URI patterns bypassing the concurrency limiter.
+     * @return exemption matcher; never null
+     */
+    public UriWhitelistMatcher getConcurrencyLimitExemptions() {
+        return _concurrencyLimitExemptions;
+    }
+
+    /**
+     * Indicates whether slow request stack sampling is enabled.
+     * @return true if enabled
+     */
+    public boolean isSlowRequestSamplingEnabled() {
+        return _slowRequestSamplingEnabled;
+    }
+
+    /**
+     * Returns the request age after which the worker thread is sampled.
+     * @return non-negative threshold in nanoseconds
+     */
+    public long getSlowRequestThresholdNanos() {
+        return _slowRequestThresholdNanos;
+    }
+
+    /**
+     * Returns the interval between two stack samples.
+     * @return interval in milliseconds; at least one
+     */
+    public long getSlowRequestIntervalMillis() {
+        return _slowRequestIntervalMillis;
+    }
+
+    /**
+     * Returns the number of slow request profiles to retain.
+     * @return at least one
+     */
+    public int getSlowRequestsRetained() {
+        return _slowRequestsRetained;
+    }
+
+    /**
+     * Returns the maximum number of frames captured per stack sample.
+     * @return at least one
+     */
+    public int getSlowRequestMaxDepth() {
+        return _slowRequestMaxDepth;
+    }
+
+    /**
+     * Indicates whether the registry is pushed to a gateway, i.e. a push URL is configured.
+     * @return true if pushing
+     */
+    public boolean isPushEnabled() {
+        return _pushUrl != null;
+    }
+
+    /**
+     * Returns the base URL of the push gateway.
+     * @return URL; null if pushing is disabled
+     */
+    public String getPushUrl() {
+        return _pushUrl;
+    }
+
+    /**
+     * Returns the value of the job grouping label used for pushes.
+     * @return job name; never blank
+     */
+    public String getPushJob() {
+        return _pushJob;
+    }
+
+    /**
+     * Returns the value of the instance grouping label used for pushes.
+     * @return instance name; null for the local host name
+     */
+    public String getPushInstance() {
+        return _pushInstance;
+    }
+
+    /**
+     * Returns the interval between two pushes.
+     * @return milliseconds; at least one second
+     */
+    public long getPushIntervalMillis() {
+        return _pushIntervalMillis;
+    }
+
+    /**
+     * Indicates whether push bodies are gzip compressed.
+     * @return true if compressed
+     */
+    public boolean isPushGzip() {
+        return _pushGzip;
+    }
+
+    /**
+     * Indicates whether meters are exported over OTLP, i.e. an OTLP URL is configured.
+     * @return true if exporting
+     */
+    public boolean isOtlpEnabled() {
+        return _otlpUrl != null;
+    }
+
+    /**
+     * Returns the OTLP/HTTP metrics endpoint.
+     * @return URL; null if OTLP export is disabled
+     */
+    public String getOtlpUrl() {
+        return _otlpUrl;
+    }
+
+    /**
+     * Indicates whether sums and histograms are exported with delta instead of cumulative temporality.
+     * @return true for delta temporality
+     */
+    public boolean isOtlpDelta() {
+        return _otlpDelta;
+    }
+
+    /**
+     * Returns the interval between two OTLP exports.
+     * @return milliseconds; at least one second
+     */
+    public long getOtlpIntervalMillis() {
+        return _otlpIntervalMillis;
+    }
+
+    /**
+     * Returns the maximum number of data points per OTLP request.
+     * @return batch size; at least one
+     */
+    public int getOtlpBatchSize() {
+        return _otlpBatchSize;
+    }
+
+    /**
+     * Returns the maximum number of OTLP requests waiting for delivery.
+     * @return queue capacity; at least one
+     */
+    public int getOtlpQueueSize() {
+        return _otlpQueueSize;
+    }
+
+    /**
+     * Returns the additional headers of OTLP requests.
+     * @return unmodifiable header map; never null
+     */
+    public Map<String, String> getOtlpHeaders() {
+        return _otlpHeaders;
+    }
+
+    /**
+     * Returns the service.name resource attribute of exported metrics.
+     * @return service name; never blank
+     */
+    public String getOtlpServiceName() {
+        return _otlpServiceName;
+    }
+
+    /**
+     * Indicates whether meters are sent as line protocol, i.e. a target host is configured.
+     * @return true if exporting
+     */
+    public boolean isLineEnabled() {
+        return _lineHost != null;
+    }
+
+    /**
+     * Returns the line protocol target host.
+     * @return host; null if line protocol export is disabled
+     */
+    public String getLineHost() {
+        return _lineHost;
+    }
+
+    /**
+     * Returns the line protocol target port.
+     * @return port between 1 and 65535
+     */
+    public int getLinePort() {
+        return _linePort;
+    }
+
+    /**
+     * Indicates whether lines are sent over TCP instead of UDP.
+     * @return true for TCP
+     */
+    public boolean isLineTcp() {
+        return _lineTcp;
+    }
+
+    /**
+     * Indicates whether lines use the StatsD format instead of the InfluxDB line protocol.
+     * @return true for StatsD
+     */
+    public boolean isLineStatsd() {
+        return _lineStatsd;
+    }
+
+    /**
+     * Returns the interval between two line protocol exports.
+     * @return milliseconds; at least one second
+     */
+    public long getLineIntervalMillis() {
+        return _lineIntervalMillis;
+    }
+
+    /**
+     * Returns the maximum payload of one datagram, which also sizes the reusable send buffer.
+     * @return bytes between 64 and 65507
+     */
+    public int getLinePacketSize() {
+        return _linePacketSize;
+    }
+
+    /**
+     * Returns the peers merged by the federation endpoint.
+     * @return unmodifiable peer list; never null
+     */
+    public List<FederationPeer> getFederationPeers() {
+        return _federationPeers;
+    }
+
+    /**
+     * Returns the time a peer may take to deliver its complete exposition.
+     * @return milliseconds; at least one
+     */
+    public long getFederationTimeoutMillis() {
+        return _federationTimeoutMillis;
+    }
+
+    /**
+     * Indicates whether the federation endpoint includes the metrics of this instance.
+     * @return true if included
+     */
+    public boolean isFederationIncludeLocal() {
+        return _federationIncludeLocal;
+    }
+
+    /**
+     * Returns the configured instance label of this instance.
+     * @return label value; null to use the host name
+     */
+    public String getFederationInstance() {
+        return _federationInstance;
+    }
+
+    /**
+     * Returns the <code>Authorization</code> header value sent to the peers.
+     * @return header value; null if none is sent
+     */
+    public String getFederationAuthorization() {
+        return _federationAuthorization;
+    }
+
+    /**
+     * Adds HDR-style log-linear boundaries: every doubling starting at the power of two below the lower bound is split
+     * into equally wide buckets. Boundaries are computed in milliseconds, so they are round values for common ranges.
+     */
+    private static void addLogLinearBuckets(Set<Double> buckets, int minMillis, int maxMillis, int precision) {
+        double nanosPerMilli = Duration.ofMillis(1).toNanos();
+        double power = Integer.highestOneBit(minMillis);
+        while (power < maxMillis) {
+            double width = power / precision;
+            for (int i = 0; i < precision; i++) {
+                double boundary = power + i * width;
+                if (boundary >= minMillis && boundary < maxMillis) {
+                    buckets.add(boundary * nanosPerMilli);
+                }
+            }
+            power *= 2;
+        }
+        buckets.add(maxMillis * nanosPerMilli);
+    }
+
+    private static Map<String, String> parseHeaders(List<String> headers) {
+        if (headers == null || headers.isEmpty()) {
+            return emptyMap();
+        }
+        Map<String, String> parsed = new LinkedHashMap<>();
+        for (String header : headers) {
+            int separator = header != null ? header.indexOf('=') : -1;
+            if (separator > 0) {
+                parsed.put(header.substring(0, separator).trim(), header.substring(separator + 1).trim());
+            }
+        }
+        return Collections.unmodifiableMap(parsed);
+    }
+
+    private static String blankToNull(String value) {
+        return value == null || value.isBlank() ? null : value;
+    }
+
+    private static <T> List<T> copyOf(List<T> source) {
+        if (source == null || source.isEmpty()) {
+            return emptyList();
+        }
+        List<T> copy = new ArrayList<>(source.size());
+        for (T element : source) {
+            if (element != null) {
+                copy.add(element);
+            }
+        }
+        return Collections.unmodifiableList(copy);
+    }
+
+}
@@ -0,0 +1,197 @@
+package de.ibmix.magkit.monitoring.config.prometheus;
+
+/*-
+ * #%L
+ * IBM iX Magnolia Monitoring
+ * %%
+ * Copyright (C) 2026 IBM iX
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import javax.inject.Named;
+
+import com.google.inject.Inject;
+
+/**
+ * Configuration bean for pushing the Prometheus registry to a Pushgateway-compatible endpoint.
+ * <p><strong>Purpose</strong></p>
+ * Supports instances that Prometheus cannot reach for pulling, e.g. behind a firewall or NAT, by periodically sending
+ * the exposition to a gateway that Prometheus scrapes instead.
+ * <p><strong>Main Functionality</strong></p>
+ * Holds the gateway base URL, the grouping key (job and instance), the push interval and the gzip flag. Pushing is enabled by configuring a URL. Values are populated from Magnolia properties via
+ * optional injection hooks.
+ * <p><strong>Configuration Properties</strong></p>
+ * <ul>
+ * <li><code>magnolia.monitoring.prometheus.push.url</code> - base URL of the gateway, e.g. <code>http://pushgateway:9091</code>;
+ * no default, pushing is disabled without it.</li>
+ * <li><code>magnolia.monitoring.prometheus.push.job</code> - value of the <code>job</code> grouping label; default {@value #DEFAULT_JOB}.</li>
+ * <li><code>magnolia.monitoring.prometheus.push.instance</code> - value of the <code>instance</code> grouping label; default
+ * is the local host name.</li>
+ * <li><code>magnolia.monitoring.prometheus.push.interval</code> - push interval in milliseconds; default {@value #DEFAULT_INTERVAL_MILLIS}.</li>
+ * <li><code>magnolia.monitoring.prometheus.push.gzip</code> - <code>false</code> to send uncompressed bodies; default <code>true</code>.</li>
+ * </ul>
+ * <p><strong>Null and Error Handling</strong></p>
+ * A blank URL disables pushing. Numeric properties must contain valid integers; values below their minimum are raised
+ * when the configuration snapshot is built.
+ * <p><strong>Thread-Safety</strong></p>
+ * Not thread-safe; values are copied into {@link PrometheusConfigSnapshot} before use.
+ * <p><strong>Usage Example</strong></p>
+ * <pre>{@code
+ * magnolia.monitoring.prometheus.push.url=http://pushgateway:9091
+ * magnolia.monitoring.prometheus.push.job=magnolia-author
+ * }</pre>
+ * @author IBM iX
+ * @since 2026-10-17
+ */
+public class PushgatewayConfig {
+
+    /** Default value of the job grouping label. */
+    public static final String DEFAULT_JOB = "magnolia";
+
+    /** Default push interval in milliseconds. */
+    public static final int DEFAULT_INTERVAL_MILLIS = 15000;
+
+    private String _url;
+    private String _job = DEFAULT_JOB;
+    private String _instance;
+    private int _intervalMillis = DEFAULT_INTERVAL_MILLIS;
+    private boolean _gzip = true;
+
+    /**
+     * Returns the base URL of the gateway.
+     * @return URL; null or blank if pushing is disabled
+     */
+    public String getUrl() {
+        return _url;
+    }
+
+    /**
+     * Replaces the gateway base URL.
+     * @param url URL; null or blank to disable pushing
+     */
+    public void setUrl(String url) {
+        _url = url;
+    }
+
+    /**
+     * Returns the value of the job grouping label.
+     * @return job name
+     */
+    public String getJob() {
+        return _job;
+    }
+
+    /**
+     * Replaces the value of the job grouping label.
+     * @param job job name
+     */
+    public void setJob(String job) {
+        _job = job;
+    }
+
+    /**
+     * Returns the value of the instance grouping label.
+     * @return instance name; null or blank for the local host name
+     */
+    public String getInstance() {
+        return _instance;
+    }
+
+    /**
+     * Replaces the value of the instance grouping label.
+     * @param instance instance name; null or blank for the local host name
+     */
+    public void setInstance(String instance) {
+        _instance = instance;
+    }
+
+    /**
+     * Returns the interval between two pushes.
+     * @return interval in milliseconds
+     */
+    public int getIntervalMillis() {
+        return _intervalMillis;
+    }
+
+    /**
+     * Replaces the push interval.
+     * @param intervalMillis interval in milliseconds
+     */
+    public void setIntervalMillis(int intervalMillis) {
+        _intervalMillis = intervalMillis;
+    }
+
+    /**
+     * Indicates whether request bodies are gzip compressed.
+     * @return true if compressed
+     */
+    public boolean isGzip() {
+        return _gzip;
+    }
+
+    /**
+     * Enables or disables gzip compression of request bodies.
+     * @param gzip true to compress
+     */
+    public void setGzip(boolean gzip) {
+        _gzip = gzip;
+    }
+
+    /**
+     * Injection hook populating the gateway URL.
+     * @param urlProp base URL; must not be null
+     */
+    @Inject(optional = true)
+    protected void provideUrlFromProps(@Named("magnolia.monitoring.prometheus.push.url") String urlProp) {
+        _url = urlProp.trim();
+    }
+
+    /**
+     * Injection hook populating the job grouping label.
+     * @param jobProp job name; must not be null
+     */
+    @Inject(optional = true)
+    protected void provideJobFromProps(@Named("magnolia.monitoring.prometheus.push.job") String jobProp) {
+        _job = jobProp.trim();
+    }
+
+    /**
+     * Injection hook populating the instance grouping label.
+     * @param instanceProp instance name; must not be null
+     */
+    @Inject(optional = true)
+    protected void provideInstanceFromProps(@Named("magnolia.monitoring.prometheus.push.instance") String instanceProp) {
+        _instance = instanceProp.trim();
+    }
+
+    /**
+     * Injection hook populating the push interval.
+     * @param intervalProp milliseconds; must not be null
+     */
+    @Inject(optional = true)
+    protected void provideIntervalFromProps(@Named("magnolia.monitoring.prometheus.push.interval") String intervalProp) {
+        _intervalMillis = Integer.parseInt(intervalProp.trim());
+    }
+
+    /**
+     * Injection hook populating the gzip flag.
+     * @param gzipProp "false" to send uncompressed bodies; must not be null
+     */
+    @Inject(optional = true)
+    protected void provideGzipFromProps(@Named("magnolia.monitoring.prometheus.push.gzip") String gzipProp) {
+        _gzip = Boolean.parseBoolean(gzipProp.trim());
+    }
+
+}
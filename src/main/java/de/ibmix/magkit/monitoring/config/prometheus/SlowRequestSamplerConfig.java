@@ -0,0 +1,202 @@
+package de.ibmix.magkit.monitoring.config.prometheus;
+
+/*-
+ * #%L
+ * IBM iX Magnolia Monitoring
+ * %%
+ * Copyright (C) 2026 IBM iX
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import javax.inject.Named;
+
+import com.google.inject.Inject;
+
+/**
+ * Configuration bean for the slow request stack sampler of the Prometheus filter.
+ * <p><strong>Purpose</strong></p>
+ * Allows latency outliers to be explained after the fact: once a request has been running longer than the threshold,
+ * its worker thread is sampled periodically and the aggregated stacks are retained for the slowest recent requests.
+ * <p><strong>Main Functionality</strong></p>
+ * Holds the enable flag, the threshold after which sampling starts, the sampling interval, the number of retained
+ * request profiles and the maximum captured stack depth. Values are populated from Magnolia properties via optional
+ * injection hooks.
+ * <p><strong>Configuration Properties</strong></p>
+ * <ul>
+ * <li><code>magnolia.monitoring.prometheus.http.sampler.enabled</code> - <code>true</code> to enable sampling; default <code>false</code>.</li>
+ * <li><code>magnolia.monitoring.prometheus.http.sampler.threshold</code> - request age in milliseconds before sampling starts;
+ * default {@value #DEFAULT_THRESHOLD_MILLIS}.</li>
+ * <li><code>magnolia.monitoring.prometheus.http.sampler.interval</code> - sampling interval in milliseconds; default {@value #DEFAULT_INTERVAL_MILLIS}.</li>
+ * <li><code>magnolia.monitoring.prometheus.http.sampler.retained</code> - number of slow request profiles kept; default {@value #DEFAULT_RETAINED}.</li>
+ * <li><code>magnolia.monitoring.prometheus.http.sampler.maxDepth</code> - maximum number of frames per sample; default {@value #DEFAULT_MAX_DEPTH}.</li>
+ * </ul>
+ * <p><strong>Null and Error Handling</strong></p>
+ * Numeric properties must contain valid integers. Values below their minimum are raised when the configuration
+ * snapshot is built.
+ * <p><strong>Thread-Safety</strong></p>
+ * Not thread-safe; values are copied into {@link PrometheusConfigSnapshot} before use.
+ * <p><strong>Usage Example</strong></p>
+ * <pre>{@code
+ * magnolia.monitoring.prometheus.http.sampler.enabled=true
+ * magnolia.monitoring.prometheus.http.sampler.threshold=2000
+ * }</pre>
+ * @author IBM iX
+ * @since 2026-10-17
+ */
+public class SlowRequestSamplerConfig {
+
+    /** Default request age in milliseconds after which sampling starts. */
+    public static final int DEFAULT_THRESHOLD_MILLIS = 1000;
+
+    /** Default sampling interval in milliseconds. */
+    public static final int DEFAULT_INTERVAL_MILLIS = 100;
+
+    /** Default number of retained slow request profiles. */
+    public static final int DEFAULT_RETAINED = 20;
+
+    /** Default maximum number of stack frames per sample. */
+    public static final int DEFAULT_MAX_DEPTH = 64;
+
+    private boolean _enabled;
+    private int _thresholdMillis = DEFAULT_THRESHOLD_MILLIS;
+    private int _intervalMillis = DEFAULT_INTERVAL_MILLIS;
+    private int _retained = DEFAULT_RETAINED;
+    private int _maxDepth = DEFAULT_MAX_DEPTH;
+
+    /**
+     * Indicates whether slow request sampling is enabled.
+     * @return true if enabled
+     */
+    public boolean isEnabled() {
+        return _enabled;
+    }
+
+    /**
+     * Enables or disables slow request sampling.
+     * @param enabled true to enable
+     */
+    public void setEnabled(boolean enabled) {
+        _enabled = enabled;
+    }
+
+    /**
+     * Returns the request age after which the worker thread is sampled.
+     * @return threshold in milliseconds
+     */
+    public int getThresholdMillis() {
+        return _thresholdMillis;
+    }
+
+    /**
+     * Replaces the sampling threshold.
+     * @param thresholdMillis threshold in milliseconds
+     */
+    public void setThresholdMillis(int thresholdMillis) {
+        _thresholdMillis = thresholdMillis;
+    }
+
+    /**
+     * Returns the interval between two stack samples.
+     * @return interval in milliseconds
+     */
+    public int getIntervalMillis() {
+        return _intervalMillis;
+    }
+
+    /**
+     * Replaces the sampling interval.
+     * @param intervalMillis interval in milliseconds
+     */
+    public void setIntervalMillis(int intervalMillis) {
+        _intervalMillis = intervalMillis;
+    }
+
+    /**
+     * Returns the number of slow request profiles kept for the endpoint.
+     * @return number of profiles
+     */
+    public int getRetained() {
+        return _retained;
+    }
+
+    /**
+     * Replaces the number of retained slow request profiles.
+     * @param retained number of profiles
+     */
+    public void setRetained(int retained) {
+        _retained = retained;
+    }
+
+    /**
+     * Returns the maximum number of frames captured per sample.
+     * @return stack depth
+     */
+    public int getMaxDepth() {
+        return _maxDepth;
+    }
+
+    /**
+     * Replaces the maximum captured stack depth.
+     * @param maxDepth stack depth
+     */
+    public void setMaxDepth(int maxDepth) {
+        _maxDepth = maxDepth;
+    }
+
+    /**
+     * Injection hook populating the enable flag.
+     * @param enabledProp "true" to enable; must not be null
+     */
+    @Inject(optional = true)
+    protected void provideEnabledFromProps(@Named("magnolia.monitoring.prometheus.http.sampler.enabled") String enabledProp) {
+        _enabled = Boolean.parseBoolean(enabledProp.trim());
+    }
+
+    /**
+     * Injection hook populating the sampling threshold.
+     * @param thresholdProp milliseconds; must not be null
+     */
+    @Inject(optional = true)
+    protected void provideThresholdFromProps(@Named("magnolia.monitoring.prometheus.http.sampler.threshold") String thresholdProp) {
+        _thresholdMillis = Integer.parseInt(thresholdProp.trim());
+    }
+
+    /**
+     * Injection hook populating the sampling interval.
+     * @param intervalProp milliseconds; must not be null
+     */
+    @Inject(optional = true)
+    protected void provideIntervalFromProps(@Named("magnolia.monitoring.prometheus.http.sampler.interval") String intervalProp) {
+        _intervalMillis = Integer.parseInt(intervalProp.trim());
+    }
+
+    /**
+     * Injection hook populating the number of retained profiles.
+     * @param retainedProp integer value; must not be null
+     */
+    @Inject(optional = true)
+    protected void provideRetainedFromProps(@Named("magnolia.monitoring.prometheus.http.sampler.retained") String retainedProp) {
+        _retained = Integer.parseInt(retainedProp.trim());
+    }
+
+    /**
+     * Injection hook populating the maximum stack depth.
+     * @param maxDepthProp integer value; must not be null
+     */
+    @Inject(optional = true)
+    protected void provideMaxDepthFromProps(@Named("magnolia.monitoring.prometheus.http.sampler.maxDepth") String maxDepthProp) {
+        _maxDepth = Integer.parseInt(maxDepthProp.trim());
+    }
+}
@@ -0,0 +1,150 @@
+package de.ibmix.magkit.monitoring.endpoint.federation;
+
+/*-
+ * #%L
+ * IBM iX Magnolia Monitoring
+ * %%
+ * Copyright (C) 2026 IBM iX
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Peer instance whose Prometheus endpoint is merged into the federated output.
+ * <p><strong>Purpose</strong></p>
+ * Turns the configured peer entries into validated scrape targets once per configuration change so the federation
+ * endpoint does not parse URLs per request.
+ * <p><strong>Main Functionality</strong></p>
+ * Parses entries of the form <code>url</code> or <code>name=url</code>. A URL without path is completed with
+ * {@link #DEFAULT_PATH}; the instance label defaults to <code>host:port</code> like a Prometheus scrape target.
+ * <p><strong>Null and Error Handling</strong></p>
+ * Null, blank, relative and non-http(s) entries are logged and skipped by {@link #parseAll(List)}.
+ * <p><strong>Thread-Safety</strong></p>
+ * Immutable; safe to share between threads.
+ * <p><strong>Usage Example</strong></p>
+ * <pre>{@code
+ * FederationPeer peer = FederationPeer.parse("public1=http://public1:8080");
+ * peer.getUri(); // http://public1:8080/.rest/monitoring/v1/prometheus
+ * }</pre>
+ * <p><strong>Important Details</strong></p>
+ * A <code>name=</code> prefix is only recognized if it contains neither ':' nor '/', so query strings of full URLs
+ * are never mistaken for a name.
+ * @author IBM iX
+ * @since 2026-10-17
+ */
+public final class FederationPeer {
+
+    /** Path of the Prometheus endpoint appended to peer URLs without path. */
+    public static final String DEFAULT_PATH = "/.rest/monitoring/v1/prometheus";
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(FederationPeer.class);
+
+    private final String _instance;
+    private final URI _uri;
+
+    /**
+     * Creates a peer.
+     * @param instance instance label value; must not be null
+     * @param uri absolute URI of the peer's Prometheus endpoint; must not be null
+     */
+    public FederationPeer(String instance, URI uri) {
+        _instance = instance;
+        _uri = uri;
+    }
+
+    /**
+     * Returns the instance label value of this peer.
+     * @return label value; never null
+     */
+    public String getInstance() {
+        return _instance;
+    }
+
+    /**
+     * Returns the URI scraped on this peer.
+     * @return absolute http(s) URI; never null
+     */
+    public URI getUri() {
+        return _uri;
+    }
+
+    /**
+     * Parses one peer entry.
+     * @param entry <code>url</code> or <code>name=url</code>; may be null
+     * @return peer; null if the entry is not a valid absolute http(s) URL
+     */
+    public static FederationPeer parse(String entry) {
+        if (entry == null || entry.isBlank()) {
+            return null;
+        }
+        String value = entry.trim();
+        String name = null;
+        int separator = value.indexOf('=');
+        if (separator > 0 && value.substring(0, separator).chars().noneMatch(c -> c == ':' || c == '/')) {
+            name = value.substring(0, separator).trim();
+            value = value.substring(separator + 1).trim();
+        }
+        try {
+            URI uri = new URI(value);
+            String scheme = uri.getScheme();
+            if (uri.getHost() == null || !("http".equalsIgnoreCase(scheme) || "https".equalsIgnoreCase(scheme))) {
+                return null;
+            }
+            String path = uri.getRawPath();
+            if (path == null || path.isEmpty() || "/".equals(path)) {
+                uri = new URI(scheme, uri.getRawUserInfo() == null ? null : uri.getUserInfo(), uri.getHost(), uri.getPort(), DEFAULT_PATH, uri.getQuery(), null);
+            }
+            String instance = name != null && !name.isEmpty() ? name : uri.getPort() > 0 ? uri.getHost() + ':' + uri.getPort() : uri.getHost();
+            return new FederationPeer(instance, uri);
+        } catch (URISyntaxException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Parses all peer entries, skipping invalid ones.
+     * @param entries peer entries; may be null
+     * @return unmodifiable peer list in configuration order; never null
+     */
+    public static List<FederationPeer> parseAll(List<String> entries) {
+        if (entries == null || entries.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<FederationPeer> peers = new ArrayList<>();
+        for (String entry : entries) {
+            FederationPeer peer = parse(entry);
+            if (peer != null) {
+                peers.add(peer);
+            } else if (entry != null) {
+                LOGGER.warn("Ignoring invalid federation peer '{}'.", entry);
+            }
+        }
+        return Collections.unmodifiableList(peers);
+    }
+
+    @Override
+    public String toString() {
+        return _instance + '=' + _uri;
+    }
+
+}
@@ -0,0 +1,197 @@
+package de.ibmix.magkit.monitoring.endpoint.federation;
+
+/*-
+ * #%L
+ * IBM iX Magnolia Monitoring
+ * %%
+ * Copyright (C) 2026 IBM iX
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Incremental reader splitting a Prometheus text exposition into metric families.
+ * <p><strong>Purpose</strong></p>
+ * Lets the federation endpoint merge expositions while holding only the current family of every source in memory,
+ * instead of parsing complete scrapes.
+ * <p><strong>Main Functionality</strong></p>
+ * A family starts with its <code># HELP</code> and/or <code># TYPE</code> line, followed by the consecutive samples of the
+ * metric, including suffixed series such as <code>_bucket</code>, <code>_count</code> and <code>_sum</code>. Other samples
+ * without preceding metadata form untyped families of consecutive lines with the same metric name. Other comments and blank
+ * lines are skipped.
+ * <p><strong>Null and Error Handling</strong></p>
+ * Lines are not validated; malformed sample lines are passed through. I/O errors of the underlying reader propagate.
+ * <p><strong>Thread-Safety</strong></p>
+ * Not thread-safe; one reader per source and request.
+ * <p><strong>Usage Example</strong></p>
+ * <pre>{@code
+ * MetricFamilyReader reader = new MetricFamilyReader(new BufferedReader(new StringReader(exposition)));
+ * for (MetricFamilyReader.MetricFamily family = reader.next(); family != null; family = reader.next()) {
+ *     family.getSamples().forEach(System.out::println);
+ * }
+ * }</pre>
+ * <p><strong>Important Details</strong></p>
+ * The exposition writer of the Prometheus client orders families by their base name, which is the metric name without
+ * the <code>_total</code> suffix of counters; {@link MetricFamily#getSortKey()} reproduces that order for the merge.
+ * @author IBM iX
+ * @since 2026-10-17
+ */
+final class MetricFamilyReader {
+
+    private static final String HELP_PREFIX = "# HELP ";
+    private static final String TYPE_PREFIX = "# TYPE ";
+    private static final String COUNTER_SUFFIX = "_total";
+
+    private final BufferedReader _reader;
+    private String _pending;
+
+    /**
+     * Creates a reader over the given exposition.
+     * @param reader Prometheus text exposition; must not be null
+     */
+    MetricFamilyReader(BufferedReader reader) {
+        _reader = reader;
+    }
+
+    /**
+     * Reads the next metric family.
+     * @return family; null at the end of the exposition
+     * @throws IOException if reading fails
+     */
+    MetricFamily next() throws IOException {
+        MetricFamily family = null;
+        for (String line = nextLine(); line != null; line = nextLine()) {
+            if (line.isEmpty() || (line.charAt(0) == '#' && !isMetadata(line))) {
+                continue;
+            }
+            String name = isMetadata(line) ? metadataName(line) : sampleName(line);
+            if (family == null) {
+                family = new MetricFamily(name, !isMetadata(line));
+            } else if (!family.accepts(name, isMetadata(line))) {
+                _pending = line;
+                break;
+            }
+            family.add(line);
+        }
+        return family;
+    }
+
+    private String nextLine() throws IOException {
+        if (_pending != null) {
+            String line = _pending;
+            _pending = null;
+            return line;
+        }
+        return _reader.readLine();
+    }
+
+    private static boolean isMetadata(String line) {
+        return line.startsWith(HELP_PREFIX) || line.startsWith(TYPE_PREFIX);
+    }
+
+    private static String metadataName(String line) {
+        int start = HELP_PREFIX.length();
+        int end = line.indexOf(' ', start);
+        return end < 0 ? line.substring(start) : line.substring(start, end);
+    }
+
+    /**
+     * Returns the metric name of a sample line, i.e. everything before the label set or the value.
+     * @param line sample line; must not be null
+     * @return metric name
+     */
+    static String sampleName(String line) {
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (c == '{' || c == ' ') {
+                return line.substring(0, i);
+            }
+        }
+        return line;
+    }
+
+    /**
+     * One metric family: its optional <code># HELP</code> and <code># TYPE</code> lines and its sample lines.
+     */
+    static final class MetricFamily {
+
+        private final String _name;
+        private final boolean _untyped;
+        private final List<String> _metadata = new ArrayList<>(2);
+        private final List<String> _samples = new ArrayList<>();
+        private String _sortKey;
+
+        private MetricFamily(String name, boolean untyped) {
+            _name = name;
+            _untyped = untyped;
+            _sortKey = name;
+        }
+
+        /**
+         * Returns the metric name of the metadata lines, or of the samples for untyped families.
+         * @return name; never null
+         */
+        String getName() {
+            return _name;
+        }
+
+        /**
+         * Returns the key the exposition writer orders families by.
+         * @return base name; never null
+         */
+        String getSortKey() {
+            return _sortKey;
+        }
+
+        /**
+         * Returns the <code># HELP</code> and <code># TYPE</code> lines in exposition order.
+         * @return metadata lines; empty for untyped families
+         */
+        List<String> getMetadata() {
+            return _metadata;
+        }
+
+        /**
+         * Returns the sample lines.
+         * @return sample lines in exposition order; never null
+         */
+        List<String> getSamples() {
+            return _samples;
+        }
+
+        private boolean accepts(String name, boolean metadata) {
+            if (metadata) {
+                return !_untyped && _samples.isEmpty() && _name.equals(name);
+            }
+            return _name.equals(name) || (!_untyped && (name.equals(_sortKey) || name.startsWith(_sortKey + '_')));
+        }
+
+        private void add(String line) {
+            if (!isMetadata(line)) {
+                _samples.add(line);
+                return;
+            }
+            _metadata.add(line);
+            if (line.startsWith(TYPE_PREFIX) && line.endsWith(" counter") && _name.endsWith(COUNTER_SUFFIX)) {
+                _sortKey = _name.substring(0, _name.length() - COUNTER_SUFFIX.length());
+            }
+        }
+    }
+
+}
@@ -0,0 +1,158 @@
+package de.ibmix.magkit.monitoring.endpoint.prometheus;
+
+/*-
+ * #%L
+ * IBM iX Magnolia Monitoring
+ * %%
+ * Copyright (C) 2026 IBM iX
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+
+import java.lang.reflect.Method;
+import java.util.Locale;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * Outcome of the Magnolia page cache for a request, used as <code>cache</code> tag of the HTTP request timers.
+ * <p><strong>Purpose</strong></p>
+ * Splits request latency by cache outcome, so a slow p99 can be attributed to cache misses or to slow cache hits.
+ * <p><strong>Main Functionality</strong></p>
+ * {@link #resolve(HttpServletRequest, HttpServletResponse, String)} runs after the filter chain. It first reads an
+ * optionally configured response header, then the <code>CachePolicyResult</code> the Magnolia cache filter stores as
+ * request attribute {@value #CACHE_POLICY_RESULT_ATTRIBUTE}. The policy behaviour is mapped as follows:
+ * <code>useCache</code> to {@link #HIT}, <code>store</code> to {@link #MISS} and <code>bypass</code> to {@link #BYPASS}.
+ * <p><strong>Key Features</strong></p>
+ * <ul>
+ * <li>No compile time dependency on the Magnolia cache module; the behaviour is read reflectively once per class.</li>
+ * <li>Header values such as <code>HIT</code>, <code>MISS</code>, <code>BYPASS</code> or <code>BLOCKED</code>/<code>WAITED</code>
+ * are matched case-insensitively, so a custom filter or front-end cache can report its own outcome.</li>
+ * <li>A bounded set of tag values.</li>
+ * </ul>
+ * <p><strong>Null and Error Handling</strong></p>
+ * Requests not handled by the cache filter, unknown values and reflection failures resolve to {@link #NONE}.
+ * <p><strong>Thread-Safety</strong></p>
+ * Stateless apart from the per-class accessor cache; safe for concurrent use.
+ * <p><strong>Usage Example</strong></p>
+ * <pre>{@code
+ * Tag cache = Tag.of("cache", CacheOutcome.resolve(request, response, "X-Cache").getTagValue());
+ * }</pre>
+ * <p><strong>Important Details</strong></p>
+ * The Magnolia cache policy result does not tell whether a request waited on a blocked cache entry filled by another
+ * request; {@link #BLOCKED} is therefore only reported through the configured header.
+ * @author IBM iX
+ * @since 2026-10-17
+ */
+public enum CacheOutcome {
+
+    /** Served from the cache. */
+    HIT("hit"),
+
+    /** Rendered and stored in the cache. */
+    MISS("miss"),
+
+    /** Cache bypassed by the cache policy. */
+    BYPASS("bypass"),
+
+    /** Waited on a cache entry blocked by a concurrent request. */
+    BLOCKED("blocked"),
+
+    /** Not handled by the cache or outcome unknown. */
+    NONE("none");
+
+    /** Request attribute under which the Magnolia cache filter stores the current cache policy result. */
+    public static final String CACHE_POLICY_RESULT_ATTRIBUTE = "info.magnolia.module.cache.filter.CachePolicyResult";
+
+    private static final ClassValue<Method> BEHAVIOUR_ACCESSOR = new ClassValue<>() {
+        @Override
+        protected Method computeValue(Class<?> type) {
+            try {
+                return type.getMethod("getBehaviour");
+            } catch (NoSuchMethodException e) {
+                return null;
+            }
+        }
+    };
+
+    private final String _tagValue;
+
+    CacheOutcome(String tagValue) {
+        _tagValue = tagValue;
+    }
+
+    /**
+     * Returns the tag value of this outcome.
+     * @return lower case tag value
+     */
+    public String getTagValue() {
+        return _tagValue;
+    }
+
+    /**
+     * Resolves the cache outcome of a processed request.
+     * @param request current HTTP request; may be null
+     * @param response current HTTP response; may be null
+     * @param header response header carrying the outcome; null to only use the cache filter's request attribute
+     * @return cache outcome; never null
+     */
+    public static CacheOutcome resolve(HttpServletRequest request, HttpServletResponse response, String header) {
+        if (header != null && response != null) {
+            String value = response.getHeader(header);
+            if (value != null && !value.isEmpty()) {
+                return parse(value);
+            }
+        }
+        Object policyResult = request != null ? request.getAttribute(CACHE_POLICY_RESULT_ATTRIBUTE) : null;
+        return policyResult != null ? parse(getBehaviour(policyResult)) : NONE;
+    }
+
+    /**
+     * Maps a cache policy behaviour or cache header value to an outcome.
+     * @param value behaviour or header value; may be null
+     * @return cache outcome; {@link #NONE} if not recognized
+     */
+    static CacheOutcome parse(String value) {
+        if (value == null) {
+            return NONE;
+        }
+        String normalized = value.toLowerCase(Locale.ROOT);
+        if (normalized.contains("bypass")) {
+            return BYPASS;
+        } else if (normalized.contains("block") || normalized.contains("wait")) {
+            return BLOCKED;
+        } else if (normalized.contains("miss") || normalized.contains("store")) {
+            return MISS;
+        } else if (normalized.contains("hit") || normalized.contains("usecache")) {
+            return HIT;
+        }
+        return NONE;
+    }
+
+    private static String getBehaviour(Object policyResult) {
+        Method accessor = BEHAVIOUR_ACCESSOR.get(policyResult.getClass());
+        if (accessor == null) {
+            return policyResult.toString();
+        }
+        try {
+            Object behaviour = accessor.invoke(policyResult);
+            return behaviour != null ? behaviour.toString() : null;
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return null;
+        }
+    }
+
+}
@@ -0,0 +1,222 @@
+package de.ibmix.magkit.monitoring.endpoint.prometheus;
+
+/*-
+ * #%L
+ * IBM iX Magnolia Monitoring
+ * %%
+ * Copyright (C) 2026 IBM iX
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntSupplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import io.micrometer.core.instrument.Meter.Id;
+import io.micrometer.core.instrument.Tag;
+import io.micrometer.core.instrument.config.MeterFilter;
+import io.prometheus.metrics.model.registry.MultiCollector;
+import io.prometheus.metrics.model.snapshots.CounterSnapshot;
+import io.prometheus.metrics.model.snapshots.GaugeSnapshot;
+import io.prometheus.metrics.model.snapshots.Labels;
+import io.prometheus.metrics.model.snapshots.MetricSnapshots;
+
+/**
+ * Meter filter capping the number of series (distinct tag combinations) per meter name.
+ * <p><strong>Purpose</strong></p>
+ * Protects the registry against unbounded tag values, e.g. a crawler requesting random URLs or an unexpected mix of
+ * status codes, which would otherwise create tens of thousands of meters and slow down every scrape.
+ * <p><strong>Main Functionality</strong></p>
+ * Tracks the tag combinations registered per meter name. Once a name has reached the maximum, every new combination is
+ * mapped to a single overflow series whose tag values are all {@value #OVERFLOW_TAG_VALUE}; the tag keys are kept, so the
+ * overflow series stays compatible with the other series of the same name. Also acts as a Prometheus
+ * {@link MultiCollector} exposing its own bookkeeping.
+ * <p><strong>Key Features</strong></p>
+ * <ul>
+ * <li>Series already registered keep recording unchanged; only new combinations are folded.</li>
+ * <li>Removing a meter from the registry releases its slot, see {@link #release(Id)}.</li>
+ * <li>Gauge {@value #METER_SERIES} with the number of admitted series per meter name.</li>
+ * <li>Counter {@value #METER_SERIES_DROPPED} with the number of tag combinations folded into the overflow series.</li>
+ * <li>Maximum read on every evaluation, so configuration changes apply without recreating the registry.</li>
+ * </ul>
+ * <p><strong>Null and Error Handling</strong></p>
+ * A maximum below one disables the limit. Folding is logged once per meter name.
+ * <p><strong>Thread-Safety</strong></p>
+ * Thread-safe. Admission is a lock-free reservation on a per-name counter, so concurrent registrations never exceed the
+ * maximum.
+ * <p><strong>Usage Example</strong></p>
+ * <pre>{@code
+ * CardinalityLimitingMeterFilter limiter = new CardinalityLimitingMeterFilter(() -> 1000);
+ * registry.config().meterFilter(limiter);
+ * registry.config().onMeterRemoved(meter -> limiter.release(meter.getId()));
+ * registry.getPrometheusRegistry().register(limiter);
+ * }</pre>
+ * <p><strong>Important Details</strong></p>
+ * Micrometer caches the mapped id per requested id, so the filter runs once per distinct requested tag combination and
+ * the dropped counter counts distinct combinations rather than recordings. Must be registered after filters that rewrite
+ * tags, e.g. the URI whitelist, so that combinations collapsed by those filters are only counted once.
+ * @author IBM iX
+ * @since 2026-10-17
+ */
+public class CardinalityLimitingMeterFilter implements MeterFilter, MultiCollector {
+
+    /** Tag value of the series that collects all tag combinations beyond the maximum. */
+    public static final String OVERFLOW_TAG_VALUE = "__overflow__";
+
+    /** Name of the gauge reporting the admitted series per meter name. */
+    public static final String METER_SERIES = "meter_series";
+
+    /** Name of the counter reporting the tag combinations folded into the overflow series per meter name. */
+    public static final String METER_SERIES_DROPPED = "meter_series_dropped";
+
+    /** Label carrying the meter name in the self-metrics. */
+    public static final String METER_LABEL = "meter";
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(CardinalityLimitingMeterFilter.class);
+
+    private final IntSupplier _maxSeries;
+    private final Map<String, Cardinality> _cardinalities = new ConcurrentHashMap<>();
+
+    /**
+     * Creates the filter.
+     * @param maxSeries supplier of the maximum number of series per meter name; values below one disable the limit
+     */
+    public CardinalityLimitingMeterFilter(IntSupplier maxSeries) {
+        _maxSeries = maxSeries;
+    }
+
+    /**
+     * Admits the id if its tag combination is known or the name is below the maximum, otherwise maps it to the overflow series.
+     * @param id requested meter id
+     * @return the id itself or its overflow id
+     */
+    @Override
+    public Id map(Id id) {
+        List<Tag> tags = id.getTags();
+        if (tags.isEmpty()) {
+            return id;
+        }
+        Cardinality cardinality = _cardinalities.computeIfAbsent(id.getName(), name -> new Cardinality());
+        if (cardinality.admit(tags, _maxSeries.getAsInt())) {
+            return id;
+        }
+        if (cardinality._dropped.getAndIncrement() == 0) {
+            LOGGER.warn("Meter '{}' reached its maximum of {} series, further tag combinations are recorded as '{}'",
+                id.getName(), cardinality._series.get(), OVERFLOW_TAG_VALUE);
+        }
+        List<Tag> overflowTags = new ArrayList<>(tags.size());
+        tags.forEach(t -> overflowTags.add(Tag.of(t.getKey(), OVERFLOW_TAG_VALUE)));
+        return id.replaceTags(overflowTags);
+    }
+
+    /**
+     * Releases the slot of a removed meter, so that a new tag combination of the same name can take its place. Ids of
+     * the overflow series and of combinations never admitted are ignored.
+     * @param id id of the removed meter
+     */
+    public void release(Id id) {
+        Cardinality cardinality = _cardinalities.get(id.getName());
+        if (cardinality != null && cardinality._known.remove(id.getTags())) {
+            cardinality._series.decrementAndGet();
+        }
+    }
+
+    /**
+     * Returns the number of admitted series of the given meter name.
+     * @param name meter name
+     * @return admitted series; 0 if unknown
+     */
+    public int getSeries(String name) {
+        Cardinality cardinality = _cardinalities.get(name);
+        return cardinality != null ? cardinality._series.get() : 0;
+    }
+
+    /**
+     * Returns the number of tag combinations of the given meter name that were folded into the overflow series.
+     * @param name meter name
+     * @return folded tag combinations; 0 if unknown
+     */
+    public long getDropped(String name) {
+        Cardinality cardinality = _cardinalities.get(name);
+        return cardinality != null ? cardinality._dropped.get() : 0;
+    }
+
+    /**
+     * Collects the admitted and dropped series per meter name.
+     * @return gauge and counter snapshots
+     */
+    @Override
+    public MetricSnapshots collect() {
+        GaugeSnapshot.Builder series = GaugeSnapshot.builder().name(METER_SERIES).help("Series registered per meter name");
+        CounterSnapshot.Builder dropped = CounterSnapshot.builder().name(METER_SERIES_DROPPED)
+            .help("Tag combinations folded into the overflow series per meter name");
+        _cardinalities.forEach((name, cardinality) -> {
+            Labels labels = Labels.of(METER_LABEL, name);
+            series.dataPoint(GaugeSnapshot.GaugeDataPointSnapshot.builder().labels(labels).value(cardinality._series.get()).build());
+            dropped.dataPoint(CounterSnapshot.CounterDataPointSnapshot.builder().labels(labels).value(cardinality._dropped.get()).build());
+        });
+        return MetricSnapshots.of(series.build(), dropped.build());
+    }
+
+    /**
+     * Returns the names of the self-metrics so that name filtered scrapes can skip this collector.
+     * @return metric names
+     */
+    @Override
+    public List<String> getPrometheusNames() {
+        return List.of(METER_SERIES, METER_SERIES_DROPPED);
+    }
+
+    /**
+     * Bookkeeping of a single meter name.
+     */
+    private static final class Cardinality {
+
+        private final Set<List<Tag>> _known = ConcurrentHashMap.newKeySet();
+        private final AtomicInteger _series = new AtomicInteger();
+        private final AtomicLong _dropped = new AtomicLong();
+
+        private boolean admit(List<Tag> tags, int maxSeries) {
+            if (_known.contains(tags)) {
+                return true;
+            }
+            if (maxSeries > 0) {
+                int current;
+                do {
+                    current = _series.get();
+                    if (current >= maxSeries) {
+                        return false;
+                    }
+                } while (!_series.compareAndSet(current, current + 1));
+                if (!_known.add(tags)) {
+                    _series.decrementAndGet();
+                }
+            } else if (_known.add(tags)) {
+                _series.incrementAndGet();
+            }
+            return true;
+        }
+    }
+
+}
@@ -0,0 +1,236 @@
+package de.ibmix.magkit.monitoring.endpoint.prometheus;
+
+/*-
+ * #%L
+ * IBM iX Magnolia Monitoring
+ * %%
+ * Copyright (C) 2026 IBM iX
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.nio.charset.IllegalCharsetNameException;
+import java.nio.charset.StandardCharsets;
+import java.nio.charset.UnsupportedCharsetException;
+
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpServletResponseWrapper;
+
+/**
+ * Response wrapper counting the body bytes an application writes through {@link #getOutputStream()} or {@link #getWriter()}.
+ * <p><strong>Purpose</strong></p>
+ * Provides the response size for the <code>http_server_response_bytes</code> distribution of {@link PrometheusFilter}
+ * without buffering or copying the response body.
+ * <p><strong>Main Functionality</strong></p>
+ * The output stream and writer of the wrapped response are decorated on first access. Bytes written to the stream are
+ * counted as they pass through. Characters written to the writer are converted to their encoded length in the
+ * response character encoding (exact for UTF-8 and single byte charsets, average bytes per char for others).
+ * <p><strong>Key Features</strong></p>
+ * <ul>
+ * <li>Pure pass-through: every write is forwarded immediately to the container's stream or writer.</li>
+ * <li>Decorators are created at most once per response; all other methods are delegated by {@link HttpServletResponseWrapper}.</li>
+ * <li>Non-blocking IO ({@link ServletOutputStream#setWriteListener(WriteListener)}) is delegated unchanged.</li>
+ * </ul>
+ * <p><strong>Null and Error Handling</strong></p>
+ * Unknown character encodings fall back to ISO-8859-1, the servlet default. IO errors of the wrapped response propagate unchanged.
+ * <p><strong>Thread-Safety</strong></p>
+ * Not thread-safe, like the response it wraps. The count is expected to be read after the response has been completed.
+ * <p><strong>Usage Example</strong></p>
+ * <pre>{@code
+ * CountingHttpServletResponse counting = new CountingHttpServletResponse(response);
+ * chain.doFilter(request, counting);
+ * long bytes = counting.getBytesWritten();
+ * }</pre>
+ * <p><strong>Important Details</strong></p>
+ * Counts body bytes produced by the application before any container side compression; headers are not included.
+ * Content discarded by {@link #reset()} or {@link #resetBuffer()} remains counted.
+ * @author IBM iX
+ * @since 2026-10-17
+ */
+public class CountingHttpServletResponse extends HttpServletResponseWrapper {
+
+    private long _bytesWritten;
+    private CountingOutputStream _outputStream;
+    private PrintWriter _writer;
+
+    /**
+     * Wraps the given response.
+     * @param response response to count; must not be null
+     */
+    public CountingHttpServletResponse(HttpServletResponse response) {
+        super(response);
+    }
+
+    /**
+     * Returns the number of body bytes written so far.
+     * @return written bytes
+     */
+    public long getBytesWritten() {
+        return _bytesWritten;
+    }
+
+    @Override
+    public ServletOutputStream getOutputStream() throws IOException {
+        if (_outputStream == null) {
+            _outputStream = new CountingOutputStream(super.getOutputStream());
+        }
+        return _outputStream;
+    }
+
+    @Override
+    public PrintWriter getWriter() throws IOException {
+        if (_writer == null) {
+            _writer = new PrintWriter(new CountingWriter(super.getWriter(), resolveCharset(getCharacterEncoding())));
+        }
+        return _writer;
+    }
+
+    private static Charset resolveCharset(String encoding) {
+        if (encoding != null) {
+            try {
+                return Charset.forName(encoding);
+            } catch (IllegalCharsetNameException | UnsupportedCharsetException e) {
+                // fall through to servlet default
+            }
+        }
+        return StandardCharsets.ISO_8859_1;
+    }
+
+    /**
+     * Output stream forwarding every write to the container stream while counting bytes.
+     */
+    private final class CountingOutputStream extends ServletOutputStream {
+
+        private final ServletOutputStream _delegate;
+
+        CountingOutputStream(ServletOutputStream delegate) {
+            _delegate = delegate;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            _delegate.write(b);
+            _bytesWritten++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            _delegate.write(b, off, len);
+            _bytesWritten += len;
+        }
+
+        @Override
+        public void flush() throws IOException {
+            _delegate.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            _delegate.close();
+        }
+
+        @Override
+        public boolean isReady() {
+            return _delegate.isReady();
+        }
+
+        @Override
+        public void setWriteListener(WriteListener writeListener) {
+            _delegate.setWriteListener(writeListener);
+        }
+    }
+
+    /**
+     * Writer forwarding every write to the container writer while adding the encoded length of the characters.
+     */
+    private final class CountingWriter extends Writer {
+
+        private final Writer _delegate;
+        private final boolean _utf8;
+        private final float _bytesPerChar;
+
+        CountingWriter(Writer delegate, Charset charset) {
+            _delegate = delegate;
+            _utf8 = StandardCharsets.UTF_8.equals(charset);
+            _bytesPerChar = charset.canEncode() ? charset.newEncoder().averageBytesPerChar() : 1f;
+        }
+
+        @Override
+        public void write(int c) throws IOException {
+            _delegate.write(c);
+            _bytesWritten += _utf8 ? utf8Length((char) c) : Math.round(_bytesPerChar);
+        }
+
+        @Override
+        public void write(char[] cbuf, int off, int len) throws IOException {
+            _delegate.write(cbuf, off, len);
+            if (_utf8) {
+                long bytes = 0;
+                for (int i = off; i < off + len; i++) {
+                    bytes += utf8Length(cbuf[i]);
+                }
+                _bytesWritten += bytes;
+            } else {
+                _bytesWritten += Math.round(len * _bytesPerChar);
+            }
+        }
+
+        @Override
+        public void write(String str, int off, int len) throws IOException {
+            _delegate.write(str, off, len);
+            if (_utf8) {
+                long bytes = 0;
+                for (int i = off; i < off + len; i++) {
+                    bytes += utf8Length(str.charAt(i));
+                }
+                _bytesWritten += bytes;
+            } else {
+                _bytesWritten += Math.round(len * _bytesPerChar);
+            }
+        }
+
+        @Override
+        public void flush() throws IOException {
+            _delegate.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            _delegate.close();
+        }
+
+        /**
+         * Returns the UTF-8 length of a UTF-16 code unit; a surrogate pair counts four bytes in total.
+         */
+        private int utf8Length(char c) {
+            if (c < 0x80) {
+                return 1;
+            } else if (c < 0x800) {
+                return 2;
+            } else if (Character.isHighSurrogate(c)) {
+                return 4;
+            } else if (Character.isLowSurrogate(c)) {
+                return 0;
+            }
+            return 3;
+        }
+    }
+
+}
@@ -0,0 +1,131 @@
+package de.ibmix.magkit.monitoring.endpoint.prometheus;
+
+/*-
+ * #%L
+ * IBM iX Magnolia Monitoring
+ * %%
+ * Copyright (C) 2026 IBM iX
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+
+import java.util.function.BooleanSupplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import info.magnolia.cms.filters.CompositeFilter;
+import info.magnolia.cms.filters.MgnlFilter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Instruments the Magnolia main filter chain with {@link TimedMgnlFilter} wrappers.
+ * <p><strong>Purpose</strong></p>
+ * Installs per-filter self time measurement without changing the filter configuration in the repository.
+ * <p><strong>Main Functionality</strong></p>
+ * Walks the root {@link CompositeFilter} and every nested composite and replaces each child filter by a
+ * {@link TimedMgnlFilter}. Called by {@link PrometheusFilter} with the current root filter; a root already instrumented
+ * is recognized by identity and skipped, while a root rebuilt by Magnolia after a configuration change is instrumented
+ * again.
+ * <p><strong>Key Features</strong></p>
+ * <ul>
+ * <li>Idempotent: filters that are already wrapped are kept.</li>
+ * <li>Cheap steady state: one volatile read per request once the root is instrumented.</li>
+ * </ul>
+ * <p><strong>Null and Error Handling</strong></p>
+ * A null root or a root that is no composite is ignored.
+ * <p><strong>Thread-Safety</strong></p>
+ * Instrumentation is serialized on this instance. Child arrays are replaced as a whole, so requests already running keep
+ * the array they started with.
+ * <p><strong>Usage Example</strong></p>
+ * <pre>{@code
+ * FilterChainTimer timer = new FilterChainTimer(registry, () -> true);
+ * timer.instrument(filterManager.getFilter());
+ * }</pre>
+ * <p><strong>Important Details</strong></p>
+ * The root composite itself is not wrapped; its own overhead is negligible and it is the chain's entry point.
+ * @author IBM iX
+ * @since 2026-10-17
+ */
+public class FilterChainTimer {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(FilterChainTimer.class);
+
+    private final MeterRegistry _registry;
+    private final BooleanSupplier _enabled;
+
+    private volatile MgnlFilter _instrumentedRoot;
+
+    /**
+     * Creates the instrumenter.
+     * @param registry registry receiving the self time timers
+     * @param enabled supplier telling whether timing is currently enabled; evaluated per request by the wrappers
+     */
+    public FilterChainTimer(MeterRegistry registry, BooleanSupplier enabled) {
+        _registry = registry;
+        _enabled = enabled;
+    }
+
+    /**
+     * Wraps all filters below the given root unless that root has been instrumented before.
+     * @param root root filter of the main filter chain; may be null
+     */
+    public void instrument(MgnlFilter root) {
+        if (root == null || root == _instrumentedRoot) {
+            return;
+        }
+        synchronized (this) {
+            if (root != _instrumentedRoot) {
+                if (root instanceof CompositeFilter) {
+                    int wrapped = wrapChildren((CompositeFilter) root);
+                    LOGGER.info("Recording self time of {} Magnolia filters to '{}'", wrapped, TimedMgnlFilter.MAGNOLIA_FILTER_SELF);
+                }
+                _instrumentedRoot = root;
+            }
+        }
+    }
+
+    /**
+     * Indicates whether the given root has been instrumented.
+     * @param root root filter
+     * @return true if instrumented
+     */
+    public boolean isInstrumented(MgnlFilter root) {
+        return root != null && root == _instrumentedRoot;
+    }
+
+    private int wrapChildren(CompositeFilter composite) {
+        MgnlFilter[] filters = composite.getFilters();
+        if (filters == null) {
+            return 0;
+        }
+        int wrapped = 0;
+        MgnlFilter[] instrumented = filters.clone();
+        for (int i = 0; i < instrumented.length; i++) {
+            MgnlFilter filter = instrumented[i];
+            MgnlFilter target = filter instanceof TimedMgnlFilter ? ((TimedMgnlFilter) filter).getDelegate() : filter;
+            if (target instanceof CompositeFilter) {
+                wrapped += wrapChildren((CompositeFilter) target);
+            }
+            if (filter != null && !(filter instanceof TimedMgnlFilter)) {
+                instrumented[i] = new TimedMgnlFilter(filter, _registry, _enabled);
+                wrapped++;
+            }
+        }
+        composite.setFilters(instrumented);
+        return wrapped;
+    }
+
+}
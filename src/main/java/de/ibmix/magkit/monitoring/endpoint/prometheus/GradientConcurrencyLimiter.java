@@ -0,0 +1,224 @@
+package de.ibmix.magkit.monitoring.endpoint.prometheus;
+
+/*-
+ * #%L
+ * IBM iX Magnolia Monitoring
+ * %%
+ * Copyright (C) 2026 IBM iX
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+import io.micrometer.core.instrument.Clock;
+
+/**
+ * Adaptive concurrency limit estimating the sustainable number of in-flight requests from observed latency.
+ * <p><strong>Purpose</strong></p>
+ * Used by {@link PrometheusFilter} for load shedding: when latency starts to grow because request threads queue for
+ * shared resources, the limit shrinks and excess requests are rejected before they occupy a container thread.
+ * <p><strong>Main Functionality</strong></p>
+ * Follows the gradient approach known from Netflix' concurrency-limits library. Latencies are aggregated into short
+ * sample windows. At the end of each window the average latency (short RTT) is compared with an exponentially smoothed
+ * long-term average (long RTT):
+ * <pre>
+ * gradient = clamp(0.5, 1.0, tolerance * longRtt / shortRtt)
+ * newLimit = limit * gradient + sqrt(limit)
+ * limit    = limit * (1 - smoothing) + newLimit * smoothing
+ * </pre>
+ * The square root term lets the limit probe upwards while latency is stable; the gradient pulls it down as soon as
+ * latency exceeds the tolerated deviation from the long-term baseline.
+ * <p><strong>Key Features</strong></p>
+ * <ul>
+ * <li>Lock-free admission through a compare-and-set in-flight counter.</li>
+ * <li>Latency sum and count of a window are updated and reset together under a short lock, so a sample never lands
+ * half in one window and half in the next; the limit is recomputed by a single thread per window.</li>
+ * <li>The limit is not raised while the application does not use at least half of it.</li>
+ * <li>Long-term baseline recovers quickly after a latency drop, so the limit does not stay depressed.</li>
+ * </ul>
+ * <p><strong>Null and Error Handling</strong></p>
+ * Bounds are expected to be sanitized by the caller (see {@link de.ibmix.magkit.monitoring.config.prometheus.PrometheusConfigSnapshot}).
+ * <p><strong>Thread-Safety</strong></p>
+ * Fully thread-safe. Every successful {@link #tryAcquire()} must be paired with exactly one {@link #release(long)}.
+ * <p><strong>Usage Example</strong></p>
+ * <pre>{@code
+ * if (limiter.tryAcquire()) {
+ *     long start = clock.monotonicTime();
+ *     try {
+ *         chain.doFilter(request, response);
+ *     } finally {
+ *         limiter.release(clock.monotonicTime() - start);
+ *     }
+ * }
+ * }</pre>
+ * <p><strong>Important Details</strong></p>
+ * Rejected requests are not sampled. A window needs at least {@value #MIN_WINDOW_SAMPLES} samples before the limit is
+ * updated, so the limit stays at its current value under very low traffic.
+ * @author IBM iX
+ * @since 2026-10-17
+ */
+public class GradientConcurrencyLimiter {
+
+    /** Minimum number of samples per window before the limit is recomputed. */
+    static final int MIN_WINDOW_SAMPLES = 10;
+
+    private static final long WINDOW_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+    private static final double TOLERANCE = 1.5;
+    private static final double SMOOTHING = 0.2;
+    private static final double LONG_RTT_FACTOR = 2.0 / (100 + 1);
+    private static final double LONG_RTT_DECAY = 0.95;
+
+    private final int _initialLimit;
+    private final int _minLimit;
+    private final int _maxLimit;
+    private final Clock _clock;
+
+    private final AtomicInteger _inFlight = new AtomicInteger();
+    private final AtomicInteger _maxInFlight = new AtomicInteger();
+    private final Object _sampleLock = new Object();
+    private final ReentrantLock _updateLock = new ReentrantLock();
+
+    private volatile int _limit;
+    private volatile long _windowStart;
+    private double _longRtt;
+    private long _rttSum;
+    private long _rttCount;
+
+    /**
+     * Creates a limiter.
+     * @param initialLimit limit used until the first window has been evaluated
+     * @param minLimit lower bound of the limit; at least one
+     * @param maxLimit upper bound of the limit
+     * @param clock clock providing monotonic time for the sample windows
+     */
+    public GradientConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit, Clock clock) {
+        _initialLimit = initialLimit;
+        _minLimit = minLimit;
+        _maxLimit = maxLimit;
+        _clock = clock;
+        _limit = initialLimit;
+        _windowStart = clock.monotonicTime();
+    }
+
+    /**
+     * Tries to admit a request.
+     * @return true if admitted; the caller must call {@link #release(long)} afterwards
+     */
+    public boolean tryAcquire() {
+        while (true) {
+            int current = _inFlight.get();
+            if (current >= _limit) {
+                return false;
+            }
+            if (_inFlight.compareAndSet(current, current + 1)) {
+                int max = _maxInFlight.get();
+                while (current + 1 > max && !_maxInFlight.compareAndSet(max, current + 1)) {
+                    max = _maxInFlight.get();
+                }
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Releases an admitted request and records its latency.
+     * @param rttNanos request latency in nanoseconds
+     */
+    public void release(long rttNanos) {
+        _inFlight.decrementAndGet();
+        synchronized (_sampleLock) {
+            _rttSum += rttNanos;
+            _rttCount++;
+        }
+        long now = _clock.monotonicTime();
+        if (now - _windowStart >= WINDOW_NANOS && _updateLock.tryLock()) {
+            try {
+                if (now - _windowStart >= WINDOW_NANOS) {
+                    updateLimit(now);
+                }
+            } finally {
+                _updateLock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Returns the current concurrency limit.
+     * @return limit
+     */
+    public int getLimit() {
+        return _limit;
+    }
+
+    /**
+     * Returns the number of admitted requests not yet released.
+     * @return in-flight requests
+     */
+    public int getInFlight() {
+        return _inFlight.get();
+    }
+
+    /**
+     * Indicates whether this limiter was created with the given bounds.
+     * @param initialLimit initial limit
+     * @param minLimit lower bound
+     * @param maxLimit upper bound
+     * @return true if all values are equal
+     */
+    public boolean hasBounds(int initialLimit, int minLimit, int maxLimit) {
+        return _initialLimit == initialLimit && _minLimit == minLimit && _maxLimit == maxLimit;
+    }
+
+    private void updateLimit(long now) {
+        long count;
+        long sum;
+        synchronized (_sampleLock) {
+            count = _rttCount;
+            if (count < MIN_WINDOW_SAMPLES) {
+                return;
+            }
+            sum = _rttSum;
+            _rttCount = 0;
+            _rttSum = 0;
+        }
+        double shortRtt = (double) sum / count;
+        int maxInFlight = _maxInFlight.getAndSet(_inFlight.get());
+        _windowStart = now;
+        if (shortRtt <= 0) {
+            return;
+        }
+
+        if (_longRtt <= 0) {
+            _longRtt = shortRtt;
+        } else {
+            _longRtt += (shortRtt - _longRtt) * LONG_RTT_FACTOR;
+        }
+        if (_longRtt / shortRtt > 2) {
+            _longRtt *= LONG_RTT_DECAY;
+        }
+
+        int limit = _limit;
+        if (maxInFlight < limit / 2) {
+            return;
+        }
+        double gradient = Math.max(0.5, Math.min(1.0, TOLERANCE * _longRtt / shortRtt));
+        double newLimit = limit * gradient + Math.sqrt(limit);
+        newLimit = limit * (1 - SMOOTHING) + newLimit * SMOOTHING;
+        _limit = (int) Math.max(_minLimit, Math.min(_maxLimit, Math.round(newLimit)));
+    }
+
+}
@@ -0,0 +1,251 @@
+package de.ibmix.magkit.monitoring.endpoint.prometheus;
+
+/*-
+ * #%L
+ * IBM iX Magnolia Monitoring
+ * %%
+ * Copyright (C) 2026 IBM iX
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import io.micrometer.core.instrument.Meter;
+
+/**
+ * Lock-free cache of resolved request meters keyed by uri tag value, HTTP method and status code.
+ * <p><strong>Purpose</strong></p>
+ * Lets {@link PrometheusFilter} record request latency and sizes without building tags, evaluating the registry's meter
+ * filter chain or looking up the registry's meter map once a (uri, method, status) combination has been seen. One cache
+ * instance is used per meter name.
+ * <p><strong>Main Functionality</strong></p>
+ * A {@link ConcurrentHashMap} maps the uri tag value to a small open addressing table. Inside that table method and status
+ * are combined into a single <code>int</code> key, so lookups compare primitives only. Entries are inserted with
+ * compare-and-set and never modified afterwards.
+ * <p><strong>Key Features</strong></p>
+ * <ul>
+ * <li>Cache hits allocate nothing and take no locks.</li>
+ * <li>Bounded number of URIs; the cache is cleared when full so it adapts to the current hot set.</li>
+ * <li>Unknown HTTP methods and out of range status codes are never cached and fall back to the slow path.</li>
+ * </ul>
+ * <p><strong>Null and Error Handling</strong></p>
+ * {@link #get(String, String, int)} returns null for null arguments, uncacheable keys and misses. {@link #put(String, String, int, Meter)}
+ * silently skips uncacheable keys and full tables.
+ * <p><strong>Thread-Safety</strong></p>
+ * Fully thread-safe and non-blocking.
+ * <p><strong>Usage Example</strong></p>
+ * <pre>{@code
+ * HttpMeterCache<Timer> cache = new HttpMeterCache<>();
+ * Timer timer = cache.get(uri, method, status);
+ * if (timer == null) {
+ *     timer = registry.timer("http_server_requests", tags);
+ *     cache.put(uri, method, status, timer);
+ * }
+ * }</pre>
+ * <p><strong>Important Details</strong></p>
+ * Overhead target for a cache hit is well below one microsecond per request at 32 concurrent request threads.
+ * Callers key the cache by the final uri tag value (route template, whitelisted URI or empty string) rather than the raw
+ * URI, so random URIs from crawlers collapse into one entry and cannot force the cache to clear itself.
+ * Cached meters bypass meter filters, so the cache must be cleared whenever tag mapping input (e.g. route templates) changes.
+ * Meters removed from the registry stay referenced until the next clear.
+ * @param <M> cached meter type
+ * @author IBM iX
+ * @since 2026-10-17
+ */
+public class HttpMeterCache<M extends Meter> {
+
+    /** Default maximum number of cached uri tag values. */
+    public static final int DEFAULT_MAX_URIS = 4096;
+
+    private static final int TABLE_SIZE = 32;
+    private static final int STATUS_LIMIT = 1000;
+
+    private final ConcurrentHashMap<String, MeterTable<M>> _tables = new ConcurrentHashMap<>();
+    private final int _maxUris;
+
+    /**
+     * Creates a cache with {@link #DEFAULT_MAX_URIS}.
+     */
+    public HttpMeterCache() {
+        this(DEFAULT_MAX_URIS);
+    }
+
+    /**
+     * Creates a cache holding at most the given number of URIs.
+     * @param maxUris maximum number of cached uri tag values
+     */
+    public HttpMeterCache(int maxUris) {
+        _maxUris = maxUris;
+    }
+
+    /**
+     * Returns the cached meter for the given combination.
+     * @param uri uri tag value
+     * @param method HTTP method
+     * @param status HTTP status code
+     * @return cached meter or null
+     */
+    public M get(String uri, String method, int status) {
+        int key = key(method, status);
+        if (uri == null || key < 0) {
+            return null;
+        }
+        MeterTable<M> table = _tables.get(uri);
+        return table == null ? null : table.get(key);
+    }
+
+    /**
+     * Caches the meter for the given combination if the key is cacheable and space is left.
+     * @param uri uri tag value
+     * @param method HTTP method
+     * @param status HTTP status code
+     * @param meter resolved meter
+     */
+    public void put(String uri, String method, int status, M meter) {
+        int key = key(method, status);
+        if (uri == null || key < 0 || meter == null) {
+            return;
+        }
+        MeterTable<M> table = _tables.get(uri);
+        if (table == null) {
+            if (_tables.size() >= _maxUris) {
+                _tables.clear();
+            }
+            table = _tables.computeIfAbsent(uri, u -> new MeterTable<>());
+        }
+        table.put(key, meter);
+    }
+
+    /**
+     * Removes all cached meters.
+     */
+    public void clear() {
+        _tables.clear();
+    }
+
+    /**
+     * Returns the number of cached URIs.
+     * @return cached URI count
+     */
+    public int size() {
+        return _tables.size();
+    }
+
+    /**
+     * Combines method and status into a non-negative key, or returns -1 if the combination is not cacheable.
+     * @param method HTTP method
+     * @param status HTTP status
+     * @return key or -1
+     */
+    static int key(String method, int status) {
+        int methodIndex = methodIndex(method);
+        if (methodIndex == 0 || status < 0 || status >= STATUS_LIMIT) {
+            return -1;
+        }
+        return methodIndex * STATUS_LIMIT + status;
+    }
+
+    private static int methodIndex(String method) {
+        if (method == null) {
+            return 0;
+        }
+        switch (method) {
+            case "GET":
+                return 1;
+            case "POST":
+                return 2;
+            case "HEAD":
+                return 3;
+            case "PUT":
+                return 4;
+            case "DELETE":
+                return 5;
+            case "OPTIONS":
+                return 6;
+            case "PATCH":
+                return 7;
+            case "TRACE":
+                return 8;
+            default:
+                return 0;
+        }
+    }
+
+    /**
+     * Fixed size open addressing table of (int key, meter) entries with linear probing.
+     * @param <M> meter type
+     */
+    private static final class MeterTable<M extends Meter> {
+
+        private final AtomicReferenceArray<Entry<M>> _entries = new AtomicReferenceArray<>(TABLE_SIZE);
+
+        M get(int key) {
+            int start = slot(key);
+            for (int i = 0; i < TABLE_SIZE; i++) {
+                Entry<M> entry = _entries.get((start + i) & (TABLE_SIZE - 1));
+                if (entry == null) {
+                    return null;
+                }
+                if (entry._key == key) {
+                    return entry._meter;
+                }
+            }
+            return null;
+        }
+
+        void put(int key, M meter) {
+            int start = slot(key);
+            Entry<M> candidate = null;
+            for (int i = 0; i < TABLE_SIZE; i++) {
+                int index = (start + i) & (TABLE_SIZE - 1);
+                Entry<M> entry = _entries.get(index);
+                if (entry == null) {
+                    if (candidate == null) {
+                        candidate = new Entry<>(key, meter);
+                    }
+                    if (_entries.compareAndSet(index, null, candidate)) {
+                        return;
+                    }
+                    entry = _entries.get(index);
+                }
+                if (entry._key == key) {
+                    return;
+                }
+            }
+        }
+
+        private static int slot(int key) {
+            int h = key * 0x9E3779B9;
+            return (h ^ (h >>> 16)) & (TABLE_SIZE - 1);
+        }
+    }
+
+    /**
+     * Immutable table entry.
+     * @param <M> meter type
+     */
+    private static final class Entry<M extends Meter> {
+
+        private final int _key;
+        private final M _meter;
+
+        Entry(int key, M meter) {
+            _key = key;
+            _meter = meter;
+        }
+    }
+
+}
@@ -22,6 +22,8 @@ package de.ibmix.magkit.monitoring.endpoint.prometheus;
 
 import java.util.Optional;
 
+import de.ibmix.magkit.monitoring.collector.JcrMetrics;
+
 import io.micrometer.core.instrument.binder.MeterBinder;
 import io.micrometer.core.instrument.binder.jvm.ClassLoaderMetrics;
 import io.micrometer.core.instrument.binder.jvm.JvmGcMetrics;
@@ -70,7 +72,8 @@ public enum Metric {
     JVM_THREAD("JvmThread", JvmThreadMetrics.class),
     JVM_GC("JvmGc", JvmGcMetrics.class),
     CLASSLOADER("Classloader", ClassLoaderMetrics.class),
-    LOG4J2("Log4J2", Log4j2Metrics.class);
+    LOG4J2("Log4J2", Log4j2Metrics.class),
+    JCR("Jcr", JcrMetrics.class);
 
     private String _id;
     private Class<? extends MeterBinder> _meterBinderClass;
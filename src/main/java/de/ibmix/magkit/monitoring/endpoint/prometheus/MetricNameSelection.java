@@ -0,0 +1,121 @@
+package de.ibmix.magkit.monitoring.endpoint.prometheus;
+
+/*-
+ * #%L
+ * IBM iX Magnolia Monitoring
+ * %%
+ * Copyright (C) 2026 IBM iX
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Predicate;
+
+/**
+ * Selection of metric families requested by a selective scrape through <code>name[]</code> and <code>prefix</code> query
+ * parameters.
+ * <p><strong>Purpose</strong></p>
+ * Lets a scraper poll a handful of series at high frequency, e.g. heap usage and in-flight requests every second, without
+ * paying for the full exposition.
+ * <p><strong>Main Functionality</strong></p>
+ * Tests metric family names as used by {@link io.prometheus.metrics.model.registry.PrometheusRegistry#scrape(Predicate)}.
+ * A requested name selects a family if it equals the family name or a sample name of it, i.e. the family name followed by
+ * one of the suffixes appended by the exposition formats such as <code>_total</code> or <code>_count</code>. A prefix
+ * selects every family whose name starts with it.
+ * <p><strong>Key Features</strong></p>
+ * <ul>
+ * <li>Names may be given as they appear in the exposition, e.g. <code>http_server_requests_seconds_count</code>.</li>
+ * </ul>
+ * <p><strong>Null and Error Handling</strong></p>
+ * Null and blank names or prefixes are ignored. {@link #of(List, List)} returns null if nothing is selected, meaning
+ * the full exposition.
+ * <p><strong>Thread-Safety</strong></p>
+ * Immutable; safe for concurrent use.
+ * <p><strong>Usage Example</strong></p>
+ * <pre>{@code
+ * MetricNameSelection selection = MetricNameSelection.of(List.of("jvm_memory_used_bytes"), List.of("http_server_requests_active"));
+ * MetricSnapshots snapshots = registry.getPrometheusRegistry().scrape(selection);
+ * }</pre>
+ * <p><strong>Important Details</strong></p>
+ * Selection is per family: all series of a selected family are returned, label filtering is not supported.
+ * @author IBM iX
+ * @since 2026-10-17
+ */
+public final class MetricNameSelection implements Predicate<String> {
+
+    private static final List<String> SAMPLE_SUFFIXES = List.of("_total", "_created", "_info", "_count", "_sum", "_bucket", "_gcount", "_gsum", "_max");
+
+    private final Set<String> _names;
+    private final Set<String> _prefixes;
+
+    private MetricNameSelection(Set<String> names, Set<String> prefixes) {
+        _names = names;
+        _prefixes = prefixes;
+    }
+
+    /**
+     * Creates the selection for the given query parameter values.
+     * @param names metric family or sample names; may be null
+     * @param prefixes metric name prefixes; may be null
+     * @return selection or null if neither names nor prefixes are given
+     */
+    public static MetricNameSelection of(List<String> names, List<String> prefixes) {
+        Set<String> nameSet = toSet(names);
+        Set<String> prefixSet = toSet(prefixes);
+        return nameSet.isEmpty() && prefixSet.isEmpty() ? null : new MetricNameSelection(nameSet, prefixSet);
+    }
+
+    /**
+     * Indicates whether the metric family is selected.
+     * @param familyName Prometheus name of the metric family; may be null
+     * @return true if selected
+     */
+    @Override
+    public boolean test(String familyName) {
+        if (familyName == null) {
+            return false;
+        }
+        if (_names.contains(familyName)) {
+            return true;
+        }
+        for (String suffix : SAMPLE_SUFFIXES) {
+            if (_names.contains(familyName + suffix)) {
+                return true;
+            }
+        }
+        for (String prefix : _prefixes) {
+            if (familyName.startsWith(prefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static Set<String> toSet(List<String> values) {
+        Set<String> result = new TreeSet<>();
+        if (values != null) {
+            for (String value : values) {
+                if (value != null && !value.isBlank()) {
+                    result.add(value.trim());
+                }
+            }
+        }
+        return result;
+    }
+
+}
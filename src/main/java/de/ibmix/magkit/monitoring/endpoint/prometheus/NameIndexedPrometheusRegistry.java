@@ -0,0 +1,206 @@
+package de.ibmix.magkit.monitoring.endpoint.prometheus;
+
+/*-
+ * #%L
+ * IBM iX Magnolia Monitoring
+ * %%
+ * Copyright (C) 2026 IBM iX
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Predicate;
+
+import io.prometheus.metrics.model.registry.Collector;
+import io.prometheus.metrics.model.registry.MultiCollector;
+import io.prometheus.metrics.model.registry.PrometheusRegistry;
+import io.prometheus.metrics.model.registry.PrometheusScrapeRequest;
+import io.prometheus.metrics.model.snapshots.MetricSnapshot;
+import io.prometheus.metrics.model.snapshots.MetricSnapshots;
+
+/**
+ * {@link PrometheusRegistry} keeping an index of the metric family names each collector produces, so filtered scrapes
+ * collect only the collectors that can contribute to the result.
+ * <p><strong>Purpose</strong></p>
+ * Micrometer registers one collector per meter name without declaring its Prometheus names. The base registry therefore
+ * has to collect every meter and discard the non-matching snapshots afterwards, making a scrape of two families as
+ * expensive as a full scrape. With the index, a selective scrape costs in proportion to what it returns.
+ * <p><strong>Main Functionality</strong></p>
+ * Tracks registered collectors and remembers the family names of every non-empty collection result. Family order in the
+ * output does not depend on registration order, since {@link MetricSnapshots} sorts by name. Filtered scrapes
+ * skip collectors whose known names are all rejected by the filter; collectors not collected yet are collected once to
+ * learn their names. Collectors declaring their names through {@link MultiCollector#getPrometheusNames()} or
+ * {@link Collector#getPrometheusName()} are indexed by those.
+ * <p><strong>Key Features</strong></p>
+ * <ul>
+ * <li>Drop-in replacement passed to the {@link io.micrometer.prometheusmetrics.PrometheusMeterRegistry} constructor.</li>
+ * <li>Full scrapes keep the index up to date at no extra cost.</li>
+ * <li>Index entries are removed together with their collectors.</li>
+ * </ul>
+ * <p><strong>Null and Error Handling</strong></p>
+ * A null filter selects everything. Collectors returning null snapshots are skipped. Duplicate family names fail the
+ * scrape like in the base registry.
+ * <p><strong>Thread-Safety</strong></p>
+ * Thread-safe; single-family collectors are kept in a copy-on-write list, multi-family collectors and their indexed names
+ * in a concurrent map.
+ * <p><strong>Usage Example</strong></p>
+ * <pre>{@code
+ * PrometheusMeterRegistry registry = new PrometheusMeterRegistry(PrometheusConfig.DEFAULT, new NameIndexedPrometheusRegistry(), Clock.SYSTEM);
+ * MetricSnapshots heap = registry.getPrometheusRegistry().scrape("jvm_memory_used_bytes"::equals);
+ * }</pre>
+ * <p><strong>Important Details</strong></p>
+ * A Micrometer collector serves a single meter name, so its family names do not change once it has children. Names of
+ * collectors that produce varying families without declaring them are only refreshed when they are collected.
+ * @author IBM iX
+ * @since 2026-10-17
+ */
+public class NameIndexedPrometheusRegistry extends PrometheusRegistry {
+
+    private static final List<String> UNKNOWN = List.of();
+
+    private final List<Collector> _collectors = new CopyOnWriteArrayList<>();
+    private final Map<MultiCollector, List<String>> _multiCollectors = new ConcurrentHashMap<>();
+
+    /**
+     * Registers a single-family collector.
+     * @param collector collector to register
+     */
+    @Override
+    public void register(Collector collector) {
+        super.register(collector);
+        _collectors.add(collector);
+    }
+
+    /**
+     * Registers a multi-family collector; its names are indexed on its first non-empty collection.
+     * @param collector collector to register
+     */
+    @Override
+    public void register(MultiCollector collector) {
+        super.register(collector);
+        _multiCollectors.put(collector, UNKNOWN);
+    }
+
+    /**
+     * Removes a single-family collector.
+     * @param collector collector to remove
+     */
+    @Override
+    public void unregister(Collector collector) {
+        super.unregister(collector);
+        _collectors.remove(collector);
+    }
+
+    /**
+     * Removes a multi-family collector together with its index entry.
+     * @param collector collector to remove
+     */
+    @Override
+    public void unregister(MultiCollector collector) {
+        super.unregister(collector);
+        _multiCollectors.remove(collector);
+    }
+
+    /**
+     * Removes all collectors and index entries.
+     */
+    @Override
+    public void clear() {
+        super.clear();
+        _collectors.clear();
+        _multiCollectors.clear();
+    }
+
+    /**
+     * Collects all registered collectors, refreshing the index.
+     * @param scrapeRequest request passed to the collectors; may be null
+     * @return snapshots of all families
+     */
+    @Override
+    public MetricSnapshots scrape(PrometheusScrapeRequest scrapeRequest) {
+        return scrape(null, scrapeRequest);
+    }
+
+    /**
+     * Collects the collectors that may produce a family accepted by the filter.
+     * @param filter accepts Prometheus family names; null to select all
+     * @param scrapeRequest request passed to the collectors; may be null
+     * @return snapshots of the accepted families
+     */
+    @Override
+    public MetricSnapshots scrape(Predicate<String> filter, PrometheusScrapeRequest scrapeRequest) {
+        MetricSnapshots.Builder result = MetricSnapshots.builder();
+        for (Collector collector : _collectors) {
+            String name = collector.getPrometheusName();
+            if (filter == null || name == null || filter.test(name)) {
+                MetricSnapshot snapshot = scrapeRequest == null ? collector.collect() : collector.collect(scrapeRequest);
+                if (snapshot != null && (filter == null || filter.test(snapshot.getMetadata().getPrometheusName()))) {
+                    result.metricSnapshot(snapshot);
+                }
+            }
+        }
+        for (MultiCollector collector : _multiCollectors.keySet()) {
+            if (filter == null || mayMatch(collector, filter)) {
+                MetricSnapshots snapshots = scrapeRequest == null ? collector.collect() : collector.collect(scrapeRequest);
+                index(collector, snapshots);
+                for (MetricSnapshot snapshot : snapshots) {
+                    if (filter == null || filter.test(snapshot.getMetadata().getPrometheusName())) {
+                        result.metricSnapshot(snapshot);
+                    }
+                }
+            }
+        }
+        return result.build();
+    }
+
+    /**
+     * Returns the indexed family names of a collector.
+     * @param collector registered collector
+     * @return family names; empty if not known yet
+     */
+    List<String> getIndexedNames(MultiCollector collector) {
+        List<String> declared = collector.getPrometheusNames();
+        return declared.isEmpty() ? _multiCollectors.getOrDefault(collector, UNKNOWN) : declared;
+    }
+
+    private boolean mayMatch(MultiCollector collector, Predicate<String> filter) {
+        List<String> names = getIndexedNames(collector);
+        if (names.isEmpty()) {
+            return true;
+        }
+        for (String name : names) {
+            if (filter.test(name)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void index(MultiCollector collector, MetricSnapshots snapshots) {
+        if (snapshots.size() > 0 && collector.getPrometheusNames().isEmpty()) {
+            List<String> names = new ArrayList<>(snapshots.size());
+            for (MetricSnapshot snapshot : snapshots) {
+                names.add(snapshot.getMetadata().getPrometheusName());
+            }
+            _multiCollectors.replace(collector, List.copyOf(names));
+        }
+    }
+
+}
@@ -20,17 +20,36 @@ package de.ibmix.magkit.monitoring.endpoint.prometheus;
  * #L%
  */
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.Locale;
+import java.util.zip.GZIPOutputStream;
+
 import javax.inject.Inject;
 import javax.ws.rs.GET;
+import javax.ws.rs.HeaderParam;
 import javax.ws.rs.Path;
 import javax.ws.rs.Produces;
+import javax.ws.rs.QueryParam;
+import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.core.StreamingOutput;
 
+import de.ibmix.magkit.monitoring.MonitoringModule;
 import de.ibmix.magkit.monitoring.endpoint.AbstractMonitoringEndpoint;
+import de.ibmix.magkit.monitoring.config.prometheus.PrometheusConfigSnapshot;
 import de.ibmix.magkit.monitoring.endpoint.MonitoringEndpointDefinition;
 
 import info.magnolia.rest.DynamicPath;
+import io.micrometer.prometheusmetrics.PrometheusConfig;
 import io.micrometer.prometheusmetrics.PrometheusMeterRegistry;
+import io.prometheus.metrics.config.PrometheusPropertiesLoader;
+import io.prometheus.metrics.expositionformats.ExpositionFormats;
+import io.prometheus.metrics.expositionformats.OpenMetricsTextFormatWriter;
+import io.prometheus.metrics.expositionformats.PrometheusProtobufWriter;
+import io.prometheus.metrics.expositionformats.PrometheusTextFormatWriter;
 
 /**
  * REST endpoint exposing Prometheus formatted metrics scraped from the application's registry.
@@ -38,19 +57,36 @@ import io.micrometer.prometheusmetrics.PrometheusMeterRegistry;
  * <p><strong>Purpose</strong></p>
  * Serves as integration point for Prometheus server to collect application metrics.
  * <p><strong>Main Functionality</strong></p>
- * Invokes {@link io.micrometer.prometheusmetrics.PrometheusMeterRegistry#scrape()} to generate the current exposition text snapshot for all bound meters.
+ * Streams the current exposition of all bound meters through {@link PrometheusMeterRegistry#scrape(java.io.OutputStream, String)}
+ * directly into the response. The exposition format is negotiated from the media ranges and quality values of the
+ * <code>Accept</code> header: Prometheus protobuf (delimited <code>MetricFamily</code> messages), OpenMetrics text or
+ * Prometheus text, the latter being the default. The output is gzip compressed if the client accepts it. The
+ * <code>name[]</code> and <code>prefix</code> query parameters restrict the output to the selected metric families, see
+ * {@link MetricNameSelection}.
  * <p><strong>Key Features</strong></p>
  * <ul>
  * <li>Plain text exposition format compliant with Prometheus.</li>
- * <li>Direct scrape of live registry metrics.</li>
+ * <li>OpenMetrics exposition format, including exemplars, when requested via the <code>Accept</code> header.</li>
+ * <li>Selective scrapes collecting only the meters of the requested families, based on the name index of
+ * {@link NameIndexedPrometheusRegistry}; cheap enough for a high-frequency scrape of a few series.</li>
+ * <li>Prometheus protobuf format, which Prometheus requests for native histograms and parses considerably faster than
+ * text for meters with many buckets.</li>
+ * <li>No exposition string is built: text is encoded through a fixed size buffer, so the memory needed per scrape does not
+ * grow with the size of the output.</li>
+ * <li>gzip content encoding negotiated through <code>Accept-Encoding</code>, typically shrinking the transfer about tenfold.</li>
+ * <li>Direct scrape of live registry metrics, or, with <code>magnolia.monitoring.prometheus.scrape.cache.ttl</code> set, of a
+ * {@link ScrapeCache} shared with concurrent scrapers. Selective scrapes always read the live registry, so query
+ * parameters cannot add cache entries; the cache is emptied once the TTL is set back to zero.</li>
  * </ul>
  * <p><strong>Null and Error Handling</strong></p>
- * Always returns non-null text; underlying registry must be initialized or may yield empty output.
+ * Always returns a non-null response; underlying registry must be initialized or may yield empty output. I/O errors
+ * while streaming, e.g. a scraper closing the connection, propagate to the JAX-RS runtime.
  * <p><strong>Thread-Safety</strong></p>
  * Stateless aside from injected registry; scraping is thread-safe per Micrometer design.
  * <p><strong>Usage Example</strong></p>
  * <pre>{@code
- * String metrics = prometheusEndpoint.prometheus();
+ * Response response = prometheusEndpoint.scrape("text/plain", "gzip");
+ * Response heapOnly = prometheusEndpoint.scrape(null, null, List.of("jvm_memory_used_bytes"), List.of());
  * }</pre>
  * <p><strong>Important Details</strong></p>
  * Scrape output may include high-cardinality labels if misconfigured; ensure URI whitelist and other filters minimize cardinality.
@@ -62,29 +98,218 @@ import io.micrometer.prometheusmetrics.PrometheusMeterRegistry;
 @DynamicPath
 public class PrometheusEndpoint extends AbstractMonitoringEndpoint<MonitoringEndpointDefinition> {
 
+    /** Media type of the OpenMetrics text exposition format. */
+    public static final String OPENMETRICS_MEDIA_TYPE = "application/openmetrics-text";
+
+    /** Media type of the Prometheus protobuf exposition format. */
+    public static final String PROTOBUF_MEDIA_TYPE = "application/vnd.google.protobuf";
+
+    /** Content coding applied when accepted by the client. */
+    public static final String GZIP_ENCODING = "gzip";
+
+    private static final int GZIP_BUFFER_SIZE = 8192;
+
+    /** Writers configured like those of the registry created by {@link PrometheusMeterRegistryProvider}. */
+    private static final ExpositionFormats EXPOSITION_FORMATS = ExpositionFormats.init(
+        PrometheusPropertiesLoader.load(PrometheusConfig.DEFAULT.prometheusProperties()).getExporterProperties());
+
     private final PrometheusMeterRegistry _registry;
+    private final MonitoringModule _monitoringModule;
 
     /**
-     * Constructs the prometheus endpoint with its definition and registry.
+     * Constructs the prometheus endpoint with its definition and registry, without scrape caching.
      * @param endpointDefinition monitoring endpoint definition metadata
      * @param registry prometheus meter registry providing metrics
      */
-    @Inject
     protected PrometheusEndpoint(MonitoringEndpointDefinition endpointDefinition, PrometheusMeterRegistry registry) {
+        this(endpointDefinition, registry, null);
+    }
+
+    /**
+     * Constructs the prometheus endpoint with its definition, registry and the module providing the scrape cache.
+     * @param endpointDefinition monitoring endpoint definition metadata
+     * @param registry prometheus meter registry providing metrics
+     * @param monitoringModule module providing configuration and scrape cache; may be null to disable caching
+     */
+    @Inject
+    protected PrometheusEndpoint(MonitoringEndpointDefinition endpointDefinition, PrometheusMeterRegistry registry, MonitoringModule monitoringModule) {
         super(endpointDefinition);
         _registry = registry;
+        _monitoringModule = monitoringModule;
+    }
 
+    /**
+     * Streams all metric families in the negotiated exposition format.
+     * @param accept value of the <code>Accept</code> request header; may be null
+     * @param acceptEncoding value of the <code>Accept-Encoding</code> request header; may be null
+     * @return response streaming the exposition, with content type and encoding
+     * @see #scrape(String, String, List, List)
+     */
+    public Response scrape(String accept, String acceptEncoding) {
+        return scrape(accept, acceptEncoding, null, null);
     }
 
     /**
-     * Scrapes and returns the current Prometheus exposition text.
-     * @return metrics in Prometheus text format
+     * Streams the registry in the exposition format negotiated from the <code>Accept</code> header, gzip compressed if
+     * accepted by the client, optionally restricted to selected metric families.
+     * @param accept value of the <code>Accept</code> request header; may be null
+     * @param acceptEncoding value of the <code>Accept-Encoding</code> request header; may be null
+     * @param names metric family or sample names to include; null or empty for no name selection
+     * @param prefixes metric name prefixes to include; null or empty for no prefix selection
+     * @return response streaming the exposition, with content type and encoding
      */
     @GET
     @Path("")
-    @Produces(MediaType.TEXT_PLAIN)
+    @Produces({PROTOBUF_MEDIA_TYPE, OPENMETRICS_MEDIA_TYPE, MediaType.TEXT_PLAIN})
+    public Response scrape(@HeaderParam(HttpHeaders.ACCEPT) String accept, @HeaderParam(HttpHeaders.ACCEPT_ENCODING) String acceptEncoding,
+                           @QueryParam("name[]") List<String> names, @QueryParam("prefix") List<String> prefixes) {
+        String contentType = negotiateContentType(accept);
+        boolean gzip = acceptsGzip(acceptEncoding);
+        MetricNameSelection selection = MetricNameSelection.of(names, prefixes);
+        long cacheTtlNanos = getScrapeCacheTtlNanos();
+        StreamingOutput body;
+        if (cacheTtlNanos > 0 && selection == null) {
+            String variant = contentType + (gzip ? ';' + GZIP_ENCODING : "");
+            body = output -> output.write(_monitoringModule.getScrapeCache().get(variant, cacheTtlNanos, out -> write(out, contentType, gzip, null)));
+        } else {
+            if (cacheTtlNanos <= 0 && _monitoringModule != null && _monitoringModule.getScrapeCache() != null) {
+                _monitoringModule.getScrapeCache().clear();
+            }
+            body = output -> write(output, contentType, gzip, selection);
+        }
+        Response.ResponseBuilder response = Response.ok(body)
+            .header(HttpHeaders.CONTENT_TYPE, contentType)
+            .header(HttpHeaders.VARY, HttpHeaders.ACCEPT + ", " + HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) {
+            response.header(HttpHeaders.CONTENT_ENCODING, GZIP_ENCODING);
+        }
+        return response.build();
+    }
+
+    /**
+     * Scrapes and returns the current Prometheus exposition text.
+     * @return metrics in Prometheus text format
+     */
     public String prometheus() {
         return _registry.scrape();
     }
 
+    private void write(OutputStream output, String contentType, boolean gzip, MetricNameSelection selection) throws IOException {
+        if (gzip) {
+            GZIPOutputStream compressed = new GZIPOutputStream(output, GZIP_BUFFER_SIZE);
+            write(compressed, contentType, selection);
+            compressed.finish();
+        } else {
+            write(output, contentType, selection);
+        }
+    }
+
+    private void write(OutputStream output, String contentType, MetricNameSelection selection) throws IOException {
+        if (selection == null) {
+            _registry.scrape(output, contentType);
+        } else {
+            EXPOSITION_FORMATS.findWriter(contentType).write(output, _registry.getPrometheusRegistry().scrape(selection));
+        }
+    }
+
+    private long getScrapeCacheTtlNanos() {
+        if (_monitoringModule == null || _monitoringModule.getScrapeCache() == null) {
+            return 0;
+        }
+        PrometheusConfigSnapshot snapshot = _monitoringModule.getConfigSnapshot();
+        return snapshot != null ? snapshot.getScrapeCacheTtlNanos() : 0;
+    }
+
+    /**
+     * Selects the exposition content type for the <code>Accept</code> header: the supported media range with the highest
+     * quality value wins, the first one on ties. Protobuf is only chosen for delimited <code>MetricFamily</code> messages.
+     * @param accept header value; may be null
+     * @return content type of the exposition writer; Prometheus text format if nothing else is acceptable
+     */
+    static String negotiateContentType(String accept) {
+        String contentType = PrometheusTextFormatWriter.CONTENT_TYPE;
+        if (accept == null) {
+            return contentType;
+        }
+        double bestQuality = 0;
+        for (String range : accept.split(",")) {
+            String[] parts = range.split(";");
+            String candidate = toContentType(parts);
+            double quality = getQuality(parts);
+            if (candidate != null && quality > bestQuality) {
+                contentType = candidate;
+                bestQuality = quality;
+            }
+        }
+        return contentType;
+    }
+
+    /**
+     * Indicates whether the <code>Accept-Encoding</code> header allows gzip with a non-zero quality value. An explicit
+     * <code>gzip</code> entry takes precedence over <code>*</code>, which is only considered if gzip is not listed.
+     * @param acceptEncoding header value; may be null
+     * @return true if the response may be gzip compressed
+     */
+    public static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        double wildcardQuality = 0;
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.split(";");
+            String name = parts[0].trim().toLowerCase(Locale.ROOT);
+            if (GZIP_ENCODING.equals(name)) {
+                return getQuality(parts) > 0;
+            }
+            if ("*".equals(name)) {
+                wildcardQuality = getQuality(parts);
+            }
+        }
+        return wildcardQuality > 0;
+    }
+
+    private static String toContentType(String[] parts) {
+        String mediaType = parts[0].trim().toLowerCase(Locale.ROOT);
+        switch (mediaType) {
+            case PROTOBUF_MEDIA_TYPE:
+                return isDelimitedMetricFamily(parts) ? PrometheusProtobufWriter.CONTENT_TYPE : null;
+            case OPENMETRICS_MEDIA_TYPE:
+                return OpenMetricsTextFormatWriter.CONTENT_TYPE;
+            case MediaType.TEXT_PLAIN:
+            case "text/*":
+            case MediaType.WILDCARD:
+                return PrometheusTextFormatWriter.CONTENT_TYPE;
+            default:
+                return null;
+        }
+    }
+
+    private static boolean isDelimitedMetricFamily(String[] parameters) {
+        boolean metricFamily = false;
+        boolean delimited = true;
+        for (int i = 1; i < parameters.length; i++) {
+            String parameter = parameters[i].trim();
+            if (parameter.startsWith("proto=")) {
+                metricFamily = "io.prometheus.client.MetricFamily".equals(parameter.substring(6));
+            } else if (parameter.startsWith("encoding=")) {
+                delimited = "delimited".equals(parameter.substring(9));
+            }
+        }
+        return metricFamily && delimited;
+    }
+
+    private static double getQuality(String[] parameters) {
+        for (int i = 1; i < parameters.length; i++) {
+            String parameter = parameters[i].trim();
+            if (parameter.startsWith("q=")) {
+                try {
+                    return Double.parseDouble(parameter.substring(2));
+                } catch (NumberFormatException e) {
+                    return 0;
+                }
+            }
+        }
+        return 1;
+    }
+
 }
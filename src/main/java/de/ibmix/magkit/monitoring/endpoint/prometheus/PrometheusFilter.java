@@ -21,45 +21,94 @@ package de.ibmix.magkit.monitoring.endpoint.prometheus;
  */
 
 import java.io.IOException;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
 
 import javax.inject.Inject;
+import javax.inject.Provider;
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.DispatcherType;
 import javax.servlet.FilterChain;
 import javax.servlet.ServletException;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
+import org.slf4j.MDC;
+
 import de.ibmix.magkit.monitoring.MonitoringModule;
+import de.ibmix.magkit.monitoring.config.prometheus.PrometheusConfigSnapshot;
+import de.ibmix.magkit.monitoring.endpoint.slowrequests.SlowRequestSampler;
 
 import info.magnolia.cms.filters.AbstractMgnlFilter;
+import info.magnolia.cms.filters.FilterManager;
+import io.micrometer.core.instrument.Clock;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Meter;
 import io.micrometer.core.instrument.Tag;
 import io.micrometer.core.instrument.Tags;
 import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.BaseUnits;
 import io.micrometer.prometheusmetrics.PrometheusMeterRegistry;
 
 /**
  * Servlet filter capturing HTTP request metrics and recording them into a Prometheus meter registry.
- * Wraps request processing in a timer sample when the http metric is enabled in module configuration.
+ * Measures request processing time when the http metric is enabled and request/response body sizes when the HttpBytes
+ * metric is enabled in module configuration.
  * <p><strong>Purpose</strong></p>
  * Integrates Micrometer HTTP timing into Magnolia by conditionally timing each request and tagging metrics with URI,
- * method and status allowing Prometheus scraping for latency and throughput analysis.
+ * method and status allowing Prometheus scraping for latency and throughput analysis. The URI is rewritten to the
+ * first matching route template configured in {@link de.ibmix.magkit.monitoring.config.prometheus.HttpRequestMetricsConfig#getRoutes()}.
  * <p><strong>Main Functionality</strong></p>
- * Checks module configuration for presence of metric id "http"; if enabled wraps filter chain execution in a
- * {@link Timer.Sample} and records to timer "http_server_requests" with tags.
+ * Reads the module's precompiled {@link PrometheusConfigSnapshot}; if metric id "http" is enabled measures filter chain execution with the
+ * registry clock and records to timer "http_server_requests" with tags. If metric id "HttpBytes" is enabled the response
+ * is wrapped in a {@link CountingHttpServletResponse} and the request content length and written response bytes are
+ * recorded to the "http_server_request_bytes" and "http_server_response_bytes" distribution summaries. If metric id
+ * "HttpResources" is enabled the CPU time and heap allocations of the request thread are recorded to
+ * "http_server_request_cpu_seconds" and "http_server_request_allocated_bytes". Resolved meters are kept in
+ * {@link HttpMeterCache}s, so steady-state requests record without allocating tags or running meter filters.
  * <p><strong>Key Features</strong></p>
  * <ul>
  * <li>Conditional activation (no overhead when disabled).</li>
  * <li>Captures basic request dimensionality (uri, method, status).</li>
+ * <li>Bounded uri tag values through route template normalization.</li>
+ * <li>Allocation-free recording for known (uri, method, status) combinations.</li>
+ * <li><code>cache</code> tag on the request timers with the Magnolia page cache outcome (hit, miss, bypass, blocked,
+ * none), resolved after the chain through {@link CacheOutcome} if enabled and <code>none</code> otherwise.</li>
+ * <li>Optional exemplars: the request id from a configured header or MDC key is attached to the SLO histogram buckets
+ * through {@link RequestExemplarContext}.</li>
+ * <li>Async requests timed until their async context completes and recorded to "http_server_requests_async".</li>
+ * <li>Byte counting without buffering or copying the response body.</li>
+ * <li>Optional per-request thread CPU time and allocated bytes (metric id "HttpResources"), see {@link ThreadResourceProbe}.</li>
+ * <li>Optional stack sampling of requests exceeding a threshold through the module's {@link SlowRequestSampler}.</li>
+ * <li>Optional upstream queue time (metric id "HttpQueue"): the load balancer's <code>X-Request-Start</code> or
+ * <code>X-Queue-Start</code> header is parsed by {@link RequestStartParser} before the chain runs and the delay until
+ * the request reached this filter is recorded to "http_server_request_queue_time".</li>
+ * <li>Optional self time per filter of the Magnolia filter chain (metric id "HttpFilters"): the first request reaching
+ * this filter wraps the main filter chain through a {@link FilterChainTimer}; a chain rebuilt after a configuration
+ * change is wrapped again.</li>
+ * <li>Optional load shedding through a {@link GradientConcurrencyLimiter}: requests above the adaptive limit are
+ * rejected with 503 and Retry-After; monitoring endpoints are exempt by default.</li>
  * <li>Leverages Micrometer registry for downstream Prometheus exposition.</li>
  * </ul>
  * <p><strong>Usage Preconditions</strong></p>
  * Monitoring module must be started and Prometheus registry injected. Filter must be ordered properly in Magnolia's
  * chain to capture desired endpoints.
  * <p><strong>Side Effects</strong></p>
- * Adds small timing overhead for each request when enabled.
+ * Adds small timing overhead for each request when enabled; the target for cached timers is well below one microsecond
+ * per request at 32 concurrent threads. Byte counting adds one wrapper per request plus one decorator per used stream or writer.
  * <p><strong>Null and Error Handling</strong></p>
- * Null request/response objects produce "UNKNOWN" tag values. Exceptions propagate per servlet filter contract and are not swallowed.
+ * Null request/response objects produce "UNKNOWN" tag values. The request size is only recorded for requests with a
+ * known content length. Exceptions propagate per servlet filter contract and are not swallowed.
  * <p><strong>Thread-Safety</strong></p>
- * Stateless aside from injected dependencies; safe for concurrent request processing.
+ * Holds injected dependencies, lock-free meter caches, the optional limiter and a volatile reference to the last seen
+ * configuration snapshot; a newly published snapshot clears the meter caches. The limiter is replaced under the filter's
+ * monitor only when its bounds change. Safe for concurrent request processing.
  * <p><strong>Usage Example</strong></p>
  * <pre>{@code
  * // Configured via Magnolia filter chain, metrics scraped through Prometheus endpoint
@@ -70,22 +119,103 @@ import io.micrometer.prometheusmetrics.PrometheusMeterRegistry;
  */
 public class PrometheusFilter extends AbstractMgnlFilter {
 
+    /** Name of the HTTP request timer. */
+    public static final String HTTP_SERVER_REQUESTS = "http_server_requests";
+
+    /** Name of the HTTP request timer for requests completed asynchronously. */
+    public static final String HTTP_SERVER_REQUESTS_ASYNC = "http_server_requests_async";
+
+    /** Name of the request body size distribution. */
+    public static final String HTTP_SERVER_REQUEST_BYTES = "http_server_request_bytes";
+
+    /** Name of the response body size distribution. */
+    public static final String HTTP_SERVER_RESPONSE_BYTES = "http_server_response_bytes";
+
+    /** Name of the request thread CPU time distribution. */
+    public static final String HTTP_SERVER_REQUEST_CPU = "http_server_request_cpu";
+
+    /** Name of the request thread allocated bytes distribution. */
+    public static final String HTTP_SERVER_REQUEST_ALLOCATED = "http_server_request_allocated";
+
+    /** Name of the adaptive concurrency limit gauge. */
+    public static final String HTTP_SERVER_CONCURRENCY_LIMIT = "http_server_concurrency_limit";
+
+    /** Name of the gauge reporting requests admitted by the concurrency limiter. */
+    public static final String HTTP_SERVER_CONCURRENCY_IN_FLIGHT = "http_server_concurrency_in_flight";
+
+    /** Name of the counter of requests rejected by the concurrency limiter. */
+    public static final String HTTP_SERVER_CONCURRENCY_REJECTIONS = "http_server_concurrency_rejections";
+
+    /** Name of the timer recording the time between the load balancer's request start and the request reaching this filter. */
+    public static final String HTTP_SERVER_REQUEST_QUEUE_TIME = "http_server_request_queue_time";
+
+    /** Tag carrying the {@link CacheOutcome} of the request timers. */
+    public static final String CACHE_TAG = "cache";
+
+    private static final double NANOS_PER_SECOND = 1_000_000_000d;
+    private static final long MAX_QUEUE_TIME_NANOS = TimeUnit.HOURS.toNanos(1);
+
     private final PrometheusMeterRegistry _registry;
     private final MonitoringModule _monitoringModule;
+    private final Provider<FilterManager> _filterManager;
+    private final FilterChainTimer _filterChainTimer;
+    private final HttpMeterCache<DistributionSummary> _requestBytesCache = new HttpMeterCache<>();
+    private final HttpMeterCache<DistributionSummary> _responseBytesCache = new HttpMeterCache<>();
+    private final HttpMeterCache<DistributionSummary> _cpuCache = new HttpMeterCache<>();
+    private final HttpMeterCache<DistributionSummary> _allocatedCache = new HttpMeterCache<>();
+    private final Map<CacheOutcome, HttpMeterCache<Timer>> _outcomeTimerCaches = new EnumMap<>(CacheOutcome.class);
+    private final Map<CacheOutcome, HttpMeterCache<Timer>> _outcomeAsyncTimerCaches = new EnumMap<>(CacheOutcome.class);
+    private final Map<CacheOutcome, Function<Iterable<Tag>, Timer>> _outcomeTimerFactories = new EnumMap<>(CacheOutcome.class);
+    private final Map<CacheOutcome, Function<Iterable<Tag>, Timer>> _outcomeAsyncTimerFactories = new EnumMap<>(CacheOutcome.class);
+    private final Function<Iterable<Tag>, DistributionSummary> _requestBytesFactory;
+    private final Function<Iterable<Tag>, DistributionSummary> _responseBytesFactory;
+    private final Function<Iterable<Tag>, DistributionSummary> _cpuFactory;
+    private final Function<Iterable<Tag>, DistributionSummary> _allocatedFactory;
+
+    private volatile PrometheusConfigSnapshot _lastSnapshot;
+    private volatile GradientConcurrencyLimiter _limiter;
+    private volatile Counter _rejections;
+    private volatile Timer _queueTimer;
 
     /**
-     * Constructs filter with monitoring module and registry dependencies.
+     * Constructs filter with monitoring module and registry dependencies, without per-filter timing.
      * @param monitoringModule monitoring module providing configuration
      * @param registry prometheus meter registry target
      */
-    @Inject
     public PrometheusFilter(MonitoringModule monitoringModule, PrometheusMeterRegistry registry) {
+        this(monitoringModule, registry, null);
+    }
+
+    /**
+     * Constructs filter with monitoring module, registry and filter manager dependencies.
+     * @param monitoringModule monitoring module providing configuration
+     * @param registry prometheus meter registry target
+     * @param filterManager provider of the Magnolia filter manager whose chain is timed per filter; may be null
+     */
+    @Inject
+    public PrometheusFilter(MonitoringModule monitoringModule, PrometheusMeterRegistry registry, Provider<FilterManager> filterManager) {
         _registry = registry;
         _monitoringModule = monitoringModule;
+        _filterManager = filterManager;
+        _filterChainTimer = new FilterChainTimer(registry, () -> monitoringModule.getConfigSnapshot().isHttpFiltersEnabled());
+        _requestBytesFactory = tags -> bytesSummary(HTTP_SERVER_REQUEST_BYTES, tags);
+        _responseBytesFactory = tags -> bytesSummary(HTTP_SERVER_RESPONSE_BYTES, tags);
+        _cpuFactory = tags -> DistributionSummary.builder(HTTP_SERVER_REQUEST_CPU).baseUnit("seconds")
+            .description("CPU time of the request thread").tags(tags).register(_registry);
+        _allocatedFactory = tags -> bytesSummary(HTTP_SERVER_REQUEST_ALLOCATED, tags);
+        for (CacheOutcome outcome : CacheOutcome.values()) {
+            Tag cacheTag = Tag.of(CACHE_TAG, outcome.getTagValue());
+            _outcomeTimerCaches.put(outcome, new HttpMeterCache<>());
+            _outcomeAsyncTimerCaches.put(outcome, new HttpMeterCache<>());
+            _outcomeTimerFactories.put(outcome, tags -> registry.timer(HTTP_SERVER_REQUESTS, Tags.of(tags).and(cacheTag)));
+            _outcomeAsyncTimerFactories.put(outcome, tags -> registry.timer(HTTP_SERVER_REQUESTS_ASYNC, Tags.of(tags).and(cacheTag)));
+        }
     }
 
     /**
-     * Executes filter chain and records timing metrics if http metrics enabled.
+     * Registers the request with the optional slow request sampler, applies the optional concurrency limit, then
+     * executes the filter chain and records timing and size metrics if enabled. Requests left in async mode are measured until their {@link javax.servlet.AsyncContext} completes; async
+     * re-dispatches are not measured separately.
      * @param request current HTTP request
      * @param response current HTTP response
      * @param chain remaining filter chain
@@ -94,37 +224,493 @@ public class PrometheusFilter extends AbstractMgnlFilter {
      */
     @Override
     public void doFilter(HttpServletRequest request, HttpServletResponse response, FilterChain chain) throws IOException, ServletException {
-        if (!httpMetricsEnabled()) {
+        PrometheusConfigSnapshot snapshot = getConfigSnapshot();
+        if (snapshot.isHttpFiltersEnabled() && _filterManager != null) {
+            _filterChainTimer.instrument(_filterManager.get().getFilter());
+        }
+        if (snapshot.isHttpQueueEnabled()) {
+            recordQueueTime(snapshot, request);
+        }
+        SlowRequestSampler sampler = getSampler(snapshot, request);
+        if (sampler == null) {
+            limit(snapshot, request, response, chain);
+        } else {
+            SlowRequestSampler.InFlightRequest sampled = sampler.begin(request.getMethod(), request.getRequestURI());
+            try {
+                limit(snapshot, request, response, chain);
+            } finally {
+                sampler.end(sampled, response != null ? response.getStatus() : 0);
+            }
+        }
+    }
+
+    /**
+     * Applies the optional concurrency limit and measures admitted requests. Requests put into async mode keep their
+     * permit until the async context completes, so the limiter sees the full latency and the real number in flight.
+     * @param snapshot current configuration snapshot
+     * @param request current HTTP request
+     * @param response current HTTP response
+     * @param chain remaining filter chain
+     * @throws IOException on I/O error during chain execution
+     * @throws ServletException on servlet processing error
+     */
+    private void limit(PrometheusConfigSnapshot snapshot, HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+        throws IOException, ServletException {
+        GradientConcurrencyLimiter limiter = getLimiter(snapshot, request);
+        if (limiter == null) {
+            measure(snapshot, request, response, chain);
+        } else if (limiter.tryAcquire()) {
+            Clock clock = _registry.config().clock();
+            long start = clock.monotonicTime();
+            boolean deferred = false;
+            try {
+                measure(snapshot, request, response, chain);
+                if (request.isAsyncStarted()) {
+                    request.getAsyncContext().addListener(new AsyncReleaseListener(limiter, start));
+                    deferred = true;
+                }
+            } finally {
+                if (!deferred) {
+                    limiter.release(clock.monotonicTime() - start);
+                }
+            }
+        } else {
+            reject(snapshot, response);
+        }
+    }
+
+    /**
+     * Executes the filter chain and records timing and size metrics if enabled.
+     * @param snapshot current configuration snapshot
+     * @param request current HTTP request
+     * @param response current HTTP response
+     * @param chain remaining filter chain
+     * @throws IOException on I/O error during chain execution
+     * @throws ServletException on servlet processing error
+     */
+    private void measure(PrometheusConfigSnapshot snapshot, HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+        throws IOException, ServletException {
+        boolean timed = snapshot.isHttpEnabled();
+        boolean counted = snapshot.isHttpBytesEnabled();
+        boolean costed = snapshot.isHttpResourcesEnabled();
+        if ((!timed && !counted && !costed) || (request != null && request.getDispatcherType() == DispatcherType.ASYNC)) {
             chain.doFilter(request, response);
         } else {
-            Timer.Sample sample = Timer.start(_registry);
+            HttpServletResponse target = counted && response != null ? new CountingHttpServletResponse(response) : response;
+            String exemplarId = timed && snapshot.isExemplarsEnabled() ? getExemplarId(snapshot, request) : null;
+            ThreadResourceProbe probe = costed ? ThreadResourceProbe.get() : null;
+            long cpuStart = costed ? probe.getCurrentThreadCpuTime() : ThreadResourceProbe.UNSUPPORTED;
+            long allocatedStart = costed ? probe.getCurrentThreadAllocatedBytes() : ThreadResourceProbe.UNSUPPORTED;
+            Clock clock = _registry.config().clock();
+            long start = clock.monotonicTime();
             try {
-                chain.doFilter(request, response);
+                chain.doFilter(request, target);
             } finally {
-                sample.stop(_registry.timer("http_server_requests", getTags(request, response)));
+                long cpuNanos = delta(cpuStart, costed ? probe.getCurrentThreadCpuTime() : ThreadResourceProbe.UNSUPPORTED);
+                long allocatedBytes = delta(allocatedStart, costed ? probe.getCurrentThreadAllocatedBytes() : ThreadResourceProbe.UNSUPPORTED);
+                if (request != null && request.isAsyncStarted()) {
+                    request.getAsyncContext().addListener(new AsyncRecordingListener(start, timed, exemplarId, cpuNanos, allocatedBytes),
+                        request, target);
+                } else {
+                    record(snapshot, timed, false, exemplarId, request, target, clock.monotonicTime() - start);
+                    recordResources(snapshot, request, target, cpuNanos, allocatedBytes);
+                }
+            }
+        }
+    }
+
+    /**
+     * Records the time since the request start reported by the load balancer. Only initial (REQUEST) dispatches are
+     * recorded. Negative delays caused by clock skew between the hosts count as zero; delays above one hour are treated
+     * as malformed headers and skipped.
+     * @param snapshot current configuration snapshot
+     * @param request current HTTP request; may be null
+     */
+    private void recordQueueTime(PrometheusConfigSnapshot snapshot, HttpServletRequest request) {
+        if (request == null || (request.getDispatcherType() != null && request.getDispatcherType() != DispatcherType.REQUEST)) {
+            return;
+        }
+        for (String header : snapshot.getQueueHeaders()) {
+            String value = request.getHeader(header);
+            if (value != null) {
+                long startNanos = RequestStartParser.toEpochNanos(value);
+                if (startNanos != RequestStartParser.INVALID) {
+                    long queueNanos = Math.max(0, TimeUnit.MILLISECONDS.toNanos(_registry.config().clock().wallTime()) - startNanos);
+                    if (queueNanos <= MAX_QUEUE_TIME_NANOS) {
+                        getQueueTimer().record(queueNanos, TimeUnit.NANOSECONDS);
+                    }
+                }
+                return;
             }
         }
     }
 
     /**
-     * Indicates if HTTP metrics collection is enabled (presence of "http" metric id).
-     * @return true when enabled
+     * Returns the queue time timer, registering it on first use so it is only exposed once the metric is enabled.
+     * @return queue time timer
+     */
+    private Timer getQueueTimer() {
+        Timer timer = _queueTimer;
+        if (timer == null) {
+            timer = Timer.builder(HTTP_SERVER_REQUEST_QUEUE_TIME)
+                .description("Time between the request start reported by the load balancer and the start of processing in Magnolia")
+                .register(_registry);
+            _queueTimer = timer;
+        }
+        return timer;
+    }
+
+    /**
+     * Returns the slow request sampler if sampling is enabled. Like the limiter, only initial (REQUEST) dispatches are
+     * registered so forwards and includes do not produce duplicate profiles.
+     * @param snapshot current configuration snapshot
+     * @param request current HTTP request; may be null
+     * @return sampler or null if the request is not sampled
      */
-    private boolean httpMetricsEnabled() {
-        return _monitoringModule.getPrometheusConfig().getMetrics().stream().anyMatch((m) -> m.equalsIgnoreCase("http"));
+    private SlowRequestSampler getSampler(PrometheusConfigSnapshot snapshot, HttpServletRequest request) {
+        if (!snapshot.isSlowRequestSamplingEnabled() || request == null) {
+            return null;
+        }
+        DispatcherType dispatcherType = request.getDispatcherType();
+        return dispatcherType == null || dispatcherType == DispatcherType.REQUEST ? _monitoringModule.getSlowRequestSampler() : null;
     }
 
     /**
-     * Builds tag collection for timer including uri, method and status.
+     * Returns the concurrency limiter applying to the request, creating or replacing it when the configured bounds change.
+     * Only initial (REQUEST) dispatches of non-exempt URIs are limited.
+     * @param snapshot current configuration snapshot
+     * @param request current HTTP request; may be null
+     * @return limiter or null if the request is not limited
+     */
+    private GradientConcurrencyLimiter getLimiter(PrometheusConfigSnapshot snapshot, HttpServletRequest request) {
+        if (!snapshot.isConcurrencyLimitEnabled() || request == null) {
+            return null;
+        }
+        DispatcherType dispatcherType = request.getDispatcherType();
+        if ((dispatcherType != null && dispatcherType != DispatcherType.REQUEST)
+            || snapshot.getConcurrencyLimitExemptions().matches(request.getRequestURI())) {
+            return null;
+        }
+        GradientConcurrencyLimiter limiter = _limiter;
+        int initial = snapshot.getConcurrencyLimitInitial();
+        int min = snapshot.getConcurrencyLimitMin();
+        int max = snapshot.getConcurrencyLimitMax();
+        if (limiter == null || !limiter.hasBounds(initial, min, max)) {
+            synchronized (this) {
+                limiter = _limiter;
+                if (limiter == null || !limiter.hasBounds(initial, min, max)) {
+                    limiter = new GradientConcurrencyLimiter(initial, min, max, _registry.config().clock());
+                    if (_limiter == null) {
+                        registerLimiterMeters();
+                    }
+                    _limiter = limiter;
+                }
+            }
+        }
+        return limiter;
+    }
+
+    /**
+     * Registers the limit and in-flight gauges and the rejection counter.
+     */
+    private void registerLimiterMeters() {
+        Gauge.builder(HTTP_SERVER_CONCURRENCY_LIMIT, this, f -> f._limiter != null ? f._limiter.getLimit() : Double.NaN)
+            .description("Current adaptive concurrency limit")
+            .strongReference(true)
+            .register(_registry);
+        Gauge.builder(HTTP_SERVER_CONCURRENCY_IN_FLIGHT, this, f -> f._limiter != null ? f._limiter.getInFlight() : Double.NaN)
+            .description("Requests currently admitted by the concurrency limiter")
+            .strongReference(true)
+            .register(_registry);
+        _rejections = Counter.builder(HTTP_SERVER_CONCURRENCY_REJECTIONS)
+            .description("Requests rejected by the concurrency limiter")
+            .register(_registry);
+    }
+
+    /**
+     * Rejects a request exceeding the concurrency limit with 503 and a Retry-After header. The error page is not
+     * rendered, to keep rejections cheap while the instance is overloaded.
+     * @param snapshot current configuration snapshot
+     * @param response current HTTP response; may be null
+     */
+    private void reject(PrometheusConfigSnapshot snapshot, HttpServletResponse response) {
+        Counter rejections = _rejections;
+        if (rejections != null) {
+            rejections.increment();
+        }
+        if (response != null && !response.isCommitted()) {
+            response.setStatus(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+            response.setHeader("Retry-After", Integer.toString(snapshot.getRetryAfterSeconds()));
+        }
+    }
+
+    /**
+     * Records the request duration and sizes to the enabled meters.
+     * @param snapshot current configuration snapshot
+     * @param timed true to record the duration
+     * @param async true to record the duration to the async timer
+     * @param exemplarId request id attached as exemplar to the timer; null for none
+     * @param request current HTTP request; may be null
+     * @param response current HTTP response, a {@link CountingHttpServletResponse} if sizes are recorded; may be null
+     * @param duration request duration in nanoseconds
+     */
+    private void record(PrometheusConfigSnapshot snapshot, boolean timed, boolean async, String exemplarId,
+                        HttpServletRequest request, HttpServletResponse response, long duration) {
+        if (timed) {
+            Timer timer = getTimer(snapshot, async, request, response);
+            if (exemplarId == null) {
+                timer.record(duration, TimeUnit.NANOSECONDS);
+            } else {
+                RequestExemplarContext.set(exemplarId);
+                try {
+                    timer.record(duration, TimeUnit.NANOSECONDS);
+                } finally {
+                    RequestExemplarContext.clear();
+                }
+            }
+        }
+        if (response instanceof CountingHttpServletResponse) {
+            long responseBytes = ((CountingHttpServletResponse) response).getBytesWritten();
+            getMeter(snapshot, _responseBytesCache, _responseBytesFactory, request, response).record(responseBytes);
+            long contentLength = request != null ? request.getContentLengthLong() : -1;
+            if (contentLength >= 0) {
+                getMeter(snapshot, _requestBytesCache, _requestBytesFactory, request, response).record(contentLength);
+            }
+        }
+    }
+
+    /**
+     * Resolves the request timer, tagged with the cache outcome. The outcome is read after the chain has run, once the
+     * Magnolia cache filter has published its decision. The tag is always present, with value <code>none</code> while
+     * the feature is disabled: Prometheus requires the same tag keys for all meters of a name, and the feature can be
+     * toggled without recreating the registry.
+     * @param snapshot current configuration snapshot
+     * @param async true for the async timer
+     * @param request current HTTP request; may be null
+     * @param response current HTTP response; may be null
+     * @return timer to record to
+     */
+    private Timer getTimer(PrometheusConfigSnapshot snapshot, boolean async, HttpServletRequest request, HttpServletResponse response) {
+        CacheOutcome outcome = snapshot.isCacheOutcomeEnabled() ? CacheOutcome.resolve(request, response, snapshot.getCacheHeader()) : CacheOutcome.NONE;
+        return async
+            ? getMeter(snapshot, _outcomeAsyncTimerCaches.get(outcome), _outcomeAsyncTimerFactories.get(outcome), request, response)
+            : getMeter(snapshot, _outcomeTimerCaches.get(outcome), _outcomeTimerFactories.get(outcome), request, response);
+    }
+
+    /**
+     * Records CPU time and allocated bytes of the request thread, skipping unsupported measurements.
+     * @param snapshot current configuration snapshot
+     * @param request current HTTP request; may be null
+     * @param response current HTTP response; may be null
+     * @param cpuNanos thread CPU time in nanoseconds or {@link ThreadResourceProbe#UNSUPPORTED}
+     * @param allocatedBytes allocated heap bytes or {@link ThreadResourceProbe#UNSUPPORTED}
+     */
+    private void recordResources(PrometheusConfigSnapshot snapshot, HttpServletRequest request, HttpServletResponse response,
+                                 long cpuNanos, long allocatedBytes) {
+        if (cpuNanos >= 0) {
+            getMeter(snapshot, _cpuCache, _cpuFactory, request, response).record(cpuNanos / NANOS_PER_SECOND);
+        }
+        if (allocatedBytes >= 0) {
+            getMeter(snapshot, _allocatedCache, _allocatedFactory, request, response).record(allocatedBytes);
+        }
+    }
+
+    /**
+     * Resolves the request id used as exemplar from the configured header, falling back to the configured MDC key. Read
+     * before the chain executes, since inner filters may clear the MDC.
+     * @param snapshot current configuration snapshot
+     * @param request current HTTP request; may be null
+     * @return request id or null if none is available
+     */
+    private static String getExemplarId(PrometheusConfigSnapshot snapshot, HttpServletRequest request) {
+        String header = snapshot.getExemplarHeader();
+        String id = header != null && request != null ? request.getHeader(header) : null;
+        if ((id == null || id.isEmpty()) && snapshot.getExemplarMdcKey() != null) {
+            id = MDC.get(snapshot.getExemplarMdcKey());
+        }
+        return id == null || id.isEmpty() ? null : id;
+    }
+
+    private static long delta(long start, long end) {
+        return start < 0 || end < 0 ? ThreadResourceProbe.UNSUPPORTED : Math.max(0, end - start);
+    }
+
+    /**
+     * Returns the module's configuration snapshot and clears the meter caches when a new snapshot has been published.
+     * @return current configuration snapshot
+     */
+    private PrometheusConfigSnapshot getConfigSnapshot() {
+        PrometheusConfigSnapshot snapshot = _monitoringModule.getConfigSnapshot();
+        if (snapshot != _lastSnapshot) {
+            _lastSnapshot = snapshot;
+            _requestBytesCache.clear();
+            _responseBytesCache.clear();
+            _cpuCache.clear();
+            _allocatedCache.clear();
+            _outcomeTimerCaches.values().forEach(HttpMeterCache::clear);
+            _outcomeAsyncTimerCaches.values().forEach(HttpMeterCache::clear);
+        }
+        return snapshot;
+    }
+
+    /**
+     * Resolves a request meter, served from the {@link HttpMeterCache} for known (uri tag, method, status) combinations.
+     * @param snapshot current configuration snapshot
+     * @param cache meter cache belonging to the meter name
+     * @param factory registers or looks up the meter for a set of tags
+     * @param request current HTTP request; may be null
+     * @param response current HTTP response; may be null
+     * @param <M> meter type
+     * @return meter to record to
+     */
+    private <M extends Meter> M getMeter(PrometheusConfigSnapshot snapshot, HttpMeterCache<M> cache, Function<Iterable<Tag>, M> factory,
+                                         HttpServletRequest request, HttpServletResponse response) {
+        if (request == null || response == null) {
+            return factory.apply(getTags(snapshot.getRouteNormalizer(), request, response));
+        }
+        String uri = getUriTagValue(snapshot, request.getRequestURI());
+        String method = request.getMethod();
+        int status = response.getStatus();
+        M meter = cache.get(uri, method, status);
+        if (meter == null) {
+            meter = factory.apply(getTags(uri, method, status));
+            cache.put(uri, method, status, meter);
+        }
+        return meter;
+    }
+
+    /**
+     * Resolves the uri tag value the registry finally records: the matching route template, the whitelisted URI or an
+     * empty string. Keying the meter caches by this value lets all URIs blanked by the whitelist share one entry.
+     * @param snapshot current configuration snapshot
+     * @param uri raw request URI; may be null
+     * @return uri tag value; never null
+     */
+    static String getUriTagValue(PrometheusConfigSnapshot snapshot, String uri) {
+        String template = snapshot.getRouteNormalizer().normalize(uri);
+        return template != null ? template : snapshot.getWhitelist().map(uri);
+    }
+
+    /**
+     * Registers or looks up a byte size distribution summary.
+     * @param name meter name
+     * @param tags meter tags
+     * @return distribution summary with base unit bytes
+     */
+    private DistributionSummary bytesSummary(String name, Iterable<Tag> tags) {
+        return DistributionSummary.builder(name).baseUnit(BaseUnits.BYTES).tags(tags).register(_registry);
+    }
+
+    /**
+     * Builds tag collection for request meters including uri, method and status.
+     * @param normalizer route template normalizer
      * @param request current HTTP request; may be null
      * @param response current HTTP response; may be null
      * @return iterable tags instance
      */
-    private Iterable<Tag> getTags(HttpServletRequest request, HttpServletResponse response) {
-        Tag uri = (request != null) ? Tag.of("uri", request.getRequestURI()) : Tag.of("uri", "UNKNOWN");
+    private Iterable<Tag> getTags(UriTemplateNormalizer normalizer, HttpServletRequest request, HttpServletResponse response) {
+        Tag uri = (request != null) ? Tag.of("uri", normalizer.normalizeOrSelf(request.getRequestURI())) : Tag.of("uri", "UNKNOWN");
         Tag method = (request != null) ? Tag.of("method", request.getMethod()) : Tag.of("method", "UNKNOWN");
-        Tag status = (response != null) ? Tag.of("status", Integer.toString(response.getStatus())) : Tag.of("method", "UNKNOWN");
+        Tag status = (response != null) ? Tag.of("status", Integer.toString(response.getStatus())) : Tag.of("status", "UNKNOWN");
         return Tags.of(uri, method, status);
     }
 
+    /**
+     * Builds tag collection for request meters from already extracted request values.
+     * @param uri uri tag value
+     * @param method HTTP method
+     * @param status HTTP status code
+     * @return iterable tags instance
+     */
+    private Iterable<Tag> getTags(String uri, String method, int status) {
+        return Tags.of(Tag.of("uri", uri), Tag.of("method", method), Tag.of("status", Integer.toString(status)));
+    }
+
+    /**
+     * Async listener recording the total request duration and sizes once the async cycle has finished. Timeouts and
+     * errors are recorded on the subsequent completion, so the status tag reflects the status actually sent to the client.
+     * CPU time and allocations were measured on the request thread before it was released and are recorded alongside.
+     */
+    private final class AsyncRecordingListener implements AsyncListener {
+
+        private final long _start;
+        private final boolean _timed;
+        private final String _exemplarId;
+        private final long _cpuNanos;
+        private final long _allocatedBytes;
+        private final AtomicBoolean _recorded = new AtomicBoolean();
+
+        AsyncRecordingListener(long start, boolean timed, String exemplarId, long cpuNanos, long allocatedBytes) {
+            _start = start;
+            _timed = timed;
+            _exemplarId = exemplarId;
+            _cpuNanos = cpuNanos;
+            _allocatedBytes = allocatedBytes;
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            if (_recorded.compareAndSet(false, true)) {
+                long duration = _registry.config().clock().monotonicTime() - _start;
+                HttpServletRequest request = (HttpServletRequest) event.getSuppliedRequest();
+                HttpServletResponse response = (HttpServletResponse) event.getSuppliedResponse();
+                PrometheusConfigSnapshot snapshot = getConfigSnapshot();
+                record(snapshot, _timed, true, _exemplarId, request, response, duration);
+                recordResources(snapshot, request, response, _cpuNanos, _allocatedBytes);
+            }
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            // recorded on completion, which the container guarantees after a timeout
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            // recorded on completion, which the container guarantees after an error
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            event.getAsyncContext().addListener(this, event.getSuppliedRequest(), event.getSuppliedResponse());
+        }
+    }
+
+    /**
+     * Async listener returning the concurrency limiter permit of an async request once its async cycle has finished.
+     */
+    private final class AsyncReleaseListener implements AsyncListener {
+
+        private final GradientConcurrencyLimiter _limiter;
+        private final long _start;
+        private final AtomicBoolean _released = new AtomicBoolean();
+
+        AsyncReleaseListener(GradientConcurrencyLimiter limiter, long start) {
+            _limiter = limiter;
+            _start = start;
+        }
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            if (_released.compareAndSet(false, true)) {
+                _limiter.release(_registry.config().clock().monotonicTime() - _start);
+            }
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            // released on completion, which the container guarantees after a timeout
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            // released on completion, which the container guarantees after an error
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            event.getAsyncContext().addListener(this);
+        }
+    }
+
 }
@@ -20,9 +20,10 @@ package de.ibmix.magkit.monitoring.endpoint.prometheus;
  * #L%
  */
 
-import java.time.Duration;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
 
 import javax.inject.Inject;
@@ -34,7 +35,11 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import de.ibmix.magkit.monitoring.MonitoringModule;
+import de.ibmix.magkit.monitoring.collector.BackgroundGaugeCollector;
+import de.ibmix.magkit.monitoring.config.prometheus.PrometheusConfigSnapshot;
 
+import io.micrometer.core.instrument.Clock;
+import io.micrometer.core.instrument.Gauge;
 import io.micrometer.core.instrument.Meter.Id;
 import io.micrometer.core.instrument.MeterRegistry;
 import io.micrometer.core.instrument.Tag;
@@ -51,16 +56,26 @@ import io.micrometer.core.instrument.distribution.DistributionStatisticConfig;
  * latency histogram SLO buckets and registers configured meter binders based on module configuration.
  * <p><strong>Key Features</strong></p>
  * <ul>
- * <li>HTTP URI whitelist to limit cardinality.</li>
+ * <li>HTTP URI whitelist to limit cardinality, compiled once per configuration snapshot.</li>
+ * <li>Cardinality guard folding tag combinations beyond the maximum series per meter name into an overflow series, see
+ * {@link CardinalityLimitingMeterFilter}.</li>
  * <li>Service level objective (SLO) latency buckets for request timing.</li>
+ * <li>Optional HDR-style log-linear latency buckets with a global bucket budget, reported by the
+ * "http_server_histogram_buckets" gauge.</li>
+ * <li>Exemplar support through {@link RequestExemplarContext}; buckets carry request ids when exemplars are enabled.</li>
  * <li>Dynamic metric binder selection from module configuration.</li>
+ * <li>Hit and miss counters of the module's {@link ScrapeCache}.</li>
+ * <li>Cached values of the module's {@link BackgroundGaugeCollector}, computed off the scrape path.</li>
+ * <li>Backed by a {@link NameIndexedPrometheusRegistry}, so selective scrapes only collect the requested meters.</li>
  * </ul>
  * <p><strong>Usage Preconditions</strong></p>
  * Monitoring module must provide a non-null Prometheus configuration with optional HTTP metrics config; metric ids must map to {@link Metric} enum constants for successful binding.
  * <p><strong>Null and Error Handling</strong></p>
  * Missing or invalid metric ids are logged and skipped. Reflection errors during binder instantiation are logged.
  * <p><strong>Thread-Safety</strong></p>
- * Provider is stateless aside from injected module reference; registry returned is thread-safe for concurrent metric operations.
+ * Provider is stateless aside from injected module reference and the lock-free bucket budget counter; meter filters read the module's immutable configuration
+ * snapshot on each evaluation, so configuration changes apply to newly registered meters without recreating the registry.
+ * Registry returned is thread-safe for concurrent metric operations.
  * <p><strong>Usage Example</strong></p>
  * <pre>{@code
  * PrometheusMeterRegistry registry = provider.get();
@@ -70,9 +85,14 @@ import io.micrometer.core.instrument.distribution.DistributionStatisticConfig;
  */
 public class PrometheusMeterRegistryProvider implements Provider<PrometheusMeterRegistry> {
 
+    /** Name of the gauge reporting the histogram buckets reserved by request timers. */
+    public static final String HTTP_SERVER_HISTOGRAM_BUCKETS = "http_server_histogram_buckets";
+
     private static final Logger LOGGER = LoggerFactory.getLogger(PrometheusMeterRegistryProvider.class);
 
     private final MonitoringModule _monitoringModule;
+    private final AtomicLong _histogramBuckets = new AtomicLong();
+    private final AtomicBoolean _histogramBudgetExhausted = new AtomicBoolean();
 
     /**
      * Constructs provider with monitoring module dependency.
@@ -89,10 +109,27 @@ public class PrometheusMeterRegistryProvider implements Provider<PrometheusMeter
      */
     @Override
     public PrometheusMeterRegistry get() {
-        PrometheusMeterRegistry registry = new PrometheusMeterRegistry(PrometheusConfig.DEFAULT);
+        PrometheusMeterRegistry registry = new PrometheusMeterRegistry(PrometheusConfig.DEFAULT, new NameIndexedPrometheusRegistry(), Clock.SYSTEM,
+            RequestExemplarContext.INSTANCE);
+        CardinalityLimitingMeterFilter cardinalityLimiter = cardinalityLimitFilter();
         registry.config().meterFilter(httpWhitelistUriFilter());
+        registry.config().meterFilter(cardinalityLimiter);
         registry.config().meterFilter(requestHistogramFilter());
+        registry.config().onMeterRemoved(meter -> cardinalityLimiter.release(meter.getId()));
+        registry.getPrometheusRegistry().register(cardinalityLimiter);
+        Gauge.builder(HTTP_SERVER_HISTOGRAM_BUCKETS, this, PrometheusMeterRegistryProvider::getReservedHistogramBuckets)
+            .description("Histogram buckets reserved by HTTP request timers")
+            .strongReference(true)
+            .register(registry);
 
+        ScrapeCache scrapeCache = _monitoringModule.getScrapeCache();
+        if (scrapeCache != null) {
+            scrapeCache.bindTo(registry);
+        }
+        BackgroundGaugeCollector backgroundGauges = _monitoringModule.getBackgroundGauges();
+        if (backgroundGauges != null) {
+            backgroundGauges.bindTo(registry);
+        }
         bindMetrics(registry);
 
         return registry;
@@ -118,16 +155,17 @@ public class PrometheusMeterRegistryProvider implements Provider<PrometheusMeter
 
     /**
      * Meter filter that whitelists configured HTTP request URIs, blanking others to reduce cardinality.
+     * Patterns are compiled once per configuration snapshot and URI results are memoized, see {@link UriWhitelistMatcher}.
+     * URIs already normalized to a configured route template are always kept.
      * @return meter filter
      */
     protected MeterFilter httpWhitelistUriFilter() {
         return new MeterFilter() {
             @Override
             public Id map(Id id) {
-                if (id.getName().equals("http_server_requests")) {
-                    List<String> whitelistUris = getWhitelistUris();
+                if (isHttpRequestMeter(id)) {
                     String uri = id.getTag("uri");
-                    if (whitelistUris.stream().noneMatch((uriPattern) -> uri.matches(uriPattern))) {
+                    if (!getWhitelistMatcher().matches(uri) && !getRouteNormalizer().isTemplate(uri)) {
                         List<Tag> tags = id.getTags().stream().filter((t) -> !"uri".equals(t.getKey())).collect(Collectors.toList());
                         tags.add(Tag.of("uri", ""));
                         return id.replaceTags(tags);
@@ -139,36 +177,130 @@ public class PrometheusMeterRegistryProvider implements Provider<PrometheusMeter
     }
 
     /**
-     * Meter filter applying SLO histogram buckets to HTTP request timers.
+     * Meter filter folding tag combinations beyond the configured maximum series per meter name into an overflow series.
+     * Registered after the URI whitelist, so blanked URIs count as a single series.
+     * @return meter filter that also collects the per-name cardinality self-metrics
+     */
+    protected CardinalityLimitingMeterFilter cardinalityLimitFilter() {
+        return new CardinalityLimitingMeterFilter(() -> getConfigSnapshot().getMaxSeriesPerMeter());
+    }
+
+    /**
+     * Returns the compiled whitelist matcher of the current configuration snapshot.
+     * @return compiled matcher for the current whitelist
+     */
+    protected UriWhitelistMatcher getWhitelistMatcher() {
+        return getConfigSnapshot().getWhitelist();
+    }
+
+    /**
+     * Returns the route template normalizer of the current configuration snapshot.
+     * @return normalizer for the current route templates
+     */
+    protected UriTemplateNormalizer getRouteNormalizer() {
+        return getConfigSnapshot().getRouteNormalizer();
+    }
+
+    /**
+     * Meter filter applying histogram buckets to HTTP request timers (synchronous and asynchronous): the SLO buckets,
+     * merged with log-linear buckets if {@link de.ibmix.magkit.monitoring.config.prometheus.LatencyHistogramConfig} is
+     * enabled. Timers registered once the bucket budget is exhausted get a single bucket at the largest bound instead:
+     * every series of a Prometheus histogram family must be a histogram, a timer without buckets would be exported as a
+     * summary point inside the histogram family and break every scrape.
      * @return meter filter
      */
     protected MeterFilter requestHistogramFilter() {
         return new MeterFilter() {
             @Override
             public DistributionStatisticConfig configure(Id id, DistributionStatisticConfig config) {
-                List<Integer> sloBuckets = getSloBuckets();
-                if (id.getName().equals("http_server_requests") && !sloBuckets.isEmpty()) {
-                    return DistributionStatisticConfig.builder()
-                        .percentilesHistogram(false)
-                        .serviceLevelObjectives(
-                            sloBuckets.stream()
-                                .map(b -> Duration.ofMillis(b).toNanos())
-                                .mapToDouble(x -> x.doubleValue())
-                                .toArray())
-                        .build()
-                        .merge(config);
+                PrometheusConfigSnapshot snapshot = getConfigSnapshot();
+                if (!isHttpRequestTimer(id) || snapshot.getRequestBucketCount() == 0) {
+                    return config;
                 }
-                return config;
+                double[] buckets = snapshot.getRequestBucketsNanos();
+                if (!reserveHistogramBuckets(snapshot, id)) {
+                    buckets = new double[] {buckets[buckets.length - 1]};
+                }
+                return DistributionStatisticConfig.builder()
+                    .percentilesHistogram(false)
+                    .serviceLevelObjectives(buckets)
+                    .build()
+                    .merge(config);
             }
         };
     }
 
+    /**
+     * Reserves the buckets of a new request timer within the configured budget. Reservations are never released because
+     * request timers stay registered for the lifetime of the registry.
+     * @param snapshot current configuration snapshot
+     * @param id id of the timer being registered
+     * @return true if the timer may use histogram buckets
+     */
+    protected boolean reserveHistogramBuckets(PrometheusConfigSnapshot snapshot, Id id) {
+        int buckets = snapshot.getRequestBucketCount();
+        long budget = snapshot.getHistogramBucketBudget();
+        long reserved;
+        do {
+            reserved = _histogramBuckets.get();
+            if (reserved + buckets > budget) {
+                if (_histogramBudgetExhausted.compareAndSet(false, true)) {
+                    LOGGER.warn("Histogram bucket budget of {} exhausted, '{}' {} and later request timers are recorded with a single bucket",
+                        budget, id.getName(), id.getTags());
+                }
+                return false;
+            }
+        } while (!_histogramBuckets.compareAndSet(reserved, reserved + buckets));
+        return true;
+    }
+
+    /**
+     * Returns the number of histogram buckets reserved by request timers so far.
+     * @return reserved buckets
+     */
+    protected long getReservedHistogramBuckets() {
+        return _histogramBuckets.get();
+    }
+
+    /**
+     * Indicates whether the meter is one of the HTTP request timers recorded by {@link PrometheusFilter}.
+     * @param id meter id
+     * @return true for synchronous and asynchronous request timers
+     */
+    protected static boolean isHttpRequestTimer(Id id) {
+        String name = id.getName();
+        return PrometheusFilter.HTTP_SERVER_REQUESTS.equals(name) || PrometheusFilter.HTTP_SERVER_REQUESTS_ASYNC.equals(name);
+    }
+
+    /**
+     * Indicates whether the meter is one of the per-request meters recorded by {@link PrometheusFilter} and therefore
+     * carries a <code>uri</code> tag.
+     * @param id meter id
+     * @return true for request timers, size, CPU time and allocation distributions
+     */
+    protected static boolean isHttpRequestMeter(Id id) {
+        String name = id.getName();
+        return isHttpRequestTimer(id)
+            || PrometheusFilter.HTTP_SERVER_REQUEST_BYTES.equals(name)
+            || PrometheusFilter.HTTP_SERVER_RESPONSE_BYTES.equals(name)
+            || PrometheusFilter.HTTP_SERVER_REQUEST_CPU.equals(name)
+            || PrometheusFilter.HTTP_SERVER_REQUEST_ALLOCATED.equals(name);
+    }
+
+    /**
+     * Returns the compiled configuration snapshot published by the monitoring module.
+     * @return current configuration snapshot
+     */
+    protected PrometheusConfigSnapshot getConfigSnapshot() {
+        return _monitoringModule.getConfigSnapshot();
+    }
+
     /**
      * Returns configured metric identifier list.
      * @return list of metric ids
      */
     protected List<String> getMetricIds() {
-        return _monitoringModule.getPrometheusConfig().getMetrics();
+        return getConfigSnapshot().getMetricIds();
     }
 
     /**
@@ -176,7 +308,7 @@ public class PrometheusMeterRegistryProvider implements Provider<PrometheusMeter
      * @return list of URI patterns
      */
     protected List<String> getWhitelistUris() {
-        return _monitoringModule.getPrometheusConfig().getHttpRequestMetricsConfig().getUris();
+        return getWhitelistMatcher().getPatterns();
     }
 
     /**
@@ -184,7 +316,7 @@ public class PrometheusMeterRegistryProvider implements Provider<PrometheusMeter
      * @return list of SLO bucket ms values
      */
     protected List<Integer> getSloBuckets() {
-        return _monitoringModule.getPrometheusConfig().getHttpRequestMetricsConfig().getSloBuckets();
+        return getConfigSnapshot().getSloBuckets();
     }
 
 }
@@ -0,0 +1,132 @@
+package de.ibmix.magkit.monitoring.endpoint.prometheus;
+
+/*-
+ * #%L
+ * IBM iX Magnolia Monitoring
+ * %%
+ * Copyright (C) 2026 IBM iX
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import io.prometheus.metrics.tracer.common.SpanContext;
+
+/**
+ * {@link SpanContext} exposing the id of the request currently being recorded, so the Prometheus client attaches it as
+ * exemplar to the observed histogram bucket.
+ * <p><strong>Purpose</strong></p>
+ * Links latency buckets of <code>http_server_requests</code> to concrete requests without requiring a tracing library:
+ * a p99 spike on a dashboard can be followed to the request id in the logs or the access log.
+ * <p><strong>Main Functionality</strong></p>
+ * {@link PrometheusFilter} resolves the request id before executing the chain and publishes it in a thread local for the
+ * duration of the timer recording. The exemplar sampler of the Prometheus client reads it through this span context.
+ * A W3C <code>traceparent</code> value is split into its trace id and parent span id, so exemplars point to the real
+ * trace. Any other request id becomes the exemplar's <code>trace_id</code> with an empty <code>span_id</code>; the
+ * observation timestamp is added by the sampler.
+ * <p><strong>Key Features</strong></p>
+ * <ul>
+ * <li>Lock-free: one thread local lookup per observation, with a two-element array reused per thread.</li>
+ * <li>Request ids are truncated to stay within the OpenMetrics limit of 128 characters per exemplar label set.</li>
+ * <li>Outside of a recording no span is reported, so other meters never carry exemplars.</li>
+ * </ul>
+ * <p><strong>Null and Error Handling</strong></p>
+ * A null request id leaves the context empty.
+ * <p><strong>Thread-Safety</strong></p>
+ * Stateless singleton over a thread local; safe for concurrent use.
+ * <p><strong>Usage Example</strong></p>
+ * <pre>{@code
+ * new PrometheusMeterRegistry(PrometheusConfig.DEFAULT, new PrometheusRegistry(), Clock.SYSTEM, RequestExemplarContext.INSTANCE);
+ * }</pre>
+ * <p><strong>Important Details</strong></p>
+ * Exemplars are only rendered in the OpenMetrics exposition format and are rate limited by the Prometheus client, so
+ * not every request is kept. The client only samples when both ids are non-null, hence the empty span id for plain
+ * request ids.
+ * @author IBM iX
+ * @since 2026-10-17
+ */
+public final class RequestExemplarContext implements SpanContext {
+
+    /** Shared instance passed to the meter registry. */
+    public static final RequestExemplarContext INSTANCE = new RequestExemplarContext();
+
+    /** Maximum length of a plain request id, i.e. 128 minus the label names "trace_id" and "span_id". */
+    static final int MAX_ID_LENGTH = 113;
+
+    private static final Pattern TRACEPARENT = Pattern.compile("[0-9a-f]{2}-([0-9a-f]{32})-([0-9a-f]{16})-[0-9a-f]{2}");
+
+    private static final ThreadLocal<String[]> CURRENT = new ThreadLocal<>();
+
+    private RequestExemplarContext() {
+    }
+
+    /**
+     * Publishes the request id for exemplars recorded by the current thread.
+     * @param requestId request id or W3C traceparent value; null leaves the context empty
+     */
+    static void set(String requestId) {
+        if (requestId == null) {
+            clear();
+            return;
+        }
+        String[] current = CURRENT.get();
+        if (current == null) {
+            current = new String[2];
+            CURRENT.set(current);
+        }
+        Matcher traceparent = TRACEPARENT.matcher(requestId);
+        if (traceparent.matches()) {
+            current[0] = traceparent.group(1);
+            current[1] = traceparent.group(2);
+        } else {
+            current[0] = requestId.length() > MAX_ID_LENGTH ? requestId.substring(0, MAX_ID_LENGTH) : requestId;
+            current[1] = "";
+        }
+    }
+
+    /**
+     * Removes the request id of the current thread.
+     */
+    static void clear() {
+        String[] current = CURRENT.get();
+        if (current != null) {
+            current[0] = null;
+            current[1] = null;
+        }
+    }
+
+    @Override
+    public String getCurrentTraceId() {
+        String[] current = CURRENT.get();
+        return current != null ? current[0] : null;
+    }
+
+    @Override
+    public String getCurrentSpanId() {
+        String[] current = CURRENT.get();
+        return current != null ? current[1] : null;
+    }
+
+    @Override
+    public boolean isCurrentSpanSampled() {
+        return getCurrentTraceId() != null;
+    }
+
+    @Override
+    public void markCurrentSpanAsExemplar() {
+        // no tracer to notify
+    }
+}
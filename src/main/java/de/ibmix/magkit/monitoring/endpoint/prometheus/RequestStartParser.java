@@ -0,0 +1,122 @@
+package de.ibmix.magkit.monitoring.endpoint.prometheus;
+
+/*-
+ * #%L
+ * IBM iX Magnolia Monitoring
+ * %%
+ * Copyright (C) 2026 IBM iX
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+
+/**
+ * Parser for the request start timestamps load balancers and reverse proxies add as <code>X-Request-Start</code> or
+ * <code>X-Queue-Start</code> header.
+ * <p><strong>Purpose</strong></p>
+ * Lets {@link PrometheusFilter} measure how long a request waited upstream and in the container's accept backlog
+ * before Magnolia started processing it.
+ * <p><strong>Main Functionality</strong></p>
+ * Converts a header value into epoch nanoseconds. Accepted formats:
+ * <ul>
+ * <li>an optional <code>t=</code> prefix, as written by nginx (<code>t=${msec}</code>) and HAProxy;</li>
+ * <li>seconds with a fractional part, e.g. <code>1700000000.123</code>;</li>
+ * <li>integer seconds, milliseconds, microseconds or nanoseconds, told apart by their magnitude.</li>
+ * </ul>
+ * <p><strong>Null and Error Handling</strong></p>
+ * Null, empty and malformed values yield {@link #INVALID}; no exception is thrown.
+ * <p><strong>Thread-Safety</strong></p>
+ * Stateless; safe for concurrent use.
+ * <p><strong>Usage Example</strong></p>
+ * <pre>{@code
+ * long startNanos = RequestStartParser.toEpochNanos(request.getHeader("X-Request-Start"));
+ * }</pre>
+ * <p><strong>Important Details</strong></p>
+ * The magnitude heuristic assumes timestamps after 1973 and before 5138, which covers every realistic wall clock.
+ * Parsing avoids floating point so sub-millisecond digits are kept exactly.
+ * @author IBM iX
+ * @since 2026-10-17
+ */
+public final class RequestStartParser {
+
+    /** Result for values that cannot be parsed. */
+    public static final long INVALID = -1;
+
+    private static final long SECONDS_LIMIT = 100_000_000_000L;
+    private static final long MILLIS_LIMIT = SECONDS_LIMIT * 1000;
+    private static final long MICROS_LIMIT = MILLIS_LIMIT * 1000;
+    private static final int NANO_DIGITS = 9;
+
+    private RequestStartParser() {
+    }
+
+    /**
+     * Converts a request start header value into epoch nanoseconds.
+     * @param value header value; may be null
+     * @return epoch nanoseconds or {@link #INVALID}
+     */
+    public static long toEpochNanos(String value) {
+        if (value == null) {
+            return INVALID;
+        }
+        String number = value.trim();
+        if (number.startsWith("t=")) {
+            number = number.substring(2);
+        }
+        int dot = number.indexOf('.');
+        String integral = dot < 0 ? number : number.substring(0, dot);
+        long whole = parseDigits(integral);
+        if (whole < 0) {
+            return INVALID;
+        }
+        if (dot >= 0) {
+            String fraction = number.substring(dot + 1);
+            if (fraction.length() > NANO_DIGITS) {
+                fraction = fraction.substring(0, NANO_DIGITS);
+            }
+            long fractionNanos = fraction.isEmpty() ? 0 : parseDigits(fraction);
+            if (fractionNanos < 0 || whole >= SECONDS_LIMIT) {
+                return INVALID;
+            }
+            for (int i = fraction.length(); i < NANO_DIGITS; i++) {
+                fractionNanos *= 10;
+            }
+            return whole * 1_000_000_000L + fractionNanos;
+        }
+        if (whole < SECONDS_LIMIT) {
+            return whole * 1_000_000_000L;
+        } else if (whole < MILLIS_LIMIT) {
+            return whole * 1_000_000L;
+        } else if (whole < MICROS_LIMIT) {
+            return whole * 1_000L;
+        }
+        return whole;
+    }
+
+    private static long parseDigits(String digits) {
+        if (digits.isEmpty() || digits.length() > 19) {
+            return INVALID;
+        }
+        long result = 0;
+        for (int i = 0; i < digits.length(); i++) {
+            char c = digits.charAt(i);
+            if (c < '0' || c > '9') {
+                return INVALID;
+            }
+            result = result * 10 + (c - '0');
+        }
+        return result < 0 ? INVALID : result;
+    }
+
+}
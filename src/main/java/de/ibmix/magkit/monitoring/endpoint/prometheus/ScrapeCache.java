@@ -0,0 +1,240 @@
+package de.ibmix.magkit.monitoring.endpoint.prometheus;
+
+/*-
+ * #%L
+ * IBM iX Magnolia Monitoring
+ * %%
+ * Copyright (C) 2026 IBM iX
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * Short-lived cache of serialized scrape results shared by all scrapers of the {@link PrometheusEndpoint}.
+ * <p><strong>Purpose</strong></p>
+ * Several Prometheus servers (HA pairs, federation jobs) scraping the same instance within one interval would otherwise
+ * each walk every meter and encode the full exposition. With the cache, one rendering per format and TTL serves them all.
+ * <p><strong>Main Functionality</strong></p>
+ * Keeps one byte array per variant, i.e. content type plus content coding, so gzip compressed variants are stored
+ * pre-compressed. A request finding no valid entry renders it; concurrent requests for the same variant wait for that
+ * rendering instead of starting their own.
+ * <p><strong>Key Features</strong></p>
+ * <ul>
+ * <li>Configurable TTL, evaluated per request so changes apply immediately.</li>
+ * <li>Request coalescing through one in-flight future per variant.</li>
+ * <li>Bounded memory: expired variants are dropped whenever a variant is rendered, and at most {@value #MAX_VARIANTS}
+ * variants are kept; further variants are rendered without being stored.</li>
+ * <li>Counter "prometheus_scrape_cache_requests" with tag result=hit|miss; coalesced requests count as hits.</li>
+ * </ul>
+ * <p><strong>Null and Error Handling</strong></p>
+ * Rendering failures are propagated to the rendering request and all requests waiting for it; nothing is cached, so the
+ * next request renders again.
+ * <p><strong>Thread-Safety</strong></p>
+ * Thread-safe; entries are immutable and replaced atomically.
+ * <p><strong>Usage Example</strong></p>
+ * <pre>{@code
+ * byte[] body = cache.get(contentType + ";gzip", ttlNanos, out -> registry.scrape(new GZIPOutputStream(out), contentType));
+ * }</pre>
+ * <p><strong>Important Details</strong></p>
+ * Cached variants stay in memory until they expire and the next rendering drops them, trading the constant memory of
+ * streaming for fewer renderings. Results may be up to one TTL old; keep the TTL well below the scrape interval. Only
+ * pass a bounded set of variant keys; request parameters must not become part of the key.
+ * @author IBM iX
+ * @since 2026-10-17
+ */
+public class ScrapeCache implements MeterBinder {
+
+    /** Name of the counter reporting scrape cache lookups. */
+    public static final String PROMETHEUS_SCRAPE_CACHE_REQUESTS = "prometheus_scrape_cache_requests";
+
+    /** Maximum number of cached variants. */
+    public static final int MAX_VARIANTS = 16;
+
+    private final Map<String, Entry> _entries = new ConcurrentHashMap<>();
+    private final Map<String, CompletableFuture<Entry>> _inFlight = new ConcurrentHashMap<>();
+    private final AtomicLong _hits = new AtomicLong();
+    private final AtomicLong _misses = new AtomicLong();
+    private final LongSupplier _nanoTime;
+
+    /**
+     * Creates a cache based on {@link System#nanoTime()}.
+     */
+    public ScrapeCache() {
+        this(System::nanoTime);
+    }
+
+    /**
+     * Creates a cache using the given monotonic time source.
+     * @param nanoTime monotonic time in nanoseconds
+     */
+    ScrapeCache(LongSupplier nanoTime) {
+        _nanoTime = nanoTime;
+    }
+
+    /**
+     * Returns the cached variant if still valid, otherwise renders it or waits for a concurrent rendering.
+     * @param variant cache key identifying content type and coding
+     * @param ttlNanos time to live of a rendered variant
+     * @param renderer writes the variant
+     * @return serialized variant
+     * @throws IOException if rendering fails
+     */
+    public byte[] get(String variant, long ttlNanos, Renderer renderer) throws IOException {
+        Entry entry = _entries.get(variant);
+        if (entry != null && entry.isValid(_nanoTime.getAsLong())) {
+            _hits.incrementAndGet();
+            return entry._body;
+        }
+        CompletableFuture<Entry> rendering = new CompletableFuture<>();
+        CompletableFuture<Entry> running = _inFlight.putIfAbsent(variant, rendering);
+        if (running != null) {
+            _hits.incrementAndGet();
+            return await(running)._body;
+        }
+        try {
+            entry = _entries.get(variant);
+            if (entry != null && entry.isValid(_nanoTime.getAsLong())) {
+                _hits.incrementAndGet();
+            } else {
+                _misses.incrementAndGet();
+                long now = _nanoTime.getAsLong();
+                _entries.values().removeIf(e -> !e.isValid(now));
+                ByteArrayOutputStream output = new ByteArrayOutputStream();
+                renderer.render(output);
+                entry = new Entry(output.toByteArray(), _nanoTime.getAsLong() + ttlNanos);
+                if (_entries.size() < MAX_VARIANTS || _entries.containsKey(variant)) {
+                    _entries.put(variant, entry);
+                }
+            }
+            rendering.complete(entry);
+            return entry._body;
+        } catch (IOException | RuntimeException e) {
+            rendering.completeExceptionally(e);
+            throw e;
+        } finally {
+            _inFlight.remove(variant, rendering);
+        }
+    }
+
+    /**
+     * Drops all cached variants.
+     */
+    public void clear() {
+        _entries.clear();
+    }
+
+    /**
+     * Returns the number of cached variants, including expired ones not dropped yet.
+     * @return cached variant count
+     */
+    int size() {
+        return _entries.size();
+    }
+
+    /**
+     * Returns the number of lookups served without rendering.
+     * @return hit count
+     */
+    public long getHits() {
+        return _hits.get();
+    }
+
+    /**
+     * Returns the number of lookups that rendered the exposition.
+     * @return miss count
+     */
+    public long getMisses() {
+        return _misses.get();
+    }
+
+    /**
+     * Registers the hit and miss counters.
+     * @param registry target registry
+     */
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder(PROMETHEUS_SCRAPE_CACHE_REQUESTS, _hits, AtomicLong::get)
+            .description("Scrapes served from the scrape cache (hit) or rendered (miss)")
+            .tag("result", "hit")
+            .register(registry);
+        FunctionCounter.builder(PROMETHEUS_SCRAPE_CACHE_REQUESTS, _misses, AtomicLong::get)
+            .description("Scrapes served from the scrape cache (hit) or rendered (miss)")
+            .tag("result", "miss")
+            .register(registry);
+    }
+
+    private static Entry await(CompletableFuture<Entry> rendering) throws IOException {
+        try {
+            return rendering.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for a concurrent scrape", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            } else if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IOException("Concurrent scrape failed", cause);
+        }
+    }
+
+    /**
+     * Writes one variant of the exposition.
+     */
+    @FunctionalInterface
+    public interface Renderer {
+
+        /**
+         * Renders the exposition into the given stream.
+         * @param output target stream
+         * @throws IOException on write errors
+         */
+        void render(OutputStream output) throws IOException;
+    }
+
+    /**
+     * Serialized variant with its expiry.
+     */
+    private static final class Entry {
+
+        private final byte[] _body;
+        private final long _expiresNanos;
+
+        private Entry(byte[] body, long expiresNanos) {
+            _body = body;
+            _expiresNanos = expiresNanos;
+        }
+
+        private boolean isValid(long nowNanos) {
+            return nowNanos - _expiresNanos < 0;
+        }
+    }
+
+}
@@ -0,0 +1,162 @@
+package de.ibmix.magkit.monitoring.endpoint.prometheus;
+
+/*-
+ * #%L
+ * IBM iX Magnolia Monitoring
+ * %%
+ * Copyright (C) 2026 IBM iX
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Reads CPU time and allocated heap bytes of the current thread, after checking once whether the JVM supports them.
+ * <p><strong>Purpose</strong></p>
+ * Lets {@link PrometheusFilter} attribute CPU and allocation cost to individual requests, so routes driving CPU
+ * saturation or GC pressure can be identified.
+ * <p><strong>Main Functionality</strong></p>
+ * Support is detected when the probe is created: CPU time via {@link ThreadMXBean#isCurrentThreadCpuTimeSupported()},
+ * allocated bytes via {@link com.sun.management.ThreadMXBean#isThreadAllocatedMemorySupported()}. Disabled measurements
+ * are switched on if the JVM allows it. Unsupported measurements return {@link #UNSUPPORTED} without calling the MXBean.
+ * <p><strong>Key Features</strong></p>
+ * <ul>
+ * <li>One support check per probe instead of per request.</li>
+ * <li>Graceful degradation on JVMs without <code>com.sun.management</code> extensions.</li>
+ * </ul>
+ * <p><strong>Null and Error Handling</strong></p>
+ * Security or unsupported-operation errors while enabling a measurement mark it as unsupported and are logged once.
+ * <p><strong>Thread-Safety</strong></p>
+ * Immutable after construction; safe for concurrent use. Values always refer to the calling thread.
+ * <p><strong>Usage Example</strong></p>
+ * <pre>{@code
+ * ThreadResourceProbe probe = ThreadResourceProbe.get();
+ * long cpuStart = probe.getCurrentThreadCpuTime();
+ * // work
+ * long cpuNanos = probe.getCurrentThreadCpuTime() - cpuStart;
+ * }</pre>
+ * <p><strong>Important Details</strong></p>
+ * CPU time has the resolution of the operating system's thread clock. Allocated bytes are a HotSpot estimate that
+ * includes TLAB allocations and is accurate enough for comparing routes.
+ * @author IBM iX
+ * @since 2026-10-17
+ */
+public final class ThreadResourceProbe {
+
+    /** Value returned for unsupported measurements. */
+    public static final long UNSUPPORTED = -1;
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ThreadResourceProbe.class);
+
+    private final ThreadMXBean _threadBean;
+    private final com.sun.management.ThreadMXBean _extendedThreadBean;
+    private final boolean _cpuTimeSupported;
+    private final boolean _allocatedBytesSupported;
+
+    /**
+     * Creates a probe for the given bean, checking and enabling the supported measurements.
+     * @param threadBean thread MXBean of the JVM
+     */
+    ThreadResourceProbe(ThreadMXBean threadBean) {
+        _threadBean = threadBean;
+        _cpuTimeSupported = enableCpuTime(threadBean);
+        _extendedThreadBean = threadBean instanceof com.sun.management.ThreadMXBean ? (com.sun.management.ThreadMXBean) threadBean : null;
+        _allocatedBytesSupported = _extendedThreadBean != null && enableAllocatedBytes(_extendedThreadBean);
+    }
+
+    /**
+     * Returns the shared probe of the platform thread MXBean; support is detected on first access.
+     * @return shared probe
+     */
+    public static ThreadResourceProbe get() {
+        return Holder.INSTANCE;
+    }
+
+    /**
+     * Indicates whether thread CPU time can be measured.
+     * @return true if supported and enabled
+     */
+    public boolean isCpuTimeSupported() {
+        return _cpuTimeSupported;
+    }
+
+    /**
+     * Indicates whether allocated bytes per thread can be measured.
+     * @return true if supported and enabled
+     */
+    public boolean isAllocatedBytesSupported() {
+        return _allocatedBytesSupported;
+    }
+
+    /**
+     * Returns the CPU time of the current thread.
+     * @return nanoseconds or {@link #UNSUPPORTED}
+     */
+    public long getCurrentThreadCpuTime() {
+        return _cpuTimeSupported ? _threadBean.getCurrentThreadCpuTime() : UNSUPPORTED;
+    }
+
+    /**
+     * Returns the total heap bytes allocated by the current thread.
+     * @return bytes or {@link #UNSUPPORTED}
+     */
+    public long getCurrentThreadAllocatedBytes() {
+        return _allocatedBytesSupported ? _extendedThreadBean.getCurrentThreadAllocatedBytes() : UNSUPPORTED;
+    }
+
+    private static boolean enableCpuTime(ThreadMXBean bean) {
+        try {
+            if (!bean.isCurrentThreadCpuTimeSupported()) {
+                LOGGER.info("Thread CPU time is not supported by this JVM; request CPU time will not be recorded.");
+                return false;
+            }
+            if (!bean.isThreadCpuTimeEnabled()) {
+                bean.setThreadCpuTimeEnabled(true);
+            }
+            return true;
+        } catch (SecurityException | UnsupportedOperationException e) {
+            LOGGER.info("Thread CPU time measurement could not be enabled; request CPU time will not be recorded.", e);
+            return false;
+        }
+    }
+
+    private static boolean enableAllocatedBytes(com.sun.management.ThreadMXBean bean) {
+        try {
+            if (!bean.isThreadAllocatedMemorySupported()) {
+                LOGGER.info("Thread allocated memory is not supported by this JVM; request allocations will not be recorded.");
+                return false;
+            }
+            if (!bean.isThreadAllocatedMemoryEnabled()) {
+                bean.setThreadAllocatedMemoryEnabled(true);
+            }
+            return true;
+        } catch (SecurityException | UnsupportedOperationException e) {
+            LOGGER.info("Thread allocated memory measurement could not be enabled; request allocations will not be recorded.", e);
+            return false;
+        }
+    }
+
+    /**
+     * Lazy holder detecting support on first use only.
+     */
+    private static final class Holder {
+        private static final ThreadResourceProbe INSTANCE = new ThreadResourceProbe(ManagementFactory.getThreadMXBean());
+    }
+
+}
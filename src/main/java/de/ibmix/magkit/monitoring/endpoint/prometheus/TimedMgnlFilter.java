@@ -0,0 +1,185 @@
+package de.ibmix.magkit.monitoring.endpoint.prometheus;
+
+/*-
+ * #%L
+ * IBM iX Magnolia Monitoring
+ * %%
+ * Copyright (C) 2026 IBM iX
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import javax.servlet.FilterChain;
+import javax.servlet.FilterConfig;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import info.magnolia.cms.filters.AbstractMgnlFilter;
+import info.magnolia.cms.filters.MgnlFilter;
+import io.micrometer.core.instrument.Clock;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Wrapper around a filter of the Magnolia filter chain recording the time spent in the filter itself.
+ * <p><strong>Purpose</strong></p>
+ * Breaks the request latency down per stage of the filter chain (security, i18n, virtual URI, cache, rendering, ...).
+ * <p><strong>Main Functionality</strong></p>
+ * Measures the wrapped filter's {@link #doFilter(HttpServletRequest, HttpServletResponse, FilterChain)} and subtracts
+ * the time of timed filters running nested inside it, i.e. all downstream filters and, for composite filters, their
+ * children. The remainder is recorded to the timer {@value #MAGNOLIA_FILTER_SELF} tagged with the filter name.
+ * <p><strong>Key Features</strong></p>
+ * <ul>
+ * <li>Self time instead of inclusive time; summing all filters gives the time spent in the chain.</li>
+ * <li>Transparent: matching, enablement, name and lifecycle are delegated to the wrapped filter.</li>
+ * <li>Switched off without unwrapping: when disabled, requests pass straight to the wrapped filter.</li>
+ * </ul>
+ * <p><strong>Null and Error Handling</strong></p>
+ * Exceptions of the wrapped filter propagate unchanged; the elapsed time is recorded anyway.
+ * <p><strong>Thread-Safety</strong></p>
+ * Nesting is tracked per thread; the wrapper itself is immutable and safe for concurrent requests.
+ * <p><strong>Usage Example</strong></p>
+ * <pre>{@code
+ * MgnlFilter timed = new TimedMgnlFilter(cacheFilter, registry, () -> true);
+ * }</pre>
+ * <p><strong>Important Details</strong></p>
+ * Work done after the last filter, e.g. by the servlet the chain ends in, counts towards the filter that called the
+ * chain. Processing continued on other threads after an async start is not included.
+ * @author IBM iX
+ * @since 2026-10-17
+ */
+public class TimedMgnlFilter extends AbstractMgnlFilter {
+
+    /** Name of the timer recording the self time per filter. */
+    public static final String MAGNOLIA_FILTER_SELF = "magnolia_filter_self";
+
+    /** Tag carrying the filter name. */
+    public static final String FILTER_TAG = "filter";
+
+    private static final ThreadLocal<Frame> CURRENT = new ThreadLocal<>();
+
+    private final MgnlFilter _delegate;
+    private final Timer _timer;
+    private final Clock _clock;
+    private final BooleanSupplier _enabled;
+
+    /**
+     * Wraps the given filter.
+     * @param delegate filter to time
+     * @param registry registry receiving the self time timer
+     * @param enabled supplier telling whether timing is currently enabled
+     */
+    public TimedMgnlFilter(MgnlFilter delegate, MeterRegistry registry, BooleanSupplier enabled) {
+        _delegate = delegate;
+        _clock = registry.config().clock();
+        _enabled = enabled;
+        String name = delegate.getName() != null ? delegate.getName() : delegate.getClass().getSimpleName();
+        setName(name);
+        _timer = Timer.builder(MAGNOLIA_FILTER_SELF)
+            .description("Time spent in a Magnolia filter, excluding downstream filters")
+            .tag(FILTER_TAG, name)
+            .register(registry);
+    }
+
+    /**
+     * Returns the wrapped filter.
+     * @return wrapped filter
+     */
+    public MgnlFilter getDelegate() {
+        return _delegate;
+    }
+
+    /**
+     * Delegates to the wrapped filter.
+     * @param filterConfig filter configuration
+     * @throws ServletException if the wrapped filter fails to initialize
+     */
+    @Override
+    public void init(FilterConfig filterConfig) throws ServletException {
+        _delegate.init(filterConfig);
+    }
+
+    /**
+     * Delegates to the wrapped filter.
+     */
+    @Override
+    public void destroy() {
+        _delegate.destroy();
+    }
+
+    /**
+     * Delegates to the wrapped filter.
+     * @return true if the wrapped filter is enabled
+     */
+    @Override
+    public boolean isEnabled() {
+        return _delegate.isEnabled();
+    }
+
+    /**
+     * Delegates to the wrapped filter.
+     * @param request current HTTP request
+     * @return true if the wrapped filter applies to the request
+     */
+    @Override
+    public boolean matches(HttpServletRequest request) {
+        return _delegate.matches(request);
+    }
+
+    /**
+     * Runs the wrapped filter and records its self time if timing is enabled.
+     * @param request current HTTP request
+     * @param response current HTTP response
+     * @param chain remaining filter chain
+     * @throws IOException on I/O error of the wrapped filter
+     * @throws ServletException on servlet error of the wrapped filter
+     */
+    @Override
+    public void doFilter(HttpServletRequest request, HttpServletResponse response, FilterChain chain) throws IOException, ServletException {
+        if (!_enabled.getAsBoolean()) {
+            _delegate.doFilter(request, response, chain);
+            return;
+        }
+        Frame parent = CURRENT.get();
+        Frame frame = new Frame();
+        CURRENT.set(frame);
+        long start = _clock.monotonicTime();
+        try {
+            _delegate.doFilter(request, response, chain);
+        } finally {
+            long total = _clock.monotonicTime() - start;
+            if (parent == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(parent);
+                parent._nestedNanos += total;
+            }
+            _timer.record(Math.max(0, total - frame._nestedNanos), TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * Time of timed filters nested in the currently running filter.
+     */
+    private static final class Frame {
+        private long _nestedNanos;
+    }
+
+}
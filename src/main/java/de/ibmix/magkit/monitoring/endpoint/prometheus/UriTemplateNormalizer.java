@@ -0,0 +1,198 @@
+package de.ibmix.magkit.monitoring.endpoint.prometheus;
+
+/*-
+ * #%L
+ * IBM iX Magnolia Monitoring
+ * %%
+ * Copyright (C) 2026 IBM iX
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Rewrites request URIs into bounded route templates such as <code>/dam/{uuid}/{file}</code> using a segment trie.
+ * <p><strong>Purpose</strong></p>
+ * Allows per-route latency metrics without one time series per concrete URI by replacing variable path segments
+ * with the declaring template.
+ * <p><strong>Main Functionality</strong></p>
+ * Templates are split on <code>/</code> and inserted into a trie. A segment is either a literal, a variable
+ * (<code>{name}</code>, matching exactly one non-empty segment) or a trailing wildcard (<code>**</code>, matching any
+ * number of remaining segments including none). {@link #normalize(String)} walks the trie and returns the declared
+ * template of the first match.
+ * <p><strong>Key Features</strong></p>
+ * <ul>
+ * <li>Lookup cost depends on the URI depth, not on the number of templates.</li>
+ * <li>Precedence literal &gt; variable &gt; wildcard per segment, with backtracking.</li>
+ * <li>Template strings are returned as declared, so they can be used as tag values directly.</li>
+ * </ul>
+ * <p><strong>Null and Error Handling</strong></p>
+ * Null or blank templates are ignored; a null template list yields a normalizer that never matches. A <code>**</code>
+ * segment that is not the last one is treated as a literal. {@link #normalize(String)} returns null for null URIs and
+ * URIs without a matching template.
+ * <p><strong>Thread-Safety</strong></p>
+ * The trie is built in the constructor and never modified afterwards; safe for concurrent use.
+ * <p><strong>Usage Example</strong></p>
+ * <pre>{@code
+ * UriTemplateNormalizer normalizer = new UriTemplateNormalizer(List.of("/dam/{uuid}/{file}", "/.resources/{module}/**"));
+ * normalizer.normalize("/dam/jcr:1234/logo.png"); // "/dam/{uuid}/{file}"
+ * }</pre>
+ * <p><strong>Important Details</strong></p>
+ * When two templates describe the same structure (e.g. <code>/a/{x}</code> and <code>/a/{y}</code>) the one declared first wins.
+ * @author IBM iX
+ * @since 2026-10-17
+ */
+public class UriTemplateNormalizer {
+
+    private static final String WILDCARD = "**";
+
+    private final List<String> _templates;
+    private final Set<String> _templateValues = new HashSet<>();
+    private final Node _root = new Node();
+
+    /**
+     * Builds the segment trie for the given templates.
+     * @param templates route templates; may be null
+     */
+    public UriTemplateNormalizer(List<String> templates) {
+        _templates = templates;
+        if (templates != null) {
+            for (String template : templates) {
+                if (template != null && !template.isBlank()) {
+                    add(template.trim());
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the template list this normalizer was built from; used to detect configuration changes.
+     * @return source template list; may be null
+     */
+    public List<String> getTemplates() {
+        return _templates;
+    }
+
+    /**
+     * Indicates whether at least one template is configured.
+     * @return true if templates are present
+     */
+    public boolean hasTemplates() {
+        return !_templateValues.isEmpty();
+    }
+
+    /**
+     * Indicates whether the given value is one of the configured templates, i.e. an already normalized URI.
+     * @param value uri tag value; may be null
+     * @return true if value equals a configured template
+     */
+    public boolean isTemplate(String value) {
+        return value != null && _templateValues.contains(value);
+    }
+
+    /**
+     * Returns the template matching the given URI.
+     * @param uri raw request URI; may be null
+     * @return declared template or null if no template matches
+     */
+    public String normalize(String uri) {
+        if (uri == null || _templateValues.isEmpty()) {
+            return null;
+        }
+        return match(_root, splitSegments(uri), 0);
+    }
+
+    /**
+     * Returns the matching template or the given URI if none matches.
+     * @param uri raw request URI; may be null
+     * @return template, raw URI or null for null input
+     */
+    public String normalizeOrSelf(String uri) {
+        String template = normalize(uri);
+        return template != null ? template : uri;
+    }
+
+    private void add(String template) {
+        String[] segments = splitSegments(template);
+        Node node = _root;
+        for (int i = 0; i < segments.length; i++) {
+            String segment = segments[i];
+            if (WILDCARD.equals(segment) && i == segments.length - 1) {
+                if (node._wildcardTemplate == null) {
+                    node._wildcardTemplate = template;
+                }
+                _templateValues.add(template);
+                return;
+            }
+            if (isVariable(segment)) {
+                if (node._variable == null) {
+                    node._variable = new Node();
+                }
+                node = node._variable;
+            } else {
+                node = node._literals.computeIfAbsent(segment, s -> new Node());
+            }
+        }
+        if (node._template == null) {
+            node._template = template;
+        }
+        _templateValues.add(template);
+    }
+
+    private static String match(Node node, String[] segments, int index) {
+        if (index == segments.length) {
+            return node._template != null ? node._template : node._wildcardTemplate;
+        }
+        String segment = segments[index];
+        Node literal = node._literals.get(segment);
+        if (literal != null) {
+            String result = match(literal, segments, index + 1);
+            if (result != null) {
+                return result;
+            }
+        }
+        if (node._variable != null && !segment.isEmpty()) {
+            String result = match(node._variable, segments, index + 1);
+            if (result != null) {
+                return result;
+            }
+        }
+        return node._wildcardTemplate;
+    }
+
+    private static boolean isVariable(String segment) {
+        return segment.length() > 2 && segment.charAt(0) == '{' && segment.charAt(segment.length() - 1) == '}';
+    }
+
+    private static String[] splitSegments(String path) {
+        String relative = path.startsWith("/") ? path.substring(1) : path;
+        return relative.isEmpty() ? new String[0] : relative.split("/", -1);
+    }
+
+    /**
+     * Trie node holding literal children, an optional variable child and templates terminating here.
+     */
+    private static final class Node {
+        private final Map<String, Node> _literals = new HashMap<>();
+        private Node _variable;
+        private String _template;
+        private String _wildcardTemplate;
+    }
+
+}
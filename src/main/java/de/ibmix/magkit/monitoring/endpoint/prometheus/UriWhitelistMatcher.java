@@ -0,0 +1,212 @@
+package de.ibmix.magkit.monitoring.endpoint.prometheus;
+
+/*-
+ * #%L
+ * IBM iX Magnolia Monitoring
+ * %%
+ * Copyright (C) 2026 IBM iX
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Compiled matcher for the HTTP URI whitelist used to limit the cardinality of the <code>uri</code> tag.
+ * Replaces per-call {@link String#matches(String)} evaluation with patterns compiled once per configuration.
+ * <p><strong>Purpose</strong></p>
+ * Keeps the cost of mapping a request URI to its tag value independent of the number of configured patterns and of the
+ * number of distinct URIs seen at runtime.
+ * <p><strong>Main Functionality</strong></p>
+ * Patterns without regular expression meta characters are stored in a hash set for exact lookups. All remaining
+ * patterns are combined into a single alternation {@link Pattern} that is compiled once. Patterns referring to their own
+ * groups by number or name are compiled separately, because the alternation renumbers groups. Results are memoized in a
+ * bounded cache keyed by the raw URI.
+ * <p><strong>Key Features</strong></p>
+ * <ul>
+ * <li>Exact literal matches without regex evaluation.</li>
+ * <li>One compiled automaton for all regex patterns without backreferences or named groups.</li>
+ * <li>Bounded result cache; cleared when full to keep memory predictable.</li>
+ * </ul>
+ * <p><strong>Null and Error Handling</strong></p>
+ * A null pattern list is treated as empty. A null URI never matches and maps to an empty tag value. Invalid regular
+ * expressions are logged and skipped on construction instead of failing every later match.
+ * <p><strong>Thread-Safety</strong></p>
+ * Immutable apart from the concurrent result cache; safe for concurrent use.
+ * <p><strong>Usage Example</strong></p>
+ * <pre>{@code
+ * UriWhitelistMatcher matcher = new UriWhitelistMatcher(List.of("/allowed/.*", "/home"));
+ * String tagValue = matcher.map("/blocked/page"); // ""
+ * }</pre>
+ * <p><strong>Important Details</strong></p>
+ * Matching semantics equal {@link String#matches(String)}: every pattern must match the complete URI.
+ * @author IBM iX
+ * @since 2026-10-17
+ */
+public class UriWhitelistMatcher {
+
+    /** Default maximum number of memoized URI results. */
+    public static final int DEFAULT_CACHE_SIZE = 4096;
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(UriWhitelistMatcher.class);
+
+    private static final String REGEX_META_CHARS = "\\.[]{}()*+?^$|";
+
+    private final List<String> _patterns;
+    private final Set<String> _literals;
+    private final Pattern _combinedPattern;
+    private final List<Pattern> _standalonePatterns;
+    private final ConcurrentHashMap<String, Boolean> _cache;
+    private final int _maxCacheSize;
+
+    /**
+     * Compiles the given URI patterns using the default cache size.
+     * @param patterns URI regex patterns; may be null
+     */
+    public UriWhitelistMatcher(List<String> patterns) {
+        this(patterns, DEFAULT_CACHE_SIZE);
+    }
+
+    /**
+     * Compiles the given URI patterns.
+     * @param patterns URI regex patterns; may be null
+     * @param maxCacheSize maximum number of memoized URIs; values below one disable memoization
+     */
+    public UriWhitelistMatcher(List<String> patterns, int maxCacheSize) {
+        _patterns = patterns;
+        _maxCacheSize = maxCacheSize;
+        _cache = new ConcurrentHashMap<>();
+
+        Set<String> literals = new HashSet<>();
+        List<String> regexes = new ArrayList<>();
+        List<Pattern> standalone = new ArrayList<>();
+        if (patterns != null) {
+            for (String pattern : patterns) {
+                if (pattern == null) {
+                    continue;
+                }
+                if (isLiteral(pattern)) {
+                    literals.add(pattern);
+                } else if (isValidRegex(pattern)) {
+                    if (isSelfReferencing(pattern)) {
+                        standalone.add(Pattern.compile(pattern));
+                    } else {
+                        regexes.add(pattern);
+                    }
+                }
+            }
+        }
+        _literals = Set.copyOf(literals);
+        _combinedPattern = regexes.isEmpty() ? null : Pattern.compile(regexes.stream().map(r -> "(?:" + r + ")").collect(Collectors.joining("|")));
+        _standalonePatterns = List.copyOf(standalone);
+    }
+
+    /**
+     * Returns the pattern list this matcher was compiled from; used to detect configuration changes.
+     * @return source pattern list; may be null
+     */
+    public List<String> getPatterns() {
+        return _patterns;
+    }
+
+    /**
+     * Indicates whether the URI matches at least one configured pattern.
+     * @param uri request URI; may be null
+     * @return true if whitelisted
+     */
+    public boolean matches(String uri) {
+        if (uri == null) {
+            return false;
+        }
+        Boolean cached = _cache.get(uri);
+        if (cached != null) {
+            return cached;
+        }
+        boolean result = _literals.contains(uri) || (_combinedPattern != null && _combinedPattern.matcher(uri).matches()) || matchesStandalone(uri);
+        if (_maxCacheSize > 0) {
+            if (_cache.size() >= _maxCacheSize) {
+                _cache.clear();
+            }
+            _cache.put(uri, result);
+        }
+        return result;
+    }
+
+    /**
+     * Maps a URI to its tag value: the URI itself when whitelisted, otherwise an empty string.
+     * @param uri request URI; may be null
+     * @return tag value; never null
+     */
+    public String map(String uri) {
+        return matches(uri) ? uri : "";
+    }
+
+    private boolean matchesStandalone(String uri) {
+        for (Pattern pattern : _standalonePatterns) {
+            if (pattern.matcher(uri).matches()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Detects numbered or named backreferences and named groups, which break or change meaning inside the alternation.
+     */
+    static boolean isSelfReferencing(String pattern) {
+        for (int i = 0; i < pattern.length() - 1; i++) {
+            char c = pattern.charAt(i);
+            char next = pattern.charAt(i + 1);
+            if (c == '\\') {
+                if ((next >= '1' && next <= '9') || next == 'k') {
+                    return true;
+                }
+                i++;
+            } else if (c == '(' && pattern.startsWith("?<", i + 1) && i + 3 < pattern.length() && Character.isLetter(pattern.charAt(i + 3))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isValidRegex(String pattern) {
+        try {
+            Pattern.compile(pattern);
+            return true;
+        } catch (PatternSyntaxException e) {
+            LOGGER.warn("Ignoring invalid HTTP URI whitelist pattern '{}': {}", pattern, e.getDescription());
+            return false;
+        }
+    }
+
+    private static boolean isLiteral(String pattern) {
+        for (int i = 0; i < pattern.length(); i++) {
+            if (REGEX_META_CHARS.indexOf(pattern.charAt(i)) >= 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+}
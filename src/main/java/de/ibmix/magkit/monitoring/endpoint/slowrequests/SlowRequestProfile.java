@@ -0,0 +1,185 @@
+package de.ibmix.magkit.monitoring.endpoint.slowrequests;
+
+/*-
+ * #%L
+ * IBM iX Magnolia Monitoring
+ * %%
+ * Copyright (C) 2026 IBM iX
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.util.List;
+
+/**
+ * Data transfer object describing one slow request and the stack samples aggregated while it was running.
+ * <p><strong>Purpose</strong></p>
+ * Explains a latency outlier after the fact: besides URI, method, status and duration it lists where the worker thread
+ * spent its time once the request exceeded the sampling threshold.
+ * <p><strong>Main Functionality</strong></p>
+ * Exposes the request attributes and the distinct sampled stacks ordered by their number of occurrences, so the first
+ * entry is the hottest code path.
+ * <p><strong>Key Features</strong></p>
+ * <ul>
+ * <li>Immutable; created by {@link SlowRequestSampler} when the request finishes.</li>
+ * <li>Serializable as JSON by JAX-RS through its getters.</li>
+ * </ul>
+ * <p><strong>Null and Error Handling</strong></p>
+ * Unknown URI or method values are reported as "UNKNOWN"; a request that finished before the first sample carries an
+ * empty stack list.
+ * <p><strong>Thread-Safety</strong></p>
+ * Immutable; safe to share.
+ * <p><strong>Usage Example</strong></p>
+ * <pre>{@code
+ * SlowRequestProfile slowest = sampler.getSlowRequests().get(0);
+ * List<String> hotPath = slowest.getStacks().get(0).getFrames();
+ * }</pre>
+ * <p><strong>Important Details</strong></p>
+ * Sample counts multiplied by the sampling interval approximate the time spent in a stack after the threshold was reached.
+ * @author IBM iX
+ * @since 2026-10-17
+ */
+public class SlowRequestProfile {
+
+    private final String _uri;
+    private final String _method;
+    private final int _status;
+    private final String _thread;
+    private final long _startTime;
+    private final long _durationMillis;
+    private final int _samples;
+    private final List<StackSample> _stacks;
+
+    /**
+     * Creates a profile.
+     * @param uri request URI
+     * @param method HTTP method
+     * @param status response status; 0 if unknown
+     * @param thread name of the worker thread
+     * @param startTime request start as epoch milliseconds
+     * @param durationMillis request duration in milliseconds
+     * @param samples number of stack samples taken
+     * @param stacks distinct stacks ordered by descending count
+     */
+    public SlowRequestProfile(String uri, String method, int status, String thread, long startTime, long durationMillis,
+                              int samples, List<StackSample> stacks) {
+        _uri = uri;
+        _method = method;
+        _status = status;
+        _thread = thread;
+        _startTime = startTime;
+        _durationMillis = durationMillis;
+        _samples = samples;
+        _stacks = List.copyOf(stacks);
+    }
+
+    /**
+     * Returns the request URI without query string.
+     * @return request URI
+     */
+    public String getUri() {
+        return _uri;
+    }
+
+    /**
+     * Returns the HTTP method.
+     * @return HTTP method
+     */
+    public String getMethod() {
+        return _method;
+    }
+
+    /**
+     * Returns the response status observed when the request finished.
+     * @return status code; 0 if unknown
+     */
+    public int getStatus() {
+        return _status;
+    }
+
+    /**
+     * Returns the name of the worker thread that processed the request.
+     * @return thread name
+     */
+    public String getThread() {
+        return _thread;
+    }
+
+    /**
+     * Returns the request start time.
+     * @return epoch milliseconds
+     */
+    public long getStartTime() {
+        return _startTime;
+    }
+
+    /**
+     * Returns the request duration.
+     * @return duration in milliseconds
+     */
+    public long getDurationMillis() {
+        return _durationMillis;
+    }
+
+    /**
+     * Returns the number of stack samples taken, including samples not listed because of the stack limit.
+     * @return number of samples
+     */
+    public int getSamples() {
+        return _samples;
+    }
+
+    /**
+     * Returns the distinct sampled stacks ordered by descending count.
+     * @return immutable list; never null
+     */
+    public List<StackSample> getStacks() {
+        return _stacks;
+    }
+
+    /**
+     * One distinct stack and the number of samples in which it was observed.
+     */
+    public static class StackSample {
+
+        private final int _count;
+        private final List<String> _frames;
+
+        /**
+         * Creates a stack sample.
+         * @param count number of samples showing this stack
+         * @param frames stack frames, innermost first
+         */
+        public StackSample(int count, List<String> frames) {
+            _count = count;
+            _frames = List.copyOf(frames);
+        }
+
+        /**
+         * Returns the number of samples showing this stack.
+         * @return sample count
+         */
+        public int getCount() {
+            return _count;
+        }
+
+        /**
+         * Returns the stack frames, innermost first.
+         * @return immutable list of frames
+         */
+        public List<String> getFrames() {
+            return _frames;
+        }
+    }
+}
@@ -0,0 +1,314 @@
+package de.ibmix.magkit.monitoring.endpoint.slowrequests;
+
+/*-
+ * #%L
+ * IBM iX Magnolia Monitoring
+ * %%
+ * Copyright (C) 2026 IBM iX
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadInfo;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import de.ibmix.magkit.monitoring.config.prometheus.PrometheusConfigSnapshot;
+
+import io.micrometer.core.instrument.Clock;
+
+/**
+ * Background stack sampler profiling requests that run longer than a configured threshold.
+ * <p><strong>Purpose</strong></p>
+ * Latency outliers are usually gone by the time someone looks at them. This sampler captures the worker thread's stack
+ * while a slow request is still running, so the retained profiles show where the time was spent.
+ * <p><strong>Main Functionality</strong></p>
+ * Request threads register via {@link #begin(String, String)} and deregister via {@link #end(InFlightRequest, int)}.
+ * A single daemon thread wakes up every sampling interval, selects the registered requests older than the threshold and
+ * reads their stacks with one {@link ThreadMXBean#getThreadInfo(long[], int)} call, the same MXBean the thread dump
+ * endpoint uses. Identical stacks are counted per request. When a sampled request ends, its profile is offered to a
+ * bounded set holding the slowest requests of the last hour.
+ * <p><strong>Key Features</strong></p>
+ * <ul>
+ * <li>No sampling thread while disabled; fast requests cost one concurrent set insert and removal.</li>
+ * <li>Stack capture limited to requests past the threshold and to the configured depth.</li>
+ * <li>At most {@value #MAX_DISTINCT_STACKS} distinct stacks per request; further stacks are only counted.</li>
+ * <li>Retained profiles bounded by count and age; the fastest profile is evicted first.</li>
+ * </ul>
+ * <p><strong>Null and Error Handling</strong></p>
+ * Null URI or method values are reported as "UNKNOWN". Failures while sampling are logged and do not stop the sampler.
+ * Threads that terminated between selection and capture are skipped.
+ * <p><strong>Thread-Safety</strong></p>
+ * Safe for concurrent use. In-flight requests live in a concurrent set; per-request samples are guarded by the request
+ * handle's monitor and the retained profiles by this sampler's lock, which is only taken for slow requests and reads.
+ * <p><strong>Usage Example</strong></p>
+ * <pre>{@code
+ * SlowRequestSampler.InFlightRequest handle = sampler.begin("GET", request.getRequestURI());
+ * try {
+ *     chain.doFilter(request, response);
+ * } finally {
+ *     sampler.end(handle, response.getStatus());
+ * }
+ * }</pre>
+ * <p><strong>Important Details</strong></p>
+ * Settings are applied through {@link #configure(PrometheusConfigSnapshot)}, which {@link de.ibmix.magkit.monitoring.MonitoringModule}
+ * calls whenever it publishes a configuration snapshot; {@link #shutdown()} stops the sampling thread on module stop.
+ * Only the thread that called {@link #begin(String, String)} is sampled, so work continued on other threads after an
+ * async start is not visible.
+ * @author IBM iX
+ * @since 2026-10-17
+ */
+public class SlowRequestSampler {
+
+    /** Maximum number of distinct stacks kept per request. */
+    public static final int MAX_DISTINCT_STACKS = 100;
+
+    /** Maximum age of a retained profile in milliseconds. */
+    public static final long MAX_AGE_MILLIS = TimeUnit.HOURS.toMillis(1);
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(SlowRequestSampler.class);
+
+    private static final String UNKNOWN = "UNKNOWN";
+
+    private static final long NANOS_PER_MILLI = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final ThreadMXBean _threadBean;
+    private final Clock _clock;
+    private final Set<InFlightRequest> _inFlight = ConcurrentHashMap.newKeySet();
+    private final List<SlowRequestProfile> _retained = new ArrayList<>();
+
+    private volatile PrometheusConfigSnapshot _settings = PrometheusConfigSnapshot.of(null);
+    private ScheduledExecutorService _executor;
+    private ScheduledFuture<?> _task;
+    private long _intervalMillis;
+
+    /**
+     * Creates a sampler using the platform thread MXBean and the system clock.
+     */
+    public SlowRequestSampler() {
+        this(ManagementFactory.getThreadMXBean(), Clock.SYSTEM);
+    }
+
+    /**
+     * Creates a sampler with explicit collaborators.
+     * @param threadBean MXBean used to capture stacks; must not be null
+     * @param clock clock providing request start times and durations; must not be null
+     */
+    SlowRequestSampler(ThreadMXBean threadBean, Clock clock) {
+        _threadBean = threadBean;
+        _clock = clock;
+    }
+
+    /**
+     * Applies the sampler settings of a configuration snapshot: starts, reschedules or stops the sampling thread and
+     * trims the retained profiles to the configured count.
+     * @param snapshot configuration snapshot; must not be null
+     */
+    public synchronized void configure(PrometheusConfigSnapshot snapshot) {
+        _settings = snapshot;
+        trim(snapshot.getSlowRequestsRetained(), _clock.wallTime());
+        if (!snapshot.isSlowRequestSamplingEnabled()) {
+            stopSampling();
+        } else if (_task == null || _intervalMillis != snapshot.getSlowRequestIntervalMillis()) {
+            if (_task != null) {
+                _task.cancel(false);
+            }
+            if (_executor == null) {
+                _executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                    Thread thread = new Thread(runnable, "magkit-slow-request-sampler");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+            }
+            _intervalMillis = snapshot.getSlowRequestIntervalMillis();
+            _task = _executor.scheduleWithFixedDelay(this::sampleSafely, _intervalMillis, _intervalMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Stops the sampling thread and forgets in-flight requests. Retained profiles stay available.
+     */
+    public synchronized void shutdown() {
+        stopSampling();
+        _inFlight.clear();
+    }
+
+    /**
+     * Indicates whether the sampling thread is scheduled.
+     * @return true if sampling
+     */
+    public synchronized boolean isSampling() {
+        return _task != null;
+    }
+
+    /**
+     * Registers the current thread as processing a request.
+     * @param method HTTP method; may be null
+     * @param uri request URI; may be null
+     * @return handle to pass to {@link #end(InFlightRequest, int)}; never null
+     */
+    public InFlightRequest begin(String method, String uri) {
+        Thread thread = Thread.currentThread();
+        InFlightRequest request = new InFlightRequest(thread.getId(), thread.getName(), method != null ? method : UNKNOWN,
+            uri != null ? uri : UNKNOWN, _clock.wallTime(), _clock.monotonicTime());
+        _inFlight.add(request);
+        return request;
+    }
+
+    /**
+     * Deregisters a request and retains its profile if it was slow.
+     * @param request handle returned by {@link #begin(String, String)}; ignored if null
+     * @param status response status; 0 if unknown
+     */
+    public void end(InFlightRequest request, int status) {
+        if (request == null || !_inFlight.remove(request)) {
+            return;
+        }
+        long duration = _clock.monotonicTime() - request._startNanos;
+        if (duration >= _settings.getSlowRequestThresholdNanos()) {
+            retain(request.finish(status, duration / NANOS_PER_MILLI));
+        }
+    }
+
+    /**
+     * Returns the retained slow request profiles younger than {@link #MAX_AGE_MILLIS}, slowest first.
+     * @return new list; never null
+     */
+    public synchronized List<SlowRequestProfile> getSlowRequests() {
+        trim(_settings.getSlowRequestsRetained(), _clock.wallTime());
+        return new ArrayList<>(_retained);
+    }
+
+    /**
+     * Captures one stack sample of every in-flight request older than the threshold.
+     */
+    void sample() {
+        PrometheusConfigSnapshot settings = _settings;
+        long now = _clock.monotonicTime();
+        List<InFlightRequest> due = new ArrayList<>();
+        for (InFlightRequest request : _inFlight) {
+            if (now - request._startNanos >= settings.getSlowRequestThresholdNanos()) {
+                due.add(request);
+            }
+        }
+        if (due.isEmpty()) {
+            return;
+        }
+        long[] threadIds = due.stream().mapToLong(r -> r._threadId).toArray();
+        ThreadInfo[] infos = _threadBean.getThreadInfo(threadIds, settings.getSlowRequestMaxDepth());
+        for (int i = 0; i < infos.length && i < threadIds.length; i++) {
+            if (infos[i] != null) {
+                due.get(i).addSample(infos[i].getStackTrace());
+            }
+        }
+    }
+
+    private void sampleSafely() {
+        try {
+            sample();
+        } catch (RuntimeException e) {
+            LOGGER.warn("Slow request sampling failed", e);
+        }
+    }
+
+    private void stopSampling() {
+        if (_task != null) {
+            _task.cancel(false);
+            _task = null;
+        }
+        if (_executor != null) {
+            _executor.shutdownNow();
+            _executor = null;
+        }
+    }
+
+    private synchronized void retain(SlowRequestProfile profile) {
+        _retained.add(profile);
+        _retained.sort(Comparator.comparingLong(SlowRequestProfile::getDurationMillis).reversed());
+        trim(_settings.getSlowRequestsRetained(), _clock.wallTime());
+    }
+
+    private void trim(int capacity, long now) {
+        _retained.removeIf(profile -> now - profile.getStartTime() > MAX_AGE_MILLIS);
+        while (_retained.size() > capacity) {
+            _retained.remove(_retained.size() - 1);
+        }
+    }
+
+    /**
+     * Handle of a request registered with the sampler; collects the stack samples of its worker thread.
+     */
+    public static final class InFlightRequest {
+
+        private final long _threadId;
+        private final String _threadName;
+        private final String _method;
+        private final String _uri;
+        private final long _startTime;
+        private final long _startNanos;
+        private final Map<List<StackTraceElement>, int[]> _stacks = new HashMap<>();
+        private int _samples;
+        private boolean _finished;
+
+        private InFlightRequest(long threadId, String threadName, String method, String uri, long startTime, long startNanos) {
+            _threadId = threadId;
+            _threadName = threadName;
+            _method = method;
+            _uri = uri;
+            _startTime = startTime;
+            _startNanos = startNanos;
+        }
+
+        private synchronized void addSample(StackTraceElement[] frames) {
+            if (_finished) {
+                return;
+            }
+            _samples++;
+            List<StackTraceElement> key = Arrays.asList(frames);
+            int[] count = _stacks.get(key);
+            if (count != null) {
+                count[0]++;
+            } else if (_stacks.size() < MAX_DISTINCT_STACKS) {
+                _stacks.put(key, new int[] {1});
+            }
+        }
+
+        private synchronized SlowRequestProfile finish(int status, long durationMillis) {
+            _finished = true;
+            List<SlowRequestProfile.StackSample> stacks = new ArrayList<>(_stacks.size());
+            _stacks.forEach((frames, count) -> {
+                List<String> lines = new ArrayList<>(frames.size());
+                frames.forEach(frame -> lines.add(frame.toString()));
+                stacks.add(new SlowRequestProfile.StackSample(count[0], lines));
+            });
+            stacks.sort(Comparator.comparingInt(SlowRequestProfile.StackSample::getCount).reversed());
+            return new SlowRequestProfile(_uri, _method, status, _threadName, _startTime, durationMillis, _samples, stacks);
+        }
+    }
+}
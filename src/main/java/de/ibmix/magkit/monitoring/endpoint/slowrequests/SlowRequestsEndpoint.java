@@ -0,0 +1,91 @@
+package de.ibmix.magkit.monitoring.endpoint.slowrequests;
+
+/*-
+ * #%L
+ * IBM iX Magnolia Monitoring
+ * %%
+ * Copyright (C) 2026 IBM iX
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.util.List;
+
+import javax.inject.Inject;
+import javax.ws.rs.GET;
+import javax.ws.rs.Path;
+import javax.ws.rs.Produces;
+import javax.ws.rs.core.MediaType;
+
+import de.ibmix.magkit.monitoring.MonitoringModule;
+import de.ibmix.magkit.monitoring.endpoint.AbstractMonitoringEndpoint;
+import de.ibmix.magkit.monitoring.endpoint.MonitoringEndpointDefinition;
+
+import info.magnolia.rest.DynamicPath;
+
+/**
+ * REST endpoint listing the slowest recent requests together with the stack samples taken while they were running.
+ * <p><strong>Purpose</strong></p>
+ * Complements the latency histograms with the "why": for each retained outlier it shows the code paths the worker
+ * thread was executing after the request crossed the sampling threshold.
+ * <p><strong>Main Functionality</strong></p>
+ * Returns the profiles retained by the module's {@link SlowRequestSampler}, slowest first.
+ * <p><strong>Key Features</strong></p>
+ * <ul>
+ * <li>JSON response, one entry per slow request.</li>
+ * <li>Read-only; retrieving the list does not reset it.</li>
+ * </ul>
+ * <p><strong>Null and Error Handling</strong></p>
+ * Returns an empty list when sampling is disabled or no request has been slow yet.
+ * <p><strong>Thread-Safety</strong></p>
+ * Stateless apart from injected dependencies; safe for concurrent invocations.
+ * <p><strong>Usage Example</strong></p>
+ * <pre>{@code
+ * GET /.rest/monitoring/v1/slowrequests
+ * }</pre>
+ * <p><strong>Important Details</strong></p>
+ * Sampling is enabled with <code>magnolia.monitoring.prometheus.http.sampler.enabled=true</code> and performed for
+ * requests passing the {@link de.ibmix.magkit.monitoring.endpoint.prometheus.PrometheusFilter}.
+ * @author IBM iX
+ * @since 2026-10-17
+ */
+@Path("")
+@DynamicPath
+public class SlowRequestsEndpoint extends AbstractMonitoringEndpoint<MonitoringEndpointDefinition> {
+
+    private final MonitoringModule _monitoringModule;
+
+    /**
+     * Injection constructor wiring the endpoint definition and the monitoring module owning the sampler.
+     * @param endpointDefinition endpoint definition metadata
+     * @param monitoringModule monitoring module providing the sampler
+     */
+    @Inject
+    protected SlowRequestsEndpoint(MonitoringEndpointDefinition endpointDefinition, MonitoringModule monitoringModule) {
+        super(endpointDefinition);
+        _monitoringModule = monitoringModule;
+    }
+
+    /**
+     * Returns the retained slow request profiles.
+     * @return profiles ordered by descending duration; never null
+     */
+    @GET
+    @Path("")
+    @Produces(MediaType.APPLICATION_JSON)
+    public List<SlowRequestProfile> getSlowRequests() {
+        return _monitoringModule.getSlowRequestSampler().getSlowRequests();
+    }
+
+}
@@ -0,0 +1,533 @@
+package de.ibmix.magkit.monitoring.export;
+
+/*-
+ * #%L
+ * IBM iX Magnolia Monitoring
+ * %%
+ * Copyright (C) 2026 IBM iX
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.DatagramChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import de.ibmix.magkit.monitoring.config.prometheus.PrometheusConfigSnapshot;
+
+import io.micrometer.core.instrument.Clock;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.prometheusmetrics.PrometheusMeterRegistry;
+import io.prometheus.metrics.model.snapshots.CounterSnapshot.CounterDataPointSnapshot;
+import io.prometheus.metrics.model.snapshots.DataPointSnapshot;
+import io.prometheus.metrics.model.snapshots.DistributionDataPointSnapshot;
+import io.prometheus.metrics.model.snapshots.GaugeSnapshot.GaugeDataPointSnapshot;
+import io.prometheus.metrics.model.snapshots.Labels;
+import io.prometheus.metrics.model.snapshots.MetricSnapshot;
+import io.prometheus.metrics.model.snapshots.Quantile;
+import io.prometheus.metrics.model.snapshots.SummarySnapshot.SummaryDataPointSnapshot;
+import io.prometheus.metrics.model.snapshots.UnknownSnapshot.UnknownDataPointSnapshot;
+
+/**
+ * Sends the meters of the Prometheus registry as InfluxDB line protocol or StatsD lines over UDP or TCP.
+ * <p><strong>Purpose</strong></p>
+ * Serves Graphite, StatsD, Telegraf and InfluxDB stacks from the registry that also backs the Prometheus endpoint,
+ * without touching request threads.
+ * <p><strong>Main Functionality</strong></p>
+ * Every interval the registry is collected into snapshots on the export thread. Each data point is rendered into a
+ * reused {@link StringBuilder}, encoded into a reused line buffer and appended to a pre-allocated packet buffer of the
+ * configured packet size. A full packet is sent as one datagram (or one write on a TCP connection) before the next
+ * line is added, so lines are never split across datagrams.
+ * <p><strong>Key Features</strong></p>
+ * <ul>
+ * <li>Influx: <code>name,tag=value value=1.0 &lt;timestamp&gt;</code>; distributions carry <code>count</code> and
+ * <code>sum</code> fields and one line per quantile.</li>
+ * <li>StatsD (DogStatsD tags): gauges as <code>|g</code>, counters as the increase since the previous export with
+ * <code>|c</code>.</li>
+ * <li>UDP datagrams are sent through a non-blocking channel; a full socket buffer drops the datagram instead of
+ * waiting.</li>
+ * <li>TCP connects and writes go through a non-blocking channel as well. Packets are dropped while the connection is
+ * being established; a connect that fails or does not complete within ten seconds is abandoned and only retried on
+ * the next export. The tail of a partially written packet is kept and completed before the next packet, so the stream
+ * stays line aligned; while it cannot be completed, further packets are dropped. Neither an unreachable host nor a
+ * receiver that stops reading therefore blocks the export lock or module stop.</li>
+ * <li>Sent and dropped lines are counted in <code>line_protocol_lines{result="sent|dropped"}</code>.</li>
+ * </ul>
+ * <p><strong>Null and Error Handling</strong></p>
+ * Exporting is skipped while the registry supplier returns null. Non-finite values are skipped. Lines longer than a
+ * packet, datagrams the socket does not accept and writes failing on a broken TCP connection are dropped and counted;
+ * a broken connection is reopened on the next export and an unresolvable host is resolved again.
+ * <p><strong>Thread-Safety</strong></p>
+ * Buffers, channels and StatsD state are confined to the export lock of {@link ScheduledExporter}; the counters are
+ * atomic.
+ * <p><strong>Usage Example</strong></p>
+ * <pre>{@code
+ * LineProtocolExporter exporter = new LineProtocolExporter(() -> registry);
+ * exporter.configure(monitoringModule.getConfigSnapshot());
+ * // on module stop
+ * exporter.shutdown();
+ * }</pre>
+ * <p><strong>Important Details</strong></p>
+ * Names are the Prometheus names, i.e. counters without the <code>_total</code> suffix. Histogram buckets are not
+ * rendered; the Prometheus endpoint remains the place for bucket detail. StatsD interprets a leading minus on a gauge
+ * as a decrement, so negative gauges are preceded by a line resetting the gauge to zero.
+ * @author IBM iX
+ * @since 2026-10-17
+ */
+public class LineProtocolExporter extends ScheduledExporter {
+
+    /** Name of the counter reporting lines by result. */
+    public static final String LINE_PROTOCOL_LINES = "line_protocol_lines";
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(LineProtocolExporter.class);
+
+    private static final long CONNECT_TIMEOUT_NANOS = Duration.ofSeconds(10).toNanos();
+
+    private static final long NANOS_PER_MILLI = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final Supplier<PrometheusMeterRegistry> _registry;
+    private final Clock _clock;
+    private final StringBuilder _line = new StringBuilder(256);
+    private final CharsetEncoder _encoder = StandardCharsets.UTF_8.newEncoder();
+    private final AtomicLong _sent = new AtomicLong();
+    private final AtomicLong _dropped = new AtomicLong();
+
+    private ByteBuffer _lineBuffer;
+    private ByteBuffer _packet;
+    private int _packetLines;
+    private Map<String, Double> _previous = new HashMap<>();
+    private Map<String, Double> _current = new HashMap<>();
+    private InetSocketAddress _target;
+    private DatagramChannel _udp;
+    private SocketChannel _tcp;
+    private ByteBuffer _tcpRemainder;
+    private long _tcpConnectNanos;
+    private boolean _tcpFailed;
+    private PrometheusMeterRegistry _boundRegistry;
+
+    /**
+     * Creates an exporter for the supplied registry.
+     * @param registry supplies the registry to export; may return null while it is not available
+     */
+    public LineProtocolExporter(Supplier<PrometheusMeterRegistry> registry) {
+        this(registry, Clock.SYSTEM);
+    }
+
+    /**
+     * Creates an exporter with an explicit clock for Influx timestamps.
+     * @param registry supplies the registry to export; may return null while it is not available
+     * @param clock clock providing wall time; must not be null
+     */
+    LineProtocolExporter(Supplier<PrometheusMeterRegistry> registry, Clock clock) {
+        super("magkit-line-protocol-exporter");
+        _registry = registry;
+        _clock = clock;
+    }
+
+    /**
+     * Returns the number of lines handed to the network.
+     * @return sent line count
+     */
+    public long getSent() {
+        return _sent.get();
+    }
+
+    /**
+     * Returns the number of lines discarded without sending.
+     * @return dropped line count
+     */
+    public long getDropped() {
+        return _dropped.get();
+    }
+
+    /**
+     * Indicates whether a target host is configured.
+     * @param settings configuration snapshot
+     * @return true if exporting
+     */
+    @Override
+    protected boolean isEnabled(PrometheusConfigSnapshot settings) {
+        return settings.isLineEnabled();
+    }
+
+    /**
+     * Returns the configured export interval.
+     * @param settings configuration snapshot
+     * @return milliseconds
+     */
+    @Override
+    protected long getIntervalMillis(PrometheusConfigSnapshot settings) {
+        return settings.getLineIntervalMillis();
+    }
+
+    /**
+     * Renders all data points of the registry and sends them in packets of at most the configured size.
+     * @param settings current configuration snapshot
+     */
+    @Override
+    protected void export(PrometheusConfigSnapshot settings) {
+        PrometheusMeterRegistry registry = _registry.get();
+        if (registry == null) {
+            return;
+        }
+        bind(registry);
+        prepare(settings);
+        long timestamp = _clock.wallTime() * NANOS_PER_MILLI;
+        for (MetricSnapshot snapshot : registry.getPrometheusRegistry().scrape()) {
+            String name = snapshot.getMetadata().getPrometheusName();
+            for (DataPointSnapshot point : snapshot.getDataPoints()) {
+                if (settings.isLineStatsd()) {
+                    renderStatsd(name, point, settings);
+                } else {
+                    renderInflux(name, point, timestamp, settings);
+                }
+            }
+        }
+        sendPacket(settings);
+        Map<String, Double> previous = _previous;
+        _previous = _current;
+        _current = previous;
+        _current.clear();
+    }
+
+    /**
+     * Exports once more and closes the sockets.
+     * @param settings current configuration snapshot
+     */
+    @Override
+    protected void flush(PrometheusConfigSnapshot settings) {
+        try {
+            super.flush(settings);
+        } finally {
+            closeTransports();
+            _previous.clear();
+        }
+    }
+
+    private void bind(PrometheusMeterRegistry registry) {
+        if (_boundRegistry == registry) {
+            return;
+        }
+        _boundRegistry = registry;
+        FunctionCounter.builder(LINE_PROTOCOL_LINES, _sent, AtomicLong::get)
+            .description("Line protocol lines by result")
+            .tag("result", "sent")
+            .register(registry);
+        FunctionCounter.builder(LINE_PROTOCOL_LINES, _dropped, AtomicLong::get)
+            .description("Line protocol lines by result")
+            .tag("result", "dropped")
+            .register(registry);
+    }
+
+    private void prepare(PrometheusConfigSnapshot settings) {
+        int packetSize = settings.getLinePacketSize();
+        if (_packet == null || _packet.capacity() != packetSize) {
+            closeTransports();
+            _packet = ByteBuffer.allocate(packetSize);
+            _lineBuffer = ByteBuffer.allocate(packetSize);
+            _tcpRemainder = ByteBuffer.allocate(packetSize).flip();
+        }
+        if (_target == null || _target.isUnresolved() || _target.getPort() != settings.getLinePort()
+            || !_target.getHostString().equals(settings.getLineHost())) {
+            closeTransports();
+            _target = new InetSocketAddress(settings.getLineHost(), settings.getLinePort());
+        }
+        if (settings.isLineTcp() ? _udp != null : _tcp != null) {
+            closeTransports();
+        }
+        _tcpFailed = false;
+    }
+
+    private void renderInflux(String name, DataPointSnapshot point, long timestamp, PrometheusConfigSnapshot settings) {
+        if (point instanceof DistributionDataPointSnapshot) {
+            DistributionDataPointSnapshot distribution = (DistributionDataPointSnapshot) point;
+            startInflux(name, point.getLabels(), null);
+            _line.append(" count=").append(distribution.hasCount() ? distribution.getCount() : 0).append('i');
+            if (distribution.hasSum() && Double.isFinite(distribution.getSum())) {
+                _line.append(",sum=").append(distribution.getSum());
+            }
+            _line.append(' ').append(timestamp);
+            writeLine(settings);
+            if (point instanceof SummaryDataPointSnapshot) {
+                for (Quantile quantile : ((SummaryDataPointSnapshot) point).getQuantiles()) {
+                    if (Double.isFinite(quantile.getValue())) {
+                        startInflux(name, point.getLabels(), Double.toString(quantile.getQuantile()));
+                        _line.append(" value=").append(quantile.getValue()).append(' ').append(timestamp);
+                        writeLine(settings);
+                    }
+                }
+            }
+            return;
+        }
+        double value = getValue(point);
+        if (Double.isFinite(value)) {
+            startInflux(name, point.getLabels(), null);
+            _line.append(" value=").append(value).append(' ').append(timestamp);
+            writeLine(settings);
+        }
+    }
+
+    private void startInflux(String name, Labels labels, String quantile) {
+        _line.setLength(0);
+        appendInfluxEscaped(name, false);
+        for (int i = 0; i < labels.size(); i++) {
+            _line.append(',');
+            appendInfluxEscaped(labels.getName(i), true);
+            _line.append('=');
+            appendInfluxEscaped(labels.getValue(i), true);
+        }
+        if (quantile != null) {
+            _line.append(",quantile=").append(quantile);
+        }
+    }
+
+    private void appendInfluxEscaped(String value, boolean tag) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == ',' || c == ' ' || (tag && c == '=')) {
+                _line.append('\\');
+            }
+            _line.append(c == '\n' ? ' ' : c);
+        }
+    }
+
+    private void renderStatsd(String name, DataPointSnapshot point, PrometheusConfigSnapshot settings) {
+        if (point instanceof DistributionDataPointSnapshot) {
+            DistributionDataPointSnapshot distribution = (DistributionDataPointSnapshot) point;
+            writeStatsdCounter(name + "_count", point.getLabels(), distribution.hasCount() ? distribution.getCount() : 0, settings);
+            if (distribution.hasSum()) {
+                writeStatsdCounter(name + "_sum", point.getLabels(), distribution.getSum(), settings);
+            }
+            if (point instanceof SummaryDataPointSnapshot) {
+                for (Quantile quantile : ((SummaryDataPointSnapshot) point).getQuantiles()) {
+                    writeStatsdGauge(name, point.getLabels(), Double.toString(quantile.getQuantile()), quantile.getValue(), settings);
+                }
+            }
+        } else if (point instanceof CounterDataPointSnapshot) {
+            writeStatsdCounter(name, point.getLabels(), ((CounterDataPointSnapshot) point).getValue(), settings);
+        } else {
+            writeStatsdGauge(name, point.getLabels(), null, getValue(point), settings);
+        }
+    }
+
+    private void writeStatsdCounter(String name, Labels labels, double value, PrometheusConfigSnapshot settings) {
+        if (!Double.isFinite(value)) {
+            return;
+        }
+        startStatsd(name);
+        appendStatsdTags(labels, null);
+        String key = _line.toString();
+        Double previous = _previous.get(key);
+        _current.put(key, value);
+        double delta = previous != null && value >= previous ? value - previous : value;
+        if (delta > 0) {
+            startStatsd(name);
+            _line.append(':').append(delta).append("|c");
+            appendStatsdTags(labels, null);
+            writeLine(settings);
+        }
+    }
+
+    private void writeStatsdGauge(String name, Labels labels, String quantile, double value, PrometheusConfigSnapshot settings) {
+        if (!Double.isFinite(value)) {
+            return;
+        }
+        if (value < 0) {
+            startStatsd(name);
+            _line.append(":0|g");
+            appendStatsdTags(labels, quantile);
+            writeLine(settings);
+        }
+        startStatsd(name);
+        _line.append(':').append(value).append("|g");
+        appendStatsdTags(labels, quantile);
+        writeLine(settings);
+    }
+
+    private void startStatsd(String name) {
+        _line.setLength(0);
+        appendStatsdSanitized(name);
+    }
+
+    private void appendStatsdTags(Labels labels, String quantile) {
+        if (labels.isEmpty() && quantile == null) {
+            return;
+        }
+        _line.append("|#");
+        for (int i = 0; i < labels.size(); i++) {
+            if (i > 0) {
+                _line.append(',');
+            }
+            appendStatsdSanitized(labels.getName(i));
+            _line.append(':');
+            appendStatsdSanitized(labels.getValue(i));
+        }
+        if (quantile != null) {
+            _line.append(labels.isEmpty() ? "" : ",").append("quantile:").append(quantile);
+        }
+    }
+
+    private void appendStatsdSanitized(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            _line.append(c == ':' || c == '|' || c == '@' || c == '#' || c == ',' || c == '\n' ? '_' : c);
+        }
+    }
+
+    private static double getValue(DataPointSnapshot point) {
+        if (point instanceof CounterDataPointSnapshot) {
+            return ((CounterDataPointSnapshot) point).getValue();
+        }
+        if (point instanceof GaugeDataPointSnapshot) {
+            return ((GaugeDataPointSnapshot) point).getValue();
+        }
+        if (point instanceof UnknownDataPointSnapshot) {
+            return ((UnknownDataPointSnapshot) point).getValue();
+        }
+        return Double.NaN;
+    }
+
+    /**
+     * Encodes the current line and appends it to the packet, sending the packet first if the line does not fit.
+     */
+    private void writeLine(PrometheusConfigSnapshot settings) {
+        _lineBuffer.clear();
+        _encoder.reset();
+        CoderResult result = _encoder.encode(CharBuffer.wrap(_line), _lineBuffer, true);
+        // one byte is reserved for the line separator
+        if (result.isOverflow() || _lineBuffer.position() >= _packet.capacity()) {
+            _dropped.incrementAndGet();
+            return;
+        }
+        _encoder.flush(_lineBuffer);
+        _lineBuffer.flip();
+        if (_packet.remaining() < _lineBuffer.remaining() + 1) {
+            sendPacket(settings);
+        }
+        _packet.put(_lineBuffer).put((byte) '\n');
+        _packetLines++;
+    }
+
+    private void sendPacket(PrometheusConfigSnapshot settings) {
+        if (_packetLines == 0) {
+            return;
+        }
+        _packet.flip();
+        boolean sent = settings.isLineTcp() ? sendTcp() : sendUdp();
+        if (sent) {
+            _sent.addAndGet(_packetLines);
+        } else {
+            _dropped.addAndGet(_packetLines);
+        }
+        _packet.clear();
+        _packetLines = 0;
+    }
+
+    private boolean sendUdp() {
+        if (_target.isUnresolved()) {
+            LOGGER.debug("Cannot resolve line protocol target {}", _target);
+            return false;
+        }
+        try {
+            if (_udp == null) {
+                _udp = DatagramChannel.open();
+                _udp.configureBlocking(false);
+            }
+            return _udp.send(_packet, _target) > 0;
+        } catch (IOException e) {
+            LOGGER.debug("Sending line protocol datagram to {} failed", _target, e);
+            closeTransports();
+            return false;
+        }
+    }
+
+    private boolean sendTcp() {
+        if (_tcpFailed) {
+            return false;
+        }
+        if (_target.isUnresolved()) {
+            LOGGER.debug("Cannot resolve line protocol target {}", _target);
+            _tcpFailed = true;
+            return false;
+        }
+        try {
+            if (_tcp == null) {
+                SocketChannel channel = SocketChannel.open();
+                _tcp = channel;
+                _tcpConnectNanos = _clock.monotonicTime();
+                channel.configureBlocking(false);
+                channel.connect(_target);
+            }
+            if (_tcp.isConnectionPending() && !_tcp.finishConnect()) {
+                if (_clock.monotonicTime() - _tcpConnectNanos >= CONNECT_TIMEOUT_NANOS) {
+                    LOGGER.debug("Connecting to line protocol target {} timed out", _target);
+                    closeTransports();
+                    _tcpFailed = true;
+                }
+                return false;
+            }
+            if (_tcpRemainder.hasRemaining()) {
+                _tcp.write(_tcpRemainder);
+                if (_tcpRemainder.hasRemaining()) {
+                    return false;
+                }
+            }
+            _tcp.write(_packet);
+            if (_packet.hasRemaining()) {
+                _tcpRemainder.clear();
+                _tcpRemainder.put(_packet).flip();
+            }
+            return true;
+        } catch (IOException e) {
+            LOGGER.debug("Sending line protocol data to {} failed", _target, e);
+            closeTransports();
+            _tcpFailed = true;
+            return false;
+        }
+    }
+
+    private void closeTransports() {
+        try {
+            if (_udp != null) {
+                _udp.close();
+            }
+            if (_tcp != null) {
+                _tcp.close();
+            }
+        } catch (IOException e) {
+            LOGGER.debug("Closing line protocol socket failed", e);
+        } finally {
+            _udp = null;
+            _tcp = null;
+            if (_tcpRemainder != null) {
+                _tcpRemainder.limit(0);
+            }
+        }
+    }
+}
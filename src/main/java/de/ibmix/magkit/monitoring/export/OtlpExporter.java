@@ -0,0 +1,292 @@
+package de.ibmix.magkit.monitoring.export;
+
+/*-
+ * #%L
+ * IBM iX Magnolia Monitoring
+ * %%
+ * Copyright (C) 2026 IBM iX
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import de.ibmix.magkit.monitoring.config.prometheus.PrometheusConfigSnapshot;
+
+import io.micrometer.core.instrument.Clock;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.prometheusmetrics.PrometheusMeterRegistry;
+
+/**
+ * Exports the meters of the Prometheus registry to an OpenTelemetry collector over OTLP/HTTP.
+ * <p><strong>Purpose</strong></p>
+ * Feeds OpenTelemetry based backends from the meters bound by
+ * {@link de.ibmix.magkit.monitoring.endpoint.prometheus.PrometheusMeterRegistryProvider}, while the pull endpoint keeps
+ * serving the same registry. There is one set of meter binders and one registry for both.
+ * <p><strong>Main Functionality</strong></p>
+ * Every interval the registry is collected into Prometheus snapshots, encoded by {@link OtlpMetricsEncoder} into
+ * requests of at most the configured number of data points and appended to a bounded queue. Queued requests are then
+ * POSTed in order until the queue is empty, the collector fails or one interval has elapsed; whatever is left waits
+ * for the next run.
+ * <p><strong>Key Features</strong></p>
+ * <ul>
+ * <li>Cumulative or delta temporality.</li>
+ * <li>Bounded memory: when the queue is full the oldest request is dropped.</li>
+ * <li>Dropped data is counted in <code>otlp_export_dropped_points</code>; deliveries in
+ * <code>otlp_export_requests{result="success|failure"}</code>.</li>
+ * <li>Optional request headers, e.g. for collector authentication.</li>
+ * </ul>
+ * <p><strong>Null and Error Handling</strong></p>
+ * Exporting is skipped while the registry supplier returns null. Network errors, 429 and 5xx responses keep the request
+ * queued; other 4xx responses drop it, since retrying a rejected payload cannot succeed.
+ * <p><strong>Thread-Safety</strong></p>
+ * Queue, encoder and HTTP client are confined to the export lock of {@link ScheduledExporter}; the counters are atomic.
+ * <p><strong>Usage Example</strong></p>
+ * <pre>{@code
+ * OtlpExporter exporter = new OtlpExporter(() -> registry);
+ * exporter.configure(monitoringModule.getConfigSnapshot());
+ * // on module stop
+ * exporter.shutdown();
+ * }</pre>
+ * <p><strong>Important Details</strong></p>
+ * With delta temporality the first export of a series reports its total since the series was created; a change of
+ * temporality or service name restarts the delta state. The export lag is bounded by one interval plus the request
+ * timeout, which is the interval capped at ten seconds.
+ * @author IBM iX
+ * @since 2026-10-17
+ */
+public class OtlpExporter extends ScheduledExporter {
+
+    /** Name of the counter reporting OTLP requests by result. */
+    public static final String OTLP_EXPORT_REQUESTS = "otlp_export_requests";
+
+    /** Name of the counter reporting data points discarded without delivery. */
+    public static final String OTLP_EXPORT_DROPPED_POINTS = "otlp_export_dropped_points";
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(OtlpExporter.class);
+
+    private static final Duration MAX_TIMEOUT = Duration.ofSeconds(10);
+
+    private static final long NANOS_PER_MILLI = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final Supplier<PrometheusMeterRegistry> _registry;
+    private final Clock _clock;
+    private final Deque<OtlpMetricsEncoder.Batch> _queue = new ArrayDeque<>();
+    private final AtomicLong _succeeded = new AtomicLong();
+    private final AtomicLong _failed = new AtomicLong();
+    private final AtomicLong _droppedPoints = new AtomicLong();
+
+    private OtlpMetricsEncoder _encoder;
+    private HttpClient _httpClient;
+    private PrometheusMeterRegistry _boundRegistry;
+
+    /**
+     * Creates an exporter for the supplied registry.
+     * @param registry supplies the registry to export; may return null while it is not available
+     */
+    public OtlpExporter(Supplier<PrometheusMeterRegistry> registry) {
+        this(registry, Clock.SYSTEM);
+    }
+
+    /**
+     * Creates an exporter with an explicit clock for timestamps and the delivery deadline.
+     * @param registry supplies the registry to export; may return null while it is not available
+     * @param clock clock providing wall and monotonic time; must not be null
+     */
+    OtlpExporter(Supplier<PrometheusMeterRegistry> registry, Clock clock) {
+        super("magkit-otlp-exporter");
+        _registry = registry;
+        _clock = clock;
+    }
+
+    /**
+     * Returns the number of requests accepted by the collector.
+     * @return success count
+     */
+    public long getSucceeded() {
+        return _succeeded.get();
+    }
+
+    /**
+     * Returns the number of failed delivery attempts.
+     * @return failure count
+     */
+    public long getFailed() {
+        return _failed.get();
+    }
+
+    /**
+     * Returns the number of data points discarded without delivery.
+     * @return dropped point count
+     */
+    public long getDroppedPoints() {
+        return _droppedPoints.get();
+    }
+
+    /**
+     * Indicates whether an OTLP URL is configured.
+     * @param settings configuration snapshot
+     * @return true if exporting
+     */
+    @Override
+    protected boolean isEnabled(PrometheusConfigSnapshot settings) {
+        return settings.isOtlpEnabled();
+    }
+
+    /**
+     * Returns the configured export interval.
+     * @param settings configuration snapshot
+     * @return milliseconds
+     */
+    @Override
+    protected long getIntervalMillis(PrometheusConfigSnapshot settings) {
+        return settings.getOtlpIntervalMillis();
+    }
+
+    /**
+     * Collects the registry into the queue and delivers queued requests for at most one interval.
+     * @param settings current configuration snapshot
+     */
+    @Override
+    protected void export(PrometheusConfigSnapshot settings) {
+        PrometheusMeterRegistry registry = _registry.get();
+        if (registry == null) {
+            return;
+        }
+        bind(registry);
+        long nowEpochNanos = _clock.wallTime() * NANOS_PER_MILLI;
+        OtlpMetricsEncoder encoder = getEncoder(settings, nowEpochNanos);
+        List<OtlpMetricsEncoder.Batch> batches = encoder.encode(registry.getPrometheusRegistry().scrape(), nowEpochNanos, settings.getOtlpBatchSize());
+        for (OtlpMetricsEncoder.Batch batch : batches) {
+            enqueue(batch, settings.getOtlpQueueSize());
+        }
+        deliver(settings, _clock.monotonicTime() + settings.getOtlpIntervalMillis() * NANOS_PER_MILLI);
+    }
+
+    /**
+     * Exports once more and discards whatever could not be delivered.
+     * @param settings current configuration snapshot
+     */
+    @Override
+    protected void flush(PrometheusConfigSnapshot settings) {
+        try {
+            super.flush(settings);
+        } finally {
+            for (OtlpMetricsEncoder.Batch batch : _queue) {
+                _droppedPoints.addAndGet(batch.getPoints());
+            }
+            _queue.clear();
+            _encoder = null;
+            _httpClient = null;
+        }
+    }
+
+    /**
+     * Returns the number of requests waiting for delivery.
+     * @return queue size
+     */
+    int getQueued() {
+        return _queue.size();
+    }
+
+    private OtlpMetricsEncoder getEncoder(PrometheusConfigSnapshot settings, long nowEpochNanos) {
+        if (_encoder == null || _encoder.isDelta() != settings.isOtlpDelta() || !_encoder.getServiceName().equals(settings.getOtlpServiceName())) {
+            _encoder = new OtlpMetricsEncoder(settings.getOtlpServiceName(), settings.isOtlpDelta(), nowEpochNanos);
+        }
+        return _encoder;
+    }
+
+    private void bind(PrometheusMeterRegistry registry) {
+        if (_boundRegistry == registry) {
+            return;
+        }
+        _boundRegistry = registry;
+        FunctionCounter.builder(OTLP_EXPORT_REQUESTS, _succeeded, AtomicLong::get)
+            .description("OTLP export requests by result")
+            .tag("result", "success")
+            .register(registry);
+        FunctionCounter.builder(OTLP_EXPORT_REQUESTS, _failed, AtomicLong::get)
+            .description("OTLP export requests by result")
+            .tag("result", "failure")
+            .register(registry);
+        FunctionCounter.builder(OTLP_EXPORT_DROPPED_POINTS, _droppedPoints, AtomicLong::get)
+            .description("Data points discarded because the OTLP queue was full or the collector rejected them")
+            .register(registry);
+    }
+
+    private void enqueue(OtlpMetricsEncoder.Batch batch, int capacity) {
+        while (_queue.size() >= capacity) {
+            _droppedPoints.addAndGet(_queue.pollFirst().getPoints());
+        }
+        _queue.addLast(batch);
+    }
+
+    private void deliver(PrometheusConfigSnapshot settings, long deadlineNanos) {
+        Duration timeout = Duration.ofMillis(Math.min(settings.getOtlpIntervalMillis(), MAX_TIMEOUT.toMillis()));
+        URI uri = URI.create(settings.getOtlpUrl());
+        while (!_queue.isEmpty() && _clock.monotonicTime() - deadlineNanos < 0) {
+            OtlpMetricsEncoder.Batch batch = _queue.peekFirst();
+            int status = send(uri, batch, settings.getOtlpHeaders(), timeout);
+            if (status >= 200 && status < 300) {
+                _queue.pollFirst();
+                _succeeded.incrementAndGet();
+            } else if (status >= 400 && status < 500 && status != 429) {
+                _queue.pollFirst();
+                _failed.incrementAndGet();
+                _droppedPoints.addAndGet(batch.getPoints());
+                LOGGER.warn("OTLP collector {} rejected {} data points with status {}", uri, batch.getPoints(), status);
+            } else {
+                _failed.incrementAndGet();
+                LOGGER.debug("OTLP export to {} failed with status {}, keeping {} requests queued", uri, status, _queue.size());
+                return;
+            }
+        }
+    }
+
+    private int send(URI uri, OtlpMetricsEncoder.Batch batch, Map<String, String> headers, Duration timeout) {
+        if (_httpClient == null) {
+            _httpClient = HttpClient.newBuilder().connectTimeout(timeout).build();
+        }
+        try {
+            HttpRequest.Builder request = HttpRequest.newBuilder(uri)
+                .timeout(timeout)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofByteArray(batch.getBody()));
+            // restricted or malformed header names fail here and are reported like a network error
+            headers.forEach(request::header);
+            return _httpClient.send(request.build(), HttpResponse.BodyHandlers.discarding()).statusCode();
+        } catch (IOException | IllegalArgumentException e) {
+            LOGGER.debug("OTLP export to {} failed", uri, e);
+            return -1;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return -1;
+        }
+    }
+}
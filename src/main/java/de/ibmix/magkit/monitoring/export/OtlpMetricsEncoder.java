@@ -0,0 +1,401 @@
+package de.ibmix.magkit.monitoring.export;
+
+/*-
+ * #%L
+ * IBM iX Magnolia Monitoring
+ * %%
+ * Copyright (C) 2026 IBM iX
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import io.prometheus.metrics.model.snapshots.ClassicHistogramBuckets;
+import io.prometheus.metrics.model.snapshots.CounterSnapshot;
+import io.prometheus.metrics.model.snapshots.CounterSnapshot.CounterDataPointSnapshot;
+import io.prometheus.metrics.model.snapshots.DataPointSnapshot;
+import io.prometheus.metrics.model.snapshots.GaugeSnapshot.GaugeDataPointSnapshot;
+import io.prometheus.metrics.model.snapshots.HistogramSnapshot;
+import io.prometheus.metrics.model.snapshots.HistogramSnapshot.HistogramDataPointSnapshot;
+import io.prometheus.metrics.model.snapshots.Labels;
+import io.prometheus.metrics.model.snapshots.MetricMetadata;
+import io.prometheus.metrics.model.snapshots.MetricSnapshot;
+import io.prometheus.metrics.model.snapshots.MetricSnapshots;
+import io.prometheus.metrics.model.snapshots.Quantile;
+import io.prometheus.metrics.model.snapshots.SummarySnapshot;
+import io.prometheus.metrics.model.snapshots.SummarySnapshot.SummaryDataPointSnapshot;
+import io.prometheus.metrics.model.snapshots.Unit;
+import io.prometheus.metrics.model.snapshots.UnknownSnapshot.UnknownDataPointSnapshot;
+
+/**
+ * Converts Prometheus metric snapshots into OTLP/HTTP JSON export requests.
+ * <p><strong>Purpose</strong></p>
+ * Lets {@link OtlpExporter} read the very same snapshots the pull endpoint renders, so both outputs are fed by one set
+ * of meter binders and no second registry is needed.
+ * <p><strong>Main Functionality</strong></p>
+ * {@link #encode(MetricSnapshots, long, int)} maps counters to monotonic sums, gauges and untyped metrics to gauges,
+ * classic histograms to explicit bucket histograms and summaries to summaries. The data points are split into
+ * <code>ExportMetricsServiceRequest</code> bodies holding at most the requested number of points each.
+ * <p><strong>Key Features</strong></p>
+ * <ul>
+ * <li>Cumulative or delta aggregation temporality for sums and histograms.</li>
+ * <li>Delta state is kept per series and forgotten as soon as a series disappears.</li>
+ * <li>Counter resets are detected; the post-reset value becomes the delta.</li>
+ * </ul>
+ * <p><strong>Null and Error Handling</strong></p>
+ * Data points with a non-finite value are skipped because JSON cannot represent them; non-finite histogram sums are
+ * omitted. Native-only histograms carry no buckets and are exported with count and sum only.
+ * <p><strong>Thread-Safety</strong></p>
+ * Not thread-safe; the delta state must only be touched by the exporter thread.
+ * <p><strong>Usage Example</strong></p>
+ * <pre>{@code
+ * OtlpMetricsEncoder encoder = new OtlpMetricsEncoder("magnolia", false, startEpochNanos);
+ * for (OtlpMetricsEncoder.Batch batch : encoder.encode(registry.getPrometheusRegistry().scrape(), nowEpochNanos, 1000)) {
+ *     post(batch.getBody());
+ * }
+ * }</pre>
+ * <p><strong>Important Details</strong></p>
+ * Metric names are the Prometheus names without the <code>_total</code> suffix; seconds and bytes are reported with
+ * their UCUM units <code>s</code> and <code>By</code>. 64 bit integers are written as JSON strings, as required by the
+ * OTLP JSON mapping.
+ * @author IBM iX
+ * @since 2026-10-17
+ */
+public class OtlpMetricsEncoder {
+
+    /** Instrumentation scope name reported with every metric. */
+    public static final String SCOPE_NAME = "de.ibmix.magkit.monitoring";
+
+    private static final int DELTA = 1;
+    private static final int CUMULATIVE = 2;
+
+    private static final long NANOS_PER_MILLI = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final String _serviceName;
+    private final boolean _delta;
+    private final long _startEpochNanos;
+
+    private Map<String, double[]> _previous = new HashMap<>();
+    private long _lastEpochNanos;
+
+    /**
+     * Creates an encoder.
+     * @param serviceName value of the service.name resource attribute
+     * @param delta true for delta temporality, false for cumulative
+     * @param startEpochNanos start time reported for series without a created timestamp
+     */
+    public OtlpMetricsEncoder(String serviceName, boolean delta, long startEpochNanos) {
+        _serviceName = serviceName;
+        _delta = delta;
+        _startEpochNanos = startEpochNanos;
+        _lastEpochNanos = startEpochNanos;
+    }
+
+    /**
+     * Indicates whether this encoder produces delta temporality.
+     * @return true for delta
+     */
+    public boolean isDelta() {
+        return _delta;
+    }
+
+    /**
+     * Returns the service name this encoder reports.
+     * @return service name
+     */
+    public String getServiceName() {
+        return _serviceName;
+    }
+
+    /**
+     * Encodes the snapshots into request bodies and advances the delta state.
+     * @param snapshots metric snapshots; must not be null
+     * @param nowEpochNanos collection time
+     * @param batchSize maximum number of data points per request; at least one
+     * @return request bodies in metric name order; empty if there are no data points
+     */
+    public List<Batch> encode(MetricSnapshots snapshots, long nowEpochNanos, int batchSize) {
+        Map<String, double[]> current = new HashMap<>();
+        List<Batch> batches = new ArrayList<>();
+        StringBuilder metrics = new StringBuilder();
+        int points = 0;
+        for (MetricSnapshot snapshot : snapshots) {
+            List<String> dataPoints = new ArrayList<>(snapshot.getDataPoints().size());
+            String prefix = encodeMetric(snapshot, nowEpochNanos, dataPoints, current);
+            int next = 0;
+            while (next < dataPoints.size()) {
+                int end = Math.min(dataPoints.size(), next + batchSize - points);
+                appendSeparator(metrics).append(prefix).append(String.join(",", dataPoints.subList(next, end))).append("]}}");
+                points += end - next;
+                next = end;
+                if (points >= batchSize) {
+                    batches.add(toBatch(metrics, points));
+                    metrics.setLength(0);
+                    points = 0;
+                }
+            }
+        }
+        if (points > 0) {
+            batches.add(toBatch(metrics, points));
+        }
+        _previous = current;
+        _lastEpochNanos = nowEpochNanos;
+        return batches;
+    }
+
+    private String encodeMetric(MetricSnapshot snapshot, long now, List<String> dataPoints, Map<String, double[]> current) {
+        MetricMetadata metadata = snapshot.getMetadata();
+        String name = metadata.getPrometheusName();
+        StringBuilder prefix = new StringBuilder("{\"name\":");
+        appendString(prefix, name);
+        if (metadata.getHelp() != null) {
+            prefix.append(",\"description\":");
+            appendString(prefix, metadata.getHelp());
+        }
+        if (metadata.hasUnit()) {
+            prefix.append(",\"unit\":");
+            appendString(prefix, toUcum(metadata.getUnit()));
+        }
+        int temporality = _delta ? DELTA : CUMULATIVE;
+        if (snapshot instanceof CounterSnapshot) {
+            prefix.append(",\"sum\":{\"aggregationTemporality\":").append(temporality).append(",\"isMonotonic\":true,\"dataPoints\":[");
+            for (CounterDataPointSnapshot point : ((CounterSnapshot) snapshot).getDataPoints()) {
+                addCounterPoint(name, point, now, dataPoints, current);
+            }
+        } else if (snapshot instanceof HistogramSnapshot) {
+            prefix.append(",\"histogram\":{\"aggregationTemporality\":").append(temporality).append(",\"dataPoints\":[");
+            for (HistogramDataPointSnapshot point : ((HistogramSnapshot) snapshot).getDataPoints()) {
+                addHistogramPoint(name, point, now, dataPoints, current);
+            }
+        } else if (snapshot instanceof SummarySnapshot) {
+            prefix.append(",\"summary\":{\"dataPoints\":[");
+            for (SummaryDataPointSnapshot point : ((SummarySnapshot) snapshot).getDataPoints()) {
+                addSummaryPoint(point, now, dataPoints);
+            }
+        } else {
+            prefix.append(",\"gauge\":{\"dataPoints\":[");
+            for (DataPointSnapshot point : snapshot.getDataPoints()) {
+                addGaugePoint(point, now, dataPoints);
+            }
+        }
+        return prefix.toString();
+    }
+
+    private void addCounterPoint(String name, CounterDataPointSnapshot point, long now, List<String> dataPoints, Map<String, double[]> current) {
+        double value = point.getValue();
+        if (!Double.isFinite(value)) {
+            return;
+        }
+        long start = getStartTime(point);
+        if (_delta) {
+            String key = seriesKey(name, point.getLabels());
+            double[] previous = _previous.get(key);
+            current.put(key, new double[] {value});
+            if (previous != null && value >= previous[0]) {
+                value -= previous[0];
+                start = _lastEpochNanos;
+            }
+        }
+        StringBuilder json = openPoint(point.getLabels(), start, now);
+        json.append(",\"asDouble\":").append(value).append('}');
+        dataPoints.add(json.toString());
+    }
+
+    private void addHistogramPoint(String name, HistogramDataPointSnapshot point, long now, List<String> dataPoints, Map<String, double[]> current) {
+        ClassicHistogramBuckets buckets = point.hasClassicHistogramData() ? point.getClassicBuckets() : ClassicHistogramBuckets.EMPTY;
+        // state layout: count, sum, bucket counts
+        double[] state = new double[2 + buckets.size()];
+        state[0] = point.hasCount() ? point.getCount() : 0;
+        state[1] = point.hasSum() ? point.getSum() : Double.NaN;
+        for (int i = 0; i < buckets.size(); i++) {
+            state[2 + i] = buckets.getCount(i);
+        }
+        long start = getStartTime(point);
+        double[] values = state;
+        if (_delta) {
+            String key = seriesKey(name, point.getLabels());
+            double[] previous = _previous.get(key);
+            current.put(key, state);
+            if (previous != null && previous.length == state.length && state[0] >= previous[0]) {
+                values = new double[state.length];
+                for (int i = 0; i < state.length; i++) {
+                    values[i] = state[i] - previous[i];
+                }
+                start = _lastEpochNanos;
+            }
+        }
+        StringBuilder json = openPoint(point.getLabels(), start, now);
+        json.append(",\"count\":\"").append((long) values[0]).append('"');
+        if (Double.isFinite(values[1])) {
+            json.append(",\"sum\":").append(values[1]);
+        }
+        if (!buckets.isEmpty()) {
+            json.append(",\"bucketCounts\":[");
+            for (int i = 0; i < buckets.size(); i++) {
+                json.append(i > 0 ? "," : "").append('"').append((long) values[2 + i]).append('"');
+            }
+            json.append("],\"explicitBounds\":[");
+            // the last classic bucket is +Inf, which OTLP represents implicitly
+            for (int i = 0; i < buckets.size() - 1; i++) {
+                json.append(i > 0 ? "," : "").append(buckets.getUpperBound(i));
+            }
+            json.append(']');
+        }
+        dataPoints.add(json.append('}').toString());
+    }
+
+    private void addSummaryPoint(SummaryDataPointSnapshot point, long now, List<String> dataPoints) {
+        StringBuilder json = openPoint(point.getLabels(), getStartTime(point), now);
+        json.append(",\"count\":\"").append(point.hasCount() ? point.getCount() : 0).append('"');
+        if (point.hasSum() && Double.isFinite(point.getSum())) {
+            json.append(",\"sum\":").append(point.getSum());
+        }
+        json.append(",\"quantileValues\":[");
+        boolean first = true;
+        for (Quantile quantile : point.getQuantiles()) {
+            if (Double.isFinite(quantile.getValue())) {
+                json.append(first ? "" : ",").append("{\"quantile\":").append(quantile.getQuantile()).append(",\"value\":").append(quantile.getValue()).append('}');
+                first = false;
+            }
+        }
+        dataPoints.add(json.append("]}").toString());
+    }
+
+    private void addGaugePoint(DataPointSnapshot point, long now, List<String> dataPoints) {
+        double value;
+        if (point instanceof GaugeDataPointSnapshot) {
+            value = ((GaugeDataPointSnapshot) point).getValue();
+        } else if (point instanceof UnknownDataPointSnapshot) {
+            value = ((UnknownDataPointSnapshot) point).getValue();
+        } else {
+            return;
+        }
+        if (!Double.isFinite(value)) {
+            return;
+        }
+        StringBuilder json = new StringBuilder("{");
+        appendAttributes(json, point.getLabels());
+        json.append(",\"timeUnixNano\":\"").append(now).append("\",\"asDouble\":").append(value).append('}');
+        dataPoints.add(json.toString());
+    }
+
+    private long getStartTime(DataPointSnapshot point) {
+        return point.hasCreatedTimestamp() ? point.getCreatedTimestampMillis() * NANOS_PER_MILLI : _startEpochNanos;
+    }
+
+    private static StringBuilder openPoint(Labels labels, long start, long now) {
+        StringBuilder json = new StringBuilder("{");
+        appendAttributes(json, labels);
+        return json.append(",\"startTimeUnixNano\":\"").append(start).append("\",\"timeUnixNano\":\"").append(now).append('"');
+    }
+
+    private static void appendAttributes(StringBuilder json, Labels labels) {
+        json.append("\"attributes\":[");
+        for (int i = 0; i < labels.size(); i++) {
+            json.append(i > 0 ? ",{\"key\":" : "{\"key\":");
+            appendString(json, labels.getName(i));
+            json.append(",\"value\":{\"stringValue\":");
+            appendString(json, labels.getValue(i));
+            json.append("}}");
+        }
+        json.append(']');
+    }
+
+    private Batch toBatch(StringBuilder metrics, int points) {
+        StringBuilder json = new StringBuilder(metrics.length() + 256);
+        json.append("{\"resourceMetrics\":[{\"resource\":{\"attributes\":[{\"key\":\"service.name\",\"value\":{\"stringValue\":");
+        appendString(json, _serviceName);
+        json.append("}}]},\"scopeMetrics\":[{\"scope\":{\"name\":\"").append(SCOPE_NAME).append("\"},\"metrics\":[");
+        json.append(metrics).append("]}]}]}");
+        return new Batch(json.toString().getBytes(StandardCharsets.UTF_8), points);
+    }
+
+    private static StringBuilder appendSeparator(StringBuilder metrics) {
+        return metrics.length() > 0 ? metrics.append(',') : metrics;
+    }
+
+    private static String seriesKey(String name, Labels labels) {
+        StringBuilder key = new StringBuilder(name);
+        for (int i = 0; i < labels.size(); i++) {
+            key.append('\u0000').append(labels.getName(i)).append('=').append(labels.getValue(i));
+        }
+        return key.toString();
+    }
+
+    private static String toUcum(Unit unit) {
+        if (Unit.SECONDS.equals(unit)) {
+            return "s";
+        }
+        if (Unit.BYTES.equals(unit)) {
+            return "By";
+        }
+        if (Unit.RATIO.equals(unit)) {
+            return "1";
+        }
+        return unit.toString();
+    }
+
+    private static void appendString(StringBuilder json, String value) {
+        json.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                json.append('\\').append(c);
+            } else if (c == '\n') {
+                json.append("\\n");
+            } else if (c < 0x20) {
+                json.append(String.format("\\u%04x", (int) c));
+            } else {
+                json.append(c);
+            }
+        }
+        json.append('"');
+    }
+
+    /**
+     * Encoded export request together with the number of data points it carries.
+     */
+    public static final class Batch {
+
+        private final byte[] _body;
+        private final int _points;
+
+        private Batch(byte[] body, int points) {
+            _body = body;
+            _points = points;
+        }
+
+        /**
+         * Returns the JSON request body.
+         * @return UTF-8 encoded body
+         */
+        public byte[] getBody() {
+            return _body;
+        }
+
+        /**
+         * Returns the number of data points in this request.
+         * @return point count
+         */
+        public int getPoints() {
+            return _points;
+        }
+    }
+}
@@ -0,0 +1,367 @@
+package de.ibmix.magkit.monitoring.export;
+
+/*-
+ * #%L
+ * IBM iX Magnolia Monitoring
+ * %%
+ * Copyright (C) 2026 IBM iX
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.URI;
+import java.net.UnknownHostException;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPOutputStream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import de.ibmix.magkit.monitoring.config.prometheus.PrometheusConfigSnapshot;
+
+import io.micrometer.core.instrument.Clock;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.prometheusmetrics.PrometheusMeterRegistry;
+import io.prometheus.metrics.expositionformats.PrometheusTextFormatWriter;
+
+/**
+ * {@link ScheduledExporter} pushing the Prometheus registry to a Pushgateway-compatible endpoint.
+ * <p><strong>Purpose</strong></p>
+ * Makes the metrics of instances available that Prometheus cannot scrape directly. The gateway keeps the last pushed
+ * exposition per grouping key and is scraped by Prometheus in their place.
+ * <p><strong>Main Functionality</strong></p>
+ * The export thread renders the whole registry once per interval in Prometheus text format, optionally gzip
+ * compressed, and sends it with <code>PUT</code> to <code>{url}/metrics/job/{job}/instance/{instance}</code>, replacing the
+ * group on the gateway. Since every push replaces the whole group, only the newest rendering is kept for delivery: a
+ * rendering that has not been delivered when the next one is made is superseded and counted as dropped. After a failed
+ * delivery the exporter backs off exponentially, up to {@value #MAX_BACKOFF_MILLIS} milliseconds, and then sends the
+ * rendering made in the meantime instead of replaying stale ones.
+ * <p><strong>Key Features</strong></p>
+ * <ul>
+ * <li>One request per interval carrying all meters.</li>
+ * <li>At most one pending push; stale renderings are never replayed.</li>
+ * <li>Pushes rejected with a 4xx status are dropped instead of retried.</li>
+ * <li>Final push on {@link #shutdown()}, i.e. on module stop.</li>
+ * <li>Counters "prometheus_push_requests" (tag result=success|failure) and "prometheus_push_dropped".</li>
+ * </ul>
+ * <p><strong>Null and Error Handling</strong></p>
+ * Rendering and delivery errors are logged and counted; they never stop the exporter. If the registry supplier returns
+ * null, the push is skipped. Grouping label values that are not URL safe are sent base64 encoded.
+ * <p><strong>Thread-Safety</strong></p>
+ * Pending push and backoff state are only touched under the export lock of {@link ScheduledExporter}. Request threads do not
+ * take part in pushing.
+ * <p><strong>Usage Example</strong></p>
+ * <pre>{@code
+ * PushgatewayExporter exporter = new PushgatewayExporter(() -> registry);
+ * exporter.configure(monitoringModule.getConfigSnapshot());
+ * // on module stop
+ * exporter.shutdown();
+ * }</pre>
+ * <p><strong>Important Details</strong></p>
+ * Settings are applied through {@link #configure(PrometheusConfigSnapshot)}, which {@link de.ibmix.magkit.monitoring.MonitoringModule}
+ * calls whenever it publishes a configuration snapshot. The registry is resolved on the exporter thread when the first
+ * push is due, so configuring the exporter does not force the registry to be created.
+ * @author IBM iX
+ * @since 2026-10-17
+ */
+public class PushgatewayExporter extends ScheduledExporter {
+
+    /** Name of the counter reporting push deliveries. */
+    public static final String PROMETHEUS_PUSH_REQUESTS = "prometheus_push_requests";
+
+    /** Name of the counter reporting pushes discarded without delivery. */
+    public static final String PROMETHEUS_PUSH_DROPPED = "prometheus_push_dropped";
+
+    /** Upper bound of the retry backoff in milliseconds. */
+    public static final long MAX_BACKOFF_MILLIS = 300_000;
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(PushgatewayExporter.class);
+
+    private static final Pattern URL_SAFE = Pattern.compile("[A-Za-z0-9._~-]+");
+
+    private static final Duration MAX_TIMEOUT = Duration.ofSeconds(10);
+
+    private static final long NANOS_PER_MILLI = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final Supplier<PrometheusMeterRegistry> _registry;
+    private final Clock _clock;
+    private final AtomicLong _succeeded = new AtomicLong();
+    private final AtomicLong _failed = new AtomicLong();
+    private final AtomicLong _dropped = new AtomicLong();
+
+    private Push _pending;
+    private HttpClient _httpClient;
+    private PrometheusMeterRegistry _boundRegistry;
+    private String _hostName;
+    private int _consecutiveFailures;
+    private long _retryAtNanos;
+
+    /**
+     * Creates an exporter pushing the supplied registry.
+     * @param registry supplies the registry to push; may return null while it is not available
+     */
+    public PushgatewayExporter(Supplier<PrometheusMeterRegistry> registry) {
+        this(registry, Clock.SYSTEM);
+    }
+
+    /**
+     * Creates an exporter with an explicit clock for the retry backoff.
+     * @param registry supplies the registry to push; may return null while it is not available
+     * @param clock clock providing monotonic time; must not be null
+     */
+    PushgatewayExporter(Supplier<PrometheusMeterRegistry> registry, Clock clock) {
+        super("magkit-pushgateway-exporter");
+        _registry = registry;
+        _clock = clock;
+    }
+
+    /**
+     * Returns the number of pushes accepted by the gateway.
+     * @return success count
+     */
+    public long getSucceeded() {
+        return _succeeded.get();
+    }
+
+    /**
+     * Returns the number of failed delivery attempts.
+     * @return failure count
+     */
+    public long getFailed() {
+        return _failed.get();
+    }
+
+    /**
+     * Returns the number of pushes discarded without delivery.
+     * @return drop count
+     */
+    public long getDropped() {
+        return _dropped.get();
+    }
+
+    /**
+     * Indicates whether a push URL is configured.
+     * @param settings configuration snapshot
+     * @return true if pushing
+     */
+    @Override
+    protected boolean isEnabled(PrometheusConfigSnapshot settings) {
+        return settings.isPushEnabled();
+    }
+
+    /**
+     * Returns the configured push interval.
+     * @param settings configuration snapshot
+     * @return milliseconds
+     */
+    @Override
+    protected long getIntervalMillis(PrometheusConfigSnapshot settings) {
+        return settings.getPushIntervalMillis();
+    }
+
+    /**
+     * Renders the registry, superseding an undelivered push, and delivers it unless backing off.
+     * @param settings current configuration snapshot
+     */
+    @Override
+    protected void export(PrometheusConfigSnapshot settings) {
+        PrometheusMeterRegistry registry = _registry.get();
+        if (registry == null) {
+            return;
+        }
+        bind(registry);
+        supersede(render(registry, settings));
+        long now = _clock.monotonicTime();
+        if (now - _retryAtNanos >= 0) {
+            deliver(settings, now);
+        }
+    }
+
+    /**
+     * Pushes the current state once more, ignoring the backoff. A push that still cannot be delivered is discarded.
+     * @param settings current configuration snapshot
+     */
+    @Override
+    protected void flush(PrometheusConfigSnapshot settings) {
+        try {
+            _retryAtNanos = _clock.monotonicTime();
+            super.flush(settings);
+        } finally {
+            if (_pending != null) {
+                _pending = null;
+                _dropped.incrementAndGet();
+            }
+            _httpClient = null;
+        }
+    }
+
+    /**
+     * Indicates whether a rendering is waiting for delivery.
+     * @return true if a push is pending
+     */
+    boolean hasPending() {
+        return _pending != null;
+    }
+
+    /**
+     * Builds the grouping key path for job and instance; values that are not URL safe are base64url encoded.
+     * @param job job label value
+     * @param instance instance label value
+     * @return path starting with <code>/metrics/job/</code>
+     */
+    static String groupingPath(String job, String instance) {
+        return "/metrics" + pathSegment("job", job) + pathSegment("instance", instance);
+    }
+
+    private static String pathSegment(String label, String value) {
+        if (URL_SAFE.matcher(value).matches()) {
+            return '/' + label + '/' + value;
+        }
+        return '/' + label + "@base64/" + Base64.getUrlEncoder().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private void bind(PrometheusMeterRegistry registry) {
+        if (_boundRegistry == registry) {
+            return;
+        }
+        _boundRegistry = registry;
+        FunctionCounter.builder(PROMETHEUS_PUSH_REQUESTS, _succeeded, AtomicLong::get)
+            .description("Pushes to the Pushgateway by result")
+            .tag("result", "success")
+            .register(registry);
+        FunctionCounter.builder(PROMETHEUS_PUSH_REQUESTS, _failed, AtomicLong::get)
+            .description("Pushes to the Pushgateway by result")
+            .tag("result", "failure")
+            .register(registry);
+        FunctionCounter.builder(PROMETHEUS_PUSH_DROPPED, _dropped, AtomicLong::get)
+            .description("Pushes discarded without delivery because a newer rendering superseded them or the gateway rejected them")
+            .register(registry);
+    }
+
+    private Push render(PrometheusMeterRegistry registry, PrometheusConfigSnapshot settings) {
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        try {
+            if (settings.isPushGzip()) {
+                GZIPOutputStream compressed = new GZIPOutputStream(body);
+                registry.scrape(compressed, PrometheusTextFormatWriter.CONTENT_TYPE);
+                compressed.finish();
+            } else {
+                registry.scrape(body, PrometheusTextFormatWriter.CONTENT_TYPE);
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Rendering the registry failed", e);
+        }
+        String instance = settings.getPushInstance() != null ? settings.getPushInstance() : getHostName();
+        URI uri = URI.create(stripTrailingSlash(settings.getPushUrl()) + groupingPath(settings.getPushJob(), instance));
+        return new Push(uri, body.toByteArray(), settings.isPushGzip());
+    }
+
+    private void supersede(Push push) {
+        if (_pending != null) {
+            _dropped.incrementAndGet();
+        }
+        _pending = push;
+    }
+
+    private void deliver(PrometheusConfigSnapshot settings, long now) {
+        Duration timeout = Duration.ofMillis(Math.min(settings.getPushIntervalMillis(), MAX_TIMEOUT.toMillis()));
+        Push push = _pending;
+        if (push == null) {
+            return;
+        }
+        int status = send(push, timeout);
+        if (status >= 200 && status < 300) {
+            _pending = null;
+            _succeeded.incrementAndGet();
+            _consecutiveFailures = 0;
+        } else if (status >= 400 && status < 500) {
+            _pending = null;
+            _failed.incrementAndGet();
+            _dropped.incrementAndGet();
+            LOGGER.warn("Pushgateway {} rejected push with status {}", push._uri, status);
+        } else {
+            _failed.incrementAndGet();
+            _consecutiveFailures++;
+            long backoffMillis = Math.min(MAX_BACKOFF_MILLIS, settings.getPushIntervalMillis() << Math.min(_consecutiveFailures, 20));
+            _retryAtNanos = now + backoffMillis * NANOS_PER_MILLI;
+            LOGGER.debug("Push to {} failed with status {}, retrying in {} ms", push._uri, status, backoffMillis);
+        }
+    }
+
+    private int send(Push push, Duration timeout) {
+        if (_httpClient == null) {
+            _httpClient = HttpClient.newBuilder().connectTimeout(timeout).build();
+        }
+        HttpRequest.Builder request = HttpRequest.newBuilder(push._uri)
+            .timeout(timeout)
+            .header("Content-Type", PrometheusTextFormatWriter.CONTENT_TYPE)
+            .PUT(HttpRequest.BodyPublishers.ofByteArray(push._body));
+        if (push._gzip) {
+            request.header("Content-Encoding", "gzip");
+        }
+        try {
+            return _httpClient.send(request.build(), HttpResponse.BodyHandlers.discarding()).statusCode();
+        } catch (IOException e) {
+            LOGGER.debug("Push to {} failed", push._uri, e);
+            return -1;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return -1;
+        }
+    }
+
+    private String getHostName() {
+        if (_hostName == null) {
+            try {
+                _hostName = InetAddress.getLocalHost().getHostName();
+            } catch (UnknownHostException e) {
+                _hostName = "localhost";
+            }
+        }
+        return _hostName;
+    }
+
+    private static String stripTrailingSlash(String url) {
+        return url.endsWith("/") ? url.substring(0, url.length() - 1) : url;
+    }
+
+    /**
+     * Rendered exposition waiting for delivery.
+     */
+    private static final class Push {
+
+        private final URI _uri;
+        private final byte[] _body;
+        private final boolean _gzip;
+
+        private Push(URI uri, byte[] body, boolean gzip) {
+            _uri = uri;
+            _body = body;
+            _gzip = gzip;
+        }
+    }
+}
@@ -0,0 +1,214 @@
+package de.ibmix.magkit.monitoring.export;
+
+/*-
+ * #%L
+ * IBM iX Magnolia Monitoring
+ * %%
+ * Copyright (C) 2026 IBM iX
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import de.ibmix.magkit.monitoring.config.prometheus.PrometheusConfigSnapshot;
+
+/**
+ * Base class of exporters that periodically send metrics from a dedicated background thread.
+ * <p><strong>Purpose</strong></p>
+ * Shares the thread and lifecycle handling of all push style exporters, so each implementation only deals with
+ * rendering and transport.
+ * <p><strong>Main Functionality</strong></p>
+ * {@link #configure(PrometheusConfigSnapshot)} starts, reschedules or stops a single daemon thread that calls
+ * {@link #export(PrometheusConfigSnapshot)} with a fixed delay. {@link #shutdown()} stops the thread and gives the
+ * implementation a final chance to deliver through {@link #flush(PrometheusConfigSnapshot)}.
+ * <p><strong>Key Features</strong></p>
+ * <ul>
+ * <li>No thread while disabled.</li>
+ * <li>Exports never overlap; they are serialized by an export lock separate from the scheduling monitor.</li>
+ * <li>Failures are logged and do not cancel the schedule.</li>
+ * </ul>
+ * <p><strong>Null and Error Handling</strong></p>
+ * Runtime exceptions thrown by an export are logged as warnings. The settings default to an empty snapshot, which
+ * disables every exporter.
+ * <p><strong>Thread-Safety</strong></p>
+ * Scheduling methods synchronize on the exporter instance. Exports run under a separate lock, so reconfiguring from a
+ * request thread never waits for slow network I/O.
+ * <p><strong>Usage Example</strong></p>
+ * <pre>{@code
+ * public class ConsoleExporter extends ScheduledExporter {
+ *     ConsoleExporter() {
+ *         super("console-exporter");
+ *     }
+ *     protected boolean isEnabled(PrometheusConfigSnapshot settings) {
+ *         return true;
+ *     }
+ *     protected long getIntervalMillis(PrometheusConfigSnapshot settings) {
+ *         return 60000;
+ *     }
+ *     protected void export(PrometheusConfigSnapshot settings) {
+ *         System.out.println(registry.scrape());
+ *     }
+ * }
+ * }</pre>
+ * <p><strong>Important Details</strong></p>
+ * The executor is shut down without interrupting a running export, so an export in progress completes with its own
+ * network timeouts.
+ * @author IBM iX
+ * @since 2026-10-17
+ */
+public abstract class ScheduledExporter {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ScheduledExporter.class);
+
+    private final String _threadName;
+    private final Object _exportLock = new Object();
+
+    private volatile PrometheusConfigSnapshot _settings = PrometheusConfigSnapshot.of(null);
+    private ScheduledExecutorService _executor;
+    private ScheduledFuture<?> _task;
+    private long _intervalMillis;
+
+    /**
+     * Creates an exporter whose background thread carries the given name.
+     * @param threadName name of the export thread
+     */
+    protected ScheduledExporter(String threadName) {
+        _threadName = threadName;
+    }
+
+    /**
+     * Applies a configuration snapshot: starts, reschedules or stops the export thread.
+     * @param snapshot configuration snapshot; must not be null
+     */
+    public synchronized void configure(PrometheusConfigSnapshot snapshot) {
+        _settings = snapshot;
+        if (!isEnabled(snapshot)) {
+            stopExporting();
+        } else if (_task == null || _intervalMillis != getIntervalMillis(snapshot)) {
+            if (_task != null) {
+                _task.cancel(false);
+            }
+            if (_executor == null) {
+                _executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                    Thread thread = new Thread(runnable, _threadName);
+                    thread.setDaemon(true);
+                    return thread;
+                });
+            }
+            _intervalMillis = getIntervalMillis(snapshot);
+            _task = _executor.scheduleWithFixedDelay(this::exportSafely, _intervalMillis, _intervalMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Stops the export thread and, if it was running, lets the implementation deliver a final time.
+     */
+    public synchronized void shutdown() {
+        boolean wasExporting = _task != null;
+        stopExporting();
+        if (wasExporting) {
+            synchronized (_exportLock) {
+                try {
+                    flush(_settings);
+                } catch (RuntimeException e) {
+                    LOGGER.warn("Final export of {} failed", _threadName, e);
+                }
+            }
+        }
+    }
+
+    /**
+     * Indicates whether the export thread is scheduled.
+     * @return true if exporting
+     */
+    public synchronized boolean isExporting() {
+        return _task != null;
+    }
+
+    /**
+     * Runs one export on the calling thread if the current settings enable this exporter.
+     */
+    void exportNow() {
+        synchronized (_exportLock) {
+            PrometheusConfigSnapshot settings = _settings;
+            if (isEnabled(settings)) {
+                export(settings);
+            }
+        }
+    }
+
+    /**
+     * Returns the settings most recently applied.
+     * @return configuration snapshot; never null
+     */
+    protected PrometheusConfigSnapshot getSettings() {
+        return _settings;
+    }
+
+    /**
+     * Indicates whether the settings enable this exporter.
+     * @param settings configuration snapshot
+     * @return true to run the export thread
+     */
+    protected abstract boolean isEnabled(PrometheusConfigSnapshot settings);
+
+    /**
+     * Returns the delay between two exports.
+     * @param settings configuration snapshot
+     * @return milliseconds; greater than zero
+     */
+    protected abstract long getIntervalMillis(PrometheusConfigSnapshot settings);
+
+    /**
+     * Performs one export; called on the export thread under the export lock.
+     * @param settings current configuration snapshot
+     */
+    protected abstract void export(PrometheusConfigSnapshot settings);
+
+    /**
+     * Delivers a final time on shutdown; exports once by default.
+     * @param settings current configuration snapshot
+     */
+    protected void flush(PrometheusConfigSnapshot settings) {
+        if (isEnabled(settings)) {
+            export(settings);
+        }
+    }
+
+    private void exportSafely() {
+        try {
+            exportNow();
+        } catch (RuntimeException e) {
+            LOGGER.warn("Export of {} failed", _threadName, e);
+        }
+    }
+
+    private void stopExporting() {
+        if (_task != null) {
+            _task.cancel(false);
+            _task = null;
+        }
+        if (_executor != null) {
+            _executor.shutdown();
+            _executor = null;
+        }
+    }
+}
@@ -19,14 +19,26 @@
  */
 package de.ibmix.magkit.monitoring;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
 
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
 
+import de.ibmix.magkit.monitoring.collector.BackgroundGauge;
 import de.ibmix.magkit.monitoring.config.prometheus.PrometheusConfig;
+import de.ibmix.magkit.monitoring.config.prometheus.PrometheusConfigSnapshot;
+import de.ibmix.magkit.monitoring.config.prometheus.SlowRequestSamplerConfig;
+import de.ibmix.magkit.monitoring.endpoint.prometheus.ScrapeCache;
 import info.magnolia.module.ModuleLifecycleContext;
 
 /**
@@ -88,5 +100,84 @@ public class MonitoringModuleTest {
         module.stop(lifecycleContext);
         assertSame(cfg, module.getPrometheusConfig());
     }
-}
 
+    /**
+     * Verifies the configuration snapshot is reused until the configuration is replaced or explicitly refreshed.
+     */
+    @Test
+    public void testConfigSnapshotLifecycle() {
+        MonitoringModule module = new MonitoringModule();
+        assertTrue(module.getConfigSnapshot().getMetricIds().isEmpty());
+        PrometheusConfig cfg = new PrometheusConfig();
+        cfg.setMetrics(List.of("http"));
+        module.setPrometheusConfig(cfg);
+        PrometheusConfigSnapshot snapshot = module.getConfigSnapshot();
+        assertTrue(snapshot.isHttpEnabled());
+        assertSame(snapshot, module.getConfigSnapshot());
+        PrometheusConfigSnapshot refreshed = module.refreshConfigSnapshot();
+        assertNotSame(snapshot, refreshed);
+        assertSame(refreshed, module.getConfigSnapshot());
+    }
+
+    /**
+     * Verifies the module provides a scrape cache that is emptied when the module stops.
+     * @throws IOException never, the renderer does not fail
+     */
+    @Test
+    public void testScrapeCacheClearedOnStop() throws IOException {
+        MonitoringModule module = new MonitoringModule();
+        ScrapeCache cache = module.getScrapeCache();
+        assertNotNull(cache);
+        cache.get("text", 60_000_000_000L, out -> out.write(1));
+        module.stop(Mockito.mock(ModuleLifecycleContext.class));
+        cache.get("text", 60_000_000_000L, out -> out.write(1));
+        assertEquals(2, cache.getMisses());
+    }
+
+    /**
+     * Verifies the background gauge collector threads are stopped with the module.
+     */
+    @Test
+    public void testBackgroundGaugesStoppedOnStop() {
+        MonitoringModule module = new MonitoringModule();
+        module.getBackgroundGauges().register(BackgroundGauge.of("test_gauge", null, null, Duration.ofHours(1), Duration.ofSeconds(1), () -> 1));
+        assertTrue(module.getBackgroundGauges().isRunning());
+        module.stop(Mockito.mock(ModuleLifecycleContext.class));
+        assertFalse(module.getBackgroundGauges().isRunning());
+    }
+
+    /**
+     * Verifies the background gauges refresh again when the module is started after a stop, e.g. on a configuration
+     * change.
+     */
+    @Test
+    public void testBackgroundGaugesRestartedOnStart() {
+        MonitoringModule module = new MonitoringModule();
+        ModuleLifecycleContext lifecycleContext = Mockito.mock(ModuleLifecycleContext.class);
+        module.start(lifecycleContext);
+        assertFalse(module.getBackgroundGauges().isRunning());
+        module.getBackgroundGauges().register(BackgroundGauge.of("test_gauge", null, null, Duration.ofHours(1), Duration.ofSeconds(1), () -> 1));
+        module.stop(lifecycleContext);
+        module.start(lifecycleContext);
+        assertTrue(module.getBackgroundGauges().isRunning());
+        module.stop(lifecycleContext);
+    }
+
+    /**
+     * Verifies the slow request sampler follows the configuration and is stopped with the module.
+     */
+    @Test
+    public void testSlowRequestSamplerLifecycle() {
+        MonitoringModule module = new MonitoringModule();
+        PrometheusConfig cfg = new PrometheusConfig();
+        SlowRequestSamplerConfig samplerConfig = new SlowRequestSamplerConfig();
+        samplerConfig.setEnabled(true);
+        cfg.setSlowRequestSamplerConfig(samplerConfig);
+        module.setPrometheusConfig(cfg);
+        ModuleLifecycleContext lifecycleContext = Mockito.mock(ModuleLifecycleContext.class);
+        module.start(lifecycleContext);
+        assertTrue(module.getSlowRequestSampler().isSampling());
+        module.stop(lifecycleContext);
+        assertFalse(module.getSlowRequestSampler().isSampling());
+    }
+}
@@ -0,0 +1,206 @@
+/*-
+ * #%L
+ * IBM iX Magnolia Monitoring
+ * %%
+ * Copyright (C) 2023 - 2025 IBM iX
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package de.ibmix.magkit.monitoring.collector;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BooleanSupplier;
+
+import io.micrometer.core.instrument.MockClock;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for {@link BackgroundGaugeCollector}: cached values, appearing and vanishing series, timeouts, failures,
+ * staleness and lifecycle.
+ * @author IBM iX
+ * @since 2026-10-17
+ */
+public class BackgroundGaugeCollectorTest {
+
+    private static final Duration HOUR = Duration.ofHours(1);
+
+    private final SimpleMeterRegistry _registry = new SimpleMeterRegistry();
+    private final MockClock _clock = new MockClock();
+    private final BackgroundGaugeCollector _collector = new BackgroundGaugeCollector(2, _clock);
+
+    @AfterEach
+    public void tearDown() {
+        _collector.shutdown();
+    }
+
+    /**
+     * Verifies reading the gauge returns the cached value without computing it again.
+     * @throws InterruptedException if the test is interrupted
+     */
+    @Test
+    public void testScrapeReadsCachedValue() throws InterruptedException {
+        AtomicReference<Double> source = new AtomicReference<>(42.0);
+        _collector.bindTo(_registry);
+        _collector.register(BackgroundGauge.of("repository_size", "Repository size", "bytes", HOUR, Duration.ofSeconds(5), source::get));
+        awaitValues("repository_size");
+        source.set(7.0);
+        assertEquals(42.0, _registry.get("repository_size").gauge().value());
+        assertTrue(_collector.isRunning());
+
+        _collector.refreshNow("repository_size");
+        assertEquals(7.0, _registry.get("repository_size").gauge().value());
+    }
+
+    /**
+     * Verifies tag combinations are registered when they appear and removed when they vanish, also for registries bound
+     * after the first computation.
+     * @throws InterruptedException if the test is interrupted
+     */
+    @Test
+    public void testSeriesFollowResult() throws InterruptedException {
+        AtomicReference<Map<Tags, Double>> source = new AtomicReference<>(Map.of(Tags.of("workspace", "website"), 10.0, Tags.of("workspace", "dam"), 20.0));
+        _collector.register(new BackgroundGauge("workspace_size", null, "bytes", HOUR, Duration.ofSeconds(5)) {
+            @Override
+            public Map<Tags, Double> collect() {
+                return source.get();
+            }
+        });
+        awaitValues("workspace_size");
+        _collector.bindTo(_registry);
+        assertEquals(20.0, _registry.get("workspace_size").tag("workspace", "dam").gauge().value());
+
+        source.set(Map.of(Tags.of("workspace", "website"), 11.0));
+        _collector.refreshNow("workspace_size");
+        assertEquals(11.0, _registry.get("workspace_size").tag("workspace", "website").gauge().value());
+        assertNull(_registry.find("workspace_size").tag("workspace", "dam").gauge());
+    }
+
+    /**
+     * Verifies a computation exceeding its timeout is abandoned, counted and keeps the previous values while staleness grows.
+     * @throws InterruptedException if the test is interrupted
+     */
+    @Test
+    public void testTimeoutKeepsPreviousValue() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicReference<Boolean> block = new AtomicReference<>(false);
+        _collector.bindTo(_registry);
+        _collector.register(BackgroundGauge.of("slow", null, null, HOUR, Duration.ofMillis(100), () -> {
+            if (block.get()) {
+                release.await(10, TimeUnit.SECONDS);
+            }
+            return 1;
+        }));
+        awaitValues("slow");
+        _clock.add(Duration.ofSeconds(30));
+        block.set(true);
+        _collector.refreshNow("slow");
+        release.countDown();
+
+        assertEquals(1.0, _registry.get("slow").gauge().value());
+        assertEquals(1.0, _registry.get(BackgroundGaugeCollector.BACKGROUND_GAUGE_FAILURES).tags("gauge", "slow", "reason", "timeout").functionCounter().count());
+        assertEquals(30.0, _registry.get(BackgroundGaugeCollector.BACKGROUND_GAUGE_STALENESS).tag("gauge", "slow").timeGauge().value(TimeUnit.SECONDS));
+    }
+
+    /**
+     * Verifies failing computations are counted as errors and a later success resets the staleness.
+     * @throws InterruptedException if the test is interrupted
+     */
+    @Test
+    public void testErrorCountedAndStalenessReset() throws InterruptedException {
+        AtomicReference<Boolean> fail = new AtomicReference<>(true);
+        _collector.bindTo(_registry);
+        _collector.register(BackgroundGauge.of("flaky", null, null, HOUR, Duration.ofSeconds(5), () -> {
+            if (fail.get()) {
+                throw new IllegalStateException("unavailable");
+            }
+            return 3;
+        }));
+        await(() -> _registry.get(BackgroundGaugeCollector.BACKGROUND_GAUGE_FAILURES).tags("gauge", "flaky", "reason", "error").functionCounter().count() == 1);
+        assertNull(_registry.find("flaky").gauge());
+
+        _clock.add(Duration.ofSeconds(10));
+        fail.set(false);
+        _collector.refreshNow("flaky");
+        assertEquals(3.0, _registry.get("flaky").gauge().value());
+        assertEquals(0.0, _registry.get(BackgroundGaugeCollector.BACKGROUND_GAUGE_STALENESS).tag("gauge", "flaky").timeGauge().value(TimeUnit.SECONDS));
+    }
+
+    /**
+     * Verifies unregistering removes all meters and shutdown stops the threads.
+     * @throws InterruptedException if the test is interrupted
+     */
+    @Test
+    public void testUnregisterAndShutdown() throws InterruptedException {
+        _collector.bindTo(_registry);
+        _collector.register(BackgroundGauge.of("temp", null, null, HOUR, Duration.ofSeconds(5), () -> 1));
+        awaitValues("temp");
+        assertTrue(_collector.unregister("temp"));
+        assertFalse(_collector.unregister("temp"));
+        assertNull(_registry.find("temp").gauge());
+        assertNull(_registry.find(BackgroundGaugeCollector.BACKGROUND_GAUGE_DURATION).timeGauge());
+        assertTrue(_collector.getValues("temp").isEmpty());
+
+        _collector.shutdown();
+        assertFalse(_collector.isRunning());
+    }
+
+    /**
+     * Verifies a restart after shutdown reschedules the registered gauges and computes them immediately.
+     * @throws InterruptedException if the test is interrupted
+     */
+    @Test
+    public void testRestartAfterShutdown() throws InterruptedException {
+        AtomicReference<Double> source = new AtomicReference<>(1.0);
+        _collector.bindTo(_registry);
+        _collector.register(BackgroundGauge.of("temp", null, null, HOUR, Duration.ofSeconds(5), source::get));
+        awaitValues("temp");
+        _collector.shutdown();
+        source.set(2.0);
+
+        _collector.restart();
+        assertTrue(_collector.isRunning());
+        await(() -> _registry.get("temp").gauge().value() == 2.0);
+        _collector.restart();
+        assertTrue(_collector.isRunning());
+    }
+
+    /**
+     * Waits for the first scheduled computation of a gauge to publish its values.
+     * @param name gauge name
+     * @throws InterruptedException if the test is interrupted
+     */
+    private void awaitValues(String name) throws InterruptedException {
+        await(() -> !_collector.getValues(name).isEmpty());
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "condition not met within 5 seconds");
+            Thread.sleep(10);
+        }
+    }
+}
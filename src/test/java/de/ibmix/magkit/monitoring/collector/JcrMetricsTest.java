@@ -0,0 +1,178 @@
+/*-
+ * #%L
+ * IBM iX Magnolia Monitoring
+ * %%
+ * Copyright (C) 2023 - 2025 IBM iX
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package de.ibmix.magkit.monitoring.collector;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import javax.jcr.Repository;
+
+import org.apache.jackrabbit.api.stats.RepositoryStatistics.Type;
+import org.apache.jackrabbit.core.cache.CacheManager;
+import org.apache.jackrabbit.core.cache.ConcurrentCache;
+import org.apache.jackrabbit.stats.RepositoryStatisticsImpl;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import de.ibmix.magkit.monitoring.endpoint.prometheus.Metric;
+
+import io.micrometer.core.instrument.MockClock;
+import io.micrometer.core.instrument.simple.SimpleConfig;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Unit tests for {@link JcrMetrics}: per-minute rates and averages from Jackrabbit statistics, bundle and item state
+ * cache ratios, and repositories without Jackrabbit statistics.
+ * @author IBM iX
+ * @since 2026-10-17
+ */
+public class JcrMetricsTest {
+
+    private final ManualExecutor _executor = new ManualExecutor();
+    private final RepositoryStatisticsImpl _statistics = new RepositoryStatisticsImpl(_executor);
+    private final MockClock _clock = new MockClock();
+    private final SimpleMeterRegistry _registry = new SimpleMeterRegistry(SimpleConfig.DEFAULT, _clock);
+
+    @AfterEach
+    public void tearDown() {
+        _executor.shutdownNow();
+    }
+
+    /**
+     * Verifies rates and averages are derived from the last full minute while open sessions are read live.
+     */
+    @Test
+    public void testRepositoryStatistics() {
+        JcrMetrics.bind(_registry, "magnolia", _statistics, null);
+        assertEquals(0.0, gauge("jcr.queries"));
+        assertTrue(Double.isNaN(gauge("jcr.query.duration.average")));
+
+        _statistics.getCounter(Type.SESSION_COUNT).set(4);
+        _statistics.getCounter(Type.SESSION_LOGIN_COUNTER).set(12);
+        _statistics.getCounter(Type.QUERY_COUNT).set(6);
+        _statistics.getCounter(Type.QUERY_DURATION).set(300);
+        _statistics.getCounter(Type.BUNDLE_CACHE_ACCESS_COUNTER).set(10);
+        _statistics.getCounter(Type.BUNDLE_CACHE_MISS_COUNTER).set(2);
+        _statistics.getCounter(Type.BUNDLE_CACHE_MISS_DURATION).set(4_000_000);
+        _statistics.getCounter(Type.BUNDLE_CACHE_SIZE_COUNTER).set(1024);
+        _statistics.getCounter(Type.BUNDLE_WRITE_COUNTER).set(3);
+        _statistics.getCounter(Type.BUNDLE_WRITE_DURATION).set(3_000_000_000L);
+        _executor.completeMinute();
+
+        assertEquals(4.0, gauge("jcr.sessions.open"));
+        assertEquals(0.2, gauge("jcr.session.logins"), 1e-9);
+        assertEquals(0.1, gauge("jcr.queries"), 1e-9);
+        assertEquals(0.05, gauge("jcr.query.duration.average"), 1e-9);
+        assertEquals(0.8, gauge("jcr.bundle.cache.hit.ratio"), 1e-9);
+        assertEquals(1024.0, gauge("jcr.bundle.cache.size"));
+        assertEquals(2 / 60.0, gauge("jcr.bundle.reads"), 1e-9);
+        assertEquals(0.002, gauge("jcr.bundle.read.duration.average"), 1e-9);
+        assertEquals(0.05, gauge("jcr.bundle.writes"), 1e-9);
+        assertEquals(1.0, gauge("jcr.bundle.write.duration.average"), 1e-9);
+        assertEquals("magnolia", _registry.get("jcr.queries").gauge().getId().getTag(JcrMetrics.REPOSITORY_TAG));
+        assertTrue(_registry.find("jcr.item.state.caches").gauges().isEmpty());
+    }
+
+    /**
+     * Verifies the item state caches are aggregated and re-read at most once per second.
+     */
+    @Test
+    public void testItemStateCaches() {
+        CacheManager cacheManager = new CacheManager();
+        ConcurrentCache<String, String> cache = new ConcurrentCache<>("workspace");
+        cacheManager.add(cache);
+        cache.setMaxMemorySize(1024);
+        cache.put("a", "x", 100);
+        cache.get("a");
+        cache.get("missing");
+        JcrMetrics.bind(_registry, "magnolia", _statistics, cacheManager);
+
+        assertEquals(1.0, gauge("jcr.item.state.caches"));
+        assertEquals(0.5, gauge("jcr.item.state.cache.hit.ratio"), 1e-9);
+        assertEquals(100.0, gauge("jcr.item.state.cache.size"));
+        assertEquals(1024.0, gauge("jcr.item.state.cache.limit"));
+        assertEquals(1.0, gauge("jcr.item.state.cache.elements"));
+
+        cache.put("b", "y", 50);
+        assertEquals(1.0, gauge("jcr.item.state.cache.elements"));
+        _clock.add(Duration.ofSeconds(1));
+        assertEquals(2.0, gauge("jcr.item.state.cache.elements"));
+        assertEquals(150.0, gauge("jcr.item.state.cache.size"));
+    }
+
+    /**
+     * Verifies repositories that are not backed by Jackrabbit 2 are skipped without registering meters.
+     */
+    @Test
+    public void testNonJackrabbitRepositoryIgnored() {
+        Repository repository = mock(Repository.class);
+        assertNull(JcrMetrics.unwrap(repository));
+        new JcrMetrics(() -> Map.of("website", repository)).bindTo(_registry);
+        assertTrue(_registry.getMeters().isEmpty());
+    }
+
+    /**
+     * Verifies the binder is selectable through the metric configuration.
+     */
+    @Test
+    public void testMetricEntry() {
+        assertSame(Metric.JCR, Metric.getById("jcr").orElse(null));
+        assertEquals(JcrMetrics.class, Metric.JCR.getMeterBinderClass());
+    }
+
+    private double gauge(String name) {
+        return _registry.get(name).gauge().value();
+    }
+
+    /**
+     * Executor that records the per-second task of the statistics instead of scheduling it.
+     */
+    private static final class ManualExecutor extends ScheduledThreadPoolExecutor {
+
+        private final List<Runnable> _tasks = new ArrayList<>();
+
+        ManualExecutor() {
+            super(1);
+        }
+
+        @Override
+        public ScheduledFuture<?> scheduleAtFixedRate(Runnable command, long initialDelay, long period, TimeUnit unit) {
+            _tasks.add(command);
+            return null;
+        }
+
+        void completeMinute() {
+            for (int second = 0; second < 60; second++) {
+                _tasks.forEach(Runnable::run);
+            }
+        }
+    }
+}
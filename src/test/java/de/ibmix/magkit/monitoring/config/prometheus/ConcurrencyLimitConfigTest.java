@@ -0,0 +1,83 @@
+/*-
+ * #%L
+ * IBM iX Magnolia Monitoring
+ * %%
+ * Copyright (C) 2023 - 2025 IBM iX
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package de.ibmix.magkit.monitoring.config.prometheus;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for {@link ConcurrencyLimitConfig} covering defaults, the default exemption pattern and property parsing.
+ * @author IBM iX
+ * @since 2026-10-17
+ */
+public class ConcurrencyLimitConfigTest {
+
+    /**
+     * Verifies limiting is disabled by default and the default exemption covers the monitoring endpoints.
+     */
+    @Test
+    public void testDefaults() {
+        ConcurrencyLimitConfig cfg = new ConcurrencyLimitConfig();
+        assertFalse(cfg.isEnabled());
+        assertEquals(ConcurrencyLimitConfig.DEFAULT_INITIAL_LIMIT, cfg.getInitialLimit());
+        assertEquals(ConcurrencyLimitConfig.DEFAULT_MIN_LIMIT, cfg.getMinLimit());
+        assertEquals(ConcurrencyLimitConfig.DEFAULT_MAX_LIMIT, cfg.getMaxLimit());
+        assertEquals(ConcurrencyLimitConfig.DEFAULT_RETRY_AFTER_SECONDS, cfg.getRetryAfterSeconds());
+        String exempt = cfg.getExemptUris().get(0);
+        assertTrue("/.rest/monitoring/v1/health".matches(exempt));
+        assertTrue("/author/.rest/monitoring".matches(exempt));
+        assertFalse("/.rest/delivery/pages".matches(exempt));
+    }
+
+    /**
+     * Verifies property hooks parse booleans, trimmed integers and comma separated exemptions.
+     */
+    @Test
+    public void testProvideFromProps() {
+        ConcurrencyLimitConfig cfg = new ConcurrencyLimitConfig();
+        cfg.provideEnabledFromProps(" true");
+        cfg.provideInitialLimitFromProps("30");
+        cfg.provideMinLimitFromProps("4 ");
+        cfg.provideMaxLimitFromProps("200");
+        cfg.provideRetryAfterFromProps("5");
+        cfg.provideExemptUrisFromProps("/health,/ping");
+        assertTrue(cfg.isEnabled());
+        assertEquals(30, cfg.getInitialLimit());
+        assertEquals(4, cfg.getMinLimit());
+        assertEquals(200, cfg.getMaxLimit());
+        assertEquals(5, cfg.getRetryAfterSeconds());
+        assertEquals(List.of("/health", "/ping"), cfg.getExemptUris());
+    }
+
+    /**
+     * Verifies invalid integers fail with NumberFormatException.
+     */
+    @Test
+    public void testInvalidInteger() {
+        ConcurrencyLimitConfig cfg = new ConcurrencyLimitConfig();
+        assertThrows(NumberFormatException.class, () -> cfg.provideMaxLimitFromProps("many"));
+    }
+}
@@ -0,0 +1,120 @@
+/*-
+ * #%L
+ * IBM iX Magnolia Monitoring
+ * %%
+ * Copyright (C) 2023 - 2025 IBM iX
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package de.ibmix.magkit.monitoring.config.prometheus;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import de.ibmix.magkit.monitoring.endpoint.federation.FederationPeer;
+
+/**
+ * Unit tests for {@link FederationConfig} covering defaults, property parsing, peer parsing and the snapshot values.
+ * @author IBM iX
+ * @since 2026-10-17
+ */
+public class FederationConfigTest {
+
+    /**
+     * Verifies federation has no peers by default and includes the local registry.
+     */
+    @Test
+    public void testDefaults() {
+        FederationConfig cfg = new FederationConfig();
+        assertTrue(cfg.getPeers().isEmpty());
+        assertEquals(FederationConfig.DEFAULT_TIMEOUT_MILLIS, cfg.getTimeoutMillis());
+        assertTrue(cfg.isIncludeLocal());
+        assertNull(cfg.getInstance());
+        assertNull(cfg.getAuthorization());
+    }
+
+    /**
+     * Verifies property hooks split the peer list and trim and parse the remaining values.
+     */
+    @Test
+    public void testProvideFromProps() {
+        FederationConfig cfg = new FederationConfig();
+        cfg.providePeersFromProps(" public1=http://public1:8080, ,http://public2:8080 ");
+        cfg.provideTimeoutFromProps(" 2000");
+        cfg.provideIncludeLocalFromProps("false");
+        cfg.provideInstanceFromProps(" author ");
+        cfg.provideAuthorizationFromProps(" Basic dXNlcjpwdw== ");
+        assertEquals(List.of("public1=http://public1:8080", "http://public2:8080"), cfg.getPeers());
+        assertEquals(2000, cfg.getTimeoutMillis());
+        assertFalse(cfg.isIncludeLocal());
+        assertEquals("author", cfg.getInstance());
+        assertEquals("Basic dXNlcjpwdw==", cfg.getAuthorization());
+        assertThrows(NumberFormatException.class, () -> cfg.provideTimeoutFromProps("soon"));
+    }
+
+    /**
+     * Verifies peer entries are completed with the endpoint path, named like scrape targets and invalid ones skipped.
+     */
+    @Test
+    public void testPeerParsing() {
+        FederationPeer named = FederationPeer.parse("public1=http://public1:8080");
+        assertEquals("public1", named.getInstance());
+        assertEquals("http://public1:8080" + FederationPeer.DEFAULT_PATH, named.getUri().toString());
+
+        FederationPeer full = FederationPeer.parse(" https://public2/custom/metrics?a=b ");
+        assertEquals("public2", full.getInstance());
+        assertEquals("https://public2/custom/metrics?a=b", full.getUri().toString());
+        assertEquals("public3:8080", FederationPeer.parse("http://public3:8080/").getInstance());
+
+        assertNull(FederationPeer.parse("ftp://public4"));
+        assertNull(FederationPeer.parse("public5"));
+        assertNull(FederationPeer.parse("http://bad host"));
+        assertNull(FederationPeer.parse(" "));
+        assertEquals(1, FederationPeer.parseAll(Arrays.asList("public5", null, "http://public6")).size());
+    }
+
+    /**
+     * Verifies the snapshot parses peers, clamps the timeout and turns blank values into null.
+     */
+    @Test
+    public void testSnapshot() {
+        PrometheusConfig config = new PrometheusConfig();
+        PrometheusConfigSnapshot snapshot = PrometheusConfigSnapshot.of(config);
+        assertTrue(snapshot.getFederationPeers().isEmpty());
+        assertTrue(snapshot.isFederationIncludeLocal());
+
+        FederationConfig cfg = new FederationConfig();
+        cfg.setPeers(List.of("a=http://a", "not a url"));
+        cfg.setTimeoutMillis(-1);
+        cfg.setInstance(" ");
+        cfg.setAuthorization("Bearer token");
+        cfg.setIncludeLocal(false);
+        config.setFederationConfig(cfg);
+        snapshot = PrometheusConfigSnapshot.of(config);
+        assertEquals(1, snapshot.getFederationPeers().size());
+        assertEquals("a", snapshot.getFederationPeers().get(0).getInstance());
+        assertEquals(1, snapshot.getFederationTimeoutMillis());
+        assertNull(snapshot.getFederationInstance());
+        assertEquals("Bearer token", snapshot.getFederationAuthorization());
+        assertFalse(snapshot.isFederationIncludeLocal());
+    }
+}
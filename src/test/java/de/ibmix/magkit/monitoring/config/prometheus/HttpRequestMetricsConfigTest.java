@@ -20,6 +20,8 @@
 package de.ibmix.magkit.monitoring.config.prometheus;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.assertThrows;
@@ -117,4 +119,60 @@ public class HttpRequestMetricsConfigTest {
         assertSame(null, cfg.getUris());
         assertSame(null, cfg.getSloBuckets());
     }
+
+    /**
+     * Verifies routes default to empty, can be replaced and are parsed from the comma separated property.
+     */
+    @Test
+    public void testRoutes() {
+        HttpRequestMetricsConfig cfg = new HttpRequestMetricsConfig();
+        assertTrue(cfg.getRoutes().isEmpty());
+        List<String> routes = List.of("/dam/{uuid}/{file}");
+        cfg.setRoutes(routes);
+        assertSame(routes, cfg.getRoutes());
+        cfg.provideRoutesFromProps("/dam/{uuid}/{file},/.resources/{module}/**");
+        assertEquals(List.of("/dam/{uuid}/{file}", "/.resources/{module}/**"), cfg.getRoutes());
+    }
+
+    /**
+     * Verifies exemplars are disabled by default, use the X-Request-Id header and are configured from properties.
+     */
+    @Test
+    public void testExemplars() {
+        HttpRequestMetricsConfig cfg = new HttpRequestMetricsConfig();
+        assertFalse(cfg.isExemplars());
+        assertEquals("X-Request-Id", cfg.getExemplarHeader());
+        assertNull(cfg.getExemplarMdcKey());
+        cfg.provideExemplarsFromProps(" true");
+        cfg.provideExemplarHeaderFromProps("traceparent ");
+        cfg.provideExemplarMdcKeyFromProps("requestId");
+        assertTrue(cfg.isExemplars());
+        assertEquals("traceparent", cfg.getExemplarHeader());
+        assertEquals("requestId", cfg.getExemplarMdcKey());
+    }
+
+    /**
+     * Verifies cache outcome defaults and property injection.
+     */
+    @Test
+    public void testCacheOutcome() {
+        HttpRequestMetricsConfig cfg = new HttpRequestMetricsConfig();
+        assertFalse(cfg.isCacheOutcome());
+        assertNull(cfg.getCacheHeader());
+        cfg.provideCacheOutcomeFromProps(" true ");
+        cfg.provideCacheHeaderFromProps(" X-Cache ");
+        assertTrue(cfg.isCacheOutcome());
+        assertEquals("X-Cache", cfg.getCacheHeader());
+    }
+
+    /**
+     * Verifies queue header defaults and property parsing dropping blank entries.
+     */
+    @Test
+    public void testQueueHeaders() {
+        HttpRequestMetricsConfig cfg = new HttpRequestMetricsConfig();
+        assertEquals(HttpRequestMetricsConfig.DEFAULT_QUEUE_HEADERS, cfg.getQueueHeaders());
+        cfg.provideQueueHeadersFromProps(" X-Request-Start , ,X-Amzn-Start");
+        assertEquals(List.of("X-Request-Start", "X-Amzn-Start"), cfg.getQueueHeaders());
+    }
 }
@@ -0,0 +1,75 @@
+/*-
+ * #%L
+ * IBM iX Magnolia Monitoring
+ * %%
+ * Copyright (C) 2023 - 2025 IBM iX
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package de.ibmix.magkit.monitoring.config.prometheus;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for {@link LatencyHistogramConfig} covering defaults and property parsing.
+ * @author IBM iX
+ * @since 2026-10-17
+ */
+public class LatencyHistogramConfigTest {
+
+    /**
+     * Verifies log-linear buckets are disabled by default and the documented defaults apply.
+     */
+    @Test
+    public void testDefaults() {
+        LatencyHistogramConfig cfg = new LatencyHistogramConfig();
+        assertFalse(cfg.isEnabled());
+        assertEquals(LatencyHistogramConfig.DEFAULT_MIN_MILLIS, cfg.getMinMillis());
+        assertEquals(LatencyHistogramConfig.DEFAULT_MAX_MILLIS, cfg.getMaxMillis());
+        assertEquals(LatencyHistogramConfig.DEFAULT_PRECISION, cfg.getPrecision());
+        assertEquals(LatencyHistogramConfig.DEFAULT_BUCKET_BUDGET, cfg.getBucketBudget());
+    }
+
+    /**
+     * Verifies property hooks parse booleans and trimmed integers.
+     */
+    @Test
+    public void testProvideFromProps() {
+        LatencyHistogramConfig cfg = new LatencyHistogramConfig();
+        cfg.provideEnabledFromProps("TRUE");
+        cfg.provideMinFromProps(" 5");
+        cfg.provideMaxFromProps("30000 ");
+        cfg.providePrecisionFromProps("8");
+        cfg.provideBucketBudgetFromProps("20000");
+        assertTrue(cfg.isEnabled());
+        assertEquals(5, cfg.getMinMillis());
+        assertEquals(30000, cfg.getMaxMillis());
+        assertEquals(8, cfg.getPrecision());
+        assertEquals(20000, cfg.getBucketBudget());
+    }
+
+    /**
+     * Verifies invalid integers fail with NumberFormatException.
+     */
+    @Test
+    public void testInvalidInteger() {
+        LatencyHistogramConfig cfg = new LatencyHistogramConfig();
+        assertThrows(NumberFormatException.class, () -> cfg.providePrecisionFromProps("high"));
+    }
+}
@@ -0,0 +1,106 @@
+/*-
+ * #%L
+ * IBM iX Magnolia Monitoring
+ * %%
+ * Copyright (C) 2023 - 2025 IBM iX
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package de.ibmix.magkit.monitoring.config.prometheus;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for {@link LineProtocolConfig} covering defaults, property parsing and the derived snapshot values.
+ * @author IBM iX
+ * @since 2026-10-17
+ */
+public class LineProtocolConfigTest {
+
+    /**
+     * Verifies line protocol export is disabled by default and the documented defaults apply.
+     */
+    @Test
+    public void testDefaults() {
+        LineProtocolConfig cfg = new LineProtocolConfig();
+        assertNull(cfg.getHost());
+        assertEquals(LineProtocolConfig.DEFAULT_PORT, cfg.getPort());
+        assertEquals("udp", cfg.getProtocol());
+        assertEquals("influx", cfg.getFormat());
+        assertEquals(LineProtocolConfig.DEFAULT_INTERVAL_MILLIS, cfg.getIntervalMillis());
+        assertEquals(LineProtocolConfig.DEFAULT_PACKET_SIZE, cfg.getPacketSize());
+    }
+
+    /**
+     * Verifies property hooks trim strings and parse integers.
+     */
+    @Test
+    public void testProvideFromProps() {
+        LineProtocolConfig cfg = new LineProtocolConfig();
+        cfg.provideHostFromProps(" telegraf ");
+        cfg.providePortFromProps("8094");
+        cfg.provideProtocolFromProps("tcp ");
+        cfg.provideFormatFromProps(" statsd");
+        cfg.provideIntervalFromProps("5000");
+        cfg.providePacketSizeFromProps(" 8932");
+        assertEquals("telegraf", cfg.getHost());
+        assertEquals(8094, cfg.getPort());
+        assertEquals("tcp", cfg.getProtocol());
+        assertEquals("statsd", cfg.getFormat());
+        assertEquals(5000, cfg.getIntervalMillis());
+        assertEquals(8932, cfg.getPacketSize());
+        assertThrows(NumberFormatException.class, () -> cfg.providePortFromProps("statsd"));
+    }
+
+    /**
+     * Verifies the snapshot enables exporting only with a host and clamps port, interval and packet size.
+     */
+    @Test
+    public void testSnapshot() {
+        PrometheusConfig config = new PrometheusConfig();
+        assertFalse(PrometheusConfigSnapshot.of(config).isLineEnabled());
+
+        LineProtocolConfig cfg = new LineProtocolConfig();
+        cfg.setHost("");
+        config.setLineProtocolConfig(cfg);
+        assertFalse(PrometheusConfigSnapshot.of(config).isLineEnabled());
+
+        cfg.setHost("localhost");
+        cfg.setPort(70000);
+        cfg.setProtocol("TCP");
+        cfg.setFormat("StatsD");
+        cfg.setIntervalMillis(0);
+        cfg.setPacketSize(100000);
+        PrometheusConfigSnapshot snapshot = PrometheusConfigSnapshot.of(config);
+        assertTrue(snapshot.isLineEnabled());
+        assertEquals("localhost", snapshot.getLineHost());
+        assertEquals(LineProtocolConfig.DEFAULT_PORT, snapshot.getLinePort());
+        assertTrue(snapshot.isLineTcp());
+        assertTrue(snapshot.isLineStatsd());
+        assertEquals(1000, snapshot.getLineIntervalMillis());
+        assertEquals(65507, snapshot.getLinePacketSize());
+
+        cfg.setProtocol("carrier-pigeon");
+        cfg.setPacketSize(1);
+        snapshot = PrometheusConfigSnapshot.of(config);
+        assertFalse(snapshot.isLineTcp());
+        assertEquals(64, snapshot.getLinePacketSize());
+    }
+}
@@ -0,0 +1,111 @@
+/*-
+ * #%L
+ * IBM iX Magnolia Monitoring
+ * %%
+ * Copyright (C) 2023 - 2025 IBM iX
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package de.ibmix.magkit.monitoring.config.prometheus;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for {@link OtlpConfig} covering defaults, property parsing and the derived snapshot values.
+ * @author IBM iX
+ * @since 2026-10-17
+ */
+public class OtlpConfigTest {
+
+    /**
+     * Verifies OTLP export is disabled by default and the documented defaults apply.
+     */
+    @Test
+    public void testDefaults() {
+        OtlpConfig cfg = new OtlpConfig();
+        assertNull(cfg.getUrl());
+        assertEquals("cumulative", cfg.getTemporality());
+        assertEquals(OtlpConfig.DEFAULT_INTERVAL_MILLIS, cfg.getIntervalMillis());
+        assertEquals(OtlpConfig.DEFAULT_BATCH_SIZE, cfg.getBatchSize());
+        assertEquals(OtlpConfig.DEFAULT_QUEUE_SIZE, cfg.getQueueSize());
+        assertTrue(cfg.getHeaders().isEmpty());
+        assertEquals("magnolia", cfg.getServiceName());
+    }
+
+    /**
+     * Verifies property hooks trim strings, split headers and parse integers.
+     */
+    @Test
+    public void testProvideFromProps() {
+        OtlpConfig cfg = new OtlpConfig();
+        cfg.provideUrlFromProps(" http://collector:4318/v1/metrics ");
+        cfg.provideTemporalityFromProps("delta ");
+        cfg.provideIntervalFromProps("30000");
+        cfg.provideBatchSizeFromProps(" 200");
+        cfg.provideQueueSizeFromProps("4");
+        cfg.provideHeadersFromProps("Authorization=Bearer abc, X-Tenant=shop,");
+        cfg.provideServiceNameFromProps(" author ");
+        assertEquals("http://collector:4318/v1/metrics", cfg.getUrl());
+        assertEquals("delta", cfg.getTemporality());
+        assertEquals(30000, cfg.getIntervalMillis());
+        assertEquals(200, cfg.getBatchSize());
+        assertEquals(4, cfg.getQueueSize());
+        assertEquals(List.of("Authorization=Bearer abc", "X-Tenant=shop"), cfg.getHeaders());
+        assertEquals("author", cfg.getServiceName());
+        assertThrows(NumberFormatException.class, () -> cfg.provideBatchSizeFromProps("many"));
+    }
+
+    /**
+     * Verifies the snapshot enables exporting only with a URL, parses headers and raises values below their minimum.
+     */
+    @Test
+    public void testSnapshot() {
+        PrometheusConfig config = new PrometheusConfig();
+        assertFalse(PrometheusConfigSnapshot.of(config).isOtlpEnabled());
+
+        OtlpConfig cfg = new OtlpConfig();
+        config.setOtlpConfig(cfg);
+        assertFalse(PrometheusConfigSnapshot.of(config).isOtlpEnabled());
+
+        cfg.setUrl("http://collector:4318/v1/metrics");
+        cfg.setTemporality("DELTA");
+        cfg.setIntervalMillis(1);
+        cfg.setBatchSize(0);
+        cfg.setQueueSize(-1);
+        cfg.setHeaders(Arrays.asList("A=1", null, "broken", "=x", "B = 2=3"));
+        cfg.setServiceName(" ");
+        PrometheusConfigSnapshot snapshot = PrometheusConfigSnapshot.of(config);
+        assertTrue(snapshot.isOtlpEnabled());
+        assertEquals("http://collector:4318/v1/metrics", snapshot.getOtlpUrl());
+        assertTrue(snapshot.isOtlpDelta());
+        assertEquals(1000, snapshot.getOtlpIntervalMillis());
+        assertEquals(1, snapshot.getOtlpBatchSize());
+        assertEquals(1, snapshot.getOtlpQueueSize());
+        assertEquals(Map.of("A", "1", "B", "2=3"), snapshot.getOtlpHeaders());
+        assertEquals(OtlpConfig.DEFAULT_SERVICE_NAME, snapshot.getOtlpServiceName());
+
+        cfg.setTemporality("sometimes");
+        assertFalse(PrometheusConfigSnapshot.of(config).isOtlpDelta());
+    }
+}
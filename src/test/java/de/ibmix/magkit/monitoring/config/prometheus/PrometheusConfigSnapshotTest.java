@@ -0,0 +1,255 @@
+/*-
+ * #%L
+ * IBM iX Magnolia Monitoring
+ * %%
+ * Copyright (C) 2023 - 2025 IBM iX
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package de.ibmix.magkit.monitoring.config.prometheus;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for {@link PrometheusConfigSnapshot} covering precompiled lookups, null tolerance and isolation from
+ * later modifications of the source configuration.
+ * @author IBM iX
+ * @since 2026-10-17
+ */
+public class PrometheusConfigSnapshotTest {
+
+    /**
+     * Verifies metric ids, whitelist, route templates and SLO buckets are precompiled from the configuration.
+     */
+    @Test
+    public void testCompiledValues() {
+        HttpRequestMetricsConfig httpConfig = new HttpRequestMetricsConfig();
+        httpConfig.setUris(List.of("/home", "/allowed/.*"));
+        httpConfig.setRoutes(List.of("/dam/{uuid}/**"));
+        httpConfig.setSloBuckets(List.of(5, 100));
+        PrometheusConfig config = new PrometheusConfig();
+        config.setMetrics(List.of("HTTP", "Jvm", "httpBytes", "HttpResources", "HttpFilters"));
+        config.setHttpRequestMetricsConfig(httpConfig);
+
+        PrometheusConfigSnapshot snapshot = PrometheusConfigSnapshot.of(config);
+        assertTrue(snapshot.isFor(config));
+        assertFalse(snapshot.isFor(new PrometheusConfig()));
+        assertTrue(snapshot.isHttpEnabled());
+        assertTrue(snapshot.isHttpBytesEnabled());
+        assertTrue(snapshot.isHttpResourcesEnabled());
+        assertTrue(snapshot.isHttpFiltersEnabled());
+        assertFalse(snapshot.isHttpQueueEnabled());
+        assertTrue(snapshot.getQueueHeaders().isEmpty());
+        assertTrue(snapshot.isMetricEnabled("jvm"));
+        assertFalse(snapshot.isMetricEnabled("Cpu"));
+        assertFalse(snapshot.isMetricEnabled(null));
+        assertTrue(snapshot.getWhitelist().matches("/allowed/page"));
+        assertEquals("/dam/{uuid}/**", snapshot.getRouteNormalizer().normalize("/dam/42/a/b.png"));
+        assertEquals(List.of(5, 100), snapshot.getSloBuckets());
+        assertTrue(snapshot.hasSloBuckets());
+        assertArrayEquals(new double[] {5_000_000d, 100_000_000d}, snapshot.getSloBucketsNanos());
+    }
+
+    /**
+     * Verifies null configuration, missing HTTP config and null list elements are treated as empty.
+     */
+    @Test
+    public void testNullHandling() {
+        PrometheusConfigSnapshot empty = PrometheusConfigSnapshot.of(null);
+        assertTrue(empty.isFor(null));
+        assertTrue(empty.getMetricIds().isEmpty());
+        assertFalse(empty.isHttpEnabled());
+        assertFalse(empty.isHttpBytesEnabled());
+        assertFalse(empty.isHttpResourcesEnabled());
+        assertFalse(empty.hasSloBuckets());
+        assertFalse(empty.getWhitelist().matches("/any"));
+        assertFalse(empty.getRouteNormalizer().hasTemplates());
+        assertEquals(PrometheusConfig.DEFAULT_MAX_SERIES_PER_METER, empty.getMaxSeriesPerMeter());
+        assertEquals(0, empty.getScrapeCacheTtlNanos());
+
+        PrometheusConfig config = new PrometheusConfig();
+        config.setMetrics(Arrays.asList("http", null));
+        config.setHttpRequestMetricsConfig(null);
+        PrometheusConfigSnapshot snapshot = PrometheusConfigSnapshot.of(config);
+        assertEquals(List.of("http"), snapshot.getMetricIds());
+        assertTrue(snapshot.getSloBuckets().isEmpty());
+
+        config.setMetrics(List.of("HttpQueue"));
+        assertEquals(HttpRequestMetricsConfig.DEFAULT_QUEUE_HEADERS, PrometheusConfigSnapshot.of(config).getQueueHeaders());
+
+        config.setMaxSeriesPerMeter(-1);
+        assertEquals(0, PrometheusConfigSnapshot.of(config).getMaxSeriesPerMeter());
+
+        config.setScrapeCacheTtlMillis(-5);
+        assertEquals(0, PrometheusConfigSnapshot.of(config).getScrapeCacheTtlNanos());
+        config.setScrapeCacheTtlMillis(250);
+        assertEquals(250_000_000L, PrometheusConfigSnapshot.of(config).getScrapeCacheTtlNanos());
+    }
+
+    /**
+     * Verifies the snapshot does not observe later in-place changes and does not expose mutable state.
+     */
+    @Test
+    public void testImmutability() {
+        List<String> metrics = new ArrayList<>(List.of("jvm"));
+        PrometheusConfig config = new PrometheusConfig();
+        config.setMetrics(metrics);
+        HttpRequestMetricsConfig httpConfig = new HttpRequestMetricsConfig();
+        httpConfig.setSloBuckets(List.of(10));
+        config.setHttpRequestMetricsConfig(httpConfig);
+        PrometheusConfigSnapshot snapshot = PrometheusConfigSnapshot.of(config);
+        metrics.add("http");
+        assertFalse(snapshot.isHttpEnabled());
+        snapshot.getSloBucketsNanos()[0] = 0;
+        assertEquals(10_000_000d, snapshot.getSloBucketsNanos()[0]);
+    }
+
+    /**
+     * Verifies concurrency limiter settings are copied and inconsistent bounds are corrected.
+     */
+    @Test
+    public void testConcurrencyLimitSettings() {
+        assertFalse(PrometheusConfigSnapshot.of(new PrometheusConfig()).isConcurrencyLimitEnabled());
+        ConcurrencyLimitConfig limitConfig = new ConcurrencyLimitConfig();
+        limitConfig.setEnabled(true);
+        limitConfig.setMinLimit(0);
+        limitConfig.setMaxLimit(-5);
+        limitConfig.setInitialLimit(50);
+        limitConfig.setRetryAfterSeconds(-1);
+        limitConfig.setExemptUris(List.of("/health"));
+        PrometheusConfig config = new PrometheusConfig();
+        config.setConcurrencyLimitConfig(limitConfig);
+        PrometheusConfigSnapshot snapshot = PrometheusConfigSnapshot.of(config);
+        assertTrue(snapshot.isConcurrencyLimitEnabled());
+        assertEquals(1, snapshot.getConcurrencyLimitMin());
+        assertEquals(1, snapshot.getConcurrencyLimitMax());
+        assertEquals(1, snapshot.getConcurrencyLimitInitial());
+        assertEquals(0, snapshot.getRetryAfterSeconds());
+        assertTrue(snapshot.getConcurrencyLimitExemptions().matches("/health"));
+    }
+
+    /**
+     * Verifies slow request sampler settings are copied and out-of-range values are raised to their minimum.
+     */
+    @Test
+    public void testSlowRequestSamplerSettings() {
+        PrometheusConfigSnapshot defaults = PrometheusConfigSnapshot.of(new PrometheusConfig());
+        assertFalse(defaults.isSlowRequestSamplingEnabled());
+        assertEquals(SlowRequestSamplerConfig.DEFAULT_RETAINED, defaults.getSlowRequestsRetained());
+        SlowRequestSamplerConfig samplerConfig = new SlowRequestSamplerConfig();
+        samplerConfig.setEnabled(true);
+        samplerConfig.setThresholdMillis(-1);
+        samplerConfig.setIntervalMillis(0);
+        samplerConfig.setRetained(0);
+        samplerConfig.setMaxDepth(32);
+        PrometheusConfig config = new PrometheusConfig();
+        config.setSlowRequestSamplerConfig(samplerConfig);
+        PrometheusConfigSnapshot snapshot = PrometheusConfigSnapshot.of(config);
+        assertTrue(snapshot.isSlowRequestSamplingEnabled());
+        assertEquals(0, snapshot.getSlowRequestThresholdNanos());
+        assertEquals(1, snapshot.getSlowRequestIntervalMillis());
+        assertEquals(1, snapshot.getSlowRequestsRetained());
+        assertEquals(32, snapshot.getSlowRequestMaxDepth());
+    }
+
+    /**
+     * Verifies exemplars are only enabled with HTTP metrics, SLO buckets and at least one request id source.
+     */
+    @Test
+    public void testExemplarSettings() {
+        HttpRequestMetricsConfig httpConfig = new HttpRequestMetricsConfig();
+        httpConfig.setExemplars(true);
+        PrometheusConfig config = new PrometheusConfig();
+        config.setMetrics(List.of("http"));
+        config.setHttpRequestMetricsConfig(httpConfig);
+        assertFalse(PrometheusConfigSnapshot.of(config).isExemplarsEnabled());
+
+        httpConfig.setSloBuckets(List.of(100));
+        PrometheusConfigSnapshot snapshot = PrometheusConfigSnapshot.of(config);
+        assertTrue(snapshot.isExemplarsEnabled());
+        assertEquals(HttpRequestMetricsConfig.DEFAULT_EXEMPLAR_HEADER, snapshot.getExemplarHeader());
+        assertNull(snapshot.getExemplarMdcKey());
+
+        httpConfig.setExemplarHeader(" ");
+        assertFalse(PrometheusConfigSnapshot.of(config).isExemplarsEnabled());
+        httpConfig.setExemplarMdcKey("traceId");
+        assertTrue(PrometheusConfigSnapshot.of(config).isExemplarsEnabled());
+        assertNull(PrometheusConfigSnapshot.of(config).getExemplarHeader());
+    }
+
+    /**
+     * Verifies the cache outcome tag requires HTTP metrics and blank headers are dropped.
+     */
+    @Test
+    public void testCacheOutcomeSettings() {
+        HttpRequestMetricsConfig httpConfig = new HttpRequestMetricsConfig();
+        httpConfig.setCacheOutcome(true);
+        httpConfig.setCacheHeader(" ");
+        PrometheusConfig config = new PrometheusConfig();
+        config.setMetrics(List.of("jvm"));
+        config.setHttpRequestMetricsConfig(httpConfig);
+        assertFalse(PrometheusConfigSnapshot.of(config).isCacheOutcomeEnabled());
+
+        config.setMetrics(List.of("http"));
+        PrometheusConfigSnapshot snapshot = PrometheusConfigSnapshot.of(config);
+        assertTrue(snapshot.isCacheOutcomeEnabled());
+        assertNull(snapshot.getCacheHeader());
+    }
+
+    /**
+     * Verifies log-linear buckets split every doubling into equally wide buckets, include the SLO boundaries and are
+     * sanitized when the bounds are inconsistent.
+     */
+    @Test
+    public void testLatencyHistogramBuckets() {
+        HttpRequestMetricsConfig httpConfig = new HttpRequestMetricsConfig();
+        httpConfig.setSloBuckets(List.of(3));
+        LatencyHistogramConfig histogramConfig = new LatencyHistogramConfig();
+        histogramConfig.setMinMillis(2);
+        histogramConfig.setMaxMillis(8);
+        histogramConfig.setPrecision(2);
+        PrometheusConfig config = new PrometheusConfig();
+        config.setHttpRequestMetricsConfig(httpConfig);
+        config.setLatencyHistogramConfig(histogramConfig);
+        PrometheusConfigSnapshot disabled = PrometheusConfigSnapshot.of(config);
+        assertFalse(disabled.isLatencyHistogramEnabled());
+        assertArrayEquals(new double[] {3_000_000d}, disabled.getRequestBucketsNanos());
+        assertEquals(LatencyHistogramConfig.DEFAULT_BUCKET_BUDGET, disabled.getHistogramBucketBudget());
+
+        histogramConfig.setEnabled(true);
+        PrometheusConfigSnapshot snapshot = PrometheusConfigSnapshot.of(config);
+        assertTrue(snapshot.isLatencyHistogramEnabled());
+        assertArrayEquals(new double[] {2_000_000d, 3_000_000d, 4_000_000d, 6_000_000d, 8_000_000d}, snapshot.getRequestBucketsNanos());
+        assertEquals(5, snapshot.getRequestBucketCount());
+
+        histogramConfig.setMinMillis(0);
+        histogramConfig.setMaxMillis(-1);
+        histogramConfig.setPrecision(0);
+        histogramConfig.setBucketBudget(-1);
+        httpConfig.setSloBuckets(List.of());
+        PrometheusConfigSnapshot sanitized = PrometheusConfigSnapshot.of(config);
+        assertArrayEquals(new double[] {1_000_000d}, sanitized.getRequestBucketsNanos());
+        assertEquals(0, sanitized.getHistogramBucketBudget());
+    }
+}
@@ -100,4 +100,26 @@ public class PrometheusConfigTest {
         prometheusConfig.setMetrics(null);
         assertSame(null, prometheusConfig.getMetrics());
     }
+
+    /**
+     * Verifies the maximum series per meter default and property injection.
+     */
+    @Test
+    public void testMaxSeriesPerMeter() {
+        PrometheusConfig prometheusConfig = new PrometheusConfig();
+        assertEquals(PrometheusConfig.DEFAULT_MAX_SERIES_PER_METER, prometheusConfig.getMaxSeriesPerMeter());
+        prometheusConfig.provideMaxSeriesPerMeterFromProps(" 500 ");
+        assertEquals(500, prometheusConfig.getMaxSeriesPerMeter());
+    }
+
+    /**
+     * Verifies the scrape cache is disabled by default and its TTL is injected from properties.
+     */
+    @Test
+    public void testScrapeCacheTtl() {
+        PrometheusConfig prometheusConfig = new PrometheusConfig();
+        assertEquals(0, prometheusConfig.getScrapeCacheTtlMillis());
+        prometheusConfig.provideScrapeCacheTtlFromProps(" 1000 ");
+        assertEquals(1000, prometheusConfig.getScrapeCacheTtlMillis());
+    }
 }
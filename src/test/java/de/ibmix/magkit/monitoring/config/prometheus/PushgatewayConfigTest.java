@@ -0,0 +1,93 @@
+/*-
+ * #%L
+ * IBM iX Magnolia Monitoring
+ * %%
+ * Copyright (C) 2023 - 2025 IBM iX
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package de.ibmix.magkit.monitoring.config.prometheus;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for {@link PushgatewayConfig} covering defaults, property parsing and the derived snapshot values.
+ * @author IBM iX
+ * @since 2026-10-17
+ */
+public class PushgatewayConfigTest {
+
+    /**
+     * Verifies pushing is disabled by default and the documented defaults apply.
+     */
+    @Test
+    public void testDefaults() {
+        PushgatewayConfig cfg = new PushgatewayConfig();
+        assertNull(cfg.getUrl());
+        assertNull(cfg.getInstance());
+        assertEquals(PushgatewayConfig.DEFAULT_JOB, cfg.getJob());
+        assertEquals(PushgatewayConfig.DEFAULT_INTERVAL_MILLIS, cfg.getIntervalMillis());
+        assertTrue(cfg.isGzip());
+    }
+
+    /**
+     * Verifies property hooks trim strings and parse integers and booleans.
+     */
+    @Test
+    public void testProvideFromProps() {
+        PushgatewayConfig cfg = new PushgatewayConfig();
+        cfg.provideUrlFromProps(" http://gateway:9091 ");
+        cfg.provideJobFromProps("author ");
+        cfg.provideInstanceFromProps(" node-1");
+        cfg.provideIntervalFromProps("30000");
+        cfg.provideGzipFromProps("false");
+        assertEquals("http://gateway:9091", cfg.getUrl());
+        assertEquals("author", cfg.getJob());
+        assertEquals("node-1", cfg.getInstance());
+        assertEquals(30000, cfg.getIntervalMillis());
+        assertFalse(cfg.isGzip());
+        assertThrows(NumberFormatException.class, () -> cfg.provideIntervalFromProps("often"));
+    }
+
+    /**
+     * Verifies the snapshot enables pushing only with a URL and raises values below their minimum.
+     */
+    @Test
+    public void testSnapshot() {
+        PrometheusConfig config = new PrometheusConfig();
+        assertFalse(PrometheusConfigSnapshot.of(config).isPushEnabled());
+
+        PushgatewayConfig cfg = new PushgatewayConfig();
+        cfg.setUrl(" ");
+        config.setPushgatewayConfig(cfg);
+        assertFalse(PrometheusConfigSnapshot.of(config).isPushEnabled());
+
+        cfg.setUrl("http://gateway:9091");
+        cfg.setJob("");
+        cfg.setIntervalMillis(10);
+        PrometheusConfigSnapshot snapshot = PrometheusConfigSnapshot.of(config);
+        assertTrue(snapshot.isPushEnabled());
+        assertEquals("http://gateway:9091", snapshot.getPushUrl());
+        assertEquals(PushgatewayConfig.DEFAULT_JOB, snapshot.getPushJob());
+        assertNull(snapshot.getPushInstance());
+        assertEquals(1000, snapshot.getPushIntervalMillis());
+        assertTrue(snapshot.isPushGzip());
+    }
+}
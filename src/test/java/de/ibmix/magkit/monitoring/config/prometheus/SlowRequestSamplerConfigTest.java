@@ -0,0 +1,75 @@
+/*-
+ * #%L
+ * IBM iX Magnolia Monitoring
+ * %%
+ * Copyright (C) 2023 - 2025 IBM iX
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package de.ibmix.magkit.monitoring.config.prometheus;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for {@link SlowRequestSamplerConfig} covering defaults and property parsing.
+ * @author IBM iX
+ * @since 2026-10-17
+ */
+public class SlowRequestSamplerConfigTest {
+
+    /**
+     * Verifies sampling is disabled by default and the documented defaults apply.
+     */
+    @Test
+    public void testDefaults() {
+        SlowRequestSamplerConfig cfg = new SlowRequestSamplerConfig();
+        assertFalse(cfg.isEnabled());
+        assertEquals(SlowRequestSamplerConfig.DEFAULT_THRESHOLD_MILLIS, cfg.getThresholdMillis());
+        assertEquals(SlowRequestSamplerConfig.DEFAULT_INTERVAL_MILLIS, cfg.getIntervalMillis());
+        assertEquals(SlowRequestSamplerConfig.DEFAULT_RETAINED, cfg.getRetained());
+        assertEquals(SlowRequestSamplerConfig.DEFAULT_MAX_DEPTH, cfg.getMaxDepth());
+    }
+
+    /**
+     * Verifies property hooks parse booleans and trimmed integers.
+     */
+    @Test
+    public void testProvideFromProps() {
+        SlowRequestSamplerConfig cfg = new SlowRequestSamplerConfig();
+        cfg.provideEnabledFromProps("true ");
+        cfg.provideThresholdFromProps(" 2500");
+        cfg.provideIntervalFromProps("50");
+        cfg.provideRetainedFromProps("5");
+        cfg.provideMaxDepthFromProps("16");
+        assertTrue(cfg.isEnabled());
+        assertEquals(2500, cfg.getThresholdMillis());
+        assertEquals(50, cfg.getIntervalMillis());
+        assertEquals(5, cfg.getRetained());
+        assertEquals(16, cfg.getMaxDepth());
+    }
+
+    /**
+     * Verifies invalid integers fail with NumberFormatException.
+     */
+    @Test
+    public void testInvalidInteger() {
+        SlowRequestSamplerConfig cfg = new SlowRequestSamplerConfig();
+        assertThrows(NumberFormatException.class, () -> cfg.provideThresholdFromProps("slow"));
+    }
+}
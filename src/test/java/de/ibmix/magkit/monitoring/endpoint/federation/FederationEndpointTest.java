@@ -0,0 +1,301 @@
+/*-
+ * #%L
+ * IBM iX Magnolia Monitoring
+ * %%
+ * Copyright (C) 2023 - 2025 IBM iX
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package de.ibmix.magkit.monitoring.endpoint.federation;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.StringReader;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.core.StreamingOutput;
+
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.prometheusmetrics.PrometheusConfig;
+import io.micrometer.prometheusmetrics.PrometheusMeterRegistry;
+import io.prometheus.metrics.expositionformats.PrometheusTextFormatWriter;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import de.ibmix.magkit.monitoring.MonitoringModule;
+import de.ibmix.magkit.monitoring.config.prometheus.FederationConfig;
+import de.ibmix.magkit.monitoring.config.prometheus.PrometheusConfigSnapshot;
+import de.ibmix.magkit.monitoring.endpoint.MonitoringEndpointDefinition;
+
+/**
+ * Unit tests for {@link FederationEndpoint} with local stub servers as peers: merged families, instance labels,
+ * partial results for failing and slow peers, and the line level helpers.
+ * @author IBM iX
+ * @since 2026-10-17
+ */
+public class FederationEndpointTest {
+
+    private HttpServer _server;
+    private ExecutorService _executor;
+    private final Map<String, String> _authorizations = new ConcurrentHashMap<>();
+    private final PrometheusMeterRegistry _local = new PrometheusMeterRegistry(PrometheusConfig.DEFAULT);
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        _executor = Executors.newCachedThreadPool();
+        _server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        _server.setExecutor(_executor);
+        servePeer("public1", 2, 5);
+        servePeer("public2", 3, 7);
+        _server.createContext("/down", exchange -> {
+            exchange.sendResponseHeaders(503, -1);
+            exchange.close();
+        });
+        _server.createContext("/slow", exchange -> {
+            try {
+                Thread.sleep(2000);
+                exchange.sendResponseHeaders(200, -1);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                exchange.close();
+            }
+        });
+        _server.createContext("/trickle", exchange -> {
+            exchange.sendResponseHeaders(200, 0);
+            try (OutputStream out = exchange.getResponseBody()) {
+                for (int i = 0; i < 10; i++) {
+                    out.write(("# TYPE family_" + i + " gauge\nfamily_" + i + " 1.0\n").getBytes(StandardCharsets.UTF_8));
+                    out.flush();
+                    Thread.sleep(200);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (IOException e) {
+                // the federation endpoint closed the connection
+            } finally {
+                exchange.close();
+            }
+        });
+        _server.start();
+        _local.counter("orders").increment();
+        _local.gauge("local.only", 1);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        _server.stop(0);
+        _executor.shutdownNow();
+    }
+
+    /**
+     * Verifies the families of all sources are merged with metadata written once, samples grouped per family and
+     * labelled with their instance, and that peer credentials and gzip are used.
+     * @throws IOException on stream errors
+     */
+    @Test
+    public void testMergesPeers() throws IOException {
+        String output = new String(write(endpoint(config(List.of("public1=" + url("/public1"), "public2=" + url("/public2")))).federate(null)),
+            StandardCharsets.UTF_8);
+
+        assertEquals(1, count(output, "# TYPE orders_total counter"));
+        assertEquals(1, count(output, "# HELP queue_size "));
+        int local = output.indexOf("orders_total{instance=\"author\"} 1.0\n");
+        int public1 = output.indexOf("orders_total{instance=\"public1\"} 2.0\n");
+        int public2 = output.indexOf("orders_total{instance=\"public2\"} 3.0\n");
+        assertTrue(local > output.indexOf("# TYPE orders_total counter") && public1 > local && public2 > public1, output);
+        assertTrue(output.indexOf("# TYPE queue_size gauge") > public2, output);
+        assertTrue(output.contains("queue_size{instance=\"public2\",queue=\"mail\"} 7.0\n"), output);
+        assertTrue(output.contains("local_only{instance=\"author\"} 1.0\n"), output);
+        assertTrue(output.endsWith("federation_peer_up{instance=\"public1\"} 1\nfederation_peer_up{instance=\"public2\"} 1\n"), output);
+        assertEquals("Basic dXNlcjpwdw==", _authorizations.get("public1"));
+    }
+
+    /**
+     * Verifies failing, unreachable and slow peers are reported down while the remaining sources are still merged.
+     * @throws IOException on stream errors
+     */
+    @Test
+    public void testPartialResults() throws IOException {
+        Response response = endpoint(config(List.of("public1=" + url("/public1"), "down=" + url("/down"), "slow=" + url("/slow"),
+            "refused=http://127.0.0.1:1/"))).federate(null);
+        long start = System.nanoTime();
+        String output = new String(write(response), StandardCharsets.UTF_8);
+
+        assertTrue(System.nanoTime() - start < 1_900_000_000L, "slow peer must be cut off by its timeout");
+        assertTrue(output.contains("orders_total{instance=\"public1\"} 2.0\n"), output);
+        assertTrue(output.contains("orders_total{instance=\"author\"} 1.0\n"), output);
+        assertTrue(output.contains("federation_peer_up{instance=\"public1\"} 1\n"), output);
+        assertTrue(output.contains("federation_peer_up{instance=\"down\"} 0\n"), output);
+        assertTrue(output.contains("federation_peer_up{instance=\"slow\"} 0\n"), output);
+        assertTrue(output.contains("federation_peer_up{instance=\"refused\"} 0\n"), output);
+    }
+
+    /**
+     * Verifies a peer sending each family within the timeout is still cut off when its complete exposition takes longer
+     * than the timeout.
+     * @throws IOException on stream errors
+     */
+    @Test
+    public void testTricklingPeerBoundedByTotalTimeout() throws IOException {
+        Response response = endpoint(config(List.of("public1=" + url("/public1"), "trickle=" + url("/trickle")))).federate(null);
+        long start = System.nanoTime();
+        String output = new String(write(response), StandardCharsets.UTF_8);
+
+        assertTrue(System.nanoTime() - start < 1_000_000_000L, "trickling peer must be cut off by its total timeout");
+        assertTrue(output.contains("family_0{instance=\"trickle\"} 1.0\n"), output);
+        assertEquals(0, count(output, "family_9"));
+        assertTrue(output.contains("orders_total{instance=\"public1\"} 2.0\n"), output);
+        assertTrue(output.contains("federation_peer_up{instance=\"trickle\"} 0\n"), output);
+    }
+
+    /**
+     * Verifies the merged output is gzip compressed when accepted and the local registry can be left out.
+     * @throws IOException on stream errors
+     */
+    @Test
+    public void testGzipWithoutLocal() throws IOException {
+        FederationConfig cfg = new FederationConfig();
+        cfg.setPeers(List.of("public1=" + url("/public1")));
+        cfg.setIncludeLocal(false);
+        Response response = endpoint(cfg).federate("gzip");
+        assertEquals("gzip", response.getHeaderString(HttpHeaders.CONTENT_ENCODING));
+        assertEquals(PrometheusTextFormatWriter.CONTENT_TYPE, response.getHeaderString(HttpHeaders.CONTENT_TYPE));
+        String output;
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(write(response)))) {
+            output = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+        assertTrue(output.contains("orders_total{instance=\"public1\"} 2.0\n"), output);
+        assertEquals(0, count(output, "instance=\"author\""));
+    }
+
+    /**
+     * Verifies the instance label is added in front of existing labels and an existing instance label is renamed.
+     */
+    @Test
+    public void testWithInstance() {
+        String label = "instance=\"a\"";
+        assertEquals("up{instance=\"a\"} 1", FederationEndpoint.withInstance("up 1", label));
+        assertEquals("up{instance=\"a\"} 1 1700000000", FederationEndpoint.withInstance("up{} 1 1700000000", label));
+        assertEquals("up{instance=\"a\",job=\"x\"} 1", FederationEndpoint.withInstance("up{job=\"x\"} 1", label));
+        assertEquals("up{instance=\"a\",exported_instance=\"b\"} 1", FederationEndpoint.withInstance("up{instance=\"b\"} 1", label));
+        assertEquals("up{instance=\"a\",job=\"x\",exported_instance=\"b\"} 1", FederationEndpoint.withInstance("up{job=\"x\",instance=\"b\"} 1", label));
+        assertEquals("up{instance=\"a\",instance_type=\"m5\"} 1", FederationEndpoint.withInstance("up{instance_type=\"m5\"} 1", label));
+    }
+
+    /**
+     * Verifies the reader splits families at metadata lines, groups untyped samples by name and orders counters by
+     * their base name.
+     * @throws IOException on read errors
+     */
+    @Test
+    public void testMetricFamilyReader() throws IOException {
+        MetricFamilyReader reader = new MetricFamilyReader(new BufferedReader(new StringReader(
+            "# HELP a_total Counts.\n# TYPE a_total counter\na_total{x=\"1\"} 1.0\na_total{x=\"2\"} 2.0\n\n"
+                + "# TYPE h histogram\nh_bucket{le=\"+Inf\"} 1\nh_count 1\nh_sum 0.5\n"
+                + "# some comment\nu 1\nu{y=\"z\"} 2\nv 3\n")));
+        MetricFamilyReader.MetricFamily counter = reader.next();
+        assertEquals("a_total", counter.getName());
+        assertEquals("a", counter.getSortKey());
+        assertEquals(2, counter.getMetadata().size());
+        assertEquals(2, counter.getSamples().size());
+        MetricFamilyReader.MetricFamily histogram = reader.next();
+        assertEquals("h", histogram.getSortKey());
+        assertEquals(3, histogram.getSamples().size());
+        MetricFamilyReader.MetricFamily untyped = reader.next();
+        assertEquals("u", untyped.getName());
+        assertTrue(untyped.getMetadata().isEmpty());
+        assertEquals(2, untyped.getSamples().size());
+        assertEquals("v", reader.next().getName());
+        assertNull(reader.next());
+    }
+
+    private void servePeer(String name, double orders, double queue) {
+        PrometheusMeterRegistry registry = new PrometheusMeterRegistry(PrometheusConfig.DEFAULT);
+        registry.counter("orders").increment(orders);
+        registry.gauge("queue.size", Tags.of("queue", "mail"), queue);
+        _server.createContext("/" + name, exchange -> {
+            String authorization = exchange.getRequestHeaders().getFirst(HttpHeaders.AUTHORIZATION);
+            if (authorization != null) {
+                _authorizations.put(name, authorization);
+            }
+            byte[] body = registry.scrape().getBytes(StandardCharsets.UTF_8);
+            boolean gzip = "gzip".equals(exchange.getRequestHeaders().getFirst(HttpHeaders.ACCEPT_ENCODING));
+            if (gzip) {
+                exchange.getResponseHeaders().add(HttpHeaders.CONTENT_ENCODING, "gzip");
+            }
+            exchange.sendResponseHeaders(200, 0);
+            try (OutputStream out = gzip ? new GZIPOutputStream(exchange.getResponseBody()) : exchange.getResponseBody()) {
+                out.write(body);
+            }
+            exchange.close();
+        });
+    }
+
+    private String url(String path) {
+        return "http://127.0.0.1:" + _server.getAddress().getPort() + path;
+    }
+
+    private FederationConfig config(List<String> peers) {
+        FederationConfig cfg = new FederationConfig();
+        cfg.setPeers(peers);
+        cfg.setTimeoutMillis(500);
+        cfg.setInstance("author");
+        cfg.setAuthorization("Basic dXNlcjpwdw==");
+        return cfg;
+    }
+
+    private FederationEndpoint endpoint(FederationConfig cfg) {
+        de.ibmix.magkit.monitoring.config.prometheus.PrometheusConfig config = new de.ibmix.magkit.monitoring.config.prometheus.PrometheusConfig();
+        config.setFederationConfig(cfg);
+        MonitoringModule module = mock(MonitoringModule.class);
+        when(module.getConfigSnapshot()).thenReturn(PrometheusConfigSnapshot.of(config));
+        return new FederationEndpoint(mock(MonitoringEndpointDefinition.class), _local, module);
+    }
+
+    private static byte[] write(Response response) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ((StreamingOutput) response.getEntity()).write(out);
+        return out.toByteArray();
+    }
+
+    private static int count(String text, String part) {
+        int count = 0;
+        for (int i = text.indexOf(part); i >= 0; i = text.indexOf(part, i + 1)) {
+            count++;
+        }
+        return count;
+    }
+}
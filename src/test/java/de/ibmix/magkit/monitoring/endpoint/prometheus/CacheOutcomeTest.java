@@ -0,0 +1,86 @@
+/*-
+ * #%L
+ * IBM iX Magnolia Monitoring
+ * %%
+ * Copyright (C) 2023 - 2025 IBM iX
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package de.ibmix.magkit.monitoring.endpoint.prometheus;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for {@link CacheOutcome} covering header and cache policy result resolution.
+ * @author IBM iX
+ * @since 2026-10-17
+ */
+public class CacheOutcomeTest {
+
+    /**
+     * Verifies header values and policy behaviours map to the bounded set of outcomes.
+     */
+    @Test
+    public void testParse() {
+        assertEquals(CacheOutcome.HIT, CacheOutcome.parse("HIT from edge"));
+        assertEquals(CacheOutcome.HIT, CacheOutcome.parse("useCache"));
+        assertEquals(CacheOutcome.MISS, CacheOutcome.parse("store"));
+        assertEquals(CacheOutcome.MISS, CacheOutcome.parse("MISS"));
+        assertEquals(CacheOutcome.BYPASS, CacheOutcome.parse("bypass"));
+        assertEquals(CacheOutcome.BLOCKED, CacheOutcome.parse("WAITED"));
+        assertEquals(CacheOutcome.NONE, CacheOutcome.parse("stale"));
+        assertEquals(CacheOutcome.NONE, CacheOutcome.parse(null));
+    }
+
+    /**
+     * Verifies the header takes precedence and the cache policy result behaviour is read reflectively.
+     */
+    @Test
+    public void testResolve() {
+        HttpServletRequest request = mock(HttpServletRequest.class);
+        HttpServletResponse response = mock(HttpServletResponse.class);
+        assertEquals(CacheOutcome.NONE, CacheOutcome.resolve(request, response, "X-Cache"));
+        assertEquals(CacheOutcome.NONE, CacheOutcome.resolve(null, null, null));
+
+        when(request.getAttribute(CacheOutcome.CACHE_POLICY_RESULT_ATTRIBUTE)).thenReturn(new PolicyResult("useCache"));
+        assertEquals(CacheOutcome.HIT, CacheOutcome.resolve(request, response, null));
+        when(response.getHeader("X-Cache")).thenReturn("bypass");
+        assertEquals(CacheOutcome.BYPASS, CacheOutcome.resolve(request, response, "X-Cache"));
+        when(request.getAttribute(CacheOutcome.CACHE_POLICY_RESULT_ATTRIBUTE)).thenReturn(new PolicyResult(null));
+        assertEquals(CacheOutcome.NONE, CacheOutcome.resolve(request, response, null));
+    }
+
+    /**
+     * Stand-in for the Magnolia cache policy result.
+     */
+    public static final class PolicyResult {
+
+        private final String _behaviour;
+
+        PolicyResult(String behaviour) {
+            _behaviour = behaviour;
+        }
+
+        public String getBehaviour() {
+            return _behaviour;
+        }
+    }
+}
@@ -0,0 +1,133 @@
+/*-
+ * #%L
+ * IBM iX Magnolia Monitoring
+ * %%
+ * Copyright (C) 2023 - 2025 IBM iX
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package de.ibmix.magkit.monitoring.endpoint.prometheus;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.Meter.Id;
+import io.micrometer.core.instrument.Tags;
+import io.prometheus.metrics.model.snapshots.CounterSnapshot;
+import io.prometheus.metrics.model.snapshots.GaugeSnapshot;
+import io.prometheus.metrics.model.snapshots.MetricSnapshots;
+
+/**
+ * Unit tests for {@link CardinalityLimitingMeterFilter} covering admission up to the maximum, overflow folding,
+ * released slots, disabled limits and the self-metrics.
+ * @author IBM iX
+ * @since 2026-10-17
+ */
+public class CardinalityLimitingMeterFilterTest {
+
+    /**
+     * Verifies known combinations stay admitted while new ones beyond the maximum fold into the overflow series.
+     */
+    @Test
+    public void testOverflowFolding() {
+        CardinalityLimitingMeterFilter filter = new CardinalityLimitingMeterFilter(() -> 2);
+        Id first = id("requests", "uri", "/a", "status", "200");
+        Id second = id("requests", "uri", "/b", "status", "200");
+        Id third = id("requests", "uri", "/c", "status", "500");
+        assertSame(first, filter.map(first));
+        assertSame(second, filter.map(second));
+        Id overflow = filter.map(third);
+        assertEquals(CardinalityLimitingMeterFilter.OVERFLOW_TAG_VALUE, overflow.getTag("uri"));
+        assertEquals(CardinalityLimitingMeterFilter.OVERFLOW_TAG_VALUE, overflow.getTag("status"));
+        assertSame(first, filter.map(first));
+        assertEquals(2, filter.getSeries("requests"));
+        assertEquals(1, filter.getDropped("requests"));
+    }
+
+    /**
+     * Verifies releasing an admitted combination frees its slot at the maximum, while releasing unknown or overflow ids
+     * does not.
+     */
+    @Test
+    public void testReleaseFreesSlot() {
+        CardinalityLimitingMeterFilter filter = new CardinalityLimitingMeterFilter(() -> 2);
+        Id first = id("gauge", "k", "1");
+        filter.map(first);
+        filter.map(id("gauge", "k", "2"));
+        Id overflow = filter.map(id("gauge", "k", "3"));
+        filter.release(overflow);
+        filter.release(id("unknown", "k", "1"));
+        assertEquals(2, filter.getSeries("gauge"));
+
+        filter.release(first);
+        filter.release(first);
+        assertEquals(1, filter.getSeries("gauge"));
+        Id fourth = id("gauge", "k", "4");
+        assertSame(fourth, filter.map(fourth));
+        assertEquals(2, filter.getSeries("gauge"));
+        assertEquals(CardinalityLimitingMeterFilter.OVERFLOW_TAG_VALUE, filter.map(first).getTag("k"));
+    }
+
+    /**
+     * Verifies the maximum applies per meter name, untagged meters are ignored and values below one disable the limit.
+     */
+    @Test
+    public void testLimitPerNameAndDisabled() {
+        AtomicInteger max = new AtomicInteger(1);
+        CardinalityLimitingMeterFilter filter = new CardinalityLimitingMeterFilter(max::get);
+        Id untagged = id("uptime");
+        assertSame(untagged, filter.map(untagged));
+        assertEquals(0, filter.getSeries("uptime"));
+        filter.map(id("a", "k", "1"));
+        Id other = id("b", "k", "1");
+        assertSame(other, filter.map(other));
+        assertEquals("__overflow__", filter.map(id("a", "k", "2")).getTag("k"));
+
+        max.set(0);
+        Id unlimited = id("a", "k", "3");
+        assertSame(unlimited, filter.map(unlimited));
+        assertEquals(2, filter.getSeries("a"));
+        assertEquals(0, filter.getDropped("unknown"));
+    }
+
+    /**
+     * Verifies the collector exposes admitted and dropped series per meter name.
+     */
+    @Test
+    public void testCollect() {
+        CardinalityLimitingMeterFilter filter = new CardinalityLimitingMeterFilter(() -> 1);
+        filter.map(id("a", "k", "1"));
+        filter.map(id("a", "k", "2"));
+        filter.map(id("a", "k", "3"));
+        MetricSnapshots snapshots = filter.collect();
+        assertEquals(2, snapshots.size());
+        GaugeSnapshot series = (GaugeSnapshot) snapshots.get(0);
+        assertEquals(CardinalityLimitingMeterFilter.METER_SERIES, series.getMetadata().getName());
+        assertEquals("a", series.getDataPoints().get(0).getLabels().get(CardinalityLimitingMeterFilter.METER_LABEL));
+        assertEquals(1.0, series.getDataPoints().get(0).getValue());
+        CounterSnapshot dropped = (CounterSnapshot) snapshots.get(1);
+        assertEquals(2.0, dropped.getDataPoints().get(0).getValue());
+        assertEquals(List.of("meter_series", "meter_series_dropped"), filter.getPrometheusNames());
+    }
+
+    private static Id id(String name, String... tags) {
+        return new Id(name, Tags.of(tags), null, null, Meter.Type.COUNTER);
+    }
+}
@@ -0,0 +1,149 @@
+/*-
+ * #%L
+ * IBM iX Magnolia Monitoring
+ * %%
+ * Copyright (C) 2023 - 2025 IBM iX
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package de.ibmix.magkit.monitoring.endpoint.prometheus;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+import javax.servlet.http.HttpServletResponse;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for {@link CountingHttpServletResponse} covering stream and writer pass-through, encoded length calculation
+ * and delegation of non-blocking IO.
+ * @author IBM iX
+ * @since 2026-10-17
+ */
+public class CountingHttpServletResponseTest {
+
+    /**
+     * Verifies bytes written to the output stream are forwarded unchanged and counted.
+     * @throws IOException io error
+     */
+    @Test
+    public void testOutputStreamCounting() throws IOException {
+        ByteArrayOutputStream target = new ByteArrayOutputStream();
+        HttpServletResponse response = mock(HttpServletResponse.class);
+        when(response.getOutputStream()).thenReturn(new TestOutputStream(target));
+        CountingHttpServletResponse counting = new CountingHttpServletResponse(response);
+        ServletOutputStream out = counting.getOutputStream();
+        assertSame(out, counting.getOutputStream());
+        out.write('a');
+        out.write(new byte[] {1, 2, 3, 4, 5}, 1, 3);
+        out.print("xy");
+        assertEquals(6, counting.getBytesWritten());
+        assertArrayEquals(new byte[] {'a', 2, 3, 4, 'x', 'y'}, target.toByteArray());
+    }
+
+    /**
+     * Verifies characters written to the writer are counted with their UTF-8 length, including surrogate pairs.
+     * @throws IOException io error
+     */
+    @Test
+    public void testWriterCountingUtf8() throws IOException {
+        StringWriter target = new StringWriter();
+        HttpServletResponse response = mock(HttpServletResponse.class);
+        when(response.getWriter()).thenReturn(new PrintWriter(target));
+        when(response.getCharacterEncoding()).thenReturn("UTF-8");
+        CountingHttpServletResponse counting = new CountingHttpServletResponse(response);
+        PrintWriter writer = counting.getWriter();
+        String text = "aä€😀";
+        writer.write(text);
+        writer.write('b');
+        writer.write(new char[] {'c', 'ö'}, 0, 2);
+        writer.flush();
+        assertEquals(text.getBytes(StandardCharsets.UTF_8).length + 4, counting.getBytesWritten());
+        assertEquals(text + "bcö", target.toString());
+    }
+
+    /**
+     * Verifies single byte and unknown encodings count one byte per character.
+     * @throws IOException io error
+     */
+    @Test
+    public void testWriterCountingOtherEncodings() throws IOException {
+        HttpServletResponse response = mock(HttpServletResponse.class);
+        when(response.getWriter()).thenReturn(new PrintWriter(new StringWriter()));
+        when(response.getCharacterEncoding()).thenReturn("no-such-charset");
+        CountingHttpServletResponse counting = new CountingHttpServletResponse(response);
+        counting.getWriter().write("äöü");
+        assertEquals(3, counting.getBytesWritten());
+    }
+
+    /**
+     * Verifies non-blocking IO calls reach the container stream.
+     * @throws IOException io error
+     */
+    @Test
+    public void testNonBlockingDelegation() throws IOException {
+        ServletOutputStream delegate = mock(ServletOutputStream.class);
+        HttpServletResponse response = mock(HttpServletResponse.class);
+        when(response.getOutputStream()).thenReturn(delegate);
+        when(delegate.isReady()).thenReturn(true);
+        WriteListener listener = mock(WriteListener.class);
+        CountingHttpServletResponse counting = new CountingHttpServletResponse(response);
+        counting.getOutputStream().setWriteListener(listener);
+        assertEquals(true, counting.getOutputStream().isReady());
+        counting.getOutputStream().flush();
+        counting.getOutputStream().close();
+        verify(delegate).setWriteListener(listener);
+        verify(delegate).flush();
+        verify(delegate).close();
+    }
+
+    /**
+     * Minimal servlet output stream writing to a byte array.
+     */
+    private static final class TestOutputStream extends ServletOutputStream {
+
+        private final ByteArrayOutputStream _target;
+
+        TestOutputStream(ByteArrayOutputStream target) {
+            _target = target;
+        }
+
+        @Override
+        public void write(int b) {
+            _target.write(b);
+        }
+
+        @Override
+        public boolean isReady() {
+            return true;
+        }
+
+        @Override
+        public void setWriteListener(WriteListener writeListener) {
+        }
+    }
+}
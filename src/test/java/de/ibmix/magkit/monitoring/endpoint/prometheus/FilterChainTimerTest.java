@@ -0,0 +1,137 @@
+/*-
+ * #%L
+ * IBM iX Magnolia Monitoring
+ * %%
+ * Copyright (C) 2023 - 2025 IBM iX
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package de.ibmix.magkit.monitoring.endpoint.prometheus;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.junit.jupiter.api.Test;
+
+import info.magnolia.cms.filters.AbstractMgnlFilter;
+import info.magnolia.cms.filters.CompositeFilter;
+import info.magnolia.cms.filters.MgnlFilter;
+import io.micrometer.core.instrument.MockClock;
+import io.micrometer.core.instrument.simple.SimpleConfig;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Unit tests for {@link FilterChainTimer} and {@link TimedMgnlFilter} covering instrumentation of nested composites,
+ * self time calculation and switching timing off.
+ * @author IBM iX
+ * @since 2026-10-17
+ */
+public class FilterChainTimerTest {
+
+    /**
+     * Verifies every filter records its own time only, including a nested composite and its children.
+     * @throws IOException io error
+     * @throws ServletException servlet error
+     */
+    @Test
+    public void testSelfTime() throws IOException, ServletException {
+        MockClock clock = new MockClock();
+        SimpleMeterRegistry registry = new SimpleMeterRegistry(SimpleConfig.DEFAULT, clock);
+        CompositeFilter cms = new CompositeFilter();
+        cms.setName("cms");
+        cms.addFilter(new SleepingFilter("i18n", clock, 3));
+        cms.addFilter(new SleepingFilter("cache", clock, 20));
+        CompositeFilter root = new CompositeFilter();
+        root.addFilter(new SleepingFilter("security", clock, 5));
+        root.addFilter(cms);
+        FilterChainTimer timer = new FilterChainTimer(registry, () -> true);
+        timer.instrument(root);
+        assertTrue(timer.isInstrumented(root));
+        assertInstanceOf(TimedMgnlFilter.class, root.getFilters()[0]);
+        assertSame(cms, ((TimedMgnlFilter) root.getFilters()[1]).getDelegate());
+
+        root.doFilter(mock(HttpServletRequest.class), mock(HttpServletResponse.class), mock(FilterChain.class));
+        assertEquals(5, selfMillis(registry, "security"));
+        assertEquals(0, selfMillis(registry, "cms"));
+        assertEquals(3, selfMillis(registry, "i18n"));
+        assertEquals(20, selfMillis(registry, "cache"));
+    }
+
+    /**
+     * Verifies instrumenting is idempotent and disabled wrappers pass requests through without recording.
+     * @throws IOException io error
+     * @throws ServletException servlet error
+     */
+    @Test
+    public void testIdempotentAndDisabled() throws IOException, ServletException {
+        MockClock clock = new MockClock();
+        SimpleMeterRegistry registry = new SimpleMeterRegistry(SimpleConfig.DEFAULT, clock);
+        CompositeFilter root = new CompositeFilter();
+        root.addFilter(new SleepingFilter("security", clock, 5));
+        AtomicBoolean enabled = new AtomicBoolean(true);
+        FilterChainTimer timer = new FilterChainTimer(registry, enabled::get);
+        timer.instrument(root);
+        MgnlFilter wrapper = root.getFilters()[0];
+        root.setFilters(root.getFilters().clone());
+        timer.instrument(root);
+        timer.instrument(new CompositeFilter());
+        timer.instrument(root);
+        assertSame(wrapper, root.getFilters()[0]);
+        assertFalse(timer.isInstrumented(null));
+
+        enabled.set(false);
+        root.doFilter(mock(HttpServletRequest.class), mock(HttpServletResponse.class), mock(FilterChain.class));
+        assertEquals(0, registry.get(TimedMgnlFilter.MAGNOLIA_FILTER_SELF).tag(TimedMgnlFilter.FILTER_TAG, "security").timer().count());
+    }
+
+    private static long selfMillis(SimpleMeterRegistry registry, String filter) {
+        return (long) registry.get(TimedMgnlFilter.MAGNOLIA_FILTER_SELF).tag(TimedMgnlFilter.FILTER_TAG, filter).timer()
+            .totalTime(TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Filter advancing the mock clock before continuing the chain.
+     */
+    private static final class SleepingFilter extends AbstractMgnlFilter {
+
+        private final MockClock _clock;
+        private final long _millis;
+
+        SleepingFilter(String name, MockClock clock, long millis) {
+            setName(name);
+            _clock = clock;
+            _millis = millis;
+        }
+
+        @Override
+        public void doFilter(HttpServletRequest request, HttpServletResponse response, FilterChain chain) throws IOException, ServletException {
+            _clock.add(Duration.ofMillis(_millis));
+            chain.doFilter(request, response);
+        }
+    }
+}
@@ -0,0 +1,115 @@
+/*-
+ * #%L
+ * IBM iX Magnolia Monitoring
+ * %%
+ * Copyright (C) 2023 - 2025 IBM iX
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package de.ibmix.magkit.monitoring.endpoint.prometheus;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.TimeUnit;
+
+import io.micrometer.core.instrument.MockClock;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for {@link GradientConcurrencyLimiter} covering admission, limit growth under stable latency, shrinking
+ * under rising latency, the application-limited guard and the configured bounds.
+ * @author IBM iX
+ * @since 2026-10-17
+ */
+public class GradientConcurrencyLimiterTest {
+
+    private final MockClock _clock = new MockClock();
+
+    /**
+     * Verifies requests beyond the limit are rejected until a permit is released.
+     */
+    @Test
+    public void testAdmission() {
+        GradientConcurrencyLimiter limiter = new GradientConcurrencyLimiter(2, 1, 10, _clock);
+        assertTrue(limiter.tryAcquire());
+        assertTrue(limiter.tryAcquire());
+        assertFalse(limiter.tryAcquire());
+        assertEquals(2, limiter.getInFlight());
+        limiter.release(1000);
+        assertEquals(1, limiter.getInFlight());
+        assertTrue(limiter.tryAcquire());
+    }
+
+    /**
+     * Verifies the limit grows while latency is stable and the limit is fully used, without exceeding the upper bound.
+     */
+    @Test
+    public void testLimitGrowsWithStableLatency() {
+        GradientConcurrencyLimiter limiter = new GradientConcurrencyLimiter(10, 5, 20, _clock);
+        for (int window = 0; window < 50; window++) {
+            runWindow(limiter, limiter.getLimit(), 10);
+        }
+        assertEquals(20, limiter.getLimit());
+    }
+
+    /**
+     * Verifies the limit shrinks towards the lower bound when latency rises well above the long-term baseline.
+     */
+    @Test
+    public void testLimitShrinksWithRisingLatency() {
+        GradientConcurrencyLimiter limiter = new GradientConcurrencyLimiter(40, 5, 100, _clock);
+        runWindow(limiter, 40, 10);
+        int before = limiter.getLimit();
+        for (int window = 0; window < 30; window++) {
+            runWindow(limiter, limiter.getLimit(), 100);
+        }
+        assertTrue(limiter.getLimit() < before);
+        assertTrue(limiter.getLimit() >= 5);
+    }
+
+    /**
+     * Verifies the limit is not raised while less than half of it is used.
+     */
+    @Test
+    public void testNoGrowthWhenApplicationLimited() {
+        GradientConcurrencyLimiter limiter = new GradientConcurrencyLimiter(40, 5, 100, _clock);
+        for (int window = 0; window < 10; window++) {
+            runWindow(limiter, 5, 10);
+        }
+        assertEquals(40, limiter.getLimit());
+        assertTrue(limiter.hasBounds(40, 5, 100));
+        assertFalse(limiter.hasBounds(40, 5, 99));
+    }
+
+    /**
+     * Simulates one sample window: acquires the given number of permits, advances the clock past the window and
+     * releases them with the given latency.
+     */
+    private void runWindow(GradientConcurrencyLimiter limiter, int concurrency, long latencyMillis) {
+        int acquired = 0;
+        for (int i = 0; i < Math.max(concurrency, GradientConcurrencyLimiter.MIN_WINDOW_SAMPLES) && limiter.tryAcquire(); i++) {
+            acquired++;
+        }
+        _clock.add(150, TimeUnit.MILLISECONDS);
+        for (int i = 0; i < acquired; i++) {
+            limiter.release(TimeUnit.MILLISECONDS.toNanos(latencyMillis));
+        }
+        for (int i = acquired; i < GradientConcurrencyLimiter.MIN_WINDOW_SAMPLES; i++) {
+            limiter.tryAcquire();
+            limiter.release(TimeUnit.MILLISECONDS.toNanos(latencyMillis));
+        }
+    }
+}
@@ -0,0 +1,96 @@
+/*-
+ * #%L
+ * IBM iX Magnolia Monitoring
+ * %%
+ * Copyright (C) 2026 IBM iX
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package de.ibmix.magkit.monitoring.endpoint.prometheus;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for {@link HttpMeterCache} covering hits, misses, uncacheable keys, table overflow and clearing.
+ * @author IBM iX
+ * @since 2026-10-17
+ */
+public class HttpMeterCacheTest {
+
+    private final SimpleMeterRegistry _registry = new SimpleMeterRegistry();
+
+    /**
+     * Verifies timers are returned for the exact (uri, method, status) combination only.
+     */
+    @Test
+    public void testHitAndMiss() {
+        HttpMeterCache<Timer> cache = new HttpMeterCache<>();
+        Timer ok = _registry.timer("t", "status", "200");
+        Timer notFound = _registry.timer("t", "status", "404");
+        cache.put("/a", "GET", 200, ok);
+        cache.put("/a", "GET", 404, notFound);
+        assertSame(ok, cache.get("/a", "GET", 200));
+        assertSame(notFound, cache.get("/a", "GET", 404));
+        assertNull(cache.get("/a", "POST", 200));
+        assertNull(cache.get("/b", "GET", 200));
+        cache.put("/a", "GET", 200, notFound);
+        assertSame(ok, cache.get("/a", "GET", 200));
+    }
+
+    /**
+     * Verifies unknown methods, invalid status codes and null values are never cached.
+     */
+    @Test
+    public void testUncacheableKeys() {
+        HttpMeterCache<Timer> cache = new HttpMeterCache<>();
+        Timer timer = _registry.timer("t");
+        cache.put("/a", "PROPFIND", 200, timer);
+        cache.put("/a", "GET", 1200, timer);
+        cache.put(null, "GET", 200, timer);
+        cache.put("/a", null, 200, timer);
+        assertNull(cache.get("/a", "PROPFIND", 200));
+        assertNull(cache.get("/a", "GET", 1200));
+        assertNull(cache.get(null, "GET", 200));
+        assertEquals(-1, HttpMeterCache.key("get", 200));
+        assertEquals(0, cache.size());
+    }
+
+    /**
+     * Verifies the URI map is bounded and a full per-URI table silently stops caching.
+     */
+    @Test
+    public void testBounds() {
+        HttpMeterCache<Timer> cache = new HttpMeterCache<>(2);
+        Timer timer = _registry.timer("t");
+        cache.put("/1", "GET", 200, timer);
+        cache.put("/2", "GET", 200, timer);
+        cache.put("/3", "GET", 200, timer);
+        assertTrue(cache.size() <= 2);
+        assertSame(timer, cache.get("/3", "GET", 200));
+        for (int status = 100; status < 200; status++) {
+            cache.put("/3", "GET", status, timer);
+        }
+        assertSame(timer, cache.get("/3", "GET", 200));
+        cache.clear();
+        assertEquals(0, cache.size());
+        assertNull(cache.get("/3", "GET", 200));
+    }
+}
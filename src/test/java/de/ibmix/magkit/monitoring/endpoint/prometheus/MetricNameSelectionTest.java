@@ -0,0 +1,60 @@
+/*-
+ * #%L
+ * IBM iX Magnolia Monitoring
+ * %%
+ * Copyright (C) 2023 - 2025 IBM iX
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package de.ibmix.magkit.monitoring.endpoint.prometheus;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for {@link MetricNameSelection} covering family and sample names, prefixes, blank values and the cache key.
+ * @author IBM iX
+ * @since 2026-10-17
+ */
+public class MetricNameSelectionTest {
+
+    /**
+     * Verifies families are selected by their own name, by sample names and by prefix.
+     */
+    @Test
+    public void testSelection() {
+        MetricNameSelection selection = MetricNameSelection.of(List.of("jvm_memory_used_bytes", "http_server_requests_seconds_count"), List.of("process_"));
+        assertTrue(selection.test("jvm_memory_used_bytes"));
+        assertTrue(selection.test("http_server_requests_seconds"));
+        assertTrue(selection.test("process_cpu_usage"));
+        assertFalse(selection.test("jvm_memory_max_bytes"));
+        assertFalse(selection.test("http_server_requests"));
+        assertFalse(selection.test(null));
+    }
+
+    /**
+     * Verifies an empty selection means no selection.
+     */
+    @Test
+    public void testEmpty() {
+        assertNull(MetricNameSelection.of(null, null));
+        assertNull(MetricNameSelection.of(Arrays.asList(" ", null), List.of()));
+    }
+}
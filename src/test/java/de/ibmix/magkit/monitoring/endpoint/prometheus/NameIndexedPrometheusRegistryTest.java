@@ -0,0 +1,103 @@
+/*-
+ * #%L
+ * IBM iX Magnolia Monitoring
+ * %%
+ * Copyright (C) 2023 - 2025 IBM iX
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package de.ibmix.magkit.monitoring.endpoint.prometheus;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import io.micrometer.core.instrument.Clock;
+import io.micrometer.prometheusmetrics.PrometheusConfig;
+import io.micrometer.prometheusmetrics.PrometheusMeterRegistry;
+import io.prometheus.metrics.expositionformats.PrometheusTextFormatWriter;
+import io.prometheus.metrics.model.registry.MultiCollector;
+import io.prometheus.metrics.model.snapshots.GaugeSnapshot;
+import io.prometheus.metrics.model.snapshots.MetricMetadata;
+import io.prometheus.metrics.model.snapshots.MetricSnapshot;
+import io.prometheus.metrics.model.snapshots.MetricSnapshots;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for {@link NameIndexedPrometheusRegistry} ensuring filtered scrapes skip indexed collectors that cannot
+ * match and full scrapes behave like the base registry.
+ * @author IBM iX
+ * @since 2026-10-17
+ */
+public class NameIndexedPrometheusRegistryTest {
+
+    /**
+     * Verifies a collector is collected once to learn its names and afterwards only for matching filters.
+     */
+    @Test
+    public void testFilteredScrapeSkipsNonMatchingCollectors() {
+        NameIndexedPrometheusRegistry registry = new NameIndexedPrometheusRegistry();
+        AtomicInteger heapCollections = new AtomicInteger();
+        AtomicInteger threadCollections = new AtomicInteger();
+        registry.register(gauge("heap", heapCollections));
+        MultiCollector threads = gauge("threads", threadCollections);
+        registry.register(threads);
+
+        assertEquals(List.of("heap"), names(registry.scrape("heap"::equals)));
+        assertEquals(1, threadCollections.get());
+        assertEquals(List.of("threads"), registry.getIndexedNames(threads));
+
+        assertEquals(List.of("heap"), names(registry.scrape("heap"::equals)));
+        assertEquals(List.of("heap"), names(registry.scrape("heap"::equals)));
+        assertEquals(3, heapCollections.get());
+        assertEquals(1, threadCollections.get());
+
+        assertEquals(List.of("heap", "threads"), names(registry.scrape()));
+        registry.unregister(threads);
+        assertEquals(List.of("heap"), names(registry.scrape()));
+        assertTrue(registry.getIndexedNames(threads).isEmpty());
+    }
+
+    /**
+     * Verifies Micrometer meters are indexed per meter name and selected through their Prometheus family names.
+     */
+    @Test
+    public void testMicrometerIntegration() {
+        PrometheusMeterRegistry registry = new PrometheusMeterRegistry(PrometheusConfig.DEFAULT, new NameIndexedPrometheusRegistry(), Clock.SYSTEM);
+        registry.counter("orders").increment();
+        registry.gauge("queue_size", 4);
+        String full = registry.scrape();
+        assertTrue(full.contains("orders_total 1.0") && full.contains("queue_size 4.0"));
+
+        String selected = registry.scrape(PrometheusTextFormatWriter.CONTENT_TYPE, Set.of("queue_size"));
+        assertTrue(selected.contains("queue_size 4.0"));
+        assertFalse(selected.contains("orders"));
+    }
+
+    private static MultiCollector gauge(String name, AtomicInteger collections) {
+        return () -> {
+            collections.incrementAndGet();
+            return MetricSnapshots.of(GaugeSnapshot.builder().name(name)
+                .dataPoint(GaugeSnapshot.GaugeDataPointSnapshot.builder().value(1).build()).build());
+        };
+    }
+
+    private static List<String> names(MetricSnapshots snapshots) {
+        return snapshots.stream().map(MetricSnapshot::getMetadata).map(MetricMetadata::getPrometheusName).toList();
+    }
+}
@@ -19,14 +19,35 @@
  */
 package de.ibmix.magkit.monitoring.endpoint.prometheus;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.core.StreamingOutput;
+
+import io.micrometer.core.instrument.Clock;
 import io.micrometer.prometheusmetrics.PrometheusConfig;
 import io.micrometer.prometheusmetrics.PrometheusMeterRegistry;
+import io.prometheus.metrics.expositionformats.OpenMetricsTextFormatWriter;
+import io.prometheus.metrics.expositionformats.PrometheusProtobufWriter;
+import io.prometheus.metrics.expositionformats.PrometheusTextFormatWriter;
 import org.junit.jupiter.api.Test;
 
+import de.ibmix.magkit.monitoring.MonitoringModule;
+import de.ibmix.magkit.monitoring.config.prometheus.PrometheusConfigSnapshot;
 import de.ibmix.magkit.monitoring.endpoint.MonitoringEndpointDefinition;
 
 
@@ -52,5 +73,172 @@ public class PrometheusEndpointTest {
         assertNotNull(result);
         assertEquals(expected, result);
     }
-}
 
+    /**
+     * Ensures the exposition format is negotiated from the Accept header, defaulting to Prometheus text format.
+     */
+    @Test
+    public void testScrapeNegotiatesOpenMetrics() throws IOException {
+        PrometheusMeterRegistry registry = new PrometheusMeterRegistry(PrometheusConfig.DEFAULT);
+        registry.counter("test_counter").increment();
+        PrometheusEndpoint endpoint = new PrometheusEndpoint(mock(MonitoringEndpointDefinition.class), registry);
+
+        Response openMetrics = endpoint.scrape("application/openmetrics-text;version=1.0.0,text/plain;version=0.0.4;q=0.5", null);
+        assertEquals(OpenMetricsTextFormatWriter.CONTENT_TYPE, openMetrics.getHeaderString(HttpHeaders.CONTENT_TYPE));
+        assertTrue(new String(write(openMetrics), StandardCharsets.UTF_8).endsWith("# EOF\n"));
+
+        Response text = endpoint.scrape(null, null);
+        assertEquals(PrometheusTextFormatWriter.CONTENT_TYPE, text.getHeaderString(HttpHeaders.CONTENT_TYPE));
+        assertEquals(registry.scrape(), new String(write(text), StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Ensures the exposition is streamed gzip compressed when accepted by the client.
+     * @throws IOException on stream errors
+     */
+    @Test
+    public void testScrapeGzip() throws IOException {
+        PrometheusMeterRegistry registry = new PrometheusMeterRegistry(PrometheusConfig.DEFAULT);
+        registry.counter("test_counter").increment();
+        PrometheusEndpoint endpoint = new PrometheusEndpoint(mock(MonitoringEndpointDefinition.class), registry);
+
+        Response response = endpoint.scrape(null, "deflate, gzip;q=0.8");
+        assertEquals(PrometheusEndpoint.GZIP_ENCODING, response.getHeaderString(HttpHeaders.CONTENT_ENCODING));
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(write(response)))) {
+            assertEquals(registry.scrape(), new String(in.readAllBytes(), StandardCharsets.UTF_8));
+        }
+        assertTrue(PrometheusEndpoint.acceptsGzip("*"));
+        assertFalse(PrometheusEndpoint.acceptsGzip("gzip;q=0"));
+        assertFalse(PrometheusEndpoint.acceptsGzip("*, gzip;q=0"));
+        assertTrue(PrometheusEndpoint.acceptsGzip("*;q=0, gzip"));
+        assertFalse(PrometheusEndpoint.acceptsGzip("*;q=0, br"));
+        assertFalse(PrometheusEndpoint.acceptsGzip("identity"));
+        assertFalse(PrometheusEndpoint.acceptsGzip(null));
+    }
+
+    /**
+     * Ensures scrapes within the configured TTL are served from the module's scrape cache, per variant, selective scrapes
+     * bypass it and a TTL of zero empties it.
+     * @throws IOException on stream errors
+     */
+    @Test
+    public void testScrapeCache() throws IOException {
+        PrometheusMeterRegistry registry = new PrometheusMeterRegistry(PrometheusConfig.DEFAULT);
+        registry.counter("test_counter").increment();
+        de.ibmix.magkit.monitoring.config.prometheus.PrometheusConfig config = new de.ibmix.magkit.monitoring.config.prometheus.PrometheusConfig();
+        config.setScrapeCacheTtlMillis(60_000);
+        ScrapeCache cache = new ScrapeCache();
+        MonitoringModule module = mock(MonitoringModule.class);
+        when(module.getScrapeCache()).thenReturn(cache);
+        when(module.getConfigSnapshot()).thenReturn(PrometheusConfigSnapshot.of(config));
+        PrometheusEndpoint endpoint = new PrometheusEndpoint(mock(MonitoringEndpointDefinition.class), registry, module);
+
+        String first = new String(write(endpoint.scrape(null, null)), StandardCharsets.UTF_8);
+        registry.counter("test_counter").increment();
+        assertEquals(first, new String(write(endpoint.scrape(null, null)), StandardCharsets.UTF_8));
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(write(endpoint.scrape(null, "gzip"))))) {
+            assertTrue(new String(in.readAllBytes(), StandardCharsets.UTF_8).contains("test_counter_total 2.0"));
+        }
+        assertEquals(1, cache.getHits());
+        assertEquals(2, cache.getMisses());
+
+        assertTrue(new String(write(endpoint.scrape(null, null, List.of("test_counter"), null)), StandardCharsets.UTF_8).contains("test_counter_total 2.0"));
+        assertEquals(1, cache.getHits());
+        assertEquals(2, cache.getMisses());
+        assertEquals(2, cache.size());
+        config.setScrapeCacheTtlMillis(0);
+        when(module.getConfigSnapshot()).thenReturn(PrometheusConfigSnapshot.of(config));
+        endpoint.scrape(null, null);
+        assertEquals(0, cache.size());
+    }
+
+    /**
+     * Ensures the content type is negotiated by quality value and protobuf is only chosen for delimited MetricFamily messages.
+     */
+    @Test
+    public void testNegotiateContentType() {
+        String protobuf = "application/vnd.google.protobuf;proto=io.prometheus.client.MetricFamily;encoding=delimited";
+        assertEquals(PrometheusTextFormatWriter.CONTENT_TYPE, PrometheusEndpoint.negotiateContentType(null));
+        assertEquals(PrometheusTextFormatWriter.CONTENT_TYPE, PrometheusEndpoint.negotiateContentType("*/*"));
+        assertEquals(PrometheusTextFormatWriter.CONTENT_TYPE, PrometheusEndpoint.negotiateContentType("application/json"));
+        assertEquals(PrometheusProtobufWriter.CONTENT_TYPE,
+            PrometheusEndpoint.negotiateContentType(protobuf + ";q=0.6,application/openmetrics-text;version=1.0.0;q=0.5,text/plain;version=0.0.4;q=0.4,*/*;q=0.1"));
+        assertEquals(OpenMetricsTextFormatWriter.CONTENT_TYPE,
+            PrometheusEndpoint.negotiateContentType(protobuf + ";q=0.3,application/openmetrics-text;version=1.0.0;q=0.5"));
+        assertEquals(PrometheusTextFormatWriter.CONTENT_TYPE,
+            PrometheusEndpoint.negotiateContentType("application/vnd.google.protobuf;proto=io.prometheus.client.MetricFamily;encoding=text,text/plain;q=0.1"));
+        assertEquals(PrometheusTextFormatWriter.CONTENT_TYPE,
+            PrometheusEndpoint.negotiateContentType("application/openmetrics-text;q=0,text/plain;q=0.2"));
+    }
+
+    /**
+     * Ensures the protobuf format yields one length-delimited MetricFamily message as written by the Prometheus client.
+     * @throws IOException on stream errors
+     */
+    @Test
+    public void testScrapeProtobuf() throws IOException {
+        PrometheusMeterRegistry registry = new PrometheusMeterRegistry(PrometheusConfig.DEFAULT);
+        registry.counter("test_counter").increment(3);
+        PrometheusEndpoint endpoint = new PrometheusEndpoint(mock(MonitoringEndpointDefinition.class), registry);
+
+        Response response = endpoint.scrape("application/vnd.google.protobuf;proto=io.prometheus.client.MetricFamily;encoding=delimited", null);
+        assertEquals(PrometheusProtobufWriter.CONTENT_TYPE, response.getHeaderString(HttpHeaders.CONTENT_TYPE));
+        byte[] body = write(response);
+        ByteArrayOutputStream expected = new ByteArrayOutputStream();
+        new PrometheusProtobufWriter().write(expected, registry.getPrometheusRegistry().scrape());
+        assertArrayEquals(expected.toByteArray(), body);
+
+        ByteArrayInputStream in = new ByteArrayInputStream(body);
+        int length = readVarint(in);
+        assertEquals(length, in.available());
+        assertEquals(0x0A, in.read());
+        String name = "test_counter_total";
+        assertEquals(name.length(), readVarint(in));
+        assertEquals(name, new String(in.readNBytes(name.length()), StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Reads a protobuf base 128 varint, i.e. the length prefix of a delimited message.
+     * @param in stream positioned at the varint
+     * @return decoded value
+     */
+    private static int readVarint(ByteArrayInputStream in) {
+        int value = 0;
+        for (int shift = 0; ; shift += 7) {
+            int b = in.read();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+    }
+
+    /**
+     * Ensures name and prefix query parameters restrict the exposition to the selected families.
+     * @throws IOException on stream errors
+     */
+    @Test
+    public void testSelectiveScrape() throws IOException {
+        PrometheusMeterRegistry registry = new PrometheusMeterRegistry(PrometheusConfig.DEFAULT, new NameIndexedPrometheusRegistry(), Clock.SYSTEM);
+        registry.counter("orders").increment();
+        registry.counter("logins").increment();
+        registry.gauge("queue_size", 4);
+        PrometheusEndpoint endpoint = new PrometheusEndpoint(mock(MonitoringEndpointDefinition.class), registry);
+
+        String text = new String(write(endpoint.scrape(null, null, List.of("orders_total"), List.of("queue_"))), StandardCharsets.UTF_8);
+        assertTrue(text.contains("orders_total 1.0"));
+        assertTrue(text.contains("queue_size 4.0"));
+        assertFalse(text.contains("logins"));
+
+        String openMetrics = new String(write(endpoint.scrape(PrometheusEndpoint.OPENMETRICS_MEDIA_TYPE, null, List.of("logins"), null)), StandardCharsets.UTF_8);
+        assertTrue(openMetrics.contains("logins_total 1.0"));
+        assertFalse(openMetrics.contains("orders"));
+        assertTrue(openMetrics.endsWith("# EOF\n"));
+    }
+
+    private static byte[] write(Response response) throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        ((StreamingOutput) response.getEntity()).write(output);
+        return output.toByteArray();
+    }
+}
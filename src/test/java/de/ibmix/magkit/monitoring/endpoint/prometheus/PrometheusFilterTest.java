@@ -20,27 +20,53 @@
 package de.ibmix.magkit.monitoring.endpoint.prometheus;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.io.IOException;
+import java.time.Duration;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 
+import javax.servlet.AsyncContext;
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.DispatcherType;
 import javax.servlet.FilterChain;
 import javax.servlet.ServletException;
+import javax.servlet.ServletOutputStream;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MockClock;
+import io.micrometer.core.instrument.Timer;
 import io.micrometer.prometheusmetrics.PrometheusMeterRegistry;
+import io.prometheus.metrics.model.registry.PrometheusRegistry;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 
 import de.ibmix.magkit.monitoring.MonitoringModule;
+import de.ibmix.magkit.monitoring.config.prometheus.ConcurrencyLimitConfig;
 import de.ibmix.magkit.monitoring.config.prometheus.HttpRequestMetricsConfig;
 import de.ibmix.magkit.monitoring.config.prometheus.PrometheusConfig;
+import de.ibmix.magkit.monitoring.config.prometheus.PrometheusConfigSnapshot;
+import de.ibmix.magkit.monitoring.config.prometheus.SlowRequestSamplerConfig;
+import de.ibmix.magkit.monitoring.endpoint.slowrequests.SlowRequestProfile;
+import de.ibmix.magkit.monitoring.endpoint.slowrequests.SlowRequestSampler;
+import info.magnolia.cms.filters.CompositeFilter;
+import info.magnolia.cms.filters.FilterManager;
+import info.magnolia.cms.filters.MgnlFilter;
 
 /**
  * Unit tests for {@link PrometheusFilter} covering conditional activation and tag generation.
@@ -62,7 +88,7 @@ public class PrometheusFilterTest {
         HttpRequestMetricsConfig httpCfg = new HttpRequestMetricsConfig();
         prometheusConfig.setHttpRequestMetricsConfig(httpCfg);
         MonitoringModule module = mock(MonitoringModule.class);
-        when(module.getPrometheusConfig()).thenReturn(prometheusConfig);
+        when(module.getConfigSnapshot()).thenReturn(PrometheusConfigSnapshot.of(prometheusConfig));
         PrometheusMeterRegistry registry = new PrometheusMeterRegistry(io.micrometer.prometheusmetrics.PrometheusConfig.DEFAULT);
         PrometheusFilter filter = new PrometheusFilter(module, registry);
         HttpServletRequest request = mock(HttpServletRequest.class);
@@ -86,9 +112,10 @@ public class PrometheusFilterTest {
         PrometheusConfig prometheusConfig = new PrometheusConfig();
         prometheusConfig.setMetrics(List.of("http"));
         HttpRequestMetricsConfig httpCfg = new HttpRequestMetricsConfig();
+        httpCfg.setUris(List.of("/test/.*"));
         prometheusConfig.setHttpRequestMetricsConfig(httpCfg);
         MonitoringModule module = mock(MonitoringModule.class);
-        when(module.getPrometheusConfig()).thenReturn(prometheusConfig);
+        when(module.getConfigSnapshot()).thenReturn(PrometheusConfigSnapshot.of(prometheusConfig));
         PrometheusMeterRegistry registry = new PrometheusMeterRegistry(io.micrometer.prometheusmetrics.PrometheusConfig.DEFAULT);
         PrometheusFilter filter = new PrometheusFilter(module, registry);
         HttpServletRequest request = mock(HttpServletRequest.class);
@@ -106,4 +133,491 @@ public class PrometheusFilterTest {
         assertEquals("POST", timer.getId().getTag("method"));
         assertEquals("201", timer.getId().getTag("status"));
     }
+
+    /**
+     * Verifies the uri tag is rewritten to the matching route template.
+     * @throws IOException io error
+     * @throws ServletException servlet error
+     */
+    @Test
+    public void testUriNormalizedToRouteTemplate() throws IOException, ServletException {
+        PrometheusConfig prometheusConfig = new PrometheusConfig();
+        prometheusConfig.setMetrics(List.of("http"));
+        HttpRequestMetricsConfig httpCfg = new HttpRequestMetricsConfig();
+        httpCfg.setRoutes(List.of("/dam/{uuid}/{file}"));
+        prometheusConfig.setHttpRequestMetricsConfig(httpCfg);
+        MonitoringModule module = mock(MonitoringModule.class);
+        when(module.getConfigSnapshot()).thenReturn(PrometheusConfigSnapshot.of(prometheusConfig));
+        PrometheusMeterRegistry registry = new PrometheusMeterRegistry(io.micrometer.prometheusmetrics.PrometheusConfig.DEFAULT);
+        PrometheusFilter filter = new PrometheusFilter(module, registry);
+        HttpServletRequest request = mock(HttpServletRequest.class);
+        HttpServletResponse response = mock(HttpServletResponse.class);
+        when(request.getRequestURI()).thenReturn("/dam/jcr:42/logo.png");
+        when(request.getMethod()).thenReturn("GET");
+        when(response.getStatus()).thenReturn(200);
+        filter.doFilter(request, response, mock(FilterChain.class));
+        assertEquals("/dam/{uuid}/{file}", registry.find("http_server_requests").timer().getId().getTag("uri"));
+    }
+
+    /**
+     * Verifies repeated requests with the same uri, method and status are recorded to one cached timer.
+     * @throws IOException io error
+     * @throws ServletException servlet error
+     */
+    @Test
+    public void testRepeatedRequestsReuseTimer() throws IOException, ServletException {
+        PrometheusConfig prometheusConfig = new PrometheusConfig();
+        prometheusConfig.setMetrics(List.of("http"));
+        prometheusConfig.setHttpRequestMetricsConfig(new HttpRequestMetricsConfig());
+        MonitoringModule module = mock(MonitoringModule.class);
+        when(module.getConfigSnapshot()).thenReturn(PrometheusConfigSnapshot.of(prometheusConfig));
+        PrometheusMeterRegistry registry = new PrometheusMeterRegistry(io.micrometer.prometheusmetrics.PrometheusConfig.DEFAULT);
+        PrometheusFilter filter = new PrometheusFilter(module, registry);
+        HttpServletRequest request = mock(HttpServletRequest.class);
+        HttpServletResponse response = mock(HttpServletResponse.class);
+        when(request.getRequestURI()).thenReturn("/cached");
+        when(request.getMethod()).thenReturn("GET");
+        when(response.getStatus()).thenReturn(200, 200, 404);
+        FilterChain chain = mock(FilterChain.class);
+        filter.doFilter(request, response, chain);
+        filter.doFilter(request, response, chain);
+        filter.doFilter(request, response, chain);
+        assertEquals(2, registry.find("http_server_requests").timers().size());
+        assertEquals(2, registry.find("http_server_requests").tag("status", "200").timer().count());
+        assertEquals(1, registry.find("http_server_requests").tag("status", "404").timer().count());
+    }
+
+    /**
+     * Verifies URIs blanked by the whitelist share one cached timer instead of filling the cache with raw URIs.
+     * @throws IOException io error
+     * @throws ServletException servlet error
+     */
+    @Test
+    public void testNonWhitelistedUrisShareTimer() throws IOException, ServletException {
+        PrometheusConfig prometheusConfig = new PrometheusConfig();
+        prometheusConfig.setMetrics(List.of("http"));
+        HttpRequestMetricsConfig httpCfg = new HttpRequestMetricsConfig();
+        httpCfg.setUris(List.of("/home"));
+        httpCfg.setRoutes(List.of("/dam/{uuid}/{file}"));
+        prometheusConfig.setHttpRequestMetricsConfig(httpCfg);
+        PrometheusConfigSnapshot snapshot = PrometheusConfigSnapshot.of(prometheusConfig);
+        MonitoringModule module = mock(MonitoringModule.class);
+        when(module.getConfigSnapshot()).thenReturn(snapshot);
+        PrometheusMeterRegistry registry = new PrometheusMeterRegistry(io.micrometer.prometheusmetrics.PrometheusConfig.DEFAULT);
+        PrometheusFilter filter = new PrometheusFilter(module, registry);
+        HttpServletRequest request = mock(HttpServletRequest.class);
+        HttpServletResponse response = mock(HttpServletResponse.class);
+        when(request.getMethod()).thenReturn("GET");
+        when(response.getStatus()).thenReturn(404);
+        for (int i = 0; i < 100; i++) {
+            when(request.getRequestURI()).thenReturn("/random-" + i);
+            filter.doFilter(request, response, mock(FilterChain.class));
+        }
+        assertEquals(1, registry.find("http_server_requests").timers().size());
+        assertEquals(100, registry.find("http_server_requests").tag("uri", "").timer().count());
+        assertEquals("/home", PrometheusFilter.getUriTagValue(snapshot, "/home"));
+        assertEquals("/dam/{uuid}/{file}", PrometheusFilter.getUriTagValue(snapshot, "/dam/jcr:1/a.png"));
+        assertEquals("", PrometheusFilter.getUriTagValue(snapshot, null));
+    }
+
+    /**
+     * Verifies async requests are recorded to the async timer once the async context completes, with the final status,
+     * and that async re-dispatches are not timed again.
+     * @throws IOException io error
+     * @throws ServletException servlet error
+     */
+    @Test
+    public void testAsyncRequestRecordedOnCompletion() throws IOException, ServletException {
+        PrometheusConfig prometheusConfig = new PrometheusConfig();
+        prometheusConfig.setMetrics(List.of("http"));
+        prometheusConfig.setHttpRequestMetricsConfig(new HttpRequestMetricsConfig());
+        MonitoringModule module = mock(MonitoringModule.class);
+        when(module.getConfigSnapshot()).thenReturn(PrometheusConfigSnapshot.of(prometheusConfig));
+        PrometheusMeterRegistry registry = new PrometheusMeterRegistry(io.micrometer.prometheusmetrics.PrometheusConfig.DEFAULT);
+        PrometheusFilter filter = new PrometheusFilter(module, registry);
+        HttpServletRequest request = mock(HttpServletRequest.class);
+        HttpServletResponse response = mock(HttpServletResponse.class);
+        AsyncContext asyncContext = mock(AsyncContext.class);
+        when(request.getRequestURI()).thenReturn("/async");
+        when(request.getMethod()).thenReturn("GET");
+        when(request.getDispatcherType()).thenReturn(DispatcherType.REQUEST);
+        when(request.isAsyncStarted()).thenReturn(true);
+        when(request.getAsyncContext()).thenReturn(asyncContext);
+        when(response.getStatus()).thenReturn(200);
+        filter.doFilter(request, response, mock(FilterChain.class));
+
+        ArgumentCaptor<AsyncListener> listener = ArgumentCaptor.forClass(AsyncListener.class);
+        verify(asyncContext).addListener(listener.capture(), eq(request), eq(response));
+        assertNull(registry.find("http_server_requests").timer());
+        assertNull(registry.find("http_server_requests_async").timer());
+
+        when(request.getDispatcherType()).thenReturn(DispatcherType.ASYNC);
+        filter.doFilter(request, response, mock(FilterChain.class));
+        verify(asyncContext, times(1)).addListener(any(AsyncListener.class), any(), any());
+
+        when(response.getStatus()).thenReturn(503);
+        AsyncEvent event = new AsyncEvent(asyncContext, request, response);
+        listener.getValue().onTimeout(event);
+        listener.getValue().onComplete(event);
+        listener.getValue().onComplete(event);
+        assertNull(registry.find("http_server_requests").timer());
+        assertEquals(1, registry.find("http_server_requests_async").tag("status", "503").timer().count());
+    }
+
+    /**
+     * Verifies request content length and written response bytes are recorded when HttpBytes is enabled, independent of http timing.
+     * @throws IOException io error
+     * @throws ServletException servlet error
+     */
+    @Test
+    public void testRequestAndResponseBytesRecorded() throws IOException, ServletException {
+        PrometheusConfig prometheusConfig = new PrometheusConfig();
+        prometheusConfig.setMetrics(List.of("HttpBytes"));
+        HttpRequestMetricsConfig httpCfg = new HttpRequestMetricsConfig();
+        httpCfg.setUris(List.of("/upload"));
+        prometheusConfig.setHttpRequestMetricsConfig(httpCfg);
+        MonitoringModule module = mock(MonitoringModule.class);
+        when(module.getConfigSnapshot()).thenReturn(PrometheusConfigSnapshot.of(prometheusConfig));
+        PrometheusMeterRegistry registry = new PrometheusMeterRegistry(io.micrometer.prometheusmetrics.PrometheusConfig.DEFAULT);
+        PrometheusFilter filter = new PrometheusFilter(module, registry);
+        HttpServletRequest request = mock(HttpServletRequest.class);
+        HttpServletResponse response = mock(HttpServletResponse.class);
+        ServletOutputStream out = mock(ServletOutputStream.class);
+        when(request.getRequestURI()).thenReturn("/upload");
+        when(request.getMethod()).thenReturn("POST");
+        when(request.getContentLengthLong()).thenReturn(5L, -1L);
+        when(response.getStatus()).thenReturn(200);
+        when(response.getOutputStream()).thenReturn(out);
+        FilterChain chain = (req, res) -> res.getOutputStream().write(new byte[10], 0, 10);
+        filter.doFilter(request, response, chain);
+        filter.doFilter(request, response, chain);
+        verify(out, times(2)).write(any(byte[].class), eq(0), eq(10));
+        assertNull(registry.find("http_server_requests").timer());
+        DistributionSummary responseBytes = registry.find("http_server_response_bytes").tag("uri", "/upload").tag("method", "POST").summary();
+        assertEquals(2, responseBytes.count());
+        assertEquals(20, responseBytes.totalAmount());
+        DistributionSummary requestBytes = registry.find("http_server_request_bytes").tag("status", "200").summary();
+        assertEquals(1, requestBytes.count());
+        assertEquals(5, requestBytes.totalAmount());
+    }
+
+    /**
+     * Verifies requests above the concurrency limit are rejected with 503 and Retry-After, exempt URIs pass and the
+     * limiter meters are registered.
+     * @throws IOException io error
+     * @throws ServletException servlet error
+     */
+    @Test
+    public void testConcurrencyLimitRejectsExcessRequests() throws IOException, ServletException {
+        ConcurrencyLimitConfig limitConfig = new ConcurrencyLimitConfig();
+        limitConfig.setEnabled(true);
+        limitConfig.setInitialLimit(1);
+        limitConfig.setMinLimit(1);
+        limitConfig.setMaxLimit(1);
+        limitConfig.setRetryAfterSeconds(3);
+        PrometheusConfig prometheusConfig = new PrometheusConfig();
+        prometheusConfig.setMetrics(List.of());
+        prometheusConfig.setConcurrencyLimitConfig(limitConfig);
+        MonitoringModule module = mock(MonitoringModule.class);
+        when(module.getConfigSnapshot()).thenReturn(PrometheusConfigSnapshot.of(prometheusConfig));
+        PrometheusMeterRegistry registry = new PrometheusMeterRegistry(io.micrometer.prometheusmetrics.PrometheusConfig.DEFAULT);
+        PrometheusFilter filter = new PrometheusFilter(module, registry);
+
+        HttpServletRequest nested = mock(HttpServletRequest.class);
+        HttpServletResponse nestedResponse = mock(HttpServletResponse.class);
+        when(nested.getRequestURI()).thenReturn("/page");
+        when(nested.getDispatcherType()).thenReturn(DispatcherType.REQUEST);
+        HttpServletRequest monitoring = mock(HttpServletRequest.class);
+        when(monitoring.getRequestURI()).thenReturn("/.rest/monitoring/v1/health");
+        FilterChain monitoringChain = mock(FilterChain.class);
+        FilterChain nestedChain = mock(FilterChain.class);
+
+        HttpServletRequest request = mock(HttpServletRequest.class);
+        when(request.getRequestURI()).thenReturn("/page");
+        when(request.getDispatcherType()).thenReturn(DispatcherType.REQUEST);
+        FilterChain chain = (req, res) -> {
+            assertEquals(1.0, registry.get("http_server_concurrency_in_flight").gauge().value());
+            filter.doFilter(nested, nestedResponse, nestedChain);
+            filter.doFilter(monitoring, mock(HttpServletResponse.class), monitoringChain);
+        };
+        filter.doFilter(request, mock(HttpServletResponse.class), chain);
+
+        verify(nestedChain, never()).doFilter(any(), any());
+        verify(nestedResponse).setStatus(503);
+        verify(nestedResponse).setHeader("Retry-After", "3");
+        verify(monitoringChain).doFilter(eq(monitoring), any());
+        assertEquals(1.0, registry.get("http_server_concurrency_rejections").counter().count());
+        assertEquals(1.0, registry.get("http_server_concurrency_limit").gauge().value());
+        assertEquals(0.0, registry.get("http_server_concurrency_in_flight").gauge().value());
+    }
+
+    /**
+     * Verifies an async request keeps its concurrency permit until the async context completes.
+     * @throws IOException io error
+     * @throws ServletException servlet error
+     */
+    @Test
+    public void testAsyncRequestHoldsConcurrencyPermit() throws IOException, ServletException {
+        ConcurrencyLimitConfig limitConfig = new ConcurrencyLimitConfig();
+        limitConfig.setEnabled(true);
+        limitConfig.setInitialLimit(1);
+        limitConfig.setMinLimit(1);
+        limitConfig.setMaxLimit(1);
+        PrometheusConfig prometheusConfig = new PrometheusConfig();
+        prometheusConfig.setMetrics(List.of());
+        prometheusConfig.setConcurrencyLimitConfig(limitConfig);
+        MonitoringModule module = mock(MonitoringModule.class);
+        when(module.getConfigSnapshot()).thenReturn(PrometheusConfigSnapshot.of(prometheusConfig));
+        PrometheusMeterRegistry registry = new PrometheusMeterRegistry(io.micrometer.prometheusmetrics.PrometheusConfig.DEFAULT);
+        PrometheusFilter filter = new PrometheusFilter(module, registry);
+        HttpServletRequest request = mock(HttpServletRequest.class);
+        AsyncContext asyncContext = mock(AsyncContext.class);
+        when(request.getRequestURI()).thenReturn("/stream");
+        when(request.getDispatcherType()).thenReturn(DispatcherType.REQUEST);
+        when(request.isAsyncStarted()).thenReturn(true);
+        when(request.getAsyncContext()).thenReturn(asyncContext);
+
+        filter.doFilter(request, mock(HttpServletResponse.class), mock(FilterChain.class));
+        assertEquals(1.0, registry.get("http_server_concurrency_in_flight").gauge().value());
+        HttpServletResponse rejected = mock(HttpServletResponse.class);
+        filter.doFilter(request, rejected, mock(FilterChain.class));
+        verify(rejected).setStatus(503);
+
+        ArgumentCaptor<AsyncListener> listener = ArgumentCaptor.forClass(AsyncListener.class);
+        verify(asyncContext).addListener(listener.capture());
+        listener.getValue().onComplete(new AsyncEvent(asyncContext));
+        listener.getValue().onComplete(new AsyncEvent(asyncContext));
+        assertEquals(0.0, registry.get("http_server_concurrency_in_flight").gauge().value());
+    }
+
+    /**
+     * Verifies CPU time and allocated bytes of the request thread are recorded per route when HttpResources is enabled.
+     * @throws IOException io error
+     * @throws ServletException servlet error
+     */
+    @Test
+    public void testRequestResourcesRecorded() throws IOException, ServletException {
+        PrometheusConfig prometheusConfig = new PrometheusConfig();
+        prometheusConfig.setMetrics(List.of("HttpResources"));
+        HttpRequestMetricsConfig httpCfg = new HttpRequestMetricsConfig();
+        httpCfg.setUris(List.of("/expensive"));
+        prometheusConfig.setHttpRequestMetricsConfig(httpCfg);
+        MonitoringModule module = mock(MonitoringModule.class);
+        when(module.getConfigSnapshot()).thenReturn(PrometheusConfigSnapshot.of(prometheusConfig));
+        PrometheusMeterRegistry registry = new PrometheusMeterRegistry(io.micrometer.prometheusmetrics.PrometheusConfig.DEFAULT);
+        PrometheusFilter filter = new PrometheusFilter(module, registry);
+        HttpServletRequest request = mock(HttpServletRequest.class);
+        HttpServletResponse response = mock(HttpServletResponse.class);
+        when(request.getRequestURI()).thenReturn("/expensive");
+        when(request.getMethod()).thenReturn("GET");
+        when(response.getStatus()).thenReturn(200);
+        FilterChain chain = (req, res) -> req.setAttribute("payload", new byte[1 << 20]);
+        filter.doFilter(request, response, chain);
+
+        assertNull(registry.find("http_server_requests").timer());
+        ThreadResourceProbe probe = ThreadResourceProbe.get();
+        DistributionSummary cpu = registry.find("http_server_request_cpu").tag("uri", "/expensive").summary();
+        DistributionSummary allocated = registry.find("http_server_request_allocated").tag("uri", "/expensive").summary();
+        assertEquals(probe.isCpuTimeSupported(), cpu != null);
+        assertEquals(probe.isAllocatedBytesSupported(), allocated != null);
+        if (allocated != null) {
+            assertEquals(1, allocated.count());
+            assertTrue(allocated.totalAmount() >= 1 << 20);
+        }
+    }
+
+    /**
+     * Verifies requests are registered with the module's slow request sampler and retained once past the threshold.
+     * @throws IOException io error
+     * @throws ServletException servlet error
+     */
+    @Test
+    public void testSlowRequestSampled() throws IOException, ServletException {
+        PrometheusConfig prometheusConfig = new PrometheusConfig();
+        prometheusConfig.setMetrics(List.of());
+        SlowRequestSamplerConfig samplerConfig = new SlowRequestSamplerConfig();
+        samplerConfig.setEnabled(true);
+        samplerConfig.setThresholdMillis(0);
+        prometheusConfig.setSlowRequestSamplerConfig(samplerConfig);
+        PrometheusConfigSnapshot snapshot = PrometheusConfigSnapshot.of(prometheusConfig);
+        SlowRequestSampler sampler = new SlowRequestSampler();
+        sampler.configure(snapshot);
+        MonitoringModule module = mock(MonitoringModule.class);
+        when(module.getConfigSnapshot()).thenReturn(snapshot);
+        when(module.getSlowRequestSampler()).thenReturn(sampler);
+        PrometheusFilter filter = new PrometheusFilter(module, new PrometheusMeterRegistry(io.micrometer.prometheusmetrics.PrometheusConfig.DEFAULT));
+        HttpServletRequest request = mock(HttpServletRequest.class);
+        HttpServletResponse response = mock(HttpServletResponse.class);
+        when(request.getRequestURI()).thenReturn("/slow");
+        when(request.getMethod()).thenReturn("GET");
+        when(response.getStatus()).thenReturn(200);
+        HttpServletRequest include = mock(HttpServletRequest.class);
+        when(include.getDispatcherType()).thenReturn(DispatcherType.INCLUDE);
+        try {
+            filter.doFilter(request, response, mock(FilterChain.class));
+            filter.doFilter(include, response, mock(FilterChain.class));
+        } finally {
+            sampler.shutdown();
+        }
+
+        List<SlowRequestProfile> profiles = sampler.getSlowRequests();
+        assertEquals(1, profiles.size());
+        assertEquals("/slow", profiles.get(0).getUri());
+        assertEquals(200, profiles.get(0).getStatus());
+    }
+
+    /**
+     * Verifies the request id header is attached as exemplar to the SLO bucket and rendered in OpenMetrics format.
+     * @throws IOException io error
+     * @throws ServletException servlet error
+     */
+    @Test
+    public void testRequestIdRecordedAsExemplar() throws IOException, ServletException {
+        PrometheusConfig prometheusConfig = new PrometheusConfig();
+        prometheusConfig.setMetrics(List.of("http"));
+        HttpRequestMetricsConfig httpCfg = new HttpRequestMetricsConfig();
+        httpCfg.setSloBuckets(List.of(100, 1000));
+        httpCfg.setExemplars(true);
+        prometheusConfig.setHttpRequestMetricsConfig(httpCfg);
+        MonitoringModule module = mock(MonitoringModule.class);
+        when(module.getConfigSnapshot()).thenReturn(PrometheusConfigSnapshot.of(prometheusConfig));
+        PrometheusMeterRegistry registry = new PrometheusMeterRegistryProvider(module).get();
+        PrometheusFilter filter = new PrometheusFilter(module, registry);
+        HttpServletRequest request = mock(HttpServletRequest.class);
+        HttpServletResponse response = mock(HttpServletResponse.class);
+        when(request.getRequestURI()).thenReturn("/news/42");
+        when(request.getMethod()).thenReturn("GET");
+        when(request.getHeader("X-Request-Id")).thenReturn("req-4711");
+        when(response.getStatus()).thenReturn(200);
+        filter.doFilter(request, response, mock(FilterChain.class));
+
+        String openMetrics = registry.scrape("application/openmetrics-text; version=1.0.0; charset=utf-8");
+        assertTrue(openMetrics.contains("span_id=\"\",trace_id=\"req-4711\""), openMetrics);
+        assertFalse(openMetrics.contains("/news/42\",trace_id"), openMetrics);
+        assertNull(RequestExemplarContext.INSTANCE.getCurrentTraceId());
+    }
+
+    /**
+     * Verifies the cache outcome published by the cache filter during the chain is added as cache tag.
+     * @throws IOException io error
+     * @throws ServletException servlet error
+     */
+    @Test
+    public void testCacheOutcomeTag() throws IOException, ServletException {
+        PrometheusConfig prometheusConfig = new PrometheusConfig();
+        prometheusConfig.setMetrics(List.of("http"));
+        HttpRequestMetricsConfig httpCfg = new HttpRequestMetricsConfig();
+        httpCfg.setCacheOutcome(true);
+        httpCfg.setCacheHeader("X-Cache");
+        prometheusConfig.setHttpRequestMetricsConfig(httpCfg);
+        MonitoringModule module = mock(MonitoringModule.class);
+        when(module.getConfigSnapshot()).thenReturn(PrometheusConfigSnapshot.of(prometheusConfig));
+        PrometheusMeterRegistry registry = new PrometheusMeterRegistry(io.micrometer.prometheusmetrics.PrometheusConfig.DEFAULT);
+        PrometheusFilter filter = new PrometheusFilter(module, registry);
+        HttpServletRequest request = mock(HttpServletRequest.class);
+        HttpServletResponse response = mock(HttpServletResponse.class);
+        FilterChain chain = mock(FilterChain.class);
+        when(request.getRequestURI()).thenReturn("/home.html");
+        when(request.getMethod()).thenReturn("GET");
+        when(response.getStatus()).thenReturn(200);
+        doAnswer(invocation -> {
+            when(response.getHeader("X-Cache")).thenReturn("HIT");
+            return null;
+        }).when(chain).doFilter(request, response);
+        filter.doFilter(request, response, chain);
+        filter.doFilter(request, response, chain);
+        when(response.getHeader("X-Cache")).thenReturn(null);
+        filter.doFilter(request, response, mock(FilterChain.class));
+
+        assertEquals(2, registry.get("http_server_requests").tag(PrometheusFilter.CACHE_TAG, "hit").timer().count());
+        assertEquals(1, registry.get("http_server_requests").tag(PrometheusFilter.CACHE_TAG, "none").timer().count());
+    }
+
+    /**
+     * Verifies enabling the cache outcome at runtime keeps the tag keys of the request timers stable, so series
+     * registered before and after the switch are all exported.
+     * @throws IOException io error
+     * @throws ServletException servlet error
+     */
+    @Test
+    public void testCacheOutcomeToggledAtRuntime() throws IOException, ServletException {
+        PrometheusConfig prometheusConfig = new PrometheusConfig();
+        prometheusConfig.setMetrics(List.of("http"));
+        HttpRequestMetricsConfig httpCfg = new HttpRequestMetricsConfig();
+        httpCfg.setUris(List.of("/home.html"));
+        httpCfg.setCacheHeader("X-Cache");
+        prometheusConfig.setHttpRequestMetricsConfig(httpCfg);
+        MonitoringModule module = mock(MonitoringModule.class);
+        when(module.getConfigSnapshot()).thenReturn(PrometheusConfigSnapshot.of(prometheusConfig));
+        PrometheusMeterRegistry registry = new PrometheusMeterRegistryProvider(module).get();
+        PrometheusFilter filter = new PrometheusFilter(module, registry);
+        HttpServletRequest request = mock(HttpServletRequest.class);
+        HttpServletResponse response = mock(HttpServletResponse.class);
+        when(request.getRequestURI()).thenReturn("/home.html");
+        when(request.getMethod()).thenReturn("GET");
+        when(response.getStatus()).thenReturn(200);
+        when(response.getHeader("X-Cache")).thenReturn("HIT");
+        filter.doFilter(request, response, mock(FilterChain.class));
+
+        httpCfg.setCacheOutcome(true);
+        when(module.getConfigSnapshot()).thenReturn(PrometheusConfigSnapshot.of(prometheusConfig));
+        filter.doFilter(request, response, mock(FilterChain.class));
+
+        String scrape = registry.scrape();
+        assertTrue(scrape.contains("http_server_requests_seconds_count{cache=\"none\",method=\"GET\",status=\"200\",uri=\"/home.html\"} 1"), scrape);
+        assertTrue(scrape.contains("http_server_requests_seconds_count{cache=\"hit\",method=\"GET\",status=\"200\",uri=\"/home.html\"} 1"), scrape);
+    }
+
+    /**
+     * Verifies the main filter chain is wrapped with timed filters once the HttpFilters metric is enabled.
+     * @throws IOException io error
+     * @throws ServletException servlet error
+     */
+    @Test
+    public void testInstrumentsFilterChain() throws IOException, ServletException {
+        PrometheusConfig prometheusConfig = new PrometheusConfig();
+        prometheusConfig.setMetrics(List.of("HttpFilters"));
+        MonitoringModule module = mock(MonitoringModule.class);
+        when(module.getConfigSnapshot()).thenReturn(PrometheusConfigSnapshot.of(prometheusConfig));
+        PrometheusMeterRegistry registry = new PrometheusMeterRegistry(io.micrometer.prometheusmetrics.PrometheusConfig.DEFAULT);
+        CompositeFilter root = new CompositeFilter();
+        root.addFilter(mock(MgnlFilter.class));
+        FilterManager filterManager = mock(FilterManager.class);
+        when(filterManager.getFilter()).thenReturn(root);
+        PrometheusFilter filter = new PrometheusFilter(module, registry, () -> filterManager);
+        filter.doFilter(mock(HttpServletRequest.class), mock(HttpServletResponse.class), mock(FilterChain.class));
+        assertTrue(root.getFilters()[0] instanceof TimedMgnlFilter);
+    }
+
+    /**
+     * Verifies the load balancer's request start header is recorded as queue time before the chain runs.
+     * @throws IOException io error
+     * @throws ServletException servlet error
+     */
+    @Test
+    public void testRecordsQueueTime() throws IOException, ServletException {
+        PrometheusConfig prometheusConfig = new PrometheusConfig();
+        prometheusConfig.setMetrics(List.of("HttpQueue"));
+        prometheusConfig.setHttpRequestMetricsConfig(new HttpRequestMetricsConfig());
+        MonitoringModule module = mock(MonitoringModule.class);
+        when(module.getConfigSnapshot()).thenReturn(PrometheusConfigSnapshot.of(prometheusConfig));
+        MockClock clock = new MockClock();
+        clock.add(Duration.ofSeconds(1_700_000_000L));
+        PrometheusMeterRegistry registry = new PrometheusMeterRegistry(io.micrometer.prometheusmetrics.PrometheusConfig.DEFAULT,
+            new PrometheusRegistry(), clock);
+        PrometheusFilter filter = new PrometheusFilter(module, registry);
+        HttpServletRequest request = mock(HttpServletRequest.class);
+        FilterChain chain = mock(FilterChain.class);
+        filter.doFilter(request, mock(HttpServletResponse.class), chain);
+        assertNull(registry.find(PrometheusFilter.HTTP_SERVER_REQUEST_QUEUE_TIME).timer());
+
+        when(request.getHeader("X-Queue-Start")).thenReturn("t=1699999999.750");
+        filter.doFilter(request, mock(HttpServletResponse.class), chain);
+        when(request.getHeader("X-Request-Start")).thenReturn("t=1700000000500");
+        filter.doFilter(request, mock(HttpServletResponse.class), chain);
+        Timer timer = registry.get(PrometheusFilter.HTTP_SERVER_REQUEST_QUEUE_TIME).timer();
+        assertEquals(2, timer.count());
+        assertEquals(251, timer.totalTime(TimeUnit.MILLISECONDS));
+        verify(chain, times(3)).doFilter(any(), any());
+    }
 }
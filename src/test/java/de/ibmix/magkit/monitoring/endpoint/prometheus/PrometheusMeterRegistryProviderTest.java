@@ -21,6 +21,7 @@ package de.ibmix.magkit.monitoring.endpoint.prometheus;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
@@ -32,7 +33,11 @@ import org.junit.jupiter.api.Test;
 
 import de.ibmix.magkit.monitoring.MonitoringModule;
 import de.ibmix.magkit.monitoring.config.prometheus.HttpRequestMetricsConfig;
+import de.ibmix.magkit.monitoring.config.prometheus.LatencyHistogramConfig;
 import de.ibmix.magkit.monitoring.config.prometheus.PrometheusConfig;
+import de.ibmix.magkit.monitoring.config.prometheus.PrometheusConfigSnapshot;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
 import io.micrometer.core.instrument.Tag;
 import io.micrometer.core.instrument.Timer;
 import io.micrometer.core.instrument.Tags;
@@ -56,7 +61,7 @@ public class PrometheusMeterRegistryProviderTest {
         prometheusConfig.setHttpRequestMetricsConfig(httpCfg);
         prometheusConfig.setMetrics(List.of("http"));
         MonitoringModule module = mock(MonitoringModule.class);
-        when(module.getPrometheusConfig()).thenReturn(prometheusConfig);
+        when(module.getConfigSnapshot()).thenReturn(PrometheusConfigSnapshot.of(prometheusConfig));
         PrometheusMeterRegistryProvider provider = new PrometheusMeterRegistryProvider(module);
         PrometheusMeterRegistry registry = provider.get();
         Timer timer1 = registry.timer("http_server_requests", Tags.of(Tag.of("uri", "/allowed/test")));
@@ -65,6 +70,23 @@ public class PrometheusMeterRegistryProviderTest {
         assertEquals("", timer2.getId().getTag("uri"));
     }
 
+    /**
+     * Verifies route template values pass the whitelist filter even when not whitelisted explicitly.
+     */
+    @Test
+    public void testHttpWhitelistFilterKeepsRouteTemplates() {
+        PrometheusConfig prometheusConfig = new PrometheusConfig();
+        HttpRequestMetricsConfig httpCfg = new HttpRequestMetricsConfig();
+        httpCfg.setRoutes(List.of("/dam/{uuid}/{file}"));
+        prometheusConfig.setHttpRequestMetricsConfig(httpCfg);
+        prometheusConfig.setMetrics(List.of("http"));
+        MonitoringModule module = mock(MonitoringModule.class);
+        when(module.getConfigSnapshot()).thenReturn(PrometheusConfigSnapshot.of(prometheusConfig));
+        PrometheusMeterRegistry registry = new PrometheusMeterRegistryProvider(module).get();
+        Timer timer = registry.timer("http_server_requests", Tags.of(Tag.of("uri", "/dam/{uuid}/{file}")));
+        assertEquals("/dam/{uuid}/{file}", timer.getId().getTag("uri"));
+    }
+
     /**
      * Verifies SLO buckets configuration is applied (histogram count array length equals number of SLO buckets) when metrics contain http.
      */
@@ -77,7 +99,7 @@ public class PrometheusMeterRegistryProviderTest {
         prometheusConfig.setHttpRequestMetricsConfig(httpCfg);
         prometheusConfig.setMetrics(List.of("http"));
         MonitoringModule module = mock(MonitoringModule.class);
-        when(module.getPrometheusConfig()).thenReturn(prometheusConfig);
+        when(module.getConfigSnapshot()).thenReturn(PrometheusConfigSnapshot.of(prometheusConfig));
         PrometheusMeterRegistryProvider provider = new PrometheusMeterRegistryProvider(module);
         PrometheusMeterRegistry registry = provider.get();
         Timer timer = registry.timer("http_server_requests", Tags.of(Tag.of("uri", "/any")));
@@ -99,9 +121,121 @@ public class PrometheusMeterRegistryProviderTest {
         HttpRequestMetricsConfig httpCfg = new HttpRequestMetricsConfig();
         prometheusConfig.setHttpRequestMetricsConfig(httpCfg);
         MonitoringModule module = mock(MonitoringModule.class);
-        when(module.getPrometheusConfig()).thenReturn(prometheusConfig);
+        when(module.getConfigSnapshot()).thenReturn(PrometheusConfigSnapshot.of(prometheusConfig));
         PrometheusMeterRegistryProvider provider = new PrometheusMeterRegistryProvider(module);
         PrometheusMeterRegistry registry = provider.get();
         assertNotNull(registry.find("jvm.memory.used").meter());
     }
+
+    /**
+     * Verifies whitelist and SLO buckets are applied to the async request timer as well, and the whitelist (but no SLO
+     * buckets) to the size distributions.
+     */
+    @Test
+    public void testFiltersApplyToAsyncTimer() {
+        PrometheusConfig prometheusConfig = new PrometheusConfig();
+        HttpRequestMetricsConfig httpCfg = new HttpRequestMetricsConfig();
+        httpCfg.setUris(List.of("/allowed"));
+        httpCfg.setSloBuckets(List.of(10, 20));
+        prometheusConfig.setHttpRequestMetricsConfig(httpCfg);
+        prometheusConfig.setMetrics(List.of("http"));
+        MonitoringModule module = mock(MonitoringModule.class);
+        when(module.getConfigSnapshot()).thenReturn(PrometheusConfigSnapshot.of(prometheusConfig));
+        PrometheusMeterRegistry registry = new PrometheusMeterRegistryProvider(module).get();
+        Timer blocked = registry.timer("http_server_requests_async", Tags.of(Tag.of("uri", "/blocked")));
+        Timer allowed = registry.timer("http_server_requests_async", Tags.of(Tag.of("uri", "/allowed")));
+        assertEquals("", blocked.getId().getTag("uri"));
+        assertEquals("/allowed", allowed.getId().getTag("uri"));
+        assertEquals(2, allowed.takeSnapshot().histogramCounts().length);
+        DistributionSummary bytes = registry.summary("http_server_response_bytes", Tags.of(Tag.of("uri", "/blocked")));
+        assertEquals("", bytes.getId().getTag("uri"));
+        assertEquals(0, bytes.takeSnapshot().histogramCounts().length);
+    }
+
+    /**
+     * Verifies log-linear buckets are applied to request timers until the bucket budget is exhausted, after which new
+     * timers keep a single bucket at the largest bound, the family still scrapes as histogram and the reserved buckets
+     * are exported as gauge.
+     */
+    @Test
+    public void testLatencyHistogramWithinBudget() {
+        LatencyHistogramConfig histogramCfg = new LatencyHistogramConfig();
+        histogramCfg.setEnabled(true);
+        histogramCfg.setMinMillis(1);
+        histogramCfg.setMaxMillis(1024);
+        histogramCfg.setPrecision(2);
+        histogramCfg.setBucketBudget(50);
+        HttpRequestMetricsConfig httpCfg = new HttpRequestMetricsConfig();
+        httpCfg.setUris(List.of("/.*"));
+        PrometheusConfig prometheusConfig = new PrometheusConfig();
+        prometheusConfig.setHttpRequestMetricsConfig(httpCfg);
+        prometheusConfig.setLatencyHistogramConfig(histogramCfg);
+        prometheusConfig.setMetrics(List.of("http"));
+        MonitoringModule module = mock(MonitoringModule.class);
+        when(module.getConfigSnapshot()).thenReturn(PrometheusConfigSnapshot.of(prometheusConfig));
+        PrometheusMeterRegistry registry = new PrometheusMeterRegistryProvider(module).get();
+
+        Timer first = registry.timer("http_server_requests", Tags.of(Tag.of("uri", "/a")));
+        Timer second = registry.timer("http_server_requests", Tags.of(Tag.of("uri", "/b")));
+        Timer third = registry.timer("http_server_requests", Tags.of(Tag.of("uri", "/c")));
+        assertEquals(21, first.takeSnapshot().histogramCounts().length);
+        assertEquals(21, second.takeSnapshot().histogramCounts().length);
+        assertEquals(1, third.takeSnapshot().histogramCounts().length);
+        assertEquals(first.takeSnapshot().histogramCounts()[20].bucket(), third.takeSnapshot().histogramCounts()[0].bucket());
+        third.record(Duration.ofMillis(3));
+        assertEquals(1, third.count());
+        assertEquals(42.0, registry.get(PrometheusMeterRegistryProvider.HTTP_SERVER_HISTOGRAM_BUCKETS).gauge().value());
+        String scrape = registry.scrape();
+        assertTrue(scrape.contains("http_server_requests_seconds_bucket{uri=\"/c\",le=\"+Inf\"} 1"), scrape);
+    }
+
+    /**
+     * Verifies tag combinations beyond the maximum series fold into the overflow series and the self-metrics are scraped.
+     */
+    @Test
+    public void testCardinalityLimitFoldsOverflow() {
+        HttpRequestMetricsConfig httpCfg = new HttpRequestMetricsConfig();
+        httpCfg.setUris(List.of("/.*"));
+        PrometheusConfig prometheusConfig = new PrometheusConfig();
+        prometheusConfig.setHttpRequestMetricsConfig(httpCfg);
+        prometheusConfig.setMaxSeriesPerMeter(2);
+        prometheusConfig.setMetrics(List.of("http"));
+        MonitoringModule module = mock(MonitoringModule.class);
+        when(module.getConfigSnapshot()).thenReturn(PrometheusConfigSnapshot.of(prometheusConfig));
+        PrometheusMeterRegistry registry = new PrometheusMeterRegistryProvider(module).get();
+
+        registry.counter("crawled", "uri", "/a").increment();
+        registry.counter("crawled", "uri", "/b").increment();
+        registry.counter("crawled", "uri", "/c").increment();
+        registry.counter("crawled", "uri", "/d").increment();
+        assertEquals(3, registry.find("crawled").counters().size());
+        assertEquals(2.0, registry.get("crawled").tag("uri", CardinalityLimitingMeterFilter.OVERFLOW_TAG_VALUE).counter().count());
+
+        String scrape = registry.scrape();
+        assertTrue(scrape.contains("meter_series{meter=\"crawled\"} 2.0"));
+        assertTrue(scrape.contains("meter_series_dropped_total{meter=\"crawled\"} 2.0"));
+    }
+
+    /**
+     * Verifies removing meters at the maximum frees their series, so rotating tag values are admitted instead of folded.
+     */
+    @Test
+    public void testCardinalitySlotReleasedOnRemoval() {
+        PrometheusConfig prometheusConfig = new PrometheusConfig();
+        prometheusConfig.setMaxSeriesPerMeter(2);
+        MonitoringModule module = mock(MonitoringModule.class);
+        when(module.getConfigSnapshot()).thenReturn(PrometheusConfigSnapshot.of(prometheusConfig));
+        PrometheusMeterRegistry registry = new PrometheusMeterRegistryProvider(module).get();
+
+        for (int i = 0; i < 5; i++) {
+            Gauge gauge = Gauge.builder("rotating", () -> 1).tag("value", "v" + i).register(registry);
+            assertEquals("v" + i, gauge.getId().getTag("value"));
+            registry.remove(gauge);
+        }
+        Gauge.builder("rotating", () -> 1).tag("value", "last").register(registry);
+        assertNotNull(registry.find("rotating").tag("value", "last").gauge());
+        String scrape = registry.scrape();
+        assertTrue(scrape.contains("meter_series{meter=\"rotating\"} 1.0"), scrape);
+        assertTrue(scrape.contains("meter_series_dropped_total{meter=\"rotating\"} 0.0"), scrape);
+    }
 }
@@ -0,0 +1,92 @@
+/*-
+ * #%L
+ * IBM iX Magnolia Monitoring
+ * %%
+ * Copyright (C) 2023 - 2025 IBM iX
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package de.ibmix.magkit.monitoring.endpoint.prometheus;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for {@link RequestExemplarContext} covering publication, clearing, traceparent parsing and truncation of the exemplar values.
+ * @author IBM iX
+ * @since 2026-10-17
+ */
+public class RequestExemplarContextTest {
+
+    private final RequestExemplarContext _context = RequestExemplarContext.INSTANCE;
+
+    /**
+     * Removes values left by a test from the current thread.
+     */
+    @AfterEach
+    public void tearDown() {
+        RequestExemplarContext.clear();
+    }
+
+    /**
+     * Verifies a plain request id is reported as trace id with an empty span id only while set.
+     */
+    @Test
+    public void testSetAndClear() {
+        assertFalse(_context.isCurrentSpanSampled());
+        assertNull(_context.getCurrentTraceId());
+        RequestExemplarContext.set("req-1");
+        assertTrue(_context.isCurrentSpanSampled());
+        assertEquals("req-1", _context.getCurrentTraceId());
+        assertEquals("", _context.getCurrentSpanId());
+        RequestExemplarContext.clear();
+        assertFalse(_context.isCurrentSpanSampled());
+        assertNull(_context.getCurrentSpanId());
+    }
+
+    /**
+     * Verifies a W3C traceparent value is split into trace id and span id.
+     */
+    @Test
+    public void testTraceparent() {
+        RequestExemplarContext.set("00-4bf92f3577b34da6a3ce929d0e0e4736-00f067aa0ba902b7-01");
+        assertEquals("4bf92f3577b34da6a3ce929d0e0e4736", _context.getCurrentTraceId());
+        assertEquals("00f067aa0ba902b7", _context.getCurrentSpanId());
+    }
+
+    /**
+     * Verifies a null id leaves the context empty.
+     */
+    @Test
+    public void testNullValue() {
+        RequestExemplarContext.set("req-1");
+        RequestExemplarContext.set(null);
+        assertFalse(_context.isCurrentSpanSampled());
+        assertNull(_context.getCurrentSpanId());
+    }
+
+    /**
+     * Verifies long request ids stay within the OpenMetrics exemplar label budget.
+     */
+    @Test
+    public void testTruncation() {
+        RequestExemplarContext.set("i".repeat(200));
+        assertEquals(RequestExemplarContext.MAX_ID_LENGTH, _context.getCurrentTraceId().length());
+    }
+}
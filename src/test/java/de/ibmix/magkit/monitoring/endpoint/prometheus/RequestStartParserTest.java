@@ -0,0 +1,64 @@
+/*-
+ * #%L
+ * IBM iX Magnolia Monitoring
+ * %%
+ * Copyright (C) 2023 - 2025 IBM iX
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package de.ibmix.magkit.monitoring.endpoint.prometheus;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for {@link RequestStartParser} covering the prefixed, fractional and integer formats and malformed values.
+ * @author IBM iX
+ * @since 2026-10-17
+ */
+public class RequestStartParserTest {
+
+    private static final long EXPECTED = 1_700_000_000_123_456_000L;
+
+    /**
+     * Verifies seconds, milliseconds, microseconds and nanoseconds are detected by magnitude, with or without prefix.
+     */
+    @Test
+    public void testFormats() {
+        assertEquals(EXPECTED, RequestStartParser.toEpochNanos("t=1700000000.123456"));
+        assertEquals(EXPECTED, RequestStartParser.toEpochNanos(" 1700000000.123456 "));
+        assertEquals(1_700_000_000_000_000_000L, RequestStartParser.toEpochNanos("1700000000"));
+        assertEquals(1_700_000_000_123_000_000L, RequestStartParser.toEpochNanos("t=1700000000123"));
+        assertEquals(EXPECTED, RequestStartParser.toEpochNanos("t=1700000000123456"));
+        assertEquals(EXPECTED + 789, RequestStartParser.toEpochNanos("1700000000123456789"));
+        assertEquals(1_700_000_000_100_000_000L, RequestStartParser.toEpochNanos("1700000000.1"));
+        assertEquals(1_700_000_000_123_456_789L, RequestStartParser.toEpochNanos("1700000000.1234567891"));
+    }
+
+    /**
+     * Verifies malformed values are rejected.
+     */
+    @Test
+    public void testInvalid() {
+        assertEquals(RequestStartParser.INVALID, RequestStartParser.toEpochNanos(null));
+        assertEquals(RequestStartParser.INVALID, RequestStartParser.toEpochNanos(""));
+        assertEquals(RequestStartParser.INVALID, RequestStartParser.toEpochNanos("t="));
+        assertEquals(RequestStartParser.INVALID, RequestStartParser.toEpochNanos("abc"));
+        assertEquals(RequestStartParser.INVALID, RequestStartParser.toEpochNanos("-1700000000"));
+        assertEquals(RequestStartParser.INVALID, RequestStartParser.toEpochNanos("1700000000.12a"));
+        assertEquals(RequestStartParser.INVALID, RequestStartParser.toEpochNanos("1700000000123.5"));
+        assertEquals(RequestStartParser.INVALID, RequestStartParser.toEpochNanos("99999999999999999999"));
+    }
+}
@@ -0,0 +1,160 @@
+/*-
+ * #%L
+ * IBM iX Magnolia Monitoring
+ * %%
+ * Copyright (C) 2023 - 2025 IBM iX
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package de.ibmix.magkit.monitoring.endpoint.prometheus;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for {@link ScrapeCache} covering expiry, per variant entries, the variant cap, failure handling, coalescing
+ * of concurrent renderings and the hit/miss counters.
+ * @author IBM iX
+ * @since 2026-10-17
+ */
+public class ScrapeCacheTest {
+
+    /**
+     * Verifies entries are reused within the TTL, rendered again after it and kept per variant.
+     * @throws IOException never
+     */
+    @Test
+    public void testExpiryAndVariants() throws IOException {
+        AtomicLong now = new AtomicLong();
+        AtomicInteger renderings = new AtomicInteger();
+        ScrapeCache cache = new ScrapeCache(now::get);
+        ScrapeCache.Renderer renderer = out -> out.write(renderings.incrementAndGet());
+
+        assertArrayEquals(new byte[] {1}, cache.get("text", 100, renderer));
+        now.set(99);
+        assertArrayEquals(new byte[] {1}, cache.get("text", 100, renderer));
+        assertArrayEquals(new byte[] {2}, cache.get("text;gzip", 100, renderer));
+        now.set(100);
+        assertArrayEquals(new byte[] {3}, cache.get("text", 100, renderer));
+        assertEquals(1, cache.getHits());
+        assertEquals(3, cache.getMisses());
+
+        cache.clear();
+        assertArrayEquals(new byte[] {4}, cache.get("text", 100, renderer));
+    }
+
+    /**
+     * Verifies expired variants are dropped on the next rendering and the number of stored variants is capped.
+     * @throws IOException never
+     */
+    @Test
+    public void testBoundedVariants() throws IOException {
+        AtomicLong now = new AtomicLong();
+        ScrapeCache cache = new ScrapeCache(now::get);
+        for (int i = 0; i < ScrapeCache.MAX_VARIANTS + 5; i++) {
+            cache.get("variant-" + i, 100, out -> out.write(1));
+        }
+        assertEquals(ScrapeCache.MAX_VARIANTS, cache.size());
+        assertArrayEquals(new byte[] {1}, cache.get("variant-0", 100, out -> out.write(2)));
+        assertArrayEquals(new byte[] {3}, cache.get("uncached", 100, out -> out.write(3)));
+        assertArrayEquals(new byte[] {4}, cache.get("uncached", 100, out -> out.write(4)));
+
+        now.set(100);
+        cache.get("text", 100, out -> out.write(5));
+        assertEquals(1, cache.size());
+    }
+
+    /**
+     * Verifies failed renderings propagate and are not cached.
+     * @throws IOException never for the second rendering
+     */
+    @Test
+    public void testFailureNotCached() throws IOException {
+        ScrapeCache cache = new ScrapeCache(() -> 0L);
+        assertThrows(IOException.class, () -> cache.get("text", 100, out -> {
+            throw new IOException("broken");
+        }));
+        assertArrayEquals(new byte[] {7}, cache.get("text", 100, out -> out.write(7)));
+        assertEquals(2, cache.getMisses());
+    }
+
+    /**
+     * Verifies concurrent requests for the same variant wait for a single rendering.
+     * @throws Exception on test thread failures
+     */
+    @Test
+    public void testConcurrentRequestsCoalesce() throws Exception {
+        ScrapeCache cache = new ScrapeCache(() -> 0L);
+        CountDownLatch rendering = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger renderings = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            Future<byte[]> first = executor.submit(() -> cache.get("text", 100, out -> {
+                renderings.incrementAndGet();
+                rendering.countDown();
+                awaitQuietly(release);
+                out.write(5);
+            }));
+            rendering.await(5, TimeUnit.SECONDS);
+            Future<byte[]> second = executor.submit(() -> cache.get("text", 100, out -> renderings.incrementAndGet()));
+            Future<byte[]> third = executor.submit(() -> cache.get("text", 100, out -> renderings.incrementAndGet()));
+            release.countDown();
+            assertArrayEquals(new byte[] {5}, first.get(5, TimeUnit.SECONDS));
+            assertArrayEquals(new byte[] {5}, second.get(5, TimeUnit.SECONDS));
+            assertArrayEquals(new byte[] {5}, third.get(5, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(1, renderings.get());
+        assertEquals(1, cache.getMisses());
+        assertEquals(2, cache.getHits());
+    }
+
+    /**
+     * Verifies the hit and miss counters are registered with a result tag.
+     * @throws IOException never
+     */
+    @Test
+    public void testBindTo() throws IOException {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        ScrapeCache cache = new ScrapeCache(() -> 0L);
+        cache.bindTo(registry);
+        cache.get("text", 100, out -> out.write(1));
+        cache.get("text", 100, out -> out.write(1));
+        assertEquals(1.0, registry.get(ScrapeCache.PROMETHEUS_SCRAPE_CACHE_REQUESTS).tag("result", "hit").functionCounter().count());
+        assertEquals(1.0, registry.get(ScrapeCache.PROMETHEUS_SCRAPE_CACHE_REQUESTS).tag("result", "miss").functionCounter().count());
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,93 @@
+/*-
+ * #%L
+ * IBM iX Magnolia Monitoring
+ * %%
+ * Copyright (C) 2023 - 2025 IBM iX
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package de.ibmix.magkit.monitoring.endpoint.prometheus;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.lang.management.ThreadMXBean;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for {@link ThreadResourceProbe} covering support detection, enabling of disabled measurements and
+ * degradation on JVMs without support.
+ * @author IBM iX
+ * @since 2026-10-17
+ */
+public class ThreadResourceProbeTest {
+
+    /**
+     * Verifies supported but disabled measurements are enabled and read from the bean.
+     */
+    @Test
+    public void testEnablesSupportedMeasurements() {
+        com.sun.management.ThreadMXBean bean = mock(com.sun.management.ThreadMXBean.class);
+        when(bean.isCurrentThreadCpuTimeSupported()).thenReturn(true);
+        when(bean.isThreadAllocatedMemorySupported()).thenReturn(true);
+        when(bean.getCurrentThreadCpuTime()).thenReturn(42L);
+        when(bean.getCurrentThreadAllocatedBytes()).thenReturn(1024L);
+        ThreadResourceProbe probe = new ThreadResourceProbe(bean);
+        verify(bean).setThreadCpuTimeEnabled(true);
+        verify(bean).setThreadAllocatedMemoryEnabled(true);
+        assertTrue(probe.isCpuTimeSupported());
+        assertTrue(probe.isAllocatedBytesSupported());
+        assertEquals(42L, probe.getCurrentThreadCpuTime());
+        assertEquals(1024L, probe.getCurrentThreadAllocatedBytes());
+    }
+
+    /**
+     * Verifies unsupported measurements and failures while enabling return UNSUPPORTED without reading the bean.
+     */
+    @Test
+    public void testUnsupportedMeasurements() {
+        ThreadMXBean plain = mock(ThreadMXBean.class);
+        when(plain.isCurrentThreadCpuTimeSupported()).thenReturn(true);
+        doThrow(new UnsupportedOperationException()).when(plain).setThreadCpuTimeEnabled(true);
+        ThreadResourceProbe probe = new ThreadResourceProbe(plain);
+        assertFalse(probe.isCpuTimeSupported());
+        assertFalse(probe.isAllocatedBytesSupported());
+        assertEquals(ThreadResourceProbe.UNSUPPORTED, probe.getCurrentThreadCpuTime());
+        assertEquals(ThreadResourceProbe.UNSUPPORTED, probe.getCurrentThreadAllocatedBytes());
+        verify(plain, never()).getCurrentThreadCpuTime();
+    }
+
+    /**
+     * Verifies the shared platform probe reports growing allocations for the current thread on this JVM.
+     */
+    @Test
+    public void testPlatformProbe() {
+        ThreadResourceProbe probe = ThreadResourceProbe.get();
+        if (probe.isAllocatedBytesSupported()) {
+            long before = probe.getCurrentThreadAllocatedBytes();
+            byte[][] garbage = new byte[16][];
+            for (int i = 0; i < garbage.length; i++) {
+                garbage[i] = new byte[4096];
+            }
+            assertTrue(probe.getCurrentThreadAllocatedBytes() - before >= 16 * 4096);
+        }
+    }
+}
@@ -0,0 +1,92 @@
+/*-
+ * #%L
+ * IBM iX Magnolia Monitoring
+ * %%
+ * Copyright (C) 2026 IBM iX
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package de.ibmix.magkit.monitoring.endpoint.prometheus;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for {@link UriTemplateNormalizer} covering variable and wildcard segments, precedence rules,
+ * backtracking and null handling.
+ * @author IBM iX
+ * @since 2026-10-17
+ */
+public class UriTemplateNormalizerTest {
+
+    private final UriTemplateNormalizer _normalizer = new UriTemplateNormalizer(List.of(
+        "/.rest/delivery/pages/{path}",
+        "/dam/{uuid}/{file}",
+        "/.resources/{module}/**",
+        "/dam/static/logo.png",
+        "/"
+    ));
+
+    /**
+     * Verifies variable segments match exactly one non-empty segment.
+     */
+    @Test
+    public void testVariableSegments() {
+        assertEquals("/dam/{uuid}/{file}", _normalizer.normalize("/dam/jcr:1234/logo.png"));
+        assertEquals("/.rest/delivery/pages/{path}", _normalizer.normalize("/.rest/delivery/pages/home"));
+        assertNull(_normalizer.normalize("/.rest/delivery/pages/home/sub"));
+        assertNull(_normalizer.normalize("/dam//logo.png"));
+    }
+
+    /**
+     * Verifies trailing wildcard matches zero or more remaining segments.
+     */
+    @Test
+    public void testWildcard() {
+        assertEquals("/.resources/{module}/**", _normalizer.normalize("/.resources/site"));
+        assertEquals("/.resources/{module}/**", _normalizer.normalize("/.resources/site/css/main.css"));
+        assertNull(_normalizer.normalize("/.resources"));
+    }
+
+    /**
+     * Verifies literal segments take precedence over variables and the root template is honored.
+     */
+    @Test
+    public void testLiteralPrecedenceAndRoot() {
+        assertEquals("/dam/static/logo.png", _normalizer.normalize("/dam/static/logo.png"));
+        assertEquals("/dam/{uuid}/{file}", _normalizer.normalize("/dam/static/other.png"));
+        assertEquals("/", _normalizer.normalize("/"));
+    }
+
+    /**
+     * Verifies fallback to the raw URI, template detection and empty configurations.
+     */
+    @Test
+    public void testFallbackAndTemplateDetection() {
+        assertEquals("/unknown", _normalizer.normalizeOrSelf("/unknown"));
+        assertTrue(_normalizer.isTemplate("/dam/{uuid}/{file}"));
+        assertFalse(_normalizer.isTemplate("/dam/a/b"));
+        assertFalse(_normalizer.isTemplate(null));
+        assertNull(_normalizer.normalize(null));
+        UriTemplateNormalizer empty = new UriTemplateNormalizer(null);
+        assertFalse(empty.hasTemplates());
+        assertEquals("/x", empty.normalizeOrSelf("/x"));
+    }
+}
@@ -0,0 +1,111 @@
+/*-
+ * #%L
+ * IBM iX Magnolia Monitoring
+ * %%
+ * Copyright (C) 2026 IBM iX
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package de.ibmix.magkit.monitoring.endpoint.prometheus;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for {@link UriWhitelistMatcher} covering literal and regex matching, full-match semantics,
+ * null handling and the bounded result cache.
+ * @author IBM iX
+ * @since 2026-10-17
+ */
+public class UriWhitelistMatcherTest {
+
+    /**
+     * Verifies literal and regex patterns are both honored with the same semantics as String.matches.
+     */
+    @Test
+    public void testLiteralAndRegexPatterns() {
+        UriWhitelistMatcher matcher = new UriWhitelistMatcher(List.of("/home", "/allowed/.*", "/.rest/custom"));
+        assertTrue(matcher.matches("/home"));
+        assertTrue(matcher.matches("/allowed/page.html"));
+        assertTrue(matcher.matches("/.rest/custom"));
+        assertFalse(matcher.matches("/home/sub"));
+        assertFalse(matcher.matches("/prefix/allowed/page"));
+        assertEquals("/allowed/x", matcher.map("/allowed/x"));
+        assertEquals("", matcher.map("/blocked/x"));
+    }
+
+    /**
+     * Verifies null and empty pattern lists never match and null URIs map to an empty tag value.
+     */
+    @Test
+    public void testNullHandling() {
+        assertFalse(new UriWhitelistMatcher(null).matches("/any"));
+        assertFalse(new UriWhitelistMatcher(List.of()).matches("/any"));
+        assertEquals("", new UriWhitelistMatcher(List.of(".*")).map(null));
+    }
+
+    /**
+     * Verifies memoized results stay correct when the cache overflows and is cleared.
+     */
+    @Test
+    public void testBoundedCache() {
+        UriWhitelistMatcher matcher = new UriWhitelistMatcher(List.of("/a/[0-9]+"), 2);
+        for (int i = 0; i < 10; i++) {
+            assertTrue(matcher.matches("/a/" + i));
+            assertFalse(matcher.matches("/b/" + i));
+        }
+        assertTrue(matcher.matches("/a/1"));
+    }
+
+    /**
+     * Verifies invalid regular expressions are skipped while valid ones still match.
+     */
+    @Test
+    public void testInvalidPatternIgnored() {
+        UriWhitelistMatcher matcher = new UriWhitelistMatcher(List.of("/broken/(", "/ok/.*"));
+        assertTrue(matcher.matches("/ok/page"));
+        assertFalse(matcher.matches("/broken/("));
+    }
+
+    /**
+     * Verifies backreferences and named groups keep their meaning next to other regex patterns.
+     */
+    @Test
+    public void testBackreferencesMatchedSeparately() {
+        UriWhitelistMatcher matcher = new UriWhitelistMatcher(List.of("/(a|b)/.*", "/(x+)/\\1", "/(?<id>[0-9]+)/\\k<id>", "/(?<id>[a-z]+)"));
+        assertTrue(matcher.matches("/xx/xx"));
+        assertFalse(matcher.matches("/xx/x"));
+        assertTrue(matcher.matches("/12/12"));
+        assertFalse(matcher.matches("/12/13"));
+        assertTrue(matcher.matches("/abc"));
+        assertTrue(matcher.matches("/a/page"));
+        assertTrue(UriWhitelistMatcher.isSelfReferencing("/(x)\\1"));
+        assertFalse(UriWhitelistMatcher.isSelfReferencing("/a\\\\1/(?:x)(?<=y)"));
+    }
+
+    /**
+     * Verifies the source pattern list is exposed for change detection.
+     */
+    @Test
+    public void testGetPatterns() {
+        List<String> patterns = List.of("/x");
+        assertSame(patterns, new UriWhitelistMatcher(patterns).getPatterns());
+    }
+}
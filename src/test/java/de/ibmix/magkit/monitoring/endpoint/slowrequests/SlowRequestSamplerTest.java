@@ -0,0 +1,173 @@
+/*-
+ * #%L
+ * IBM iX Magnolia Monitoring
+ * %%
+ * Copyright (C) 2023 - 2025 IBM iX
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package de.ibmix.magkit.monitoring.endpoint.slowrequests;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.lang.management.ThreadInfo;
+import java.lang.management.ThreadMXBean;
+import java.time.Duration;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import de.ibmix.magkit.monitoring.config.prometheus.PrometheusConfig;
+import de.ibmix.magkit.monitoring.config.prometheus.PrometheusConfigSnapshot;
+import de.ibmix.magkit.monitoring.config.prometheus.SlowRequestSamplerConfig;
+
+import io.micrometer.core.instrument.MockClock;
+
+/**
+ * Unit tests for {@link SlowRequestSampler} covering threshold selection, stack aggregation, the bounded retention of
+ * the slowest requests and the sampling thread lifecycle. Sampling ticks are triggered directly with a mocked
+ * {@link ThreadMXBean} and a {@link MockClock}.
+ * @author IBM iX
+ * @since 2026-10-17
+ */
+public class SlowRequestSamplerTest {
+
+    private static final StackTraceElement QUERY = new StackTraceElement("com.example.Dao", "query", "Dao.java", 42);
+    private static final StackTraceElement RENDER = new StackTraceElement("com.example.Page", "render", "Page.java", 7);
+
+    /**
+     * Verifies only requests past the threshold are sampled and identical stacks are counted per request.
+     */
+    @Test
+    public void testSlowRequestProfiled() {
+        MockClock clock = new MockClock();
+        ThreadMXBean threadBean = mock(ThreadMXBean.class);
+        ThreadInfo info = threadInfo(QUERY, RENDER);
+        when(threadBean.getThreadInfo(any(long[].class), eq(8))).thenReturn(new ThreadInfo[] {info});
+        SlowRequestSampler sampler = new SlowRequestSampler(threadBean, clock);
+        sampler.configure(snapshot(false, 100, 5));
+
+        SlowRequestSampler.InFlightRequest request = sampler.begin("GET", "/slow");
+        sampler.sample();
+        verify(threadBean, never()).getThreadInfo(any(long[].class), anyInt());
+        clock.add(Duration.ofMillis(150));
+        sampler.sample();
+        sampler.sample();
+        clock.add(Duration.ofMillis(50));
+        sampler.end(request, 200);
+
+        List<SlowRequestProfile> profiles = sampler.getSlowRequests();
+        assertEquals(1, profiles.size());
+        SlowRequestProfile profile = profiles.get(0);
+        assertEquals("/slow", profile.getUri());
+        assertEquals("GET", profile.getMethod());
+        assertEquals(200, profile.getStatus());
+        assertEquals(Thread.currentThread().getName(), profile.getThread());
+        assertEquals(200, profile.getDurationMillis());
+        assertEquals(2, profile.getSamples());
+        assertEquals(1, profile.getStacks().size());
+        assertEquals(2, profile.getStacks().get(0).getCount());
+        assertEquals(List.of(QUERY.toString(), RENDER.toString()), profile.getStacks().get(0).getFrames());
+    }
+
+    /**
+     * Verifies requests finishing below the threshold are not retained and unknown values are reported as such.
+     */
+    @Test
+    public void testFastRequestNotRetained() {
+        MockClock clock = new MockClock();
+        SlowRequestSampler sampler = new SlowRequestSampler(mock(ThreadMXBean.class), clock);
+        sampler.configure(snapshot(false, 100, 5));
+        SlowRequestSampler.InFlightRequest fast = sampler.begin("GET", "/fast");
+        clock.add(Duration.ofMillis(99));
+        sampler.end(fast, 200);
+        assertTrue(sampler.getSlowRequests().isEmpty());
+
+        SlowRequestSampler.InFlightRequest unknown = sampler.begin(null, null);
+        clock.add(Duration.ofMillis(100));
+        sampler.end(unknown, 0);
+        sampler.end(unknown, 0);
+        sampler.end(null, 0);
+        List<SlowRequestProfile> profiles = sampler.getSlowRequests();
+        assertEquals(1, profiles.size());
+        assertEquals("UNKNOWN", profiles.get(0).getUri());
+        assertTrue(profiles.get(0).getStacks().isEmpty());
+    }
+
+    /**
+     * Verifies the slowest requests are kept, ordered by duration, and profiles expire after the maximum age.
+     */
+    @Test
+    public void testRetentionBoundedBySlowestAndAge() {
+        MockClock clock = new MockClock();
+        SlowRequestSampler sampler = new SlowRequestSampler(mock(ThreadMXBean.class), clock);
+        sampler.configure(snapshot(false, 0, 2));
+        for (int millis : new int[] {30, 10, 50, 20}) {
+            SlowRequestSampler.InFlightRequest request = sampler.begin("GET", "/r" + millis);
+            clock.add(Duration.ofMillis(millis));
+            sampler.end(request, 200);
+        }
+        List<SlowRequestProfile> profiles = sampler.getSlowRequests();
+        assertEquals(2, profiles.size());
+        assertEquals("/r50", profiles.get(0).getUri());
+        assertEquals("/r30", profiles.get(1).getUri());
+
+        sampler.configure(snapshot(false, 0, 1));
+        assertEquals(1, sampler.getSlowRequests().size());
+        clock.add(Duration.ofMillis(SlowRequestSampler.MAX_AGE_MILLIS + 1));
+        assertTrue(sampler.getSlowRequests().isEmpty());
+    }
+
+    /**
+     * Verifies the sampling thread is only scheduled while sampling is enabled and is stopped by shutdown.
+     */
+    @Test
+    public void testSamplingLifecycle() {
+        SlowRequestSampler sampler = new SlowRequestSampler();
+        assertFalse(sampler.isSampling());
+        sampler.configure(snapshot(true, 1000, 5));
+        assertTrue(sampler.isSampling());
+        sampler.configure(snapshot(false, 1000, 5));
+        assertFalse(sampler.isSampling());
+        sampler.configure(snapshot(true, 1000, 5));
+        sampler.shutdown();
+        assertFalse(sampler.isSampling());
+    }
+
+    private static PrometheusConfigSnapshot snapshot(boolean enabled, int thresholdMillis, int retained) {
+        SlowRequestSamplerConfig samplerConfig = new SlowRequestSamplerConfig();
+        samplerConfig.setEnabled(enabled);
+        samplerConfig.setThresholdMillis(thresholdMillis);
+        samplerConfig.setRetained(retained);
+        samplerConfig.setMaxDepth(8);
+        PrometheusConfig config = new PrometheusConfig();
+        config.setSlowRequestSamplerConfig(samplerConfig);
+        return PrometheusConfigSnapshot.of(config);
+    }
+
+    private static ThreadInfo threadInfo(StackTraceElement... frames) {
+        ThreadInfo info = mock(ThreadInfo.class);
+        when(info.getStackTrace()).thenReturn(frames);
+        return info;
+    }
+}
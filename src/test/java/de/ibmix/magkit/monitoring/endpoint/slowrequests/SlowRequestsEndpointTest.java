@@ -0,0 +1,57 @@
+/*-
+ * #%L
+ * IBM iX Magnolia Monitoring
+ * %%
+ * Copyright (C) 2023 - 2025 IBM iX
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package de.ibmix.magkit.monitoring.endpoint.slowrequests;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import de.ibmix.magkit.monitoring.MonitoringModule;
+import de.ibmix.magkit.monitoring.endpoint.MonitoringEndpointDefinition;
+
+/**
+ * Unit tests for {@link SlowRequestsEndpoint} verifying delegation to the module's {@link SlowRequestSampler}.
+ * @author IBM iX
+ * @since 2026-10-17
+ */
+public class SlowRequestsEndpointTest {
+
+    /**
+     * Verifies the endpoint returns the sampler's retained profiles and an empty list when nothing was slow.
+     */
+    @Test
+    public void testGetSlowRequests() {
+        SlowRequestSampler sampler = mock(SlowRequestSampler.class);
+        MonitoringModule module = mock(MonitoringModule.class);
+        when(module.getSlowRequestSampler()).thenReturn(sampler);
+        SlowRequestsEndpoint endpoint = new SlowRequestsEndpoint(mock(MonitoringEndpointDefinition.class), module);
+        when(sampler.getSlowRequests()).thenReturn(List.of());
+        assertTrue(endpoint.getSlowRequests().isEmpty());
+
+        SlowRequestProfile profile = new SlowRequestProfile("/slow", "GET", 200, "worker-1", 0L, 1500L, 3, List.of());
+        when(sampler.getSlowRequests()).thenReturn(List.of(profile));
+        assertEquals(List.of(profile), endpoint.getSlowRequests());
+    }
+}
@@ -0,0 +1,259 @@
+/*-
+ * #%L
+ * IBM iX Magnolia Monitoring
+ * %%
+ * Copyright (C) 2023 - 2025 IBM iX
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package de.ibmix.magkit.monitoring.export;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.SocketTimeoutException;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MockClock;
+import io.micrometer.prometheusmetrics.PrometheusConfig;
+import io.micrometer.prometheusmetrics.PrometheusMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import de.ibmix.magkit.monitoring.config.prometheus.LineProtocolConfig;
+import de.ibmix.magkit.monitoring.config.prometheus.PrometheusConfigSnapshot;
+
+/**
+ * Unit tests for {@link LineProtocolExporter} receiving datagrams on a local UDP socket: Influx and StatsD rendering,
+ * packing of lines into packets and handling of oversized lines, plus a TCP receiver that stops reading and a TCP
+ * host that never answers.
+ * @author IBM iX
+ * @since 2026-10-17
+ */
+public class LineProtocolExporterTest {
+
+    private DatagramSocket _socket;
+    private final PrometheusMeterRegistry _registry = new PrometheusMeterRegistry(PrometheusConfig.DEFAULT);
+    private final MockClock _clock = new MockClock();
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        _socket = new DatagramSocket(0, InetAddress.getLoopbackAddress());
+        _socket.setSoTimeout(2000);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        _socket.close();
+    }
+
+    /**
+     * Verifies Influx lines carry escaped tags, the value field and a nanosecond timestamp.
+     */
+    @Test
+    public void testInfluxLines() throws IOException {
+        _registry.counter("orders", "shop", "a b,c").increment(3);
+        LineProtocolExporter exporter = exporter("influx", 1432);
+        exporter.exportNow();
+        String payload = receiveAll();
+        assertTrue(payload.contains("orders,shop=a\\ b\\,c value=3.0 1000000\n"), payload);
+        assertEquals(0, exporter.getDropped());
+        assertTrue(exporter.getSent() > 0);
+    }
+
+    /**
+     * Verifies StatsD counters report the increase since the previous export and gauges keep their value.
+     */
+    @Test
+    public void testStatsdDeltas() throws IOException {
+        Counter counter = _registry.counter("orders", "shop", "a");
+        counter.increment(3);
+        _registry.gauge("temperature", -4);
+        LineProtocolExporter exporter = exporter("statsd", 1432);
+        exporter.exportNow();
+        String first = receiveAll();
+        assertTrue(first.contains("orders:3.0|c|#shop:a\n"), first);
+        assertTrue(first.contains("temperature:0|g\ntemperature:-4.0|g\n"), first);
+
+        counter.increment(2);
+        exporter.exportNow();
+        String second = receiveAll();
+        assertTrue(second.contains("orders:2.0|c|#shop:a\n"), second);
+
+        exporter.exportNow();
+        assertFalse(receiveAll().contains("orders:"));
+    }
+
+    /**
+     * Verifies lines are packed into datagrams no larger than the packet size and never split.
+     */
+    @Test
+    public void testPacksDatagramsUpToPacketSize() throws IOException {
+        for (int i = 0; i < 40; i++) {
+            _registry.counter("events", "type", "type-" + i).increment();
+        }
+        LineProtocolExporter exporter = exporter("influx", 256);
+        exporter.exportNow();
+        List<String> datagrams = receiveDatagrams();
+        assertTrue(datagrams.size() > 1);
+        int lines = 0;
+        for (String datagram : datagrams) {
+            assertTrue(datagram.getBytes(StandardCharsets.UTF_8).length <= 256);
+            assertTrue(datagram.endsWith("\n"));
+            for (String line : datagram.split("\n")) {
+                assertTrue(line.matches("[a-z_]+(,.*)? .+ 1000000"), line);
+                lines++;
+            }
+        }
+        assertEquals(exporter.getSent(), lines);
+    }
+
+    /**
+     * Verifies lines that do not fit into a packet are dropped and counted.
+     */
+    @Test
+    public void testOversizedLineDropped() throws IOException {
+        _registry.counter("orders", "note", "x".repeat(100)).increment();
+        _registry.counter("small").increment();
+        LineProtocolExporter exporter = exporter("influx", 64);
+        exporter.exportNow();
+        String payload = receiveAll();
+        assertTrue(payload.contains("small value=1.0"));
+        assertFalse(payload.contains("orders"));
+        assertEquals(1, exporter.getDropped());
+        assertEquals(1.0, _registry.get(LineProtocolExporter.LINE_PROTOCOL_LINES).tag("result", "dropped").functionCounter().count());
+    }
+
+    /**
+     * Verifies a TCP receiver that does not read makes the exporter drop packets instead of blocking exports and
+     * shutdown.
+     */
+    @Test
+    public void testStalledTcpReceiverDoesNotBlock() throws IOException {
+        for (int i = 0; i < 200; i++) {
+            _registry.counter("events", "type", "type-" + i).increment();
+        }
+        try (ServerSocket server = new ServerSocket()) {
+            server.setReceiveBufferSize(4096);
+            server.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+            LineProtocolExporter exporter = exporter("influx", 1432, "tcp", InetAddress.getLoopbackAddress().getHostAddress(), server.getLocalPort());
+            assertTimeoutPreemptively(Duration.ofSeconds(20), () -> {
+                while (exporter.getSent() == 0) {
+                    exporter.exportNow();
+                }
+                long dropped = exporter.getDropped();
+                while (exporter.getDropped() == dropped) {
+                    exporter.exportNow();
+                }
+                exporter.shutdown();
+            });
+            assertTrue(exporter.getSent() > 0);
+            assertFalse(exporter.isExporting());
+        }
+    }
+
+    /**
+     * Verifies a TCP host that never answers neither blocks an export nor shutdown: the packets of an export are dropped
+     * while the connection is pending, and a connect that does not complete in time is abandoned. The host is simulated
+     * by a listener with a full accept backlog, which silently ignores further connection attempts.
+     * @throws IOException if the listener cannot be opened
+     */
+    @Test
+    public void testUnansweredTcpConnectDoesNotBlock() throws IOException {
+        for (int i = 0; i < 200; i++) {
+            _registry.counter("events", "type", "type-" + i).increment();
+        }
+        List<SocketChannel> backlog = new ArrayList<>();
+        try (ServerSocket server = new ServerSocket(0, 1, InetAddress.getLoopbackAddress())) {
+            for (int i = 0; i < 4; i++) {
+                SocketChannel channel = SocketChannel.open();
+                backlog.add(channel);
+                channel.configureBlocking(false);
+                channel.connect(server.getLocalSocketAddress());
+            }
+            LineProtocolExporter exporter = exporter("influx", 256, "tcp", InetAddress.getLoopbackAddress().getHostAddress(), server.getLocalPort());
+            assertTimeoutPreemptively(Duration.ofSeconds(5), () -> {
+                exporter.exportNow();
+                assertEquals(0, exporter.getSent());
+                long dropped = exporter.getDropped();
+                assertTrue(dropped >= 200);
+
+                _clock.add(Duration.ofSeconds(11));
+                exporter.exportNow();
+                exporter.exportNow();
+                assertEquals(0, exporter.getSent());
+                assertEquals(3 * dropped, exporter.getDropped());
+                exporter.shutdown();
+            });
+            assertFalse(exporter.isExporting());
+        } finally {
+            for (SocketChannel channel : backlog) {
+                channel.close();
+            }
+        }
+    }
+
+    private LineProtocolExporter exporter(String format, int packetSize) {
+        return exporter(format, packetSize, "udp", InetAddress.getLoopbackAddress().getHostAddress(), _socket.getLocalPort());
+    }
+
+    private LineProtocolExporter exporter(String format, int packetSize, String protocol, String host, int port) {
+        LineProtocolConfig lineConfig = new LineProtocolConfig();
+        lineConfig.setHost(host);
+        lineConfig.setPort(port);
+        lineConfig.setProtocol(protocol);
+        lineConfig.setFormat(format);
+        lineConfig.setIntervalMillis(60000);
+        lineConfig.setPacketSize(packetSize);
+        de.ibmix.magkit.monitoring.config.prometheus.PrometheusConfig config = new de.ibmix.magkit.monitoring.config.prometheus.PrometheusConfig();
+        config.setLineProtocolConfig(lineConfig);
+        LineProtocolExporter exporter = new LineProtocolExporter(() -> _registry, _clock);
+        exporter.configure(PrometheusConfigSnapshot.of(config));
+        return exporter;
+    }
+
+    private String receiveAll() throws IOException {
+        return String.join("", receiveDatagrams());
+    }
+
+    private List<String> receiveDatagrams() throws IOException {
+        List<String> datagrams = new ArrayList<>();
+        byte[] buffer = new byte[65536];
+        try {
+            while (true) {
+                DatagramPacket packet = new DatagramPacket(buffer, buffer.length);
+                _socket.receive(packet);
+                datagrams.add(new String(packet.getData(), 0, packet.getLength(), StandardCharsets.UTF_8));
+                _socket.setSoTimeout(200);
+            }
+        } catch (SocketTimeoutException e) {
+            _socket.setSoTimeout(2000);
+        }
+        return datagrams;
+    }
+}
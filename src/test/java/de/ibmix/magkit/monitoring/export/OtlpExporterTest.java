@@ -0,0 +1,180 @@
+/*-
+ * #%L
+ * IBM iX Magnolia Monitoring
+ * %%
+ * Copyright (C) 2023 - 2025 IBM iX
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package de.ibmix.magkit.monitoring.export;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.MockClock;
+import io.micrometer.prometheusmetrics.PrometheusConfig;
+import io.micrometer.prometheusmetrics.PrometheusMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import de.ibmix.magkit.monitoring.config.prometheus.OtlpConfig;
+import de.ibmix.magkit.monitoring.config.prometheus.PrometheusConfigSnapshot;
+
+/**
+ * Unit tests for {@link OtlpExporter} against a local OTLP receiver stub: request format, bounded queue with drop
+ * accounting, rejected requests and the flush on shutdown.
+ * @author IBM iX
+ * @since 2026-10-17
+ */
+public class OtlpExporterTest {
+
+    private HttpServer _server;
+    private final List<Received> _received = new CopyOnWriteArrayList<>();
+    private final Queue<Integer> _statuses = new ConcurrentLinkedQueue<>();
+    private final PrometheusMeterRegistry _registry = new PrometheusMeterRegistry(PrometheusConfig.DEFAULT);
+    private final MockClock _clock = new MockClock();
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        _server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        _server.createContext("/v1/metrics", exchange -> {
+            byte[] body = exchange.getRequestBody().readAllBytes();
+            _received.add(new Received(exchange.getRequestMethod(), exchange.getRequestHeaders().getFirst("Content-Type"),
+                exchange.getRequestHeaders().getFirst("X-Tenant"), new String(body, StandardCharsets.UTF_8)));
+            Integer status = _statuses.poll();
+            exchange.sendResponseHeaders(status != null ? status : 200, -1);
+            exchange.close();
+        });
+        _server.start();
+        _registry.counter("orders").increment(2);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        _server.stop(0);
+    }
+
+    /**
+     * Verifies the registry is POSTed as OTLP JSON with the configured headers and the export counters are bound.
+     */
+    @Test
+    public void testExportsJson() {
+        OtlpExporter exporter = exporter(10, "cumulative");
+        exporter.exportNow();
+        assertEquals(1, _received.size());
+        Received received = _received.get(0);
+        assertEquals("POST", received._method);
+        assertEquals("application/json", received._contentType);
+        assertEquals("shop", received._tenant);
+        assertTrue(received._body.contains("\"name\":\"orders\""));
+        assertTrue(received._body.contains("\"aggregationTemporality\":2"));
+        assertEquals(1, exporter.getSucceeded());
+        assertEquals(1.0, _registry.get(OtlpExporter.OTLP_EXPORT_REQUESTS).tag("result", "success").functionCounter().count());
+    }
+
+    /**
+     * Verifies a slow or failing collector keeps requests queued up to the limit and the oldest are dropped and counted.
+     */
+    @Test
+    public void testBoundedQueueDropsOldest() {
+        OtlpExporter exporter = exporter(2, "delta");
+        _statuses.add(503);
+        exporter.exportNow();
+        assertEquals(1, exporter.getQueued());
+        assertEquals(1, exporter.getFailed());
+
+        _statuses.add(503);
+        exporter.exportNow();
+        _statuses.add(503);
+        exporter.exportNow();
+        assertEquals(2, exporter.getQueued());
+        assertTrue(exporter.getDroppedPoints() > 0);
+        assertEquals((double) exporter.getDroppedPoints(), _registry.get(OtlpExporter.OTLP_EXPORT_DROPPED_POINTS).functionCounter().count());
+
+        _registry.counter("orders").increment();
+        exporter.exportNow();
+        assertEquals(0, exporter.getQueued());
+        String last = _received.get(_received.size() - 1)._body;
+        assertTrue(last.contains("\"name\":\"orders\""));
+        assertTrue(last.contains("\"aggregationTemporality\":1"));
+    }
+
+    /**
+     * Verifies requests rejected with a client error are dropped instead of retried.
+     */
+    @Test
+    public void testRejectedRequestDropped() {
+        OtlpExporter exporter = exporter(10, "cumulative");
+        _statuses.add(400);
+        exporter.exportNow();
+        assertEquals(0, exporter.getQueued());
+        assertTrue(exporter.getDroppedPoints() > 0);
+        assertEquals(0, exporter.getSucceeded());
+    }
+
+    /**
+     * Verifies shutdown stops the export thread after a final export.
+     */
+    @Test
+    public void testShutdownFlushes() {
+        OtlpExporter exporter = exporter(10, "cumulative");
+        assertTrue(exporter.isExporting());
+        exporter.shutdown();
+        assertFalse(exporter.isExporting());
+        assertEquals(1, _received.size());
+    }
+
+    private OtlpExporter exporter(int queueSize, String temporality) {
+        OtlpConfig otlpConfig = new OtlpConfig();
+        otlpConfig.setUrl("http://127.0.0.1:" + _server.getAddress().getPort() + "/v1/metrics");
+        otlpConfig.setTemporality(temporality);
+        otlpConfig.setIntervalMillis(60000);
+        otlpConfig.setQueueSize(queueSize);
+        otlpConfig.setHeaders(List.of("X-Tenant=shop"));
+        de.ibmix.magkit.monitoring.config.prometheus.PrometheusConfig config = new de.ibmix.magkit.monitoring.config.prometheus.PrometheusConfig();
+        config.setOtlpConfig(otlpConfig);
+        OtlpExporter exporter = new OtlpExporter(() -> _registry, _clock);
+        exporter.configure(PrometheusConfigSnapshot.of(config));
+        return exporter;
+    }
+
+    /**
+     * Request captured by the stub receiver.
+     */
+    private static final class Received {
+
+        private final String _method;
+        private final String _contentType;
+        private final String _tenant;
+        private final String _body;
+
+        private Received(String method, String contentType, String tenant, String body) {
+            _method = method;
+            _contentType = contentType;
+            _tenant = tenant;
+            _body = body;
+        }
+    }
+}
@@ -0,0 +1,116 @@
+/*-
+ * #%L
+ * IBM iX Magnolia Monitoring
+ * %%
+ * Copyright (C) 2023 - 2025 IBM iX
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package de.ibmix.magkit.monitoring.export;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.prometheusmetrics.PrometheusConfig;
+import io.micrometer.prometheusmetrics.PrometheusMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Unit tests for {@link OtlpMetricsEncoder} covering the metric type mapping, batching and delta temporality.
+ * @author IBM iX
+ * @since 2026-10-17
+ */
+public class OtlpMetricsEncoderTest {
+
+    private final PrometheusMeterRegistry _registry = new PrometheusMeterRegistry(PrometheusConfig.DEFAULT);
+
+    /**
+     * Verifies counters become monotonic sums, gauges become gauges and histograms carry per-bucket counts.
+     */
+    @Test
+    public void testTypeMapping() {
+        _registry.counter("orders", "shop", "a\"b").increment(3);
+        _registry.gauge("queue.depth", 7);
+        _registry.gauge("broken", Double.NaN);
+        DistributionSummary summary = DistributionSummary.builder("payload").serviceLevelObjectives(10, 100).register(_registry);
+        summary.record(5);
+        summary.record(50);
+        summary.record(50);
+
+        String json = encodeSingle(new OtlpMetricsEncoder("shop", false, 1_000_000L));
+        assertTrue(json.startsWith("{\"resourceMetrics\":[{\"resource\":{\"attributes\":[{\"key\":\"service.name\",\"value\":{\"stringValue\":\"shop\"}}]}"));
+        assertTrue(json.contains("\"name\":\"orders\""));
+        assertTrue(json.contains("\"sum\":{\"aggregationTemporality\":2,\"isMonotonic\":true,\"dataPoints\":[{\"attributes\":[{\"key\":\"shop\",\"value\":{\"stringValue\":\"a\\\"b\"}}]"));
+        assertTrue(json.contains("\"asDouble\":3.0"));
+        assertTrue(json.contains("\"name\":\"queue_depth\""));
+        assertTrue(json.contains("\"gauge\":{\"dataPoints\":[{\"attributes\":[],\"timeUnixNano\":\"2000000\",\"asDouble\":7.0}]}"));
+        assertFalse(json.contains("\"name\":\"broken\""));
+        assertTrue(json.contains("\"count\":\"3\",\"sum\":105.0,\"bucketCounts\":[\"1\",\"2\",\"0\"],\"explicitBounds\":[10.0,100.0]"));
+    }
+
+    /**
+     * Verifies data points are split into requests of at most the batch size.
+     */
+    @Test
+    public void testBatching() {
+        for (int i = 0; i < 5; i++) {
+            _registry.counter("events", "type", "t" + i).increment();
+        }
+        List<OtlpMetricsEncoder.Batch> batches = new OtlpMetricsEncoder("magnolia", false, 0).encode(_registry.getPrometheusRegistry().scrape(), 1, 2);
+        assertEquals(3, batches.size());
+        assertEquals(2, batches.get(0).getPoints());
+        assertEquals(2, batches.get(1).getPoints());
+        assertEquals(1, batches.get(2).getPoints());
+        String last = new String(batches.get(2).getBody(), StandardCharsets.UTF_8);
+        assertTrue(last.contains("\"stringValue\":\"t4\""));
+        assertTrue(last.endsWith("]}}]}]}]}"));
+    }
+
+    /**
+     * Verifies delta temporality reports the increase since the previous export and restarts after a counter reset.
+     */
+    @Test
+    public void testDeltaTemporality() {
+        Counter counter = _registry.counter("orders");
+        counter.increment(3);
+        OtlpMetricsEncoder encoder = new OtlpMetricsEncoder("magnolia", true, 1000);
+        String first = encode(encoder, 2000);
+        assertTrue(first.contains("\"aggregationTemporality\":1"));
+        assertTrue(first.contains("\"asDouble\":3.0"));
+
+        counter.increment(2);
+        String second = encode(encoder, 3000);
+        assertTrue(second.contains("\"startTimeUnixNano\":\"2000\",\"timeUnixNano\":\"3000\",\"asDouble\":2.0"));
+
+        _registry.remove(counter);
+        _registry.counter("orders").increment();
+        assertTrue(encode(encoder, 4000).contains("\"asDouble\":1.0"));
+    }
+
+    private String encodeSingle(OtlpMetricsEncoder encoder) {
+        List<OtlpMetricsEncoder.Batch> batches = encoder.encode(_registry.getPrometheusRegistry().scrape(), 2_000_000L, 1000);
+        assertEquals(1, batches.size());
+        return new String(batches.get(0).getBody(), StandardCharsets.UTF_8);
+    }
+
+    private String encode(OtlpMetricsEncoder encoder, long now) {
+        return new String(encoder.encode(_registry.getPrometheusRegistry().scrape(), now, 1000).get(0).getBody(), StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,199 @@
+/*-
+ * #%L
+ * IBM iX Magnolia Monitoring
+ * %%
+ * Copyright (C) 2023 - 2025 IBM iX
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package de.ibmix.magkit.monitoring.export;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.zip.GZIPInputStream;
+
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.MockClock;
+import io.micrometer.prometheusmetrics.PrometheusConfig;
+import io.micrometer.prometheusmetrics.PrometheusMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import de.ibmix.magkit.monitoring.config.prometheus.PrometheusConfigSnapshot;
+import de.ibmix.magkit.monitoring.config.prometheus.PushgatewayConfig;
+
+/**
+ * Unit tests for {@link PushgatewayExporter} against a local HTTP stub: request format, retry of the newest push with backoff,
+ * rejected pushes and the flush on shutdown.
+ * @author IBM iX
+ * @since 2026-10-17
+ */
+public class PushgatewayExporterTest {
+
+    private HttpServer _server;
+    private final List<Received> _received = new CopyOnWriteArrayList<>();
+    private final Queue<Integer> _statuses = new ConcurrentLinkedQueue<>();
+    private final PrometheusMeterRegistry _registry = new PrometheusMeterRegistry(PrometheusConfig.DEFAULT);
+    private final MockClock _clock = new MockClock();
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        _server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        _server.createContext("/", exchange -> {
+            byte[] body = exchange.getRequestBody().readAllBytes();
+            if ("gzip".equals(exchange.getRequestHeaders().getFirst("Content-Encoding"))) {
+                try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(body))) {
+                    body = in.readAllBytes();
+                }
+            }
+            _received.add(new Received(exchange.getRequestMethod(), exchange.getRequestURI().getPath(), new String(body, StandardCharsets.UTF_8)));
+            Integer status = _statuses.poll();
+            exchange.sendResponseHeaders(status != null ? status : 200, -1);
+            exchange.close();
+        });
+        _server.start();
+        _registry.counter("orders").increment(2);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        _server.stop(0);
+    }
+
+    /**
+     * Verifies the registry is sent gzip compressed with PUT to the grouping key path.
+     */
+    @Test
+    public void testPushesExposition() {
+        PushgatewayExporter exporter = exporter(true);
+        exporter.exportNow();
+        assertEquals(1, _received.size());
+        Received received = _received.get(0);
+        assertEquals("PUT", received._method);
+        assertEquals("/metrics/job/magnolia/instance/node-1", received._path);
+        assertTrue(received._body.contains("orders_total 2.0"));
+        assertEquals(1, exporter.getSucceeded());
+        assertEquals(1.0, _registry.get(PushgatewayExporter.PROMETHEUS_PUSH_REQUESTS).tag("result", "success").functionCounter().count());
+    }
+
+    /**
+     * Verifies a failed push is not retried while backing off and only the newest rendering is sent afterwards, with
+     * superseded renderings counted as dropped.
+     */
+    @Test
+    public void testRetryNewestWithBackoff() {
+        PushgatewayExporter exporter = exporter(false);
+        _statuses.add(503);
+        exporter.exportNow();
+        assertEquals(1, _received.size());
+        assertEquals(1, exporter.getFailed());
+        assertTrue(exporter.hasPending());
+
+        _clock.add(Duration.ofSeconds(30));
+        _registry.counter("orders").increment();
+        exporter.exportNow();
+        assertEquals(1, _received.size());
+        _registry.counter("orders").increment();
+        exporter.exportNow();
+        assertTrue(exporter.hasPending());
+        assertEquals(2, exporter.getDropped());
+
+        _clock.add(Duration.ofSeconds(120));
+        exporter.exportNow();
+        assertEquals(2, _received.size());
+        assertTrue(_received.get(1)._body.contains("orders_total 4.0"));
+        assertFalse(exporter.hasPending());
+        assertEquals(3, exporter.getDropped());
+        assertEquals(1, exporter.getSucceeded());
+    }
+
+    /**
+     * Verifies pushes rejected with a client error are dropped instead of retried.
+     */
+    @Test
+    public void testRejectedPushDropped() {
+        PushgatewayExporter exporter = exporter(false);
+        _statuses.add(400);
+        exporter.exportNow();
+        assertFalse(exporter.hasPending());
+        assertEquals(1, exporter.getDropped());
+        exporter.exportNow();
+        assertEquals(2, _received.size());
+        assertEquals(1, exporter.getSucceeded());
+    }
+
+    /**
+     * Verifies shutdown stops the push thread after a final push.
+     */
+    @Test
+    public void testShutdownFlushes() {
+        PushgatewayExporter exporter = exporter(false);
+        assertTrue(exporter.isExporting());
+        exporter.shutdown();
+        assertFalse(exporter.isExporting());
+        assertEquals(1, _received.size());
+        exporter.shutdown();
+        assertEquals(1, _received.size());
+    }
+
+    /**
+     * Verifies grouping label values that are not URL safe are base64url encoded.
+     */
+    @Test
+    public void testGroupingPath() {
+        assertEquals("/metrics/job/magnolia/instance/host.example.com", PushgatewayExporter.groupingPath("magnolia", "host.example.com"));
+        assertEquals("/metrics/job@base64/YS9i/instance/x", PushgatewayExporter.groupingPath("a/b", "x"));
+    }
+
+    private PushgatewayExporter exporter(boolean gzip) {
+        PushgatewayConfig pushConfig = new PushgatewayConfig();
+        pushConfig.setUrl("http://127.0.0.1:" + _server.getAddress().getPort() + "/");
+        pushConfig.setInstance("node-1");
+        pushConfig.setIntervalMillis(60000);
+        pushConfig.setGzip(gzip);
+        de.ibmix.magkit.monitoring.config.prometheus.PrometheusConfig config = new de.ibmix.magkit.monitoring.config.prometheus.PrometheusConfig();
+        config.setPushgatewayConfig(pushConfig);
+        PushgatewayExporter exporter = new PushgatewayExporter(() -> _registry, _clock);
+        exporter.configure(PrometheusConfigSnapshot.of(config));
+        return exporter;
+    }
+
+    /**
+     * Request captured by the stub gateway.
+     */
+    private static final class Received {
+
+        private final String _method;
+        private final String _path;
+        private final String _body;
+
+        private Received(String method, String path, String body) {
+            _method = method;
+            _path = path;
+            _body = body;
+        }
+    }
+}